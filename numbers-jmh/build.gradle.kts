@@ -0,0 +1,30 @@
+plugins {
+    id("java")
+}
+
+java {
+    toolchain {
+        languageVersion.set(JavaLanguageVersion.of(17))
+    }
+}
+
+dependencies {
+    implementation(project(":numbers"))
+    implementation(libs.jmh.core)
+    annotationProcessor(libs.jmh.generator.annprocess)
+}
+
+// Runs all benchmarks with the GC profiler enabled, so that allocation regressions show up next to
+// throughput ones. Pass custom JMH arguments with e.g. `./gradlew jmh -PjmhArgs="Tokenizer -f 1"`.
+tasks.register<JavaExec>("jmh") {
+    group = "benchmark"
+    description = "Runs the JMH benchmarks of the numbers module"
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+    val jmhArgs = project.findProperty("jmhArgs")?.toString()
+    if (jmhArgs.isNullOrBlank()) {
+        args("-prof", "gc")
+    } else {
+        args(jmhArgs.split(" ").filter { it.isNotEmpty() })
+    }
+}
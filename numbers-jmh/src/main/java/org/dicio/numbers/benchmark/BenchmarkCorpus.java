@@ -0,0 +1,68 @@
+package org.dicio.numbers.benchmark;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Loads the utterance corpora used by the benchmarks. Corpora are stored as resources in
+ * {@code corpus/LANGUAGE_COUNTRY/LENGTH.txt}, one utterance per line, with lines starting with
+ * {@code #} being comments.
+ */
+public final class BenchmarkCorpus {
+    public static final String SHORT = "short";
+    public static final String MEDIUM = "medium";
+    public static final String LONG = "long";
+
+    private BenchmarkCorpus() {
+    }
+
+    /**
+     * @param language the language folder name, e.g. "en-us"
+     * @return the locale to pass to {@link org.dicio.numbers.ParserFormatter}
+     */
+    public static Locale locale(final String language) {
+        return Locale.forLanguageTag(language);
+    }
+
+    /**
+     * @param language the language folder name, e.g. "en-us"
+     * @return the config folder to pass to e.g. {@link org.dicio.numbers.parser.lexer.Tokenizer}
+     */
+    public static String configFolder(final String language) {
+        return "config/" + language;
+    }
+
+    /**
+     * @param language the language folder name, e.g. "en-us"
+     * @param length one of {@link #SHORT}, {@link #MEDIUM} or {@link #LONG}
+     * @return the non-empty, non-comment lines of the corresponding corpus
+     */
+    public static List<String> read(final String language, final String length) {
+        final String path = "/corpus/" + language + "/" + length + ".txt";
+        final InputStream inputStream = BenchmarkCorpus.class.getResourceAsStream(path);
+        if (inputStream == null) {
+            throw new IllegalArgumentException("Missing corpus " + path);
+        }
+
+        final List<String> utterances = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank() && !line.startsWith("#")) {
+                    utterances.add(line);
+                }
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return utterances;
+    }
+}
@@ -0,0 +1,164 @@
+package org.dicio.numbers.benchmark;
+
+import org.dicio.numbers.ParserFormatter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Each invocation runs the extraction on the whole corpus, so the score is in corpora per second.
+ * The parser is created once in {@link #setup()}, so its construction time is not measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExtractBenchmark {
+    // fixed, so that relative dates do not depend on when the benchmark is run
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 5, 17, 10, 30, 0);
+
+    @Param({"en-us", "it-it"})
+    public String language;
+
+    @Param({BenchmarkCorpus.SHORT, BenchmarkCorpus.MEDIUM, BenchmarkCorpus.LONG})
+    public String length;
+
+    private ParserFormatter pf;
+    private List<String> utterances;
+    // the whole corpus as a single long utterance, like a transcript
+    private String document;
+
+    @Setup
+    public void setup() {
+        pf = new ParserFormatter(BenchmarkCorpus.locale(language));
+        utterances = BenchmarkCorpus.read(language, length);
+        document = String.join(". ", utterances);
+    }
+
+
+    @Benchmark
+    public void numberFirst(final Blackhole blackhole) {
+        for (final String utterance : utterances) {
+            blackhole.consume(pf.extractNumber(utterance).parseFirst());
+        }
+    }
+
+    @Benchmark
+    public void numberMixedWithText(final Blackhole blackhole) {
+        for (final String utterance : utterances) {
+            blackhole.consume(pf.extractNumber(utterance).parseMixedWithText());
+        }
+    }
+
+    @Benchmark
+    public void numberMixedWithTextExact(final Blackhole blackhole) {
+        for (final String utterance : utterances) {
+            blackhole.consume(pf.extractNumber(utterance).exact(true).parseMixedWithText());
+        }
+    }
+
+    @Benchmark
+    public void numberBatch(final Blackhole blackhole) {
+        blackhole.consume(pf.extractNumbers(utterances).parse());
+    }
+
+    @Benchmark
+    public void numberBatchParallel(final Blackhole blackhole) {
+        blackhole.consume(pf.extractNumbers(utterances).parallel(ForkJoinPool.commonPool()).parse());
+    }
+
+    @Benchmark
+    public void numberDocumentMixedWithText(final Blackhole blackhole) {
+        blackhole.consume(pf.extractNumber(document).parseMixedWithText());
+    }
+
+    @Benchmark
+    public void numberDocumentMixedWithTextParallel(final Blackhole blackhole) {
+        blackhole.consume(pf.extractNumber(document).parseMixedWithText(ForkJoinPool.commonPool()));
+    }
+
+    @Benchmark
+    public void dateTimeDocumentMixedWithTextParallel(final Blackhole blackhole) {
+        blackhole.consume(pf.extractDateTime(document).now(NOW)
+                .parseMixedWithText(ForkJoinPool.commonPool()));
+    }
+
+    @Benchmark
+    public void numberPossibleIntervals(final Blackhole blackhole) {
+        for (final String utterance : utterances) {
+            blackhole.consume(pf.extractNumber(utterance).parsePossibleIntervals());
+        }
+    }
+
+    @Benchmark
+    public void numberLattice(final Blackhole blackhole) {
+        for (final String utterance : utterances) {
+            blackhole.consume(pf.extractNumber(utterance).parseLattice());
+        }
+    }
+
+    @Benchmark
+    public void durationFirst(final Blackhole blackhole) {
+        for (final String utterance : utterances) {
+            blackhole.consume(pf.extractDuration(utterance).parseFirst());
+        }
+    }
+
+    @Benchmark
+    public void durationMixedWithText(final Blackhole blackhole) {
+        for (final String utterance : utterances) {
+            blackhole.consume(pf.extractDuration(utterance).parseMixedWithText());
+        }
+    }
+
+    @Benchmark
+    public void durationPossibleIntervals(final Blackhole blackhole) {
+        for (final String utterance : utterances) {
+            blackhole.consume(pf.extractDuration(utterance).parsePossibleIntervals());
+        }
+    }
+
+    @Benchmark
+    public void dateTimeFirst(final Blackhole blackhole) {
+        for (final String utterance : utterances) {
+            blackhole.consume(pf.extractDateTime(utterance).now(NOW).parseFirst());
+        }
+    }
+
+    @Benchmark
+    public void dateTimeMixedWithText(final Blackhole blackhole) {
+        for (final String utterance : utterances) {
+            blackhole.consume(pf.extractDateTime(utterance).now(NOW).parseMixedWithText());
+        }
+    }
+
+    @Benchmark
+    public void dateTimePossibleIntervals(final Blackhole blackhole) {
+        for (final String utterance : utterances) {
+            blackhole.consume(pf.extractDateTime(utterance).now(NOW).parsePossibleIntervals());
+        }
+    }
+
+    @Benchmark
+    public void dateTimeLattice(final Blackhole blackhole) {
+        for (final String utterance : utterances) {
+            blackhole.consume(pf.extractDateTime(utterance).now(NOW).parseLattice());
+        }
+    }
+}
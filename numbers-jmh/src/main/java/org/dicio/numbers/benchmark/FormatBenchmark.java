@@ -0,0 +1,131 @@
+package org.dicio.numbers.benchmark;
+
+import org.dicio.numbers.ParserFormatter;
+import org.dicio.numbers.unit.Duration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Each invocation formats a fixed set of {@link #INPUT_COUNT} pseudo-random inputs, so the score is
+ * in sets per second. Inputs are generated with a fixed seed so that runs are comparable.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FormatBenchmark {
+    private static final int INPUT_COUNT = 256;
+    private static final LocalDate NOW = LocalDate.of(2024, 5, 17);
+
+    @Param({"en-us", "it-it"})
+    public String language;
+
+    private ParserFormatter pf;
+    private double[] smallIntegers;
+    private double[] largeNumbers;
+    private double[] decimals;
+    private LocalDate[] dates;
+    private Duration[] durations;
+
+    @Setup
+    public void setup() {
+        pf = new ParserFormatter(BenchmarkCorpus.locale(language));
+
+        final Random random = new Random(42);
+        smallIntegers = new double[INPUT_COUNT];
+        largeNumbers = new double[INPUT_COUNT];
+        decimals = new double[INPUT_COUNT];
+        dates = new LocalDate[INPUT_COUNT];
+        durations = new Duration[INPUT_COUNT];
+        for (int i = 0; i < INPUT_COUNT; ++i) {
+            // quantities, years and times are mostly below 10000
+            smallIntegers[i] = random.nextInt(10000);
+            largeNumbers[i] = random.nextLong() % 1000000000000000L;
+            decimals[i] = random.nextInt(1000000) / 1000.0;
+            dates[i] = LocalDate.of(random.nextInt(2200) - 100, 1 + random.nextInt(12),
+                    1 + random.nextInt(28));
+            durations[i] = new Duration(Math.floorMod(random.nextLong(), 86400000000000L),
+                    random.nextInt(30), 0, 0);
+        }
+    }
+
+
+    @Benchmark
+    public void pronounceSmallIntegers(final Blackhole blackhole) {
+        for (final double number : smallIntegers) {
+            blackhole.consume(pf.pronounceNumber(number).get());
+        }
+    }
+
+    @Benchmark
+    public void pronounceSmallIntegersOrdinal(final Blackhole blackhole) {
+        for (final double number : smallIntegers) {
+            blackhole.consume(pf.pronounceNumber(number).ordinal(true).get());
+        }
+    }
+
+    @Benchmark
+    public void pronounceLargeNumbers(final Blackhole blackhole) {
+        for (final double number : largeNumbers) {
+            blackhole.consume(pf.pronounceNumber(number).get());
+        }
+    }
+
+    @Benchmark
+    public void pronounceDecimals(final Blackhole blackhole) {
+        for (final double number : decimals) {
+            blackhole.consume(pf.pronounceNumber(number).places(3).get());
+        }
+    }
+
+    @Benchmark
+    public void niceYear(final Blackhole blackhole) {
+        for (final LocalDate date : dates) {
+            blackhole.consume(pf.niceYear(date).get());
+        }
+    }
+
+    @Benchmark
+    public void niceDate(final Blackhole blackhole) {
+        for (final LocalDate date : dates) {
+            blackhole.consume(pf.niceDate(date).get());
+        }
+    }
+
+    @Benchmark
+    public void niceDateRelativeToNow(final Blackhole blackhole) {
+        for (final LocalDate date : dates) {
+            blackhole.consume(pf.niceDate(date).now(NOW).get());
+        }
+    }
+
+    @Benchmark
+    public void niceDuration(final Blackhole blackhole) {
+        for (final Duration duration : durations) {
+            blackhole.consume(pf.niceDuration(duration).get());
+        }
+    }
+
+    @Benchmark
+    public void niceDurationNotSpeech(final Blackhole blackhole) {
+        for (final Duration duration : durations) {
+            blackhole.consume(pf.niceDuration(duration).speech(false).get());
+        }
+    }
+}
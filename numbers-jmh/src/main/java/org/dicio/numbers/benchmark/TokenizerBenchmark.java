@@ -0,0 +1,88 @@
+package org.dicio.numbers.benchmark;
+
+import org.dicio.numbers.lang.en.EnglishParser;
+import org.dicio.numbers.lang.it.ItalianParser;
+import org.dicio.numbers.parser.Parser;
+import org.dicio.numbers.parser.lexer.Token;
+import org.dicio.numbers.parser.lexer.TokenBuffer;
+import org.dicio.numbers.parser.lexer.Tokenizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Each invocation tokenizes the whole corpus, so the score is in corpora per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenizerBenchmark {
+    @Param({"en-us", "it-it"})
+    public String language;
+
+    @Param({BenchmarkCorpus.SHORT, BenchmarkCorpus.MEDIUM, BenchmarkCorpus.LONG})
+    public String length;
+
+    private Tokenizer tokenizer;
+    private List<String> utterances;
+    private TokenBuffer buffer;
+    private Parser cachingParser;
+
+    @Setup
+    public void setup() {
+        tokenizer = new Tokenizer(BenchmarkCorpus.configFolder(language));
+        utterances = BenchmarkCorpus.read(language, length);
+        buffer = new TokenBuffer();
+        cachingParser = "en-us".equals(language) ? new EnglishParser() : new ItalianParser();
+        cachingParser.setTokenizationCacheSize(utterances.size());
+    }
+
+    /**
+     * Creates every {@link Token} object, since token lists are created lazily.
+     */
+    @Benchmark
+    public void tokenize(final Blackhole blackhole) {
+        for (final String utterance : utterances) {
+            for (final Token token : tokenizer.tokenize(utterance)) {
+                blackhole.consume(token);
+            }
+        }
+    }
+
+    /**
+     * Only fills a reused {@link TokenBuffer}, without creating {@link Token} objects.
+     */
+    @Benchmark
+    public void tokenizeIntoReusedBuffer(final Blackhole blackhole) {
+        for (final String utterance : utterances) {
+            tokenizer.tokenize(utterance, buffer);
+            blackhole.consume(buffer.size());
+        }
+    }
+
+    /**
+     * Goes through the tokenization cache of a parser large enough to hold the whole corpus, so
+     * after the first invocation this only measures cache lookups.
+     */
+    @Benchmark
+    public void tokenizeCached(final Blackhole blackhole) {
+        for (final String utterance : utterances) {
+            blackhole.consume(cachingParser.tokenize(utterance));
+        }
+    }
+}
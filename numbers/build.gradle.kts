@@ -11,3 +11,29 @@ dependencies {
     implementation(libs.nanojson)
     testImplementation(libs.junit)
 }
+
+// Turns each config/<lang>/ folder into a binary config.snapshot that is packaged next to the json
+// files, so that languages can be loaded at runtime without parsing json (see ConfigSnapshot).
+val generateConfigSnapshots by tasks.registering(JavaExec::class) {
+    description = "Generates the binary snapshots of the language configs"
+    val configDir = file("src/main/resources/config")
+    val outputDir = layout.buildDirectory.dir("generated/configSnapshots")
+    inputs.dir(configDir)
+    outputs.dir(outputDir)
+
+    // the json files are read as resources, but the processed resources can't be used here since
+    // they will in turn contain the generated snapshots
+    classpath = files(sourceSets.main.get().output.classesDirs, "src/main/resources") +
+            configurations.runtimeClasspath.get()
+    mainClass.set("org.dicio.numbers.util.ConfigSnapshot")
+    argumentProviders.add(CommandLineArgumentProvider {
+        listOf(outputDir.get().asFile.absolutePath) + configDir.listFiles()!!
+            .filter { it.isDirectory }
+            .map { "config/${it.name}" }
+            .sorted()
+    })
+}
+
+sourceSets.main {
+    resources.srcDir(generateConfigSnapshots)
+}
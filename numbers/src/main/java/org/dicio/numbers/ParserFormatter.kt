@@ -9,9 +9,11 @@ import org.dicio.numbers.formatter.param.NiceTimeParameters
 import org.dicio.numbers.formatter.param.NiceYearParameters
 import org.dicio.numbers.formatter.param.PronounceNumberParameters
 import org.dicio.numbers.parser.Parser
+import org.dicio.numbers.parser.param.BatchExtractNumberParams
 import org.dicio.numbers.parser.param.ExtractDateTimeParams
 import org.dicio.numbers.parser.param.ExtractDurationParams
 import org.dicio.numbers.parser.param.ExtractNumberParams
+import org.dicio.numbers.parser.param.ParserParams
 import org.dicio.numbers.unit.Duration
 import java.time.LocalDate
 import java.time.LocalDateTime
@@ -22,6 +24,11 @@ import java.util.Locale
  * A class that wraps a [Formatter] and a [Parser] for a particular language
  * and provides convenience methods to call the available functions without having to provide all of
  * the default parameters.
+ *
+ * Parsers and formatters are immutable, and so is this class, therefore the same instance can be
+ * used concurrently from multiple threads: use [shared] to obtain the process-wide instance for a
+ * language. The parameter objects returned by the methods of this class (e.g.
+ * [ExtractNumberParams]) are instead meant to be used by a single thread and then discarded.
  */
 class ParserFormatter {
     private val formatter: Formatter?
@@ -41,7 +48,9 @@ class ParserFormatter {
     }
 
     /**
-     * Constructs a [ParserFormatter] for the language of the provided locale.
+     * Constructs a [ParserFormatter] for the language of the provided locale. The language
+     * configuration is loaded only once per process and then shared, but prefer [shared] to also
+     * avoid creating a new parser and formatter each time.
      *
      * @param locale the locale containing the language to use
      * @throws IllegalArgumentException if the provided locale is not supported
@@ -147,25 +156,41 @@ class ParserFormatter {
      * Used to extract numbers from a string. For example, "I am twenty three years old" would be
      * parsed as "I am ", 23, " years old".
      *
-     * @param utterance the text to extract numbers from
+     * @param utterance the text to extract numbers from, see [ParserParams] for texts that are not
+     * [String]s
      * @return an instance of a utility class that enables customizing various parameters and then
      * allows calling [Parser.extractNumber] in
      * multiple ways. See [ExtractNumberParams].
      */
-    fun extractNumber(utterance: String): ExtractNumberParams {
+    fun extractNumber(utterance: CharSequence): ExtractNumberParams {
         return ExtractNumberParams(parser!!, utterance)
     }
 
+    /**
+     * Used to extract numbers from many strings at once, e.g. the lines of a transcript. The
+     * tokenization and extraction setup is reused across all strings, and the work can optionally
+     * be split across a [java.util.concurrent.ForkJoinPool].
+     *
+     * @param utterances the texts to extract numbers from, which must not be modified until
+     * [BatchExtractNumberParams.parse] returns
+     * @return an instance of a utility class that enables customizing various parameters and then
+     * allows calling [BatchExtractNumberParams.parse]. See [BatchExtractNumberParams].
+     */
+    fun extractNumbers(utterances: List<CharSequence>): BatchExtractNumberParams {
+        return BatchExtractNumberParams(parser!!, utterances)
+    }
+
     /**
      * Used to extract a duration from a string. For example, "Set a timer for three minutes and
      * five seconds" would be parsed as "Set a timer for ", 185 seconds.
      *
-     * @param utterance the text to extract a duration from
+     * @param utterance the text to extract a duration from, see [ParserParams] for texts that are
+     * not [String]s
      * @return an instance of a utility class that enables customizing various parameters and then
      * allows calling [Parser.extractDuration] in multiple
      * ways. See [ExtractDurationParams].
      */
-    fun extractDuration(utterance: String): ExtractDurationParams {
+    fun extractDuration(utterance: CharSequence): ExtractDurationParams {
         return ExtractDurationParams(parser!!, utterance)
     }
 
@@ -173,12 +198,31 @@ class ParserFormatter {
      * Used to extract a date&time from a string. For example, "Set an alarm at five p.m." would be
      * parsed as "Set an alarm ", today at 5 PM.
      *
-     * @param utterance the text to extract a date&time from
+     * @param utterance the text to extract a date&time from, see [ParserParams] for texts that
+     * are not [String]s
      * @return an instance of a utility class that enables customizing various parameters and then
      * allows calling [Parser.extractDateTime] in
      * multiple ways. See [ExtractDateTimeParams].
      */
-    fun extractDateTime(utterance: String): ExtractDateTimeParams {
+    fun extractDateTime(utterance: CharSequence): ExtractDateTimeParams {
         return ExtractDateTimeParams(parser!!, utterance)
     }
+
+    companion object {
+        /**
+         * Returns the process-wide [ParserFormatter] for the language of the provided locale,
+         * creating it the first time the language is requested. The returned instance is safe to
+         * share across threads, and locales of the same language (e.g. en-US and en-GB) obtain the
+         * same instance.
+         *
+         * @param locale the locale containing the language to use
+         * @return the shared [ParserFormatter] for the language of the locale
+         * @throws IllegalArgumentException if the provided locale is not supported
+         */
+        @JvmStatic
+        @Throws(IllegalArgumentException::class)
+        fun shared(locale: Locale): ParserFormatter {
+            return ParserFormatterBuilder.sharedParserFormatterForLocale(locale)
+        }
+    }
 }
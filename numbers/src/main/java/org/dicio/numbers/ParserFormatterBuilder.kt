@@ -7,6 +7,7 @@ import org.dicio.numbers.lang.it.ItalianFormatter
 import org.dicio.numbers.lang.it.ItalianParser
 import org.dicio.numbers.parser.Parser
 import java.util.Locale
+import java.util.concurrent.ConcurrentHashMap
 
 object ParserFormatterBuilder {
     private val PARSER_FORMATTER_CLASSES_MAP = mapOf(
@@ -14,10 +15,39 @@ object ParserFormatterBuilder {
         "it" to ParserFormatterClasses(ItalianFormatter::class.java, ItalianParser::class.java),
     )
 
+    /**
+     * The [ParserFormatter]s returned by [sharedParserFormatterForLocale], indexed by the resolved
+     * locale string (e.g. "en"), so that locales of the same language share the same instance.
+     */
+    private val SHARED_PARSER_FORMATTERS = ConcurrentHashMap<String, ParserFormatter>()
+
     @JvmStatic
     @Throws(IllegalArgumentException::class)
     fun parserFormatterPairForLocale(locale: Locale): ParserFormatterPair {
+        return parserFormatterPairForLocaleString(
+            resolveLocaleString(locale, PARSER_FORMATTER_CLASSES_MAP.keys),
+            locale
+        )
+    }
+
+    /**
+     * Returns the process-wide [ParserFormatter] for the language of the provided locale, creating
+     * it only the first time the language is requested. See [ParserFormatter.shared].
+     */
+    @JvmStatic
+    @Throws(IllegalArgumentException::class)
+    fun sharedParserFormatterForLocale(locale: Locale): ParserFormatter {
         val localeString = resolveLocaleString(locale, PARSER_FORMATTER_CLASSES_MAP.keys)
+        return SHARED_PARSER_FORMATTERS.computeIfAbsent(localeString) {
+            val pair = parserFormatterPairForLocaleString(localeString, locale)
+            ParserFormatter(pair.formatter, pair.parser)
+        }
+    }
+
+    private fun parserFormatterPairForLocaleString(
+        localeString: String,
+        locale: Locale
+    ): ParserFormatterPair {
         val classes = PARSER_FORMATTER_CLASSES_MAP[localeString]!!
 
         try {
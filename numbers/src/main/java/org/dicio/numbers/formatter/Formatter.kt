@@ -1,17 +1,75 @@
 package org.dicio.numbers.formatter
 
 import org.dicio.numbers.formatter.datetime.DateTimeConfig
-import org.dicio.numbers.formatter.datetime.NiceYearSubstitutionTableBuilder
 import org.dicio.numbers.unit.Duration
 import org.dicio.numbers.unit.MixedFraction
-import org.dicio.numbers.util.Utils
+import org.dicio.numbers.util.LruCache
 import java.time.LocalDate
 import java.time.LocalTime
 import java.time.Period
-import kotlin.math.abs
+import java.util.concurrent.ConcurrentHashMap
+import kotlin.math.floor
 
+/**
+ * Formats numbers, durations and date&times in a particular language. Formatters hold no mutable
+ * state apart from the thread-safe caches of [pronounceNumber] (see
+ * [precomputedPronunciationsLimit] and [pronounceNumberCacheSize]), and their [DateTimeConfig] is
+ * shared process-wide via [DateTimeConfig.shared], so a formatter can be used concurrently from
+ * multiple threads and constructing more formatters for the same language is cheap.
+ */
 abstract class Formatter protected constructor(configFolder: String) {
-    protected val config: DateTimeConfig = DateTimeConfig(configFolder)
+    protected val config: DateTimeConfig = DateTimeConfig.shared(configFolder)
+
+    /**
+     * The pronunciations of the integers in `[0, precomputedPronunciationsLimit)`, first the
+     * cardinal ones and then the ordinal ones, or null if they have not been computed yet.
+     */
+    @Volatile
+    private var precomputedPronunciations: Array<String>? = null
+    private var computingPronunciations = false
+
+    @Volatile
+    private var pronounceNumberCache: LruCache<PronounceNumberKey, String>? =
+        LruCache(DEFAULT_PRONOUNCE_NUMBER_CACHE_SIZE)
+
+    /**
+     * [pronounceNumber] precomputes the cardinal and ordinal pronunciations of all of the integers
+     * from `0` (inclusive) to this limit (exclusive) the first time it is called, since small
+     * integers (quantities, years, times...) are by far the most commonly pronounced numbers. The
+     * pronunciations are shared by all formatters of the same language. **The default is
+     * `10000`**, `0` disables precomputation and the maximum is
+     * [MAX_PRECOMPUTED_PRONUNCIATIONS_LIMIT].
+     */
+    var precomputedPronunciationsLimit: Int = DEFAULT_PRECOMPUTED_PRONUNCIATIONS_LIMIT
+        set(value) {
+            require(value in 0..MAX_PRECOMPUTED_PRONUNCIATIONS_LIMIT) { "Invalid limit: $value" }
+            synchronized(this) {
+                field = value
+                precomputedPronunciations = null
+            }
+        }
+
+    /**
+     * Computes the pronunciations of the integers below [precomputedPronunciationsLimit] right now,
+     * if they are not available yet, instead of during the first call to [pronounceNumber]. This
+     * can be called e.g. from a background thread at startup, so that no call to [pronounceNumber]
+     * in a latency sensitive path has to pay for it.
+     */
+    fun precomputePronunciations() {
+        getPrecomputedPronunciations()
+    }
+
+    /**
+     * How many of the results of [pronounceNumber] for numbers that were not precomputed (see
+     * [precomputedPronunciationsLimit]) to keep in memory, evicting the least recently used ones.
+     * **The default is `1024`**, and `0` disables the cache. Setting this empties the cache.
+     */
+    var pronounceNumberCacheSize: Int
+        get() = pronounceNumberCache?.maxSize ?: 0
+        set(value) {
+            require(value >= 0) { "Invalid cache size: $value" }
+            pronounceNumberCache = if (value == 0) null else LruCache(value)
+        }
 
 
     /**
@@ -24,6 +82,14 @@ abstract class Formatter protected constructor(configFolder: String) {
      */
     abstract fun niceNumber(mixedFraction: MixedFraction, speech: Boolean): String
 
+    /**
+     * Like [niceNumber], but appends the formatted mixed fraction to [appendable] instead of
+     * returning it.
+     */
+    open fun niceNumber(mixedFraction: MixedFraction, speech: Boolean, appendable: Appendable) {
+        appendable.append(niceNumber(mixedFraction, speech))
+    }
+
     protected fun niceNumberNotSpeech(mixedFraction: MixedFraction): String {
         val sign = if (mixedFraction.negative) "-" else ""
         return if (mixedFraction.numerator == 0) {
@@ -40,6 +106,11 @@ abstract class Formatter protected constructor(configFolder: String) {
      * Format a number to a pronounceable representation. For example, -4000619 would be formatted
      * into "minus four million, six hundred and nineteen" for English.
      *
+     * This function is not open, since it takes care of precomputing and caching pronunciations
+     * (see [precomputedPronunciationsLimit] and [pronounceNumberCacheSize]): languages implement
+     * [pronounceNumberNotCached] instead. This is a breaking change for formatters written when
+     * this function was abstract, whose override just needs to be renamed.
+     *
      * @param number the number to pronounce
      * @param places the number of decimal places to round decimal numbers to
      * @param shortScale use short (true) or long (false) scale for large numbers (see
@@ -50,7 +121,53 @@ abstract class Formatter protected constructor(configFolder: String) {
      * English)
      * @return the formatted number as a string
      */
-    abstract fun pronounceNumber(
+    fun pronounceNumber(
+        number: Double,
+        places: Int,
+        shortScale: Boolean,
+        scientific: Boolean,
+        ordinal: Boolean
+    ): String {
+        // the pronunciation of non-negative integers does not depend on places, and numbers below
+        // a million do not depend on shortScale
+        if (!scientific && number >= 0 && number < precomputedPronunciationsLimit
+            && number == floor(number)
+        ) {
+            val pronunciations = getPrecomputedPronunciations()
+            val index = number.toInt()
+            // the limit might have changed in the meantime, so check against the actual size
+            if (pronunciations != null && index < pronunciations.size / 2) {
+                return pronunciations[if (ordinal) pronunciations.size / 2 + index else index]
+            }
+        }
+
+        val cache = pronounceNumberCache
+            ?: return pronounceNumberNotCached(number, places, shortScale, scientific, ordinal)
+        return cache.getOrPut(PronounceNumberKey(number, places, shortScale, scientific, ordinal)) {
+            pronounceNumberNotCached(number, places, shortScale, scientific, ordinal)
+        }
+    }
+
+    /**
+     * Like [pronounceNumber], but appends the formatted number to [appendable] instead of
+     * returning it. Since pronunciations are cached, this usually appends an already built string.
+     */
+    fun pronounceNumber(
+        number: Double,
+        places: Int,
+        shortScale: Boolean,
+        scientific: Boolean,
+        ordinal: Boolean,
+        appendable: Appendable
+    ) {
+        appendable.append(pronounceNumber(number, places, shortScale, scientific, ordinal))
+    }
+
+    /**
+     * Actually formats a number for [pronounceNumber], which takes care of caching the results.
+     * See [pronounceNumber] for the meaning of the parameters.
+     */
+    protected abstract fun pronounceNumberNotCached(
         number: Double,
         places: Int,
         shortScale: Boolean,
@@ -58,6 +175,44 @@ abstract class Formatter protected constructor(configFolder: String) {
         ordinal: Boolean
     ): String
 
+    /**
+     * @return the precomputed pronunciations (see [precomputedPronunciations]), computing them if
+     * needed, or null if they are being computed by this thread right now
+     */
+    private fun getPrecomputedPronunciations(): Array<String>? {
+        precomputedPronunciations?.let { return it }
+        synchronized(this) {
+            precomputedPronunciations?.let { return it }
+            if (computingPronunciations) {
+                return null // called by pronounceNumberNotCached while computing, avoid recursion
+            }
+
+            // reuse the pronunciations computed for a higher limit, if any, so that only the ones
+            // for the highest limit are kept in memory
+            val limit = precomputedPronunciationsLimit
+            val shared = SHARED_PRONUNCIATIONS[javaClass]
+            if (shared != null && shared.size / 2 >= limit) {
+                precomputedPronunciations = shared
+                return shared
+            }
+
+            // computed outside of the map, which must not be locked for long
+            computingPronunciations = true
+            val computed = try {
+                Array(2 * limit) { i ->
+                    pronounceNumberNotCached((i % limit).toDouble(), 0, true, false, i >= limit)
+                }
+            } finally {
+                computingPronunciations = false
+            }
+
+            // another formatter of the same language might have stored a table in the meantime
+            return SHARED_PRONUNCIATIONS.merge(javaClass, computed) { old, new ->
+                if (old.size >= new.size) old else new
+            }!!.also { precomputedPronunciations = it }
+        }
+    }
+
     /**
      * Format a date to a pronounceable representation. For example, 2021/4/28 would be formatted
      * as "wednesday, april twenty-eighth, twenty twenty one" for English.
@@ -70,16 +225,29 @@ abstract class Formatter protected constructor(configFolder: String) {
      * @return the formatted date string
      */
     fun niceDate(date: LocalDate, now: LocalDate?): String {
+        val result = StringBuilder()
+        niceDate(date, now, result)
+        return result.toString()
+    }
+
+    /**
+     * Like [niceDate], but appends the formatted date to [appendable] instead of returning it. The
+     * year, if present, is also appended directly to [appendable] by [niceYear].
+     */
+    fun niceDate(date: LocalDate, now: LocalDate?, appendable: Appendable) {
         var formatString = config.dateFormatFull
         if (now != null) {
             // try to remove redundant information based on the current date
             val daysDifference = Period.between(date, now).days
             if (daysDifference == 1) {
-                return config.yesterday
+                appendable.append(config.yesterday)
+                return
             } else if (daysDifference == 0) {
-                return config.today
+                appendable.append(config.today)
+                return
             } else if (daysDifference == -1) {
-                return config.tomorrow
+                appendable.append(config.tomorrow)
+                return
             } else if (date.year == now.year) {
                 formatString = if (date.month == now.month
                     && date.dayOfMonth > now.dayOfMonth
@@ -91,12 +259,15 @@ abstract class Formatter protected constructor(configFolder: String) {
             }
         }
 
-        return formatString.format(mapOf(
-            "day" to config.days[date.dayOfMonth - 1],
-            "weekday" to config.weekdays[date.dayOfWeek.value - 1],
-            "month" to config.months[date.month.value - 1],
-            "formatted_year" to niceYear(date),
-        ))
+        formatString.formatTo(appendable) { key, out ->
+            when (key) {
+                "day" -> out.append(config.dayNames[date.dayOfMonth - 1])
+                "weekday" -> out.append(config.weekdayNames[date.dayOfWeek.value - 1])
+                "month" -> out.append(config.monthNames[date.month.value - 1])
+                "formatted_year" -> niceYear(date, out)
+                else -> throw IllegalArgumentException("Missing key $key")
+            }
+        }
     }
 
     /**
@@ -107,27 +278,18 @@ abstract class Formatter protected constructor(configFolder: String) {
      * @return the formatted year string
      */
     fun niceYear(date: LocalDate): String {
-        val substitutionTable = NiceYearSubstitutionTableBuilder.build(config, date.year)
-        val year = abs(date.year.toDouble()).toInt()
-
-        substitutionTable["number"] = (year % 100).toString()
-        substitutionTable["formatted_decade"] = config.decadeFormat
-            .getMostSuitableFormatString(year % 100).format(substitutionTable)
-
-        substitutionTable["number"] = (year % 1000).toString()
-        substitutionTable["formatted_hundreds"] = config.hundredFormat
-            .getMostSuitableFormatString(year % 1000).format(substitutionTable)
-
-        substitutionTable["number"] = (year % 10000).toString()
-        substitutionTable["formatted_thousand"] = config.thousandFormat
-            .getMostSuitableFormatString(year % 10000).format(substitutionTable)
-
-        substitutionTable["number"] = year.toString()
-        substitutionTable["bc"] = if (date.year >= 0) "" else config.bc
+        val result = StringBuilder()
+        niceYear(date, result)
+        return result.toString()
+    }
 
-        val formattedYear =
-            config.yearFormat.getMostSuitableFormatString(year).format(substitutionTable)
-        return Utils.removeRedundantSpaces(formattedYear)
+    /**
+     * Like [niceYear], but appends the formatted year to [appendable] instead of returning it. See
+     * [org.dicio.numbers.formatter.datetime.NiceYearRenderer] for how years are formatted without
+     * building substitution maps or intermediate strings.
+     */
+    fun niceYear(date: LocalDate, appendable: Appendable) {
+        config.niceYearRenderer.appendTo(date.year, appendable)
     }
 
     /**
@@ -147,6 +309,19 @@ abstract class Formatter protected constructor(configFolder: String) {
         showAmPm: Boolean
     ): String
 
+    /**
+     * Like [niceTime], but appends the formatted time to [appendable] instead of returning it.
+     */
+    open fun niceTime(
+        time: LocalTime,
+        speech: Boolean,
+        use24Hour: Boolean,
+        showAmPm: Boolean,
+        appendable: Appendable
+    ) {
+        appendable.append(niceTime(time, speech, use24Hour, showAmPm))
+    }
+
     /**
      * Format a date time to a pronounceable date and time. For example, 2021/4/28 5:30 would be
      * formatted as "wednesday, april twenty-eighth, twenty twenty one at five thirty" for English.
@@ -168,10 +343,30 @@ abstract class Formatter protected constructor(configFolder: String) {
         use24Hour: Boolean,
         showAmPm: Boolean
     ): String {
-        return config.dateTimeFormat.format(mapOf(
-            "formatted_date" to niceDate(date, now),
-            "formatted_time" to niceTime(time, true, use24Hour, showAmPm),
-        ))
+        val result = StringBuilder()
+        niceDateTime(date, now, time, use24Hour, showAmPm, result)
+        return result.toString()
+    }
+
+    /**
+     * Like [niceDateTime], but appends the formatted date time to [appendable] instead of
+     * returning it. The date and the time are appended directly to [appendable], too.
+     */
+    fun niceDateTime(
+        date: LocalDate,
+        now: LocalDate?,
+        time: LocalTime,
+        use24Hour: Boolean,
+        showAmPm: Boolean,
+        appendable: Appendable
+    ) {
+        config.dateTimeFormat.formatTo(appendable) { key, out ->
+            when (key) {
+                "formatted_date" -> niceDate(date, now, out)
+                "formatted_time" -> niceTime(time, true, use24Hour, showAmPm, out)
+                else -> throw IllegalArgumentException("Missing key $key")
+            }
+        }
     }
 
     /**
@@ -183,74 +378,116 @@ abstract class Formatter protected constructor(configFolder: String) {
      * @return the formatted time span string
      */
     fun niceDuration(duration: Duration, speech: Boolean): String {
+        val result = StringBuilder()
+        niceDuration(duration, speech, result)
+        return result.toString()
+    }
+
+    /**
+     * Like [niceDuration], but appends the formatted duration to [appendable] instead of returning
+     * it.
+     */
+    fun niceDuration(duration: Duration, speech: Boolean, appendable: Appendable) {
         val javaDuration = duration.toJavaDuration()
         val days = javaDuration.toDays()
         val hours = javaDuration.toHours() % 24
         val minutes = javaDuration.toMinutes() % 60
         val seconds = javaDuration.seconds % 60
 
-        val result = StringBuilder()
         if (speech) {
+            var empty = true
             if (days > 0) {
-                result.append(pronounceNumberDuration(days))
-                result.append(" ")
-                result.append(if (days == 1L) config.dayWord else config.daysWord)
+                appendable.append(pronounceNumberDuration(days))
+                appendable.append(" ")
+                appendable.append(if (days == 1L) config.dayWord else config.daysWord)
+                empty = false
             }
 
             if (hours > 0) {
-                if (result.isNotEmpty()) {
-                    result.append(" ")
+                if (!empty) {
+                    appendable.append(" ")
                 }
-                result.append(pronounceNumberDuration(hours))
-                result.append(" ")
-                result.append(if (hours == 1L) config.hourWord else config.hoursWord)
+                appendable.append(pronounceNumberDuration(hours))
+                appendable.append(" ")
+                appendable.append(if (hours == 1L) config.hourWord else config.hoursWord)
+                empty = false
             }
 
             if (minutes > 0) {
-                if (result.isNotEmpty()) {
-                    result.append(" ")
+                if (!empty) {
+                    appendable.append(" ")
                 }
-                result.append(pronounceNumberDuration(minutes))
-                result.append(" ")
-                result.append(if (minutes == 1L) config.minuteWord else config.minutesWord)
+                appendable.append(pronounceNumberDuration(minutes))
+                appendable.append(" ")
+                appendable.append(if (minutes == 1L) config.minuteWord else config.minutesWord)
+                empty = false
             }
 
             // if the duration is zero also write "zero seconds"
             if (seconds > 0 || javaDuration.seconds == 0L) {
-                if (result.isNotEmpty()) {
-                    result.append(" ")
+                if (!empty) {
+                    appendable.append(" ")
                 }
-                result.append(pronounceNumberDuration(seconds))
-                result.append(" ")
-                result.append(if (seconds == 1L) config.secondWord else config.secondsWord)
+                appendable.append(pronounceNumberDuration(seconds))
+                appendable.append(" ")
+                appendable.append(if (seconds == 1L) config.secondWord else config.secondsWord)
             }
         } else {
             if (days > 0) {
-                result.append(days)
-                result.append("d ")
+                appendLong(appendable, days)
+                appendable.append("d ")
             }
 
             if (hours > 0 || days > 0) {
-                result.append(hours)
-                result.append(":")
+                appendLong(appendable, hours)
+                appendable.append(":")
             }
 
             if (minutes < 10 && (hours > 0 || days > 0)) {
-                result.append("0")
+                appendable.append("0")
             }
-            result.append(minutes)
-            result.append(":")
+            appendLong(appendable, minutes)
+            appendable.append(":")
 
             if (seconds < 10) {
-                result.append("0")
+                appendable.append("0")
             }
-            result.append(seconds)
+            appendLong(appendable, seconds)
         }
-
-        return result.toString()
     }
 
     protected open fun pronounceNumberDuration(number: Long): String {
         return pronounceNumber(number.toDouble(), 0, true, false, false)
     }
+
+    private fun appendLong(appendable: Appendable, number: Long) {
+        if (appendable is StringBuilder) {
+            appendable.append(number) // avoids creating a string
+        } else {
+            appendable.append(number.toString())
+        }
+    }
+
+    private data class PronounceNumberKey(
+        val number: Double,
+        val places: Int,
+        val shortScale: Boolean,
+        val scientific: Boolean,
+        val ordinal: Boolean,
+    )
+
+    companion object {
+        const val DEFAULT_PRECOMPUTED_PRONUNCIATIONS_LIMIT = 10000
+        const val DEFAULT_PRONOUNCE_NUMBER_CACHE_SIZE = 1024
+
+        /**
+         * The maximum [precomputedPronunciationsLimit], since the pronunciations are computed with
+         * short scale and so are only valid for numbers below a million.
+         */
+        const val MAX_PRECOMPUTED_PRONUNCIATIONS_LIMIT = 1000000
+
+        // keyed by formatter class (i.e. language), holding the pronunciations for the highest
+        // limit used so far
+        private val SHARED_PRONUNCIATIONS = ConcurrentHashMap<Class<*>, Array<String>>()
+    }
 }
@@ -2,12 +2,28 @@ package org.dicio.numbers.formatter.datetime
 
 import com.grack.nanojson.JsonParser
 import com.grack.nanojson.JsonParserException
+import org.dicio.numbers.util.ConfigSnapshot
 import org.dicio.numbers.util.ResourceOpener
+import org.dicio.numbers.util.SnapshotReader
+import org.dicio.numbers.util.SnapshotWriter
 import java.io.ByteArrayOutputStream
 import java.io.IOException
 import java.nio.charset.StandardCharsets
+import java.util.Collections.unmodifiableList
+import java.util.Collections.unmodifiableMap
+import java.util.concurrent.ConcurrentHashMap
 
-class DateTimeConfig(configFolder: String) {
+/**
+ * The date and time formatting configuration of a language, read from its `date_time.json` and
+ * `.word` files, or from the [ConfigSnapshot] of the language if there is one. Instances are
+ * immutable and can be shared across threads, see [shared].
+ *
+ * The names of weekdays, days and months used to be exposed as the public arrays `weekdays`,
+ * `days` and `months`, which anybody could modify for all users of the language. They are now
+ * private, and are exposed as the unmodifiable lists [weekdayNames], [dayNames] and [monthNames]
+ * instead, so code reading the old fields needs to be updated.
+ */
+class DateTimeConfig internal constructor(configFolder: String, snapshot: SnapshotReader?) {
     @JvmField
     val decadeFormat: FormatStringCollection
     @JvmField
@@ -37,12 +53,29 @@ class DateTimeConfig(configFolder: String) {
     @JvmField
     val yesterday: String
 
+    private val weekdays: Array<String>
+    private val days: Array<String>
+    private val months: Array<String>
+
+    /**
+     * The names of the weekdays, from monday (index `0`) to sunday (index `6`), unmodifiable.
+     */
     @JvmField
-    val weekdays: Array<String>
+    val weekdayNames: List<String>
+    /**
+     * The names of the days of the month, from the first (index `0`) to the 31st (index `30`),
+     * unmodifiable.
+     */
     @JvmField
-    val days: Array<String>
+    val dayNames: List<String>
+    /**
+     * The names of the months, from january (index `0`) to december (index `11`), unmodifiable.
+     */
     @JvmField
-    val months: Array<String>
+    val monthNames: List<String>
+    /**
+     * Unmodifiable, see also [getNumber].
+     */
     @JvmField
     val numbers: Map<Int, String>
 
@@ -63,57 +96,149 @@ class DateTimeConfig(configFolder: String) {
     @JvmField
     val secondsWord: String
 
+    /**
+     * @param configFolder the folder containing the `date_time.json` of the language
+     */
+    constructor(configFolder: String) : this(
+        configFolder,
+        ConfigSnapshot.open(configFolder, ConfigSnapshot.DATE_TIME_SECTION)
+    )
+
     init {
-        try {
-            val root = JsonParser.`object`().from(
-                ResourceOpener.getResourceAsStream("$configFolder/date_time.json")
+        if (snapshot != null) {
+            decadeFormat = FormatStringCollection(snapshot)
+            hundredFormat = FormatStringCollection(snapshot)
+            thousandFormat = FormatStringCollection(snapshot)
+            yearFormat = FormatStringCollection(snapshot)
+
+            bc = snapshot.readString()
+
+            dateFormatFull = FormatString(snapshot)
+            dateFormatFullNoYear = FormatString(snapshot)
+            dateFormatFullNoYearMonth = FormatString(snapshot)
+
+            dateTimeFormat = FormatString(snapshot)
+
+            today = snapshot.readString()
+            tomorrow = snapshot.readString()
+            yesterday = snapshot.readString()
+
+            weekdays = snapshot.readStringArray()
+            days = snapshot.readStringArray()
+            months = snapshot.readStringArray()
+            numbers = unmodifiableMap(
+                snapshot.readIntArray().zip(snapshot.readStringArray()).toMap()
             )
 
-            val year = root.getObject("year_format")
-            val date = root.getObject("date_format")
-            val dateTime = root.getObject("date_time_format")
-            val weekday = root.getObject("weekday")
-            val day = root.getObject("date")
-            val month = root.getObject("month")
-            val number = root.getObject("number")
-
-            decadeFormat = FormatStringCollection(root.getObject("decade_format"))
-            hundredFormat = FormatStringCollection(root.getObject("hundreds_format"))
-            thousandFormat = FormatStringCollection(root.getObject("thousand_format"))
-            yearFormat = FormatStringCollection(year)
-
-            bc = year.getString("bc")
-
-            dateFormatFull = FormatString(date.getString("date_full"))
-            dateFormatFullNoYear = FormatString(date.getString("date_full_no_year"))
-            dateFormatFullNoYearMonth = FormatString(date.getString("date_full_no_year_month"))
-
-            dateTimeFormat = FormatString(dateTime.getString("date_time"))
-
-            today = date.getString("today")
-            tomorrow = date.getString("tomorrow")
-            yesterday = date.getString("yesterday")
-
-            weekdays = (0..6).map { weekday.getString(it.toString()) }.toTypedArray()
-            days = (0..30).map { day.getString((it + 1).toString()) }.toTypedArray()
-            months = (0..11).map { month.getString((it + 1).toString()) }.toTypedArray()
-            numbers = number.map { (key, value) -> Pair(key.toInt(), value as String) }.toMap()
-
-            dayWord = readWordFromFile(configFolder, "day")
-            daysWord = readWordFromFile(configFolder, "days")
-            hourWord = readWordFromFile(configFolder, "hour")
-            hoursWord = readWordFromFile(configFolder, "hours")
-            minuteWord = readWordFromFile(configFolder, "minute")
-            minutesWord = readWordFromFile(configFolder, "minutes")
-            secondWord = readWordFromFile(configFolder, "second")
-            secondsWord = readWordFromFile(configFolder, "seconds")
-        } catch (e: IOException) {
-            throw RuntimeException(e)
-        } catch (e: JsonParserException) {
-            throw RuntimeException(e)
+            dayWord = snapshot.readString()
+            daysWord = snapshot.readString()
+            hourWord = snapshot.readString()
+            hoursWord = snapshot.readString()
+            minuteWord = snapshot.readString()
+            minutesWord = snapshot.readString()
+            secondWord = snapshot.readString()
+            secondsWord = snapshot.readString()
+        } else {
+            try {
+                val root = JsonParser.`object`().from(
+                    ResourceOpener.getResourceAsStream("$configFolder/date_time.json")
+                )
+
+                val year = root.getObject("year_format")
+                val date = root.getObject("date_format")
+                val dateTime = root.getObject("date_time_format")
+                val weekday = root.getObject("weekday")
+                val day = root.getObject("date")
+                val month = root.getObject("month")
+                val number = root.getObject("number")
+
+                decadeFormat = FormatStringCollection(root.getObject("decade_format"))
+                hundredFormat = FormatStringCollection(root.getObject("hundreds_format"))
+                thousandFormat = FormatStringCollection(root.getObject("thousand_format"))
+                yearFormat = FormatStringCollection(year)
+
+                bc = year.getString("bc")
+
+                dateFormatFull = FormatString(date.getString("date_full"))
+                dateFormatFullNoYear = FormatString(date.getString("date_full_no_year"))
+                dateFormatFullNoYearMonth = FormatString(date.getString("date_full_no_year_month"))
+
+                dateTimeFormat = FormatString(dateTime.getString("date_time"))
+
+                today = date.getString("today")
+                tomorrow = date.getString("tomorrow")
+                yesterday = date.getString("yesterday")
+
+                weekdays = (0..6).map { weekday.getString(it.toString()) }.toTypedArray()
+                days = (0..30).map { day.getString((it + 1).toString()) }.toTypedArray()
+                months = (0..11).map { month.getString((it + 1).toString()) }.toTypedArray()
+                numbers = unmodifiableMap(
+                    number.map { (key, value) -> Pair(key.toInt(), value as String) }.toMap()
+                )
+
+                dayWord = readWordFromFile(configFolder, "day")
+                daysWord = readWordFromFile(configFolder, "days")
+                hourWord = readWordFromFile(configFolder, "hour")
+                hoursWord = readWordFromFile(configFolder, "hours")
+                minuteWord = readWordFromFile(configFolder, "minute")
+                minutesWord = readWordFromFile(configFolder, "minutes")
+                secondWord = readWordFromFile(configFolder, "second")
+                secondsWord = readWordFromFile(configFolder, "seconds")
+            } catch (e: IOException) {
+                throw RuntimeException(e)
+            } catch (e: JsonParserException) {
+                throw RuntimeException(e)
+            }
         }
+
+        weekdayNames = unmodifiableList(weekdays.asList())
+        dayNames = unmodifiableList(days.asList())
+        monthNames = unmodifiableList(months.asList())
+    }
+
+    /**
+     * Writes this config in the format read back by the constructor when a snapshot is provided.
+     */
+    internal fun writeTo(writer: SnapshotWriter) {
+        decadeFormat.writeTo(writer)
+        hundredFormat.writeTo(writer)
+        thousandFormat.writeTo(writer)
+        yearFormat.writeTo(writer)
+
+        writer.writeString(bc)
+
+        dateFormatFull.writeTo(writer)
+        dateFormatFullNoYear.writeTo(writer)
+        dateFormatFullNoYearMonth.writeTo(writer)
+
+        dateTimeFormat.writeTo(writer)
+
+        writer.writeString(today)
+        writer.writeString(tomorrow)
+        writer.writeString(yesterday)
+
+        writer.writeStringArray(weekdays)
+        writer.writeStringArray(days)
+        writer.writeStringArray(months)
+        writer.writeIntArray(numbers.keys.toIntArray())
+        writer.writeStringArray(numbers.values.toTypedArray())
+
+        writer.writeString(dayWord)
+        writer.writeString(daysWord)
+        writer.writeString(hourWord)
+        writer.writeString(hoursWord)
+        writer.writeString(minuteWord)
+        writer.writeString(minutesWord)
+        writer.writeString(secondWord)
+        writer.writeString(secondsWord)
     }
 
+    /**
+     * Formats years for [org.dicio.numbers.formatter.Formatter.niceYear], created only when first
+     * needed.
+     */
+    internal val niceYearRenderer by lazy { NiceYearRenderer(this) }
+
     fun getNumber(number: Int): String {
         return numbers[number] ?: number.toString()
     }
@@ -133,4 +258,21 @@ class DateTimeConfig(configFolder: String) {
         }
         return result.toString(StandardCharsets.UTF_8.name()).trim { it <= ' ' }
     }
+
+    companion object {
+        private val SHARED_CONFIGS = ConcurrentHashMap<String, DateTimeConfig>()
+
+        /**
+         * Returns the date time config for the provided config folder, loading it only the first
+         * time it is requested in this process. The returned instance is shared by all callers
+         * (e.g. by all of the [org.dicio.numbers.formatter.Formatter]s of the same language).
+         *
+         * @param configFolder the folder containing the `date_time.json` of the language
+         * @return the process-wide date time config for the provided config folder
+         */
+        @JvmStatic
+        fun shared(configFolder: String): DateTimeConfig {
+            return SHARED_CONFIGS.computeIfAbsent(configFolder) { DateTimeConfig(it) }
+        }
+    }
 }
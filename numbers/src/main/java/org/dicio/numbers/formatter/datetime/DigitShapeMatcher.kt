@@ -0,0 +1,229 @@
+package org.dicio.numbers.formatter.datetime
+
+import org.dicio.numbers.util.SnapshotReader
+import org.dicio.numbers.util.SnapshotWriter
+
+/**
+ * Matches non-negative integers against a regex made only of digits, `\d`, character classes,
+ * groups, `|` alternatives and the `?`, `{n}` and `{n,m}` quantifiers, which is what all of the
+ * `match` patterns in `date_time.json` files look like (e.g. `^\d{2}0\d$`). Such a regex can only
+ * match numbers with a few fixed digit counts, so it is compiled into a list of "shapes", i.e. the
+ * set of digits allowed at each position, and matching only requires integer arithmetic instead
+ * of converting the number to a string and running the regex on it.
+ *
+ * The result of [matches] is the same as `Pattern.compile(regex).matcher(number.toString())
+ * .matches()` for every non-negative number.
+ */
+internal class DigitShapeMatcher private constructor(
+    // shapesByLength[n] contains the shapes with n digits, each being the bitmasks of the digits
+    // allowed at each position, starting from the most significant digit
+    private val shapesByLength: Array<List<IntArray>>,
+) {
+    fun matches(number: Int): Boolean {
+        require(number >= 0) { "Only non-negative numbers can be matched: $number" }
+
+        var length = 1
+        var power = 1
+        while (length < MAX_DIGITS && number / power >= 10) {
+            ++length
+            power *= 10
+        }
+
+        for (shape in shapesByLength[length]) {
+            var remaining = number
+            var position = length - 1
+            while (position >= 0 && (shape[position] and (1 shl (remaining % 10))) != 0) {
+                remaining /= 10
+                --position
+            }
+            if (position < 0) {
+                return true
+            }
+        }
+        return false
+    }
+
+    fun writeTo(writer: SnapshotWriter) {
+        for (shapes in shapesByLength) {
+            writer.writeInt(shapes.size)
+            shapes.forEach(writer::writeIntArray)
+        }
+    }
+
+    /**
+     * A recursive descent parser that turns the regex into the list of shapes it can match.
+     * Anything outside of the supported subset is reported by returning null.
+     */
+    private class Compiler(private val regex: String) {
+        private var i = 0
+
+        fun compile(): List<IntArray>? {
+            val shapes = alternatives(true) ?: return null
+            return if (i == regex.length) shapes else null
+        }
+
+        private fun alternatives(topLevel: Boolean): List<IntArray>? {
+            val shapes = ArrayList<IntArray>()
+            while (true) {
+                // since the whole string has to match, anchors at the beginning and at the end of
+                // a top level alternative are redundant, while anywhere else they are not supported
+                if (topLevel && peek() == '^') {
+                    ++i
+                }
+                shapes.addAll(sequence() ?: return null)
+                if (topLevel && peek() == '$') {
+                    ++i
+                }
+
+                if (peek() == '|') {
+                    ++i
+                } else {
+                    return if (shapes.size > MAX_SHAPES) null else shapes
+                }
+            }
+        }
+
+        private fun sequence(): List<IntArray>? {
+            var shapes = listOf(IntArray(0))
+            while (i < regex.length && regex[i] != '|' && regex[i] != ')' && regex[i] != '$') {
+                val atom = atom() ?: return null
+                val (min, max) = quantifier() ?: return null
+
+                val next = ArrayList<IntArray>()
+                var repeated = shapes
+                for (count in 0..max) {
+                    if (count >= min) {
+                        next.addAll(repeated)
+                    }
+                    if (count < max) {
+                        repeated = concatenate(repeated, atom) ?: return null
+                    }
+                }
+                shapes = next
+                if (shapes.size > MAX_SHAPES) {
+                    return null
+                }
+            }
+            return shapes
+        }
+
+        private fun atom(): List<IntArray>? {
+            val c = regex[i++]
+            return when {
+                c in '0'..'9' -> listOf(intArrayOf(1 shl (c - '0')))
+                c == '\\' && peek() == 'd' -> {
+                    ++i
+                    listOf(intArrayOf(ALL_DIGITS))
+                }
+                c == '[' -> characterClass()?.let { listOf(intArrayOf(it)) }
+                c == '(' -> alternatives(false)?.takeIf { peek() == ')' }?.also { ++i }
+                else -> null
+            }
+        }
+
+        /**
+         * Characters in the class that are not digits are ignored, since they can never match the
+         * digits of a non-negative number.
+         */
+        private fun characterClass(): Int? {
+            if (peek() == '^') {
+                return null // negated classes are not supported
+            }
+            var mask = 0
+            while (peek() != ']') {
+                val c = regex.getOrNull(i++) ?: return null
+                if (c == '[' || c == '&') {
+                    return null // unions and intersections are not supported
+                } else if (c == '\\') {
+                    if (peek() != 'd') {
+                        return null
+                    }
+                    ++i
+                    mask = mask or ALL_DIGITS
+                } else if (peek() == '-' && regex.getOrNull(i + 1).let { it != null && it != ']' }) {
+                    val last = regex[i + 1]
+                    i += 2
+                    if (last < c || last == '\\' || last == '[') {
+                        return null
+                    }
+                    for (d in maxOf(c, '0')..minOf(last, '9')) {
+                        mask = mask or (1 shl (d - '0'))
+                    }
+                } else if (c in '0'..'9') {
+                    mask = mask or (1 shl (c - '0'))
+                }
+            }
+            ++i
+            return mask
+        }
+
+        private fun quantifier(): Pair<Int, Int>? {
+            return when (peek()) {
+                '?' -> {
+                    ++i
+                    Pair(0, 1)
+                }
+                '{' -> {
+                    val end = regex.indexOf('}', i)
+                    if (end < 0) {
+                        return null
+                    }
+                    val bounds = regex.substring(i + 1, end).split(',')
+                    i = end + 1
+                    val min = bounds[0].toIntOrNull() ?: return null
+                    val max = when (bounds.size) {
+                        1 -> min
+                        2 -> bounds[1].toIntOrNull() ?: return null
+                        else -> return null
+                    }
+                    if (min > max || max > MAX_DIGITS) null else Pair(min, max)
+                }
+                else -> Pair(1, 1)
+            }
+        }
+
+        private fun peek(): Char? {
+            return regex.getOrNull(i)
+        }
+
+        private fun concatenate(
+            prefixes: List<IntArray>,
+            suffixes: List<IntArray>
+        ): List<IntArray>? {
+            if (prefixes.size * suffixes.size > MAX_SHAPES) {
+                return null
+            }
+            return prefixes.flatMap { prefix -> suffixes.map { suffix -> prefix + suffix } }
+        }
+    }
+
+    companion object {
+        // Int.MAX_VALUE has 10 digits
+        private const val MAX_DIGITS = 10
+        private const val ALL_DIGITS = (1 shl 10) - 1
+        // above this the regex is just used as is, to avoid spending too much memory
+        private const val MAX_SHAPES = 64
+
+        /**
+         * @return a matcher equivalent to [regex] for non-negative numbers, or null if [regex]
+         * uses features outside of the subset supported by [DigitShapeMatcher]
+         */
+        fun compile(regex: String): DigitShapeMatcher? {
+            val shapes = Compiler(regex).compile() ?: return null
+            // shapes longer than any Int and empty shapes can never match
+            val shapesByLength = Array(MAX_DIGITS + 1) { length ->
+                shapes.filter { it.size == length && length > 0 && it.all { mask -> mask != 0 } }
+            }
+            return DigitShapeMatcher(shapesByLength)
+        }
+
+        /**
+         * Reads the already compiled shapes written by [writeTo], without looking at the regex.
+         */
+        fun readFrom(reader: SnapshotReader): DigitShapeMatcher {
+            return DigitShapeMatcher(Array(MAX_DIGITS + 1) {
+                List(reader.readInt()) { reader.readIntArray() }
+            })
+        }
+    }
+}
@@ -1,11 +1,14 @@
 package org.dicio.numbers.formatter.datetime
 
-class FormatString(stringToParse: String) {
+import org.dicio.numbers.util.SnapshotReader
+import org.dicio.numbers.util.SnapshotWriter
+
+class FormatString {
     interface Part {
         fun format(substitution: Map<String, String>, stringBuilder: StringBuilder)
     }
 
-    private class StringPart(private val value: String) : Part {
+    private class StringPart(val value: String) : Part {
         override fun format(
             substitution: Map<String, String>,
             stringBuilder: StringBuilder
@@ -14,7 +17,7 @@ class FormatString(stringToParse: String) {
         }
     }
 
-    private class FormatPart(private val key: String) : Part {
+    private class FormatPart(val key: String) : Part {
         override fun format(
             substitution: Map<String, String>,
             stringBuilder: StringBuilder
@@ -27,7 +30,7 @@ class FormatString(stringToParse: String) {
 
     private val parts: MutableList<Part> = ArrayList()
 
-    init {
+    constructor(stringToParse: String) {
         var prevIndex = 0
         while (prevIndex < stringToParse.length) {
             val beginIndex = stringToParse.indexOf('{', prevIndex)
@@ -50,6 +53,25 @@ class FormatString(stringToParse: String) {
         }
     }
 
+    /**
+     * Reads the already parsed parts written by [writeTo].
+     */
+    internal constructor(reader: SnapshotReader) {
+        repeat(reader.readInt()) {
+            val isFormatPart = reader.readBoolean()
+            val value = reader.readString()
+            parts.add(if (isFormatPart) FormatPart(value) else StringPart(value))
+        }
+    }
+
+    internal fun writeTo(writer: SnapshotWriter) {
+        writer.writeInt(parts.size)
+        for (part in parts) {
+            writer.writeBoolean(part is FormatPart)
+            writer.writeString(if (part is FormatPart) part.key else (part as StringPart).value)
+        }
+    }
+
     fun format(substitutionTable: Map<String, String>): String {
         val stringBuilder = StringBuilder()
         for (part in parts) {
@@ -57,4 +79,42 @@ class FormatString(stringToParse: String) {
         }
         return stringBuilder.toString()
     }
+
+    /**
+     * Resolves the keys of this format string to their index in [keys] ahead of time, so that the
+     * returned [Compiled] format string can be filled without looking up keys in a map.
+     */
+    internal fun compile(keys: List<String>): Compiled {
+        return Compiled(
+            parts.map { (it as? StringPart)?.value }.toTypedArray(),
+            parts.map { if (it is FormatPart) keys.indexOf(it.key) else -1 }.toIntArray(),
+            parts.map { (it as? FormatPart)?.key }.toTypedArray(),
+        )
+    }
+
+    /**
+     * See [compile]. Part `i` is the literal `literals[i]` if it is not null, otherwise it is the
+     * key `keys[i]` whose index in the list of keys passed to [compile] is `keyIndices[i]` (`-1` if
+     * the key is not in the list).
+     */
+    internal class Compiled(
+        val literals: Array<String?>,
+        val keyIndices: IntArray,
+        val keys: Array<String?>,
+    )
+
+    /**
+     * Appends the formatted string to [appendable] without building any intermediate string:
+     * [appendValue] is called for each key in the format string, in order, and should append the
+     * value of the key to the appendable it receives (i.e. [appendable]).
+     */
+    fun formatTo(appendable: Appendable, appendValue: (key: String, appendable: Appendable) -> Unit) {
+        for (part in parts) {
+            if (part is FormatPart) {
+                appendValue(part.key, appendable)
+            } else {
+                appendable.append((part as StringPart).value)
+            }
+        }
+    }
 }
@@ -1,18 +1,34 @@
 package org.dicio.numbers.formatter.datetime
 
 import com.grack.nanojson.JsonObject
+import org.dicio.numbers.util.SnapshotReader
+import org.dicio.numbers.util.SnapshotWriter
 import java.util.regex.Pattern
 
-class FormatStringCollection(jsonObject: JsonObject) {
-    private class PatternFormatPair(jsonObject: JsonObject) {
-        val pattern: Pattern = Pattern.compile(jsonObject.getString("match"))
-        val formatString: FormatString = FormatString(jsonObject.getString("format"))
+class FormatStringCollection {
+    private class PatternFormatPair(
+        val regex: String,
+        val formatString: FormatString,
+        // the patterns in date_time.json files can all be matched without using regexes
+        val digitShapeMatcher: DigitShapeMatcher?,
+    ) {
+        // only compiled if a number can't be matched with digitShapeMatcher (e.g. negative ones)
+        val pattern: Pattern by lazy { Pattern.compile(regex) }
+
+        constructor(jsonObject: JsonObject) : this(
+            jsonObject.getString("match"),
+            FormatString(jsonObject.getString("format"))
+        )
+
+        constructor(regex: String, formatString: FormatString) :
+                this(regex, formatString, DigitShapeMatcher.compile(regex))
     }
 
-    private val defaultFormat = FormatString(jsonObject.getString("default"))
+    private val defaultFormat: FormatString
     private val patternFormats: MutableList<PatternFormatPair> = ArrayList()
 
-    init {
+    constructor(jsonObject: JsonObject) {
+        defaultFormat = FormatString(jsonObject.getString("default"))
         var i = 1
         while (jsonObject.has(i.toString())) {
             patternFormats.add(PatternFormatPair(jsonObject.getObject(i.toString())))
@@ -20,13 +36,67 @@ class FormatStringCollection(jsonObject: JsonObject) {
         }
     }
 
-    fun getMostSuitableFormatString(number: Int): FormatString {
-        val numberString = number.toString()
+    /**
+     * Reads the already parsed format strings and compiled digit shapes written by [writeTo], so
+     * that no regex needs to be parsed or compiled.
+     */
+    internal constructor(reader: SnapshotReader) {
+        defaultFormat = FormatString(reader)
+        repeat(reader.readInt()) {
+            val regex = reader.readString()
+            val formatString = FormatString(reader)
+            val digitShapeMatcher =
+                if (reader.readBoolean()) DigitShapeMatcher.readFrom(reader) else null
+            patternFormats.add(PatternFormatPair(regex, formatString, digitShapeMatcher))
+        }
+    }
+
+    internal fun writeTo(writer: SnapshotWriter) {
+        defaultFormat.writeTo(writer)
+        writer.writeInt(patternFormats.size)
         for (patternFormat in patternFormats) {
-            if (patternFormat.pattern.matcher(numberString).matches()) {
-                return patternFormat.formatString
+            writer.writeString(patternFormat.regex)
+            patternFormat.formatString.writeTo(writer)
+            writer.writeBoolean(patternFormat.digitShapeMatcher != null)
+            patternFormat.digitShapeMatcher?.writeTo(writer)
+        }
+    }
+
+    fun getMostSuitableFormatString(number: Int): FormatString {
+        return getFormatString(getMostSuitableFormatStringIndex(number))
+    }
+
+    /**
+     * The number of format strings in this collection, including the default one, i.e. one past
+     * the maximum index returned by [getMostSuitableFormatStringIndex].
+     */
+    internal val formatStringCount: Int
+        get() = patternFormats.size + 1
+
+    internal fun getFormatString(index: Int): FormatString {
+        return if (index == patternFormats.size) defaultFormat else patternFormats[index].formatString
+    }
+
+    /**
+     * @return the index (to be passed to [getFormatString]) of the format string that
+     * [getMostSuitableFormatString] would return
+     */
+    internal fun getMostSuitableFormatStringIndex(number: Int): Int {
+        var numberString: String? = null // only built if a regex needs to be used
+        for ((index, patternFormat) in patternFormats.withIndex()) {
+            val matches = if (number >= 0 && patternFormat.digitShapeMatcher != null) {
+                patternFormat.digitShapeMatcher.matches(number)
+            } else {
+                if (numberString == null) {
+                    numberString = number.toString()
+                }
+                patternFormat.pattern.matcher(numberString).matches()
+            }
+
+            if (matches) {
+                return index
             }
         }
-        return defaultFormat
+        return patternFormats.size
     }
 }
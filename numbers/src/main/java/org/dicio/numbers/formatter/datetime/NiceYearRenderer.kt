@@ -0,0 +1,156 @@
+package org.dicio.numbers.formatter.datetime
+
+import org.dicio.numbers.util.RedundantSpacesRemover
+import kotlin.math.abs
+
+/**
+ * Formats years like [NiceYearSubstitutionTableBuilder] + the year format strings would, but
+ * without building any substitution map: the keys of the year format strings are resolved to
+ * [KEYS] indices once (see [FormatString.compile]), and the value of each key is computed only
+ * when and where it is used. Years between [MEMO_FIRST_YEAR] and [MEMO_LAST_YEAR] are, by far,
+ * the most commonly formatted ones, so their formatted version is also kept in memory once
+ * computed.
+ *
+ * There is one instance per [DateTimeConfig], see [DateTimeConfig.niceYearRenderer], and it can be
+ * used concurrently from multiple threads.
+ */
+internal class NiceYearRenderer(private val config: DateTimeConfig) {
+    private val decadeFormats = compile(config.decadeFormat)
+    private val hundredFormats = compile(config.hundredFormat)
+    private val thousandFormats = compile(config.thousandFormat)
+    private val yearFormats = compile(config.yearFormat)
+
+    // the same as config.getNumber(), but without boxing and hashing
+    private val numberWords: Array<String?> =
+        arrayOfNulls(minOf(10000, (config.numbers.keys.maxOrNull() ?: -1) + 1))
+
+    // racy accesses are fine, since strings are immutable and would always be computed the same
+    private val memo = arrayOfNulls<String>(MEMO_LAST_YEAR - MEMO_FIRST_YEAR + 1)
+
+    init {
+        for ((number, word) in config.numbers) {
+            if (number >= 0 && number < numberWords.size) {
+                numberWords[number] = word
+            }
+        }
+    }
+
+    /**
+     * Appends the formatted [yearWithSign] to [appendable], without leading, trailing or duplicate
+     * spaces.
+     */
+    fun appendTo(yearWithSign: Int, appendable: Appendable) {
+        if (yearWithSign < MEMO_FIRST_YEAR || yearWithSign > MEMO_LAST_YEAR) {
+            render(yearWithSign, RedundantSpacesRemover(appendable))
+            return
+        }
+
+        var formatted = memo[yearWithSign - MEMO_FIRST_YEAR]
+        if (formatted == null) {
+            val result = StringBuilder()
+            render(yearWithSign, RedundantSpacesRemover(result))
+            formatted = result.toString()
+            memo[yearWithSign - MEMO_FIRST_YEAR] = formatted
+        }
+        appendable.append(formatted)
+    }
+
+    private fun render(yearWithSign: Int, out: Appendable) {
+        val year = abs(yearWithSign)
+        appendPart(config.yearFormat, yearFormats, year, year, yearWithSign < 0, out)
+    }
+
+    private fun appendPart(
+        collection: FormatStringCollection,
+        formats: Array<FormatString.Compiled>,
+        number: Int,
+        year: Int,
+        bc: Boolean,
+        out: Appendable,
+    ) {
+        val format = formats[collection.getMostSuitableFormatStringIndex(number)]
+        for (i in format.literals.indices) {
+            val literal = format.literals[i]
+            if (literal != null) {
+                out.append(literal)
+                continue
+            }
+
+            when (format.keyIndices[i]) {
+                NUMBER -> appendInt(number, out)
+                BC -> if (bc) out.append(config.bc)
+                FORMATTED_DECADE ->
+                    appendPart(config.decadeFormat, decadeFormats, year % 100, year, bc, out)
+                FORMATTED_HUNDREDS ->
+                    appendPart(config.hundredFormat, hundredFormats, year % 1000, year, bc, out)
+                FORMATTED_THOUSAND ->
+                    appendPart(config.thousandFormat, thousandFormats, year % 10000, year, bc, out)
+
+                X -> out.append(numberWord(year % 10))
+                XX -> out.append(numberWord(year % 100))
+                X0 -> out.append(numberWord(year % 100 - year % 10))
+                X_IN_X0 -> out.append(numberWord(year % 100 / 10))
+                XXX -> out.append(numberWord(year % 1000))
+                X00 -> out.append(numberWord(year % 1000 - year % 100))
+                X_IN_X00, X_IN_0X00 -> out.append(numberWord(year % 1000 / 100))
+                XX00 -> out.append(numberWord(year % 10000 - year % 100))
+                XX_IN_XX00 -> out.append(numberWord(year % 10000 / 100))
+                X000 -> out.append(numberWord(year % 10000 - year % 1000))
+                X_IN_X000 -> out.append(numberWord(year % 10000 / 1000))
+                X0_IN_X000 -> out.append(numberWord(year % 10000 / 1000 * 10))
+                else -> throw IllegalArgumentException("Missing key ${format.keys[i]}")
+            }
+        }
+    }
+
+    private fun appendInt(number: Int, out: Appendable) {
+        if (out is StringBuilder) {
+            out.append(number) // avoids creating a string
+        } else {
+            out.append(number.toString())
+        }
+    }
+
+    private fun numberWord(number: Int): String {
+        return (if (number < numberWords.size) numberWords[number] else null)
+            ?: number.toString()
+    }
+
+    private companion object {
+        const val MEMO_FIRST_YEAR = 1000
+        const val MEMO_LAST_YEAR = 2100
+
+        // the keys are the same as the ones in NiceYearSubstitutionTableBuilder, plus the ones
+        // added by the nice year formatting itself
+        const val NUMBER = 0
+        const val BC = 1
+        const val FORMATTED_DECADE = 2
+        const val FORMATTED_HUNDREDS = 3
+        const val FORMATTED_THOUSAND = 4
+        const val X = 5
+        const val XX = 6
+        const val X0 = 7
+        const val X_IN_X0 = 8
+        const val XXX = 9
+        const val X00 = 10
+        const val X_IN_X00 = 11
+        const val X_IN_0X00 = 12
+        const val XX00 = 13
+        const val XX_IN_XX00 = 14
+        const val X000 = 15
+        const val X_IN_X000 = 16
+        const val X0_IN_X000 = 17
+
+        val KEYS = listOf(
+            "number", "bc", "formatted_decade", "formatted_hundreds", "formatted_thousand",
+            "x", "xx", "x0", "x_in_x0", "xxx", "x00", "x_in_x00", "x_in_0x00", "xx00",
+            "xx_in_xx00", "x000", "x_in_x000", "x0_in_x000",
+        )
+
+        fun compile(collection: FormatStringCollection): Array<FormatString.Compiled> {
+            return Array(collection.formatStringCount) {
+                collection.getFormatString(it).compile(KEYS)
+            }
+        }
+    }
+}
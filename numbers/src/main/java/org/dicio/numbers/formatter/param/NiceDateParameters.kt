@@ -20,4 +20,13 @@ class NiceDateParameters(
     fun get(): String {
         return formatter.niceDate(date, now)
     }
+
+    /**
+     * Like [get], but appends the result to [appendable] instead of returning it.
+     * @return [appendable]
+     */
+    fun <A : Appendable> appendTo(appendable: A): A {
+        formatter.niceDate(date, now, appendable)
+        return appendable
+    }
 }
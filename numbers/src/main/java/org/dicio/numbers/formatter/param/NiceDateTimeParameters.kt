@@ -43,4 +43,13 @@ class NiceDateTimeParameters(
     fun get(): String {
         return formatter.niceDateTime(date, now, time, use24Hour, showAmPm)
     }
+
+    /**
+     * Like [get], but appends the result to [appendable] instead of returning it.
+     * @return [appendable]
+     */
+    fun <A : Appendable> appendTo(appendable: A): A {
+        formatter.niceDateTime(date, now, time, use24Hour, showAmPm, appendable)
+        return appendable
+    }
 }
@@ -20,4 +20,13 @@ class NiceDurationParameters(
     fun get(): String {
         return formatter.niceDuration(duration, speech)
     }
+
+    /**
+     * Like [get], but appends the result to [appendable] instead of returning it.
+     * @return [appendable]
+     */
+    fun <A : Appendable> appendTo(appendable: A): A {
+        formatter.niceDuration(duration, speech, appendable)
+        return appendable
+    }
 }
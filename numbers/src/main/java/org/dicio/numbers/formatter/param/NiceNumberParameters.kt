@@ -55,4 +55,26 @@ class NiceNumberParameters(private val formatter: Formatter, private val number:
             return formatter.niceNumber(mixedFraction, speech)
         }
     }
+
+    /**
+     * Like [get], but appends the result to [appendable] instead of returning it.
+     * @return [appendable]
+     */
+    fun <A : Appendable> appendTo(appendable: A): A {
+        val mixedFraction = MixedFraction.of(number, denominators)
+        if (mixedFraction == null) {
+            // unable to convert to fraction
+            if (speech) {
+                formatter.pronounceNumber(number, 2, true, false, false, appendable)
+            } else {
+                val realPlaces = Utils.decimalPlacesNoFinalZeros(
+                    number, 2
+                )
+                appendable.append(String.format("%." + realPlaces + "f", number))
+            }
+        } else {
+            formatter.niceNumber(mixedFraction, speech, appendable)
+        }
+        return appendable
+    }
 }
@@ -32,4 +32,13 @@ class NiceTimeParameters(
     fun get(): String {
         return formatter.niceTime(time, speech, use24Hour, showAmPm)
     }
+
+    /**
+     * Like [get], but appends the result to [appendable] instead of returning it.
+     * @return [appendable]
+     */
+    fun <A : Appendable> appendTo(appendable: A): A {
+        formatter.niceTime(time, speech, use24Hour, showAmPm, appendable)
+        return appendable
+    }
 }
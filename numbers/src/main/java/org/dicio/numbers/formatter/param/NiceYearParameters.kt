@@ -15,4 +15,13 @@ class NiceYearParameters(
     fun get(): String {
         return formatter.niceYear(date)
     }
+
+    /**
+     * Like [get], but appends the result to [appendable] instead of returning it.
+     * @return [appendable]
+     */
+    fun <A : Appendable> appendTo(appendable: A): A {
+        formatter.niceYear(date, appendable)
+        return appendable
+    }
 }
@@ -58,4 +58,13 @@ class PronounceNumberParameters(private val formatter: Formatter, private val nu
     fun get(): String {
         return formatter.pronounceNumber(number, places, shortScale, scientific, ordinal)
     }
+
+    /**
+     * Like [get], but appends the result to [appendable] instead of returning it.
+     * @return [appendable]
+     */
+    fun <A : Appendable> appendTo(appendable: A): A {
+        formatter.pronounceNumber(number, places, shortScale, scientific, ordinal, appendable)
+        return appendable
+    }
 }
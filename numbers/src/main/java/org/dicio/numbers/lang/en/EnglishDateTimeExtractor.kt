@@ -1,6 +1,9 @@
 package org.dicio.numbers.lang.en
 
-import org.dicio.numbers.parser.lexer.TokenStream
+import org.dicio.numbers.parser.lexer.Categories
+import org.dicio.numbers.parser.lexer.MemoRule
+import org.dicio.numbers.parser.ParseContext
+import org.dicio.numbers.parser.Rule
 import org.dicio.numbers.unit.Duration
 import org.dicio.numbers.util.DateTimeExtractorUtils
 import org.dicio.numbers.util.DurationExtractorUtils
@@ -11,17 +14,62 @@ import java.time.LocalDateTime
 import java.time.LocalTime
 import java.time.temporal.ChronoUnit
 
-class EnglishDateTimeExtractor internal constructor(
-    private val ts: TokenStream,
-    shortScale: Boolean,
-    private val preferMonthBeforeDay: Boolean,
-    private val now: LocalDateTime
-) {
-    private val numberExtractor = EnglishNumberExtractor(ts, shortScale)
-    private val durationExtractor = DurationExtractorUtils(ts, numberExtractor::numberNoOrdinal)
-    private val dateTimeExtractor = DateTimeExtractorUtils(ts, now, this::extractIntegerInRange)
-
-    private fun extractIntegerInRange(
+/**
+ * The English date and time grammar. It holds no state (the token stream and the options are taken
+ * from the [ParseContext] receiver of each function), so it is created once by [EnglishParser] and
+ * can be used concurrently from multiple threads.
+ */
+class EnglishDateTimeExtractor internal constructor() {
+    private val numberExtractor = EnglishNumberExtractor()
+    private val durationExtractor =
+        DurationExtractorUtils { with(numberExtractor) { numberNoOrdinal() } }
+    private val dateTimeExtractor =
+        DateTimeExtractorUtils { from, to -> extractIntegerInRange(from, to) }
+
+    // rules whose results can be reused by TokenStream.memoize; they also depend on `now` and on
+    // the options in the ParseContext, which never change for a given token stream
+    private val timeWithAmpmRule = MemoRule("timeWithAmpm")
+    private val timeRule = MemoRule("time")
+    private val dateRule = MemoRule("date")
+    private val relativeDurationRule = MemoRule("relativeDuration")
+
+    // alternatives and skipped words, combined only once so that trying them does not allocate
+    private val dateFirstOrTimeFirst =
+        Rule.mostTokens(Rule { it.dateTime(false) }, Rule { it.dateTime(true) })
+    private val relativeDurationOrMonthDuration = Rule.firstNotNull(
+        Rule { it.relativeDuration() },
+        Rule { with(dateTimeExtractor) { it.relativeMonthDuration() } }
+    )
+    private val skipToTimeWithAmpm = Rule.skippingDateTimeIgnore { it.timeWithAmpm() }
+    private val skipToRelativeDuration = Rule.skippingDateTimeIgnore { it.relativeDuration() }
+    private val skipToRelativeSpecialDayOrDate = Rule.skippingDateTimeIgnore(
+        Rule.firstNotNull(Rule { it.relativeSpecialDay() }, Rule { it.date() })
+    )
+    private val skipToTime = Rule.skippingDateTimeIgnore { it.time() }
+    private val skipToAmpmOrMomentOfDay = Rule.skippingDateTimeIgnore(
+        Rule.firstNotNull(
+            Rule { with(dateTimeExtractor) { it.ampm() } },
+            Rule { it.momentOfDay()?.let(DateTimeExtractorUtils::isMomentOfDayPm) }
+        )
+    )
+    private val noonMidnightLikeOrHour =
+        Rule.firstNotNull(Rule { it.noonMidnightLike() }, Rule { it.hour() })
+    private val skipToSpecialMinuteSign = Rule.skippingDateTimeIgnore { it.specialMinuteSign() }
+    private val skipToMinute = Rule.skippingDateTimeIgnore { with(dateTimeExtractor) { it.minute() } }
+    private val skipToSecond = Rule.skippingDateTimeIgnore { with(dateTimeExtractor) { it.second() } }
+    private val skipToDayNumber = Rule.skippingDateTimeIgnore { it.extractIntegerInRange(1, 31, true) }
+    private val skipToMonthNumber = Rule.skippingDateTimeIgnore { it.extractIntegerInRange(1, 12, true) }
+    private val skipToMonthName = Rule.skippingDateTimeIgnore { with(dateTimeExtractor) { it.monthName() } }
+    private val skipToBcad = Rule.skippingDateTimeIgnore { it.bcad() }
+    private val skipToYear = Rule.skippingDateTimeIgnore { it.extractIntegerInRange(0, 999999999) }
+    private val relativeDays = Rule.firstNotNull(
+        Rule { it.relativeYesterday() },
+        Rule { with(dateTimeExtractor) { it.relativeToday() } },
+        Rule { it.relativeTomorrow() },
+        Rule { with(dateTimeExtractor) { it.relativeDayOfWeekDuration() } }
+    )
+
+    private fun ParseContext.extractIntegerInRange(
         fromInclusive: Int,
         toInclusive: Int,
         allowOrdinal: Boolean = false
@@ -29,15 +77,15 @@ class EnglishDateTimeExtractor internal constructor(
         // disallow fraction as / should be treated as a day/month/year separator
         return NumberExtractorUtils.extractOneIntegerInRange(
             ts, fromInclusive, toInclusive
-        ) { NumberExtractorUtils.signBeforeNumber(ts) { numberExtractor.numberInteger(allowOrdinal) } }
+        ) { NumberExtractorUtils.signBeforeNumber(ts) { with(numberExtractor) { numberInteger(allowOrdinal) } } }
     }
 
-    fun dateTime(): LocalDateTime? {
+    fun ParseContext.dateTime(): LocalDateTime? {
         // first try preferring having a date first, then try with time first
-        return ts.firstWhichUsesMostTokens({ dateTime(false) }, { dateTime(true) })
+        return dateFirstOrTimeFirst.parse(this)
     }
 
-    private fun dateTime(timeFirst: Boolean): LocalDateTime? {
+    private fun ParseContext.dateTime(timeFirst: Boolean): LocalDateTime? {
         var date: LocalDate? = null
         var time: LocalTime? = null
 
@@ -47,10 +95,7 @@ class EnglishDateTimeExtractor internal constructor(
 
             if (date == null) {
                 // then try with duration, since otherwise numbers would be interpreted as date days
-                val duration = Utils.firstNotNull(
-                    this::relativeDuration,
-                    dateTimeExtractor::relativeMonthDuration
-                )
+                val duration = relativeDurationOrMonthDuration.parse(this)
                 if (duration == null) {
                     // no normal relative duration found: finally try extracting a date normally
                     date = date()
@@ -68,19 +113,15 @@ class EnglishDateTimeExtractor internal constructor(
         }
 
         if (time == null) {
-            time = ts.tryOrSkipDateTimeIgnore(date != null) { this.timeWithAmpm() }
+            time = skipToTimeWithAmpm.parse(this, date != null)
         }
 
         if (date == null && time != null) {
             // try to extract a date after the time
             val originalPosition = ts.position
-            val duration = ts.tryOrSkipDateTimeIgnore(true) { this.relativeDuration() }
+            val duration = skipToRelativeDuration.parse(this)
             if (duration == null) {
-                date = ts.tryOrSkipDateTimeIgnore(
-                    true
-                ) {
-                    Utils.firstNotNull(this::relativeSpecialDay, this::date)
-                }
+                date = skipToRelativeSpecialDayOrDate.parse(this)
             } else if (duration.nanos == 0L && duration.days != 0L) {
                 date = duration.applyAsOffsetToDateTime(now).toLocalDate()
             } else {
@@ -95,14 +136,18 @@ class EnglishDateTimeExtractor internal constructor(
         }
     }
 
-    fun timeWithAmpm(): LocalTime? {
+    fun ParseContext.timeWithAmpm(): LocalTime? {
+        return ts.memoize(timeWithAmpmRule) { timeWithAmpmNotMemoized() }
+    }
+
+    private fun ParseContext.timeWithAmpmNotMemoized(): LocalTime? {
         var time = time()
         val pm: Boolean?
         if (time == null) {
             // if there is no time, maybe there is a moment of day (not am/pm though) preceding?
             val momentOfDay = momentOfDay() ?: return null
 
-            time = ts.tryOrSkipDateTimeIgnore(true) { this.time() }
+            time = skipToTime.parse(this)
             if (time == null) {
                 // found moment of day without a specific time
                 return LocalTime.of(momentOfDay, 0)
@@ -112,12 +157,7 @@ class EnglishDateTimeExtractor internal constructor(
             }
         } else {
             // found a time, now look for am/pm or a moment of day
-            pm = ts.tryOrSkipDateTimeIgnore(true) {
-                Utils.firstNotNull(
-                    dateTimeExtractor::ampm,
-                    { momentOfDay()?.let(DateTimeExtractorUtils::isMomentOfDayPm) }
-                )
-            }
+            pm = skipToAmpmOrMomentOfDay.parse(this)
         }
 
         if (time.hour != 0 && pm != null) {
@@ -134,12 +174,16 @@ class EnglishDateTimeExtractor internal constructor(
         return time
     }
 
-    fun time(): LocalTime? {
+    fun ParseContext.time(): LocalTime? {
+        return ts.memoize(timeRule) { timeNotMemoized() }
+    }
+
+    private fun ParseContext.timeNotMemoized(): LocalTime? {
         val originalPosition = ts.position
         val specialMinute = specialMinute()
 
         // try both with a normal hour and with "mezzogiorno"/"mezzanotte"
-        val hour = Utils.firstNotNull(this::noonMidnightLike, this::hour)
+        val hour = noonMidnightLikeOrHour.parse(this)
         if (hour == null) {
             ts.position = originalPosition
             return null
@@ -160,26 +204,28 @@ class EnglishDateTimeExtractor internal constructor(
             return result // e.g. ten o'clock
         }
 
-        val minute = ts.tryOrSkipDateTimeIgnore(true) { dateTimeExtractor.minute() }
+        val minute = skipToMinute.parse(this)
         if (minute == null) {
             return result
         }
         result = result.withMinute(minute)
 
-        val second = ts.tryOrSkipDateTimeIgnore(true) { dateTimeExtractor.second() }
+        val second = skipToSecond.parse(this)
         if (second == null) {
             return result
         }
         return result.withSecond(second)
     }
 
-    fun date(): LocalDate? {
+    fun ParseContext.date(): LocalDate? {
+        return ts.memoize(dateRule) { dateNotMemoized() }
+    }
+
+    private fun ParseContext.dateNotMemoized(): LocalDate? {
         var result = now.toLocalDate()
 
-        val dayOfWeek = dateTimeExtractor.dayOfWeek()
-        val firstNum = ts.tryOrSkipDateTimeIgnore(
-            dayOfWeek != null
-        ) { extractIntegerInRange(1, 31, true) }
+        val dayOfWeek = with(dateTimeExtractor) { dayOfWeek() }
+        val firstNum = skipToDayNumber.parse(this, dayOfWeek != null)
 
         if (firstNum == null && dayOfWeek != null) {
             // TODO maybe enforce the date to be in the future?
@@ -188,17 +234,14 @@ class EnglishDateTimeExtractor internal constructor(
 
         // below here, we do result.withMonth(1) because January has 31 days, so setting the
         // withDayOfMonth() below will always succeed, and then we overwrite/reset the month anyway
-        val monthName = ts.tryOrSkipDateTimeIgnore(
-            firstNum != null
-        ) { dateTimeExtractor.monthName() }
+        val monthName = skipToMonthName.parse(this, firstNum != null)
         if (monthName == null) {
             result = if (firstNum == null) {
                 result.withMonth(1).withDayOfMonth(1)
             } else {
-                val secondNumMax = if (firstNum <= 12) 31 else 12
-                val secondNum = ts.tryOrSkipDateTimeIgnore(
-                    true
-                ) { extractIntegerInRange(1, secondNumMax, true) }
+                // if the first number can't be a month, the second one must be
+                val secondNum =
+                    (if (firstNum <= 12) skipToDayNumber else skipToMonthNumber).parse(this)
 
                 if (secondNum == null) {
                     return if (preferMonthBeforeDay && firstNum <= 12) {
@@ -211,7 +254,7 @@ class EnglishDateTimeExtractor internal constructor(
                     if ((preferMonthBeforeDay || secondNum > 12) && firstNum <= 12) {
                         result.withMonth(1).withDayOfMonth(secondNum).withMonth(firstNum)
                     } else {
-                        // secondNum is surely <= 12 here because of secondNumMax
+                        // secondNum is surely <= 12 here because of skipToMonthNumber
                         result.withMonth(1).withDayOfMonth(firstNum).withMonth(secondNum)
                     }
                 }
@@ -220,9 +263,7 @@ class EnglishDateTimeExtractor internal constructor(
             result = result.withMonth(1)
 
             if (firstNum == null) {
-                val secondNum = ts.tryOrSkipDateTimeIgnore(
-                    true
-                ) { extractIntegerInRange(1, 31, true) }
+                val secondNum = skipToDayNumber.parse(this)
                 result = if (secondNum == null) {
                     result.withDayOfMonth(1)
                 } else {
@@ -239,12 +280,10 @@ class EnglishDateTimeExtractor internal constructor(
         val dayOrMonthFound = firstNum != null || monthName != null
 
         // we might have AD before the year, too
-        var bcad = ts.tryOrSkipDateTimeIgnore(dayOrMonthFound) { this.bcad() }
+        var bcad = skipToBcad.parse(this, dayOrMonthFound)
 
         // if month is null then day is also null, otherwise we would have returned above
-        val year = ts.tryOrSkipDateTimeIgnore(
-            dayOrMonthFound && bcad == null
-        ) { extractIntegerInRange(0, 999999999) }
+        val year = skipToYear.parse(this, dayOrMonthFound && bcad == null)
         if (year == null) {
             if (dayOrMonthFound) {
                 return result
@@ -259,37 +298,37 @@ class EnglishDateTimeExtractor internal constructor(
     }
 
 
-    fun bcad(): Boolean? {
-        val bcad = dateTimeExtractor.bcad()
+    fun ParseContext.bcad(): Boolean? {
+        val bcad = with(dateTimeExtractor) { bcad() }
         if (bcad != null && !bcad) {
             // skip "era" in "before current era"
-            val nextNotIgnore = ts.indexOfWithoutCategory("date_time_ignore", 0)
-            if (ts[nextNotIgnore].hasCategory("bcad_era")) {
+            val nextNotIgnore = ts.indexOfWithoutCategory(Categories.DATE_TIME_IGNORE, 0)
+            if (ts[nextNotIgnore].hasCategory(Categories.BCAD_ERA)) {
                 ts.movePositionForwardBy(nextNotIgnore + 1)
             }
         }
         return bcad
     }
 
-    fun noonMidnightLike(): Int? {
-        return noonMidnightLikeOrMomentOfDay("noon_midnight_like")
+    fun ParseContext.noonMidnightLike(): Int? {
+        return noonMidnightLikeOrMomentOfDay(Categories.NOON_MIDNIGHT_LIKE)
     }
 
-    fun momentOfDay(): Int? {
+    fun ParseContext.momentOfDay(): Int? {
         // noon_midnight_like is a part of moment_of_day, so noon and midnight are included
-        return noonMidnightLikeOrMomentOfDay("moment_of_day")
+        return noonMidnightLikeOrMomentOfDay(Categories.MOMENT_OF_DAY)
     }
 
-    private fun noonMidnightLikeOrMomentOfDay(category: String): Int? {
+    private fun ParseContext.noonMidnightLikeOrMomentOfDay(category: Int): Int? {
         val originalPosition = ts.position
 
         var relativeIndicator = 0 // 0 = not found, otherwise the sign, +1 or -1
-        if (ts[0].hasCategory("pre_special_hour")) {
+        if (ts[0].hasCategory(Categories.PRE_SPECIAL_HOUR)) {
             // found a word that usually comes before special hours, e.g. this, in
-            if (ts[0].hasCategory("pre_relative_indicator")) {
-                relativeIndicator = if (ts[0].hasCategory("negative")) -1 else 1
+            if (ts[0].hasCategory(Categories.PRE_RELATIVE_INDICATOR)) {
+                relativeIndicator = if (ts[0].hasCategory(Categories.NEGATIVE)) -1 else 1
                 // only move to next not ignore if we got a relative indicator, e.g. in the ...
-                ts.movePositionForwardBy(ts.indexOfWithoutCategory("date_time_ignore", 1))
+                ts.movePositionForwardBy(ts.indexOfWithoutCategory(Categories.DATE_TIME_IGNORE, 1))
             } else {
                 ts.movePositionForwardBy(1)
             }
@@ -308,11 +347,11 @@ class EnglishDateTimeExtractor internal constructor(
         return null
     }
 
-    fun hour(): Int? {
+    fun ParseContext.hour(): Int? {
         val originalPosition = ts.position
 
         // skip words that usually come before hours, e.g. at, hour
-        ts.movePositionForwardBy(ts.indexOfWithoutCategory("pre_hour", 0))
+        ts.movePositionForwardBy(ts.indexOfWithoutCategory(Categories.PRE_HOUR, 0))
 
         val number = extractIntegerInRange(0, DateTimeExtractorUtils.HOURS_IN_DAY)
         if (number == null) {
@@ -325,13 +364,13 @@ class EnglishDateTimeExtractor internal constructor(
         return number % DateTimeExtractorUtils.HOURS_IN_DAY // transform 24 into 0
     }
 
-    fun specialMinute(): Int? {
+    fun ParseContext.specialMinute(): Int? {
         val originalPosition = ts.position
 
         // skip words that usually come before hours, e.g. at, hour
-        ts.movePositionForwardBy(ts.indexOfWithoutCategory("pre_hour", 0))
+        ts.movePositionForwardBy(ts.indexOfWithoutCategory(Categories.PRE_HOUR, 0))
 
-        val number = numberExtractor.numberNoOrdinal()
+        val number = with(numberExtractor) { numberNoOrdinal() }
         if (number != null) {
             val minutes: Int
             if (number.isDecimal && number.decimalValue() > 0.0 && number.decimalValue() < 1.0) {
@@ -344,23 +383,9 @@ class EnglishDateTimeExtractor internal constructor(
                 return null
             }
 
-            val result = ts.tryOrSkipDateTimeIgnore(true) {
-                if (ts[0]
-                        .hasCategory("special_minute_after")
-                ) {
-                    // e.g. half past twelve
-                    ts.movePositionForwardBy(1)
-                    return@tryOrSkipDateTimeIgnore minutes
-                } else if (ts[0].hasCategory("special_minute_before")) {
-                    // e.g. quarter to eleven
-                    ts.movePositionForwardBy(1)
-                    return@tryOrSkipDateTimeIgnore -minutes
-                } else {
-                    return@tryOrSkipDateTimeIgnore null
-                }
-            }
-            if (result != null) {
-                return result
+            val sign = skipToSpecialMinuteSign.parse(this)
+            if (sign != null) {
+                return sign * minutes
             }
         }
 
@@ -368,14 +393,28 @@ class EnglishDateTimeExtractor internal constructor(
         return null
     }
 
-    fun oClock(): Boolean {
-        if (ts[0].hasCategory("pre_oclock")) {
-            val nextNotIgnore = ts.indexOfWithoutCategory("date_time_ignore", 1)
-            if (ts[nextNotIgnore].hasCategory("post_oclock")) {
+    private fun ParseContext.specialMinuteSign(): Int? {
+        if (ts[0].hasCategory(Categories.SPECIAL_MINUTE_AFTER)) {
+            // e.g. half past twelve
+            ts.movePositionForwardBy(1)
+            return 1
+        } else if (ts[0].hasCategory(Categories.SPECIAL_MINUTE_BEFORE)) {
+            // e.g. quarter to eleven
+            ts.movePositionForwardBy(1)
+            return -1
+        } else {
+            return null
+        }
+    }
+
+    fun ParseContext.oClock(): Boolean {
+        if (ts[0].hasCategory(Categories.PRE_OCLOCK)) {
+            val nextNotIgnore = ts.indexOfWithoutCategory(Categories.DATE_TIME_IGNORE, 1)
+            if (ts[nextNotIgnore].hasCategory(Categories.POST_OCLOCK)) {
                 ts.movePositionForwardBy(nextNotIgnore + 1)
                 return true
             }
-        } else if (ts[0].hasCategory("oclock_combined")) {
+        } else if (ts[0].hasCategory(Categories.OCLOCK_COMBINED)) {
             ts.movePositionForwardBy(1)
             return true
         }
@@ -383,39 +422,34 @@ class EnglishDateTimeExtractor internal constructor(
     }
 
 
-    private fun relativeSpecialDay(): LocalDate? {
-        val days = Utils.firstNotNull(
-            this::relativeYesterday,
-            dateTimeExtractor::relativeToday,
-            this::relativeTomorrow,
-            dateTimeExtractor::relativeDayOfWeekDuration
-        )
+    private fun ParseContext.relativeSpecialDay(): LocalDate? {
+        val days = relativeDays.parse(this)
         if (days == null) {
             return null
         }
         return now.toLocalDate().plusDays(days.toLong())
     }
 
-    fun relativeYesterday(): Int? {
-        if (ts[0].hasCategory("day_adder_the")
-            && ts[1].hasCategory("day_adder_day")
-            && ts[2].hasCategory("day_adder_before")
-            && ts[3].hasCategory("yesterday")
+    fun ParseContext.relativeYesterday(): Int? {
+        if (ts[0].hasCategory(Categories.DAY_ADDER_THE)
+            && ts[1].hasCategory(Categories.DAY_ADDER_DAY)
+            && ts[2].hasCategory(Categories.DAY_ADDER_BEFORE)
+            && ts[3].hasCategory(Categories.YESTERDAY)
         ) {
             ts.movePositionForwardBy(4)
             return -2 // e.g. the day before yesterday
         }
 
         // "the" is optional
-        if (ts[0].hasCategory("day_adder_day")
-            && ts[1].hasCategory("day_adder_before")
-            && ts[2].hasCategory("yesterday")
+        if (ts[0].hasCategory(Categories.DAY_ADDER_DAY)
+            && ts[1].hasCategory(Categories.DAY_ADDER_BEFORE)
+            && ts[2].hasCategory(Categories.YESTERDAY)
         ) {
             ts.movePositionForwardBy(3)
             return -2 // e.g. day before yesterday
         }
 
-        if (ts[0].hasCategory("yesterday")) {
+        if (ts[0].hasCategory(Categories.YESTERDAY)) {
             ts.movePositionForwardBy(1)
             return -1 // e.g. yesterday
         } else {
@@ -423,26 +457,26 @@ class EnglishDateTimeExtractor internal constructor(
         }
     }
 
-    fun relativeTomorrow(): Int? {
-        if (ts[0].hasCategory("day_adder_the")
-            && ts[1].hasCategory("day_adder_day")
-            && ts[2].hasCategory("day_adder_after")
-            && ts[3].hasCategory("tomorrow")
+    fun ParseContext.relativeTomorrow(): Int? {
+        if (ts[0].hasCategory(Categories.DAY_ADDER_THE)
+            && ts[1].hasCategory(Categories.DAY_ADDER_DAY)
+            && ts[2].hasCategory(Categories.DAY_ADDER_AFTER)
+            && ts[3].hasCategory(Categories.TOMORROW)
         ) {
             ts.movePositionForwardBy(4)
             return 2 // e.g. the day after tomorrow
         }
 
         // "the" is optional
-        if (ts[0].hasCategory("day_adder_day")
-            && ts[1].hasCategory("day_adder_after")
-            && ts[2].hasCategory("tomorrow")
+        if (ts[0].hasCategory(Categories.DAY_ADDER_DAY)
+            && ts[1].hasCategory(Categories.DAY_ADDER_AFTER)
+            && ts[2].hasCategory(Categories.TOMORROW)
         ) {
             ts.movePositionForwardBy(3)
             return 2 // e.g. day after tomorrow
         }
 
-        if (ts[0].hasCategory("tomorrow")) {
+        if (ts[0].hasCategory(Categories.TOMORROW)) {
             ts.movePositionForwardBy(1)
             return 1 // e.g. tomorrow
         } else {
@@ -450,10 +484,16 @@ class EnglishDateTimeExtractor internal constructor(
         }
     }
 
-    fun relativeDuration(): Duration? {
-        return dateTimeExtractor.relativeIndicatorDuration(
-            { durationExtractor.duration() },
-            { duration -> duration.multiply(-1) }
-        )
+    fun ParseContext.relativeDuration(): Duration? {
+        return ts.memoize(relativeDurationRule) { relativeDurationNotMemoized() }
+    }
+
+    private fun ParseContext.relativeDurationNotMemoized(): Duration? {
+        return with(dateTimeExtractor) {
+            relativeIndicatorDuration(
+                { with(durationExtractor) { duration() } },
+                { duration -> duration.multiply(-1) }
+            )
+        }
     }
 }
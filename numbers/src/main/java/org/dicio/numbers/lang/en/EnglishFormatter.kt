@@ -46,7 +46,7 @@ class EnglishFormatter : Formatter("config/en-us") {
         }
     }
 
-    override fun pronounceNumber(
+    override fun pronounceNumberNotCached(
         number: Double,
         places: Int,
         shortScale: Boolean,
@@ -1,14 +1,28 @@
 package org.dicio.numbers.lang.en
 
+import org.dicio.numbers.parser.ParseContext
+import org.dicio.numbers.parser.lexer.Categories
+import org.dicio.numbers.parser.lexer.MemoRule
 import org.dicio.numbers.parser.lexer.TokenStream
 import org.dicio.numbers.unit.Number
+import org.dicio.numbers.unit.NumberAccumulator
 import org.dicio.numbers.util.NumberExtractorUtils
-
-class EnglishNumberExtractor internal constructor(
-    private val ts: TokenStream,
-    private val shortScale: Boolean
-) {
-    fun numberPreferOrdinal(): Number? {
+import java.math.BigDecimal
+
+/**
+ * The English number grammar. It holds no state (the token stream and the options are taken from the
+ * [ParseContext] receiver of each function), so it is created once by [EnglishParser] and can be
+ * used concurrently from multiple threads.
+ */
+class EnglishNumberExtractor internal constructor() {
+    // rules whose results can be reused by TokenStream.memoize; they also depend on the options in
+    // the ParseContext, which never change for a given token stream
+    private val numberPointRule = MemoRule("numberPoint")
+    private val numberPointOrdinalRule = MemoRule("numberPoint(ordinal)")
+    private val numberIntegerRule = MemoRule("numberInteger")
+    private val numberIntegerOrdinalRule = MemoRule("numberInteger(ordinal)")
+
+    fun ParseContext.numberPreferOrdinal(): Number? {
         val number = numberSuffixMultiplier() // first try with suffix multiplier, e.g. dozen
             ?: numberSignPoint(true) // then try with normal number
 
@@ -16,7 +30,7 @@ class EnglishNumberExtractor internal constructor(
         return divideByDenominatorIfPossible(number)
     }
 
-    fun numberPreferFraction(): Number? {
+    fun ParseContext.numberPreferFraction(): Number? {
         val number = numberSuffixMultiplier() // first try with suffix multiplier, e.g. dozen
             ?: numberSignPoint(false) // then try without ordinal
 
@@ -30,7 +44,7 @@ class EnglishNumberExtractor internal constructor(
         }
     }
 
-    fun numberNoOrdinal(): Number? {
+    fun ParseContext.numberNoOrdinal(): Number? {
         // for now this function is used internally just for duration parsing, but maybe it could
         // be exposed to library users, giving more control over how ordinals are handled.
 
@@ -42,7 +56,7 @@ class EnglishNumberExtractor internal constructor(
         return divideByDenominatorIfPossible(number)
     }
 
-    fun numberMustBeInteger(): Number? {
+    fun ParseContext.numberMustBeInteger(): Number? {
         val number = numberSuffixMultiplierInteger() // first try with suffix multiplier, e.g. dozen
             ?: numberSignInteger(true) // then try with normal number
 
@@ -55,13 +69,13 @@ class EnglishNumberExtractor internal constructor(
             if (multiplier == null) {
                 number
             } else {
-                number.multiply(multiplier)
+                NumberExtractorUtils.multiply(number, multiplier, exact)
             }
         }
     }
 
 
-    fun divideByDenominatorIfPossible(numberToEdit: Number?): Number? {
+    fun ParseContext.divideByDenominatorIfPossible(numberToEdit: Number?): Number? {
         if (numberToEdit == null) {
             if (ts[0].isValue("a")) {
                 // handle cases where
@@ -84,13 +98,13 @@ class EnglishNumberExtractor internal constructor(
         // 10^24) would be decimal, here we are assuming that such a number will never have a
         // fraction after it for simplicity.
         if (!numberToEdit.isOrdinal && !numberToEdit.isDecimal
-            && !ts[0].hasCategory("ignore")
+            && !ts[0].hasCategory(Categories.IGNORE)
         ) {
             val originalPosition = ts.position
             val denominator = numberInteger(true)
             if (denominator == null) {
                 // no denominator found: maybe a custom multiplier? e.g. half (=0.5), dozen (=12)
-                if (ts[0].hasCategory("suffix_multiplier")) {
+                if (ts[0].hasCategory(Categories.SUFFIX_MULTIPLIER)) {
                     ts.movePositionForwardBy(1)
 
                     val multiplier = ts[-1].number
@@ -104,7 +118,7 @@ class EnglishNumberExtractor internal constructor(
                         return numberToEdit.divide((1 / multiplier.decimalValue()).toLong())
                     }
 
-                    return numberToEdit.multiply(multiplier)
+                    return NumberExtractorUtils.multiply(numberToEdit, multiplier, exact)
                 }
             } else if (denominator.isOrdinal && denominator.moreThan(2)) {
                 return numberToEdit.divide(denominator) // valid denominator, e.g. one fifth
@@ -116,11 +130,11 @@ class EnglishNumberExtractor internal constructor(
         return numberToEdit
     }
 
-    fun numberSuffixMultiplier(): Number? {
-        if (ts[0].hasCategory("suffix_multiplier")) {
+    fun ParseContext.numberSuffixMultiplier(): Number? {
+        if (ts[0].hasCategory(Categories.SUFFIX_MULTIPLIER)) {
             ts.movePositionForwardBy(1)
             return ts[-1].number // a suffix multiplier, e.g. dozen, half, score, percent
-        } else if (ts[0].isValue("a") && ts[1].hasCategory("suffix_multiplier")) {
+        } else if (ts[0].isValue("a") && ts[1].hasCategory(Categories.SUFFIX_MULTIPLIER)) {
             ts.movePositionForwardBy(2) // also skip "a" before the suffix, e.g. a dozen
             return ts[-1].number // a suffix multiplier preceded by "a", e.g. a quarter
         } else {
@@ -128,11 +142,11 @@ class EnglishNumberExtractor internal constructor(
         }
     }
 
-    fun numberSuffixMultiplierInteger(): Number? {
-        if (ts[0].hasCategory("suffix_multiplier") && ts[0].number!!.isInteger) {
+    fun ParseContext.numberSuffixMultiplierInteger(): Number? {
+        if (ts[0].hasCategory(Categories.SUFFIX_MULTIPLIER) && ts[0].number!!.isInteger) {
             ts.movePositionForwardBy(1)
             return ts[-1].number // a suffix multiplier, e.g. dozen, score
-        } else if (ts[0].isValue("a") && ts[1].hasCategory("suffix_multiplier")
+        } else if (ts[0].isValue("a") && ts[1].hasCategory(Categories.SUFFIX_MULTIPLIER)
             && ts[1].number!!.isInteger
         ) {
             ts.movePositionForwardBy(2) // also skip "a" before the suffix, e.g. a dozen
@@ -142,25 +156,32 @@ class EnglishNumberExtractor internal constructor(
         }
     }
 
-    fun numberSignPoint(allowOrdinal: Boolean): Number? {
+    fun ParseContext.numberSignPoint(allowOrdinal: Boolean): Number? {
         return NumberExtractorUtils.signBeforeNumber(ts) { numberPoint(allowOrdinal) }
     }
 
-    fun numberSignInteger(allowOrdinal: Boolean): Number? {
+    fun ParseContext.numberSignInteger(allowOrdinal: Boolean): Number? {
         return NumberExtractorUtils.signBeforeNumber(ts) { numberInteger(allowOrdinal) }
     }
 
-    fun numberPoint(allowOrdinal: Boolean): Number? {
+    fun ParseContext.numberPoint(allowOrdinal: Boolean): Number? {
+        return ts.memoize(if (allowOrdinal) numberPointOrdinalRule else numberPointRule) {
+            numberPointNotMemoized(allowOrdinal)
+        }
+    }
+
+    private fun ParseContext.numberPointNotMemoized(allowOrdinal: Boolean): Number? {
         var n = numberInteger(allowOrdinal)
         if (n != null && n.isOrdinal) {
             return n // no point or fraction separator can appear after an ordinal number
         }
 
-        if (ts[0].hasCategory("point")) {
+        if (ts[0].hasCategory(Categories.POINT)) {
             // parse point indicator from e.g. "twenty one point four five three"
 
-            if (!ts[1].hasCategory("digit_after_point")
-                && (!NumberExtractorUtils.isRawNumber(ts[1]) || ts[2].hasCategory("ordinal_suffix"))
+            if (!ts[1].hasCategory(Categories.DIGIT_AFTER_POINT)
+                && (!NumberExtractorUtils.isRawNumber(ts[1])
+                        || ts[2].hasCategory(Categories.ORDINAL_SUFFIX))
             ) {
                 // also return if next up is an ordinal raw number, i.e. followed by st/nd/rd/th
                 return n // there is an only point at the end of the number: it is not part of it
@@ -171,27 +192,37 @@ class EnglishNumberExtractor internal constructor(
                 n = Number(0.0) // numbers can start with just "point"
             }
 
+            val digits = NumberAccumulator(exact).set(n) // avoid creating a Number for each digit
             var magnitude = 0.1
-            if (ts[0].value.length > 1 && NumberExtractorUtils.isRawNumber(ts[0])) {
+            if (ts[0].valueLength > 1 && NumberExtractorUtils.isRawNumber(ts[0])) {
                 // handle sequence of raw digits after point, e.g. .0123
                 // value.length > 1 since multiple single-digits are handled below, e.g. . 0 1 2 3
-                for (i in 0 until ts[0].value.length) {
-                    n = n!!.plus((ts[0].value[i].code - '0'.code) * magnitude)
+                for (i in 0 until ts[0].valueLength) {
+                    if (exact) {
+                        digits.plusDecimalDigit(ts[0].value[i].code - '0'.code)
+                    } else {
+                        digits.plus((ts[0].value[i].code - '0'.code) * magnitude)
+                    }
                     magnitude /= 10.0
                 }
                 ts.movePositionForwardBy(1)
             } else {
                 // read as many digits as possible, e.g. point one six 5 one 0 three
                 while (true) {
-                    if (ts[0].hasCategory("digit_after_point")
-                        || (ts[0].value.length == 1 && NumberExtractorUtils.isRawNumber(
+                    if (ts[0].hasCategory(Categories.DIGIT_AFTER_POINT)
+                        || (ts[0].valueLength == 1 && NumberExtractorUtils.isRawNumber(
                             ts[0]
                         )
-                                && !ts[1].hasCategory("ordinal_suffix"))
+                                && !ts[1].hasCategory(Categories.ORDINAL_SUFFIX))
                     ) {
                         // do not allow ordinal raw numbers, i.e. followed by st/nd/rd/th
 
-                        n = n!!.plus(ts[0].number!!.multiply(magnitude))
+                        val digit = ts[0].number!!
+                        if (exact && digit.isInteger && digit.integerValue() in 0..9) {
+                            digits.plusDecimalDigit(digit.integerValue().toInt())
+                        } else {
+                            digits.plusProduct(digit, magnitude)
+                        }
                         magnitude /= 10.0
                     } else {
                         break // reached a word that is not a valid digit
@@ -199,12 +230,13 @@ class EnglishNumberExtractor internal constructor(
                     ts.movePositionForwardBy(1)
                 }
             }
-        } else if (n != null && ts[0].hasCategory("fraction_separator")) {
+            n = digits.toNumber()
+        } else if (n != null && ts[0].hasCategory(Categories.FRACTION_SEPARATOR)) {
             // parse fraction from e.g. "twenty divided by one hundred"
 
             val originalPosition = ts.position
             ts.movePositionForwardBy(1)
-            if (ts[0].hasCategory("fraction_separator_secondary")) {
+            if (ts[0].hasCategory(Categories.FRACTION_SEPARATOR_SECONDARY)) {
                 ts.movePositionForwardBy(1) // also remove "by" after "divided by"
             }
 
@@ -221,36 +253,42 @@ class EnglishNumberExtractor internal constructor(
         return n
     }
 
-    fun numberInteger(allowOrdinal: Boolean): Number? {
+    fun ParseContext.numberInteger(allowOrdinal: Boolean): Number? {
+        return ts.memoize(if (allowOrdinal) numberIntegerOrdinalRule else numberIntegerRule) {
+            numberIntegerNotMemoized(allowOrdinal)
+        }
+    }
+
+    private fun ParseContext.numberIntegerNotMemoized(allowOrdinal: Boolean): Number? {
         val originalPosition = ts.position
         // this avoids matching "and seven", "a two", "a hundredth" and "a trillionth",
         // but still allows "a hundred" and "a trillion"
         if (ts[0].isValue("a") && (
-                    (ts[1].hasCategory("multiplier") && !ts[1].number!!.isOrdinal)
-                            || ts[1].hasCategory("hundred")
+                    (ts[1].hasCategory(Categories.MULTIPLIER) && !ts[1].number!!.isOrdinal)
+                            || ts[1].hasCategory(Categories.HUNDRED)
                     )
         ) {
             // allow ignoring "a" if it comes right before the multiplier (e.g. a thousand)
             ts.movePositionForwardBy(1)
         }
 
-        var n = NumberExtractorUtils.numberMadeOfGroups(ts) { ts, lastMultiplier ->
+        var n = NumberExtractorUtils.numberMadeOfGroups(ts, exact) { ts, lastMultiplier ->
             if (shortScale)
-                NumberExtractorUtils.numberGroupShortScale(ts, allowOrdinal, lastMultiplier)
+                NumberExtractorUtils.numberGroupShortScale(ts, allowOrdinal, lastMultiplier, exact)
             else
-                numberGroupLongScale(ts, allowOrdinal, lastMultiplier)
+                numberGroupLongScale(ts, allowOrdinal, lastMultiplier, exact)
         }
         if (n == null) {
             // restore original position, "a" can't come before a random raw number, e.g. a 1207
             ts.position = originalPosition
             // try to parse big raw numbers (>=1000), e.g. 1207
-            return NumberExtractorUtils.numberBigRaw(ts, allowOrdinal)
+            return NumberExtractorUtils.numberBigRaw(ts, allowOrdinal, exact)
         } else if (n.isOrdinal) {
             return n // no more checks, as the ordinal word comes last, e.g. million twelfth
         }
 
         // n != null from here on
-        if (n.lessThan(21) && n.moreThan(9) && !ts[-1].hasCategory("raw")) {
+        if (n.lessThan(21) && n.moreThan(9) && !ts[-1].hasCategory(Categories.RAW)) {
             // parse years (1001 to 2099) in the particular forms (but xx-hundred is handled below)
             val secondGroup = numberYearSecondGroup(allowOrdinal)
             if (secondGroup != null) {
@@ -259,10 +297,10 @@ class EnglishNumberExtractor internal constructor(
         }
 
         if (n.lessThan(100)) {
-            val nextNotIgnore = ts.indexOfWithoutCategory("ignore", 0)
-            if (ts[nextNotIgnore].hasCategory("hundred")) {
+            val nextNotIgnore = ts.indexOfWithoutCategory(Categories.IGNORE, 0)
+            if (ts[nextNotIgnore].hasCategory(Categories.HUNDRED)) {
                 // parse numbers suffixed by hundred, e.g. twenty six hundred -> 2600
-                val ordinal = ts[nextNotIgnore].hasCategory("ordinal")
+                val ordinal = ts[nextNotIgnore].hasCategory(Categories.ORDINAL)
                 if (allowOrdinal || !ordinal) {
                     // prevent ordinal numbers if allowOrdinal is false
                     ts.movePositionForwardBy(nextNotIgnore + 1)
@@ -274,22 +312,25 @@ class EnglishNumberExtractor internal constructor(
         if (n.lessThan(1000)) {
             // parse raw number n separated by comma, e.g. 123,045,006
             // assuming current position is at the first comma
-            if (NumberExtractorUtils.isRawNumber(ts[-1]) && ts[0].hasCategory("thousand_separator") &&
-                ts[1].value.length == 3 && NumberExtractorUtils.isRawNumber(ts[1])
+            if (NumberExtractorUtils.isRawNumber(ts[-1])
+                && ts[0].hasCategory(Categories.THOUSAND_SEPARATOR) &&
+                ts[1].valueLength == 3 && NumberExtractorUtils.isRawNumber(ts[1])
             ) {
                 val originalPosition = ts.position - 1
 
-                while (ts[0].hasCategory("thousand_separator") && ts[1].value.length == 3 &&
-                    NumberExtractorUtils.isRawNumber(ts[1])
+                val groups = NumberAccumulator(exact).set(n)
+                while (ts[0].hasCategory(Categories.THOUSAND_SEPARATOR)
+                    && ts[1].valueLength == 3 && NumberExtractorUtils.isRawNumber(ts[1])
                 ) {
-                    n = n!!.multiply(1000).plus(ts[1].number)
+                    groups.multiply(1000).plus(ts[1].number!!)
                     ts.movePositionForwardBy(2) // do not allow ignored words in between
                 }
+                n = groups.toNumber()
 
-                if (ts[0].hasCategory("ordinal_suffix")) {
+                if (ts[0].hasCategory(Categories.ORDINAL_SUFFIX)) {
                     if (allowOrdinal) {
                         ts.movePositionForwardBy(1)
-                        return n!!.withOrdinal(true) // ordinal number, e.g. 20,056,789th
+                        return n.withOrdinal(true) // ordinal number, e.g. 20,056,789th
                     } else {
                         ts.position = originalPosition
                         return null // found ordinal number, revert since allowOrdinal is false
@@ -301,46 +342,46 @@ class EnglishNumberExtractor internal constructor(
         return n // e.g. six million, three hundred and twenty seven
     }
 
-    fun numberYearSecondGroup(allowOrdinal: Boolean): Number? {
+    fun ParseContext.numberYearSecondGroup(allowOrdinal: Boolean): Number? {
         // parse the last two digits of a year, e.g. oh five -> 05, nineteen -> 19, eighty two -> 82
 
         // use nextNotIgnore to skip -, e.g. (nineteen)-oh-two
 
-        val nextNotIgnore = ts.indexOfWithoutCategory("ignore", 0)
+        val nextNotIgnore = ts.indexOfWithoutCategory(Categories.IGNORE, 0)
 
         if (ts[nextNotIgnore].isNumberEqualTo(0)) {
-            val digitIndex = ts.indexOfWithoutCategory("ignore", nextNotIgnore + 1)
-            val ordinal = ts[digitIndex].hasCategory("ordinal")
+            val digitIndex = ts.indexOfWithoutCategory(Categories.IGNORE, nextNotIgnore + 1)
+            val ordinal = ts[digitIndex].hasCategory(Categories.ORDINAL)
             if (ts[digitIndex].number?.lessThan(10) == true && (allowOrdinal || !ordinal)) {
                 // o/oh/nought/zero/0 + digit, e.g. (sixteen) oh one -> (16)01
                 // prevent ordinal number if allowOrdinal is false, e.g. (eighteen) oh second
                 ts.movePositionForwardBy(digitIndex + 1)
                 return ts[-1].number!!.withOrdinal(ordinal)
             }
-        } else if (ts[nextNotIgnore].hasCategory("teen")) {
+        } else if (ts[nextNotIgnore].hasCategory(Categories.TEEN)) {
             // teen, e.g. (twenty) thirteen -> (20)13
-            val ordinal = ts[nextNotIgnore].hasCategory("ordinal")
+            val ordinal = ts[nextNotIgnore].hasCategory(Categories.ORDINAL)
             if (!allowOrdinal && ordinal) {
                 return null // do not allow ordinal number if allowOrdinal is false
             } else {
                 ts.movePositionForwardBy(nextNotIgnore + 1)
                 return ts[-1].number!!.withOrdinal(ordinal)
             }
-        } else if (ts[nextNotIgnore].value.length == 2
+        } else if (ts[nextNotIgnore].valueLength == 2
             && NumberExtractorUtils.isRawNumber(ts[nextNotIgnore])
         ) {
             // raw number with two digits, e.g. (twenty) 41 -> (20)41, (12) 05 th -> (12)05th
-            val ordinal = ts[nextNotIgnore + 1].hasCategory("ordinal_suffix")
+            val ordinal = ts[nextNotIgnore + 1].hasCategory(Categories.ORDINAL_SUFFIX)
             if (!allowOrdinal && ordinal) {
                 return null // do not allow raw number + st/nd/rd/th if allowOrdinal is false
             } else {
                 ts.movePositionForwardBy(nextNotIgnore + (if (ordinal) 2 else 1))
                 return ts[if (ordinal) -2 else -1].number!!.withOrdinal(ordinal)
             }
-        } else if (ts[nextNotIgnore].hasCategory("tens")) {
+        } else if (ts[nextNotIgnore].hasCategory(Categories.TENS)) {
             // tens (+ digit), e.g. (nineteen) eighty four -> (19)84
             val tens = ts[nextNotIgnore].number
-            if (ts[nextNotIgnore].hasCategory("ordinal")) {
+            if (ts[nextNotIgnore].hasCategory(Categories.ORDINAL)) {
                 if (allowOrdinal) {
                     // nothing follows an ordinal number, e.g. (twenty) twentieth -> 2020th
                     ts.movePositionForwardBy(nextNotIgnore + 1)
@@ -351,9 +392,9 @@ class EnglishNumberExtractor internal constructor(
             }
             ts.movePositionForwardBy(nextNotIgnore + 1)
 
-            val digitIndex = ts.indexOfWithoutCategory("ignore", 0)
-            val ordinal = ts[digitIndex].hasCategory("ordinal")
-            if (ts[digitIndex].hasCategory("digit") && (allowOrdinal || !ordinal)) {
+            val digitIndex = ts.indexOfWithoutCategory(Categories.IGNORE, 0)
+            val ordinal = ts[digitIndex].hasCategory(Categories.ORDINAL)
+            if (ts[digitIndex].hasCategory(Categories.DIGIT) && (allowOrdinal || !ordinal)) {
                 // do not consider ordinal digit if allowOrdinal is false
                 ts.movePositionForwardBy(digitIndex + 1)
                 return tens!!.plus(ts[-1].number).withOrdinal(ordinal)
@@ -366,18 +407,30 @@ class EnglishNumberExtractor internal constructor(
     }
 
     companion object {
+        // the long scale quadrillion and quintillion do not fit in a Long, see
+        // shortMultiplierToLongScale
+        private val EXACT_QUADRILLION = Number(BigDecimal.TEN.pow(24))
+        private val EXACT_QUINTILLION = Number(BigDecimal.TEN.pow(30))
+
+        /**
+         * @param exact whether to keep the exact value of the group even if it overflows a
+         * [Long], see [org.dicio.numbers.parser.param.ExtractNumberParams.exact]
+         */
         @JvmStatic
+        @JvmOverloads
         fun numberGroupLongScale(
             ts: TokenStream,
             allowOrdinal: Boolean,
-            lastMultiplier: Double
+            lastMultiplier: Double,
+            exact: Boolean = false
         ): Number? {
             if (lastMultiplier < 1000000) {
                 return null // prevent two numbers smaller than 1000000 to be one after another
             }
 
             val originalPosition = ts.position
-            var first = NumberExtractorUtils.numberGroupShortScale(ts, allowOrdinal, 1000000.0)
+            var first =
+                NumberExtractorUtils.numberGroupShortScale(ts, allowOrdinal, 1000000.0, exact)
             if (first == null) {
                 // there is no number or the number is followed by a multiplier which is not thousand
                 first = NumberExtractorUtils.numberLessThan1000(ts, allowOrdinal)
@@ -390,7 +443,7 @@ class EnglishNumberExtractor internal constructor(
                         && ts[0].number!!.lessThan(1000000)
                     ) {
                         // maybe a raw number smaller than 1000000, e.g. 785743
-                        val ordinal = ts[1].hasCategory("ordinal_suffix")
+                        val ordinal = ts[1].hasCategory(Categories.ORDINAL_SUFFIX)
                         if (ordinal) {
                             if (!allowOrdinal) {
                                 // do not allow raw number + st/nd/rd/th if allowOrdinal is false
@@ -409,7 +462,7 @@ class EnglishNumberExtractor internal constructor(
                     return first
                 }
 
-                val nextNotIgnore = ts.indexOfWithoutCategory("ignore", 0)
+                val nextNotIgnore = ts.indexOfWithoutCategory(Categories.IGNORE, 0)
                 ts.movePositionForwardBy(nextNotIgnore)
                 val second = NumberExtractorUtils.numberLessThan1000(ts, allowOrdinal)
                 if (second == null) {
@@ -422,13 +475,13 @@ class EnglishNumberExtractor internal constructor(
                 }
             }
 
-            val nextNotIgnore = ts.indexOfWithoutCategory("ignore", 0)
-            val ordinal = ts[nextNotIgnore].hasCategory("ordinal")
-            if (ts[nextNotIgnore].hasCategory("multiplier") && (allowOrdinal || !ordinal)
+            val nextNotIgnore = ts.indexOfWithoutCategory(Categories.IGNORE, 0)
+            val ordinal = ts[nextNotIgnore].hasCategory(Categories.ORDINAL)
+            if (ts[nextNotIgnore].hasCategory(Categories.MULTIPLIER) && (allowOrdinal || !ordinal)
                 && ts[nextNotIgnore].number!!.moreThan(1000)
             ) {
                 // prevent ordinal multiplier if allowOrdinal is false; prevent thousand multiplier
-                val multiplier = shortMultiplierToLongScale(ts[nextNotIgnore].number)
+                val multiplier = shortMultiplierToLongScale(ts[nextNotIgnore].number, exact)
                 if (multiplier!!.lessThan(lastMultiplier)) {
                     ts.movePositionForwardBy(nextNotIgnore + 1)
                     return if (first == null) {
@@ -437,7 +490,8 @@ class EnglishNumberExtractor internal constructor(
                     } else {
                         // number smaller than 1000000 followed by a multiplier,
                         // e.g. thirteen thousand billion
-                        multiplier.multiply(first).withOrdinal(ordinal)
+                        NumberExtractorUtils.multiply(multiplier, first, exact)
+                            .withOrdinal(ordinal)
                     }
                 }
             } else {
@@ -452,15 +506,23 @@ class EnglishNumberExtractor internal constructor(
             return null
         }
 
-        fun shortMultiplierToLongScale(shortScaleMultiplier: Number?): Number? {
+        /**
+         * @param exact whether to return an exact value for multipliers which do not fit in a
+         * [Long], see [org.dicio.numbers.parser.param.ExtractNumberParams.exact]
+         */
+        @JvmOverloads
+        fun shortMultiplierToLongScale(
+            shortScaleMultiplier: Number?,
+            exact: Boolean = false
+        ): Number? {
             return if (shortScaleMultiplier!!.integerValue() == 1000000000L) {
                 Number(1000000000000L) // billion
             } else if (shortScaleMultiplier.integerValue() == 1000000000000L) {
                 Number(1000000000000000000L) // trillion
             } else if (shortScaleMultiplier.integerValue() == 1000000000000000L) {
-                Number(1e24) // quadrillion
+                if (exact) EXACT_QUADRILLION else Number(1e24) // quadrillion
             } else if (shortScaleMultiplier.integerValue() == 1000000000000000000L) {
-                Number(1e30) // quintillion
+                if (exact) EXACT_QUINTILLION else Number(1e30) // quintillion
             } else {
                 shortScaleMultiplier // million
             }
@@ -1,5 +1,6 @@
 package org.dicio.numbers.lang.en
 
+import org.dicio.numbers.parser.ParseContext
 import org.dicio.numbers.parser.Parser
 import org.dicio.numbers.parser.lexer.TokenStream
 import org.dicio.numbers.unit.Duration
@@ -8,17 +9,35 @@ import org.dicio.numbers.util.DurationExtractorUtils
 import java.time.LocalDateTime
 
 class EnglishParser : Parser("config/en-us") {
+    // stateless, so they are created only once and shared by all extractions
+    private val numberExtractor = EnglishNumberExtractor()
+    private val durationExtractor =
+        DurationExtractorUtils { with(numberExtractor) { numberNoOrdinal() } }
+    private val dateTimeExtractor = EnglishDateTimeExtractor()
+
     override fun extractNumber(
         tokenStream: TokenStream,
         shortScale: Boolean,
         preferOrdinal: Boolean,
         integerOnly: Boolean
     ): () -> Number? {
-        val numberExtractor = EnglishNumberExtractor(tokenStream, shortScale)
-        return when {
-            integerOnly -> numberExtractor::numberMustBeInteger
-            preferOrdinal -> numberExtractor::numberPreferOrdinal
-            else -> numberExtractor::numberPreferFraction
+        return extractNumber(tokenStream, shortScale, preferOrdinal, integerOnly, false)
+    }
+
+    override fun extractNumber(
+        tokenStream: TokenStream,
+        shortScale: Boolean,
+        preferOrdinal: Boolean,
+        integerOnly: Boolean,
+        exact: Boolean
+    ): () -> Number? {
+        val context = ParseContext(tokenStream, shortScale, exact)
+        return with(numberExtractor) {
+            when {
+                integerOnly -> ({ context.numberMustBeInteger() })
+                preferOrdinal -> ({ context.numberPreferOrdinal() })
+                else -> ({ context.numberPreferFraction() })
+            }
         }
     }
 
@@ -26,8 +45,8 @@ class EnglishParser : Parser("config/en-us") {
         tokenStream: TokenStream,
         shortScale: Boolean
     ): () -> Duration? {
-        val numberExtractor = EnglishNumberExtractor(tokenStream, shortScale)
-        return DurationExtractorUtils(tokenStream, numberExtractor::numberNoOrdinal)::duration
+        val context = ParseContext(tokenStream, shortScale)
+        return { with(durationExtractor) { context.duration() } }
     }
 
     override fun extractDateTime(
@@ -36,6 +55,7 @@ class EnglishParser : Parser("config/en-us") {
         preferMonthBeforeDay: Boolean,
         now: LocalDateTime
     ): () -> LocalDateTime? {
-        return EnglishDateTimeExtractor(tokenStream, shortScale, preferMonthBeforeDay, now)::dateTime
+        val context = ParseContext(tokenStream, shortScale, false, preferMonthBeforeDay, now)
+        return { with(dateTimeExtractor) { context.dateTime() } }
     }
 }
@@ -1,6 +1,9 @@
 package org.dicio.numbers.lang.it
 
-import org.dicio.numbers.parser.lexer.TokenStream
+import org.dicio.numbers.parser.lexer.Categories
+import org.dicio.numbers.parser.lexer.MemoRule
+import org.dicio.numbers.parser.ParseContext
+import org.dicio.numbers.parser.Rule
 import org.dicio.numbers.unit.Duration
 import org.dicio.numbers.util.DateTimeExtractorUtils
 import org.dicio.numbers.util.DurationExtractorUtils
@@ -11,28 +14,82 @@ import java.time.LocalDateTime
 import java.time.LocalTime
 import java.time.temporal.ChronoUnit
 
-class ItalianDateTimeExtractor internal constructor(
-    private val ts: TokenStream,
-    private val now: LocalDateTime
-) {
-    private val numberExtractor = ItalianNumberExtractor(ts)
-    private val durationExtractor = DurationExtractorUtils(ts, numberExtractor::numberNoOrdinal)
-    private val dateTimeExtractor = DateTimeExtractorUtils(ts, now, this::extractIntegerInRange)
-
-    private fun extractIntegerInRange(fromInclusive: Int, toInclusive: Int): Int? {
+/**
+ * The Italian date and time grammar. It holds no state (the token stream and the options are taken
+ * from the [ParseContext] receiver of each function), so it is created once by [ItalianParser] and
+ * can be used concurrently from multiple threads.
+ */
+class ItalianDateTimeExtractor internal constructor() {
+    private val numberExtractor = ItalianNumberExtractor()
+    private val durationExtractor =
+        DurationExtractorUtils { with(numberExtractor) { numberNoOrdinal() } }
+    private val dateTimeExtractor =
+        DateTimeExtractorUtils { from, to -> extractIntegerInRange(from, to) }
+
+    // rules whose results can be reused by TokenStream.memoize; they also depend on `now`, which
+    // never changes for a given token stream
+    private val timeWithAmpmRule = MemoRule("timeWithAmpm")
+    private val timeRule = MemoRule("time")
+    private val dateRule = MemoRule("date")
+    private val relativeDurationRule = MemoRule("relativeDuration")
+
+    // alternatives and skipped words, combined only once so that trying them does not allocate
+    private val dateFirstOrTimeFirst =
+        Rule.mostTokens(Rule { it.dateTime(false) }, Rule { it.dateTime(true) })
+    private val relativeDurationOrMonthDuration = Rule.firstNotNull(
+        Rule { it.relativeDuration() },
+        Rule { with(dateTimeExtractor) { it.relativeMonthDuration() } }
+    )
+    private val skipToTimeWithAmpm = Rule.skippingDateTimeIgnore { it.timeWithAmpm() }
+    private val skipToRelativeDuration = Rule.skippingDateTimeIgnore { it.relativeDuration() }
+    private val skipToRelativeSpecialDayOrDate = Rule.skippingDateTimeIgnore(
+        Rule.firstNotNull(Rule { it.relativeSpecialDay() }, Rule { it.date() })
+    )
+    private val skipToTime = Rule.skippingDateTimeIgnore { it.time() }
+    private val skipToAmpmOrMomentOfDay = Rule.skippingDateTimeIgnore(
+        Rule.firstNotNull(
+            Rule { with(dateTimeExtractor) { it.ampm() } },
+            Rule { it.momentOfDay()?.let(DateTimeExtractorUtils::isMomentOfDayPm) }
+        )
+    )
+    private val noonMidnightLikeOrHour =
+        Rule.firstNotNull(Rule { it.noonMidnightLike() }, Rule { it.hour() })
+    private val skipToSpecialMinuteOrMinute = Rule.skippingDateTimeIgnore(
+        Rule.firstNotNull(
+            Rule { it.specialMinute() },
+            Rule { with(dateTimeExtractor) { it.minute() } }
+        )
+    )
+    private val skipToSecond = Rule.skippingDateTimeIgnore { with(dateTimeExtractor) { it.second() } }
+    private val skipToDayNumber = Rule.skippingDateTimeIgnore { it.extractIntegerInRange(1, 31) }
+    private val skipToMonthNameOrNumber = Rule.skippingDateTimeIgnore(
+        Rule.firstNotNull(
+            Rule { with(dateTimeExtractor) { it.monthName() } },
+            Rule { it.extractIntegerInRange(1, 12) }
+        )
+    )
+    private val skipToYear = Rule.skippingDateTimeIgnore { it.extractIntegerInRange(0, 999999999) }
+    private val relativeDays = Rule.firstNotNull(
+        Rule { it.relativeYesterday() },
+        Rule { with(dateTimeExtractor) { it.relativeToday() } },
+        Rule { it.relativeTomorrow() },
+        Rule { with(dateTimeExtractor) { it.relativeDayOfWeekDuration() } }
+    )
+
+    private fun ParseContext.extractIntegerInRange(fromInclusive: Int, toInclusive: Int): Int? {
         // disallow fraction as / should be treated as a day/month/year separator
         return NumberExtractorUtils.extractOneIntegerInRange(
             ts, fromInclusive, toInclusive
-        ) { NumberExtractorUtils.signBeforeNumber(ts) { numberExtractor.numberInteger(false) } }
+        ) { NumberExtractorUtils.signBeforeNumber(ts) { with(numberExtractor) { numberInteger(false) } } }
     }
 
 
-    fun dateTime(): LocalDateTime? {
+    fun ParseContext.dateTime(): LocalDateTime? {
         // first try preferring having a date first, then try with time first
-        return ts.firstWhichUsesMostTokens({ dateTime(false) }, { dateTime(true) })
+        return dateFirstOrTimeFirst.parse(this)
     }
 
-    private fun dateTime(timeFirst: Boolean): LocalDateTime? {
+    private fun ParseContext.dateTime(timeFirst: Boolean): LocalDateTime? {
         var date: LocalDate? = null
         var time: LocalTime? = null
 
@@ -42,10 +99,7 @@ class ItalianDateTimeExtractor internal constructor(
 
             if (date == null) {
                 // then try with duration, since otherwise numbers would be interpreted as date days
-                val duration = Utils.firstNotNull(
-                    this::relativeDuration,
-                    dateTimeExtractor::relativeMonthDuration
-                )
+                val duration = relativeDurationOrMonthDuration.parse(this)
                 if (duration == null) {
                     // no normal relative duration found: finally try extracting a date normally
                     date = date()
@@ -63,19 +117,15 @@ class ItalianDateTimeExtractor internal constructor(
         }
 
         if (time == null) {
-            time = ts.tryOrSkipDateTimeIgnore(date != null) { this.timeWithAmpm() }
+            time = skipToTimeWithAmpm.parse(this, date != null)
         }
 
         if (date == null && time != null) {
             // try to extract a date after the time
             val originalPosition = ts.position
-            val duration = ts.tryOrSkipDateTimeIgnore(true) { this.relativeDuration() }
+            val duration = skipToRelativeDuration.parse(this)
             if (duration == null) {
-                date = ts.tryOrSkipDateTimeIgnore(
-                    true
-                ) {
-                    Utils.firstNotNull(this::relativeSpecialDay, this::date)
-                }
+                date = skipToRelativeSpecialDayOrDate.parse(this)
             } else if (duration.nanos == 0L && duration.days != 0L) {
                 date = duration.applyAsOffsetToDateTime(now).toLocalDate()
             } else {
@@ -90,14 +140,18 @@ class ItalianDateTimeExtractor internal constructor(
         }
     }
 
-    fun timeWithAmpm(): LocalTime? {
+    fun ParseContext.timeWithAmpm(): LocalTime? {
+        return ts.memoize(timeWithAmpmRule) { timeWithAmpmNotMemoized() }
+    }
+
+    private fun ParseContext.timeWithAmpmNotMemoized(): LocalTime? {
         var time = time()
         val pm: Boolean?
         if (time == null) {
             // if there is no time, maybe there is a moment of day (not am/pm though) preceding?
             val momentOfDay = momentOfDay() ?: return null
 
-            time = ts.tryOrSkipDateTimeIgnore(true) { this.time() }
+            time = skipToTime.parse(this)
             if (time == null) {
                 // found moment of day without a specific time
                 return LocalTime.of(momentOfDay, 0)
@@ -107,12 +161,7 @@ class ItalianDateTimeExtractor internal constructor(
             }
         } else {
             // found a time, now look for am/pm or a moment of day
-            pm = ts.tryOrSkipDateTimeIgnore(true) {
-                Utils.firstNotNull(
-                    dateTimeExtractor::ampm,
-                    { momentOfDay()?.let(DateTimeExtractorUtils::isMomentOfDayPm) }
-                )
-            }
+            pm = skipToAmpmOrMomentOfDay.parse(this)
         }
 
         if (time.hour != 0 && pm != null) {
@@ -126,35 +175,37 @@ class ItalianDateTimeExtractor internal constructor(
         return time
     }
 
-    fun time(): LocalTime? {
+    fun ParseContext.time(): LocalTime? {
+        return ts.memoize(timeRule) { timeNotMemoized() }
+    }
+
+    private fun ParseContext.timeNotMemoized(): LocalTime? {
         // try both with a normal hour and with "mezzogiorno"/"mezzanotte"
-        val hour = Utils.firstNotNull(this::noonMidnightLike, this::hour) ?: return null
+        val hour = noonMidnightLikeOrHour.parse(this) ?: return null
         var result = LocalTime.of(hour, 0)
 
-        val minute = ts.tryOrSkipDateTimeIgnore(
-            true
-        ) {
-            Utils.firstNotNull(this::specialMinute, dateTimeExtractor::minute)
-        }
+        val minute = skipToSpecialMinuteOrMinute.parse(this)
         if (minute == null) {
             return result
         }
         result = result.withMinute(minute)
 
-        val second = ts.tryOrSkipDateTimeIgnore(true) { dateTimeExtractor.second() }
+        val second = skipToSecond.parse(this)
         if (second == null) {
             return result
         }
         return result.withSecond(second)
     }
 
-    fun date(): LocalDate? {
+    fun ParseContext.date(): LocalDate? {
+        return ts.memoize(dateRule) { dateNotMemoized() }
+    }
+
+    private fun ParseContext.dateNotMemoized(): LocalDate? {
         var result = now.toLocalDate()
 
         val dayOfWeek = dayOfWeek()
-        val day = ts.tryOrSkipDateTimeIgnore(
-            dayOfWeek != null
-        ) { extractIntegerInRange(1, 31) }
+        val day = skipToDayNumber.parse(this, dayOfWeek != null)
 
         // below here, we do result.withMonth(1) because January has 31 days, so setting the
         // withDayOfMonth() below will always succeed, and then we overwrite/reset the month anyway
@@ -171,9 +222,7 @@ class ItalianDateTimeExtractor internal constructor(
 
         // do withMonth after setting the day, so it coerces the day of month within the number of
         // days in the month if needed
-        val month = ts.tryOrSkipDateTimeIgnore(day != null) {
-            Utils.firstNotNull(dateTimeExtractor::monthName, { extractIntegerInRange(1, 12) })
-        }
+        val month = skipToMonthNameOrNumber.parse(this, day != null)
         if (month == null) {
             if (day != null) {
                 result = result.withMonth(originalMonth)
@@ -185,9 +234,7 @@ class ItalianDateTimeExtractor internal constructor(
         }
 
         // if month is null then day is also null, otherwise we would have returned above
-        val year = ts.tryOrSkipDateTimeIgnore(
-            month != null
-        ) { extractIntegerInRange(0, 999999999) }
+        val year = skipToYear.parse(this, month != null)
         if (year == null) {
             if (month != null) {
                 return result
@@ -195,24 +242,24 @@ class ItalianDateTimeExtractor internal constructor(
             return null
         }
 
-        val bcad = dateTimeExtractor.bcad()
+        val bcad = with(dateTimeExtractor) { bcad() }
         return result.withYear(year * (if (bcad == null || bcad) 1 else -1))
     }
 
 
-    fun dayOfWeek(): Int? {
+    fun ParseContext.dayOfWeek(): Int? {
         if (ts[0].isValue("mar")) {
             ts.movePositionForwardBy(1)
             return 1 // special case, since mar already used for march
         } else {
-            return dateTimeExtractor.dayOfWeek()
+            return with(dateTimeExtractor) { dayOfWeek() }
         }
     }
 
-    fun specialMinute(): Int? {
+    fun ParseContext.specialMinute(): Int? {
         val originalPosition = ts.position
 
-        val number = numberExtractor.numberNoOrdinal()
+        val number = with(numberExtractor) { numberNoOrdinal() }
         if (number != null && number.isDecimal && number.decimalValue() > 0.0 && number.decimalValue() < 1.0) {
             // e.g. alle due e tre quarti
             return Utils.roundToInt(number.decimalValue() * 60)
@@ -222,25 +269,25 @@ class ItalianDateTimeExtractor internal constructor(
         return null
     }
 
-    fun noonMidnightLike(): Int? {
-        return noonMidnightLikeOrMomentOfDay("noon_midnight_like")
+    fun ParseContext.noonMidnightLike(): Int? {
+        return noonMidnightLikeOrMomentOfDay(Categories.NOON_MIDNIGHT_LIKE)
     }
 
-    fun momentOfDay(): Int? {
+    fun ParseContext.momentOfDay(): Int? {
         // noon_midnight_like is a part of moment_of_day, so noon and midnight are included
-        return noonMidnightLikeOrMomentOfDay("moment_of_day")
+        return noonMidnightLikeOrMomentOfDay(Categories.MOMENT_OF_DAY)
     }
 
-    private fun noonMidnightLikeOrMomentOfDay(category: String): Int? {
+    private fun ParseContext.noonMidnightLikeOrMomentOfDay(category: Int): Int? {
         val originalPosition = ts.position
 
         var relativeIndicator = 0 // 0 = not found, otherwise the sign, +1 or -1
-        if (ts[0].hasCategory("pre_special_hour")) {
+        if (ts[0].hasCategory(Categories.PRE_SPECIAL_HOUR)) {
             // found a word that usually comes before special hours, e.g. questo, dopo
-            if (ts[0].hasCategory("pre_relative_indicator")) {
-                relativeIndicator = if (ts[0].hasCategory("negative")) -1 else 1
+            if (ts[0].hasCategory(Categories.PRE_RELATIVE_INDICATOR)) {
+                relativeIndicator = if (ts[0].hasCategory(Categories.NEGATIVE)) -1 else 1
                 // only move to next not ignore if we got a relative indicator
-                ts.movePositionForwardBy(ts.indexOfWithoutCategory("date_time_ignore", 1))
+                ts.movePositionForwardBy(ts.indexOfWithoutCategory(Categories.DATE_TIME_IGNORE, 1))
             } else {
                 ts.movePositionForwardBy(1)
             }
@@ -271,11 +318,11 @@ class ItalianDateTimeExtractor internal constructor(
         return null
     }
 
-    fun hour(): Int? {
+    fun ParseContext.hour(): Int? {
         val originalPosition = ts.position
 
         // skip words that usually come before hours, e.g. alle, ore
-        ts.movePositionForwardBy(ts.indexOfWithoutCategory("pre_hour", 0))
+        ts.movePositionForwardBy(ts.indexOfWithoutCategory(Categories.PRE_HOUR, 0))
 
         val number = extractIntegerInRange(0, DateTimeExtractorUtils.HOURS_IN_DAY)
         if (number == null) {
@@ -289,31 +336,26 @@ class ItalianDateTimeExtractor internal constructor(
     }
 
 
-    private fun relativeSpecialDay(): LocalDate? {
-        val days = Utils.firstNotNull(
-            this::relativeYesterday,
-            dateTimeExtractor::relativeToday,
-            this::relativeTomorrow,
-            dateTimeExtractor::relativeDayOfWeekDuration
-        )
+    private fun ParseContext.relativeSpecialDay(): LocalDate? {
+        val days = relativeDays.parse(this)
         if (days == null) {
             return null
         }
         return now.toLocalDate().plusDays(days.toLong())
     }
 
-    fun relativeYesterday(): Int? {
+    fun ParseContext.relativeYesterday(): Int? {
         val originalPosition = ts.position
 
         // collect as many adders ("altro") preceding yesterday ("ieri") as possible
         var dayCount = 0
-        while (ts[0].hasCategory("yesterday_adder")) {
+        while (ts[0].hasCategory(Categories.YESTERDAY_ADDER)) {
             ++dayCount
-            ts.movePositionForwardBy(ts.indexOfWithoutCategory("date_time_ignore", 1))
+            ts.movePositionForwardBy(ts.indexOfWithoutCategory(Categories.DATE_TIME_IGNORE, 1))
         }
 
         // collect the actual yesterday ("ieri") and exit if it is not found
-        if (!ts[0].hasCategory("yesterday")) {
+        if (!ts[0].hasCategory(Categories.YESTERDAY)) {
             ts.position = originalPosition
             return null
         }
@@ -321,8 +363,8 @@ class ItalianDateTimeExtractor internal constructor(
         ++dayCount
 
         // if no adders were collected before yesterday, try to collect only one at the end
-        val nextNotIgnore = ts.indexOfWithoutCategory("date_time_ignore", 0)
-        if (dayCount == 1 && ts[nextNotIgnore].hasCategory("yesterday_adder")) {
+        val nextNotIgnore = ts.indexOfWithoutCategory(Categories.DATE_TIME_IGNORE, 0)
+        if (dayCount == 1 && ts[nextNotIgnore].hasCategory(Categories.YESTERDAY_ADDER)) {
             ++dayCount
             ts.movePositionForwardBy(nextNotIgnore + 1)
         }
@@ -331,18 +373,18 @@ class ItalianDateTimeExtractor internal constructor(
         return -dayCount
     }
 
-    fun relativeTomorrow(): Int? {
+    fun ParseContext.relativeTomorrow(): Int? {
         val originalPosition = ts.position
 
         // collect as many "dopo" preceding "domani" as possible
         var dayCount = 0
-        while (ts[0].hasCategory("tomorrow_adder")) {
+        while (ts[0].hasCategory(Categories.TOMORROW_ADDER)) {
             ++dayCount
-            ts.movePositionForwardBy(ts.indexOfWithoutCategory("date_time_ignore", 1))
+            ts.movePositionForwardBy(ts.indexOfWithoutCategory(Categories.DATE_TIME_IGNORE, 1))
         }
 
         // collect the actual "domani" and exit if it is not found
-        if (!ts[0].hasCategory("tomorrow")) {
+        if (!ts[0].hasCategory(Categories.TOMORROW)) {
             ts.position = originalPosition
             return null
         }
@@ -353,10 +395,16 @@ class ItalianDateTimeExtractor internal constructor(
         return dayCount
     }
 
-    fun relativeDuration(): Duration? {
-        return dateTimeExtractor.relativeIndicatorDuration(
-            { durationExtractor.duration() },
-            { duration -> duration.multiply(-1) }
-        )
+    fun ParseContext.relativeDuration(): Duration? {
+        return ts.memoize(relativeDurationRule) { relativeDurationNotMemoized() }
+    }
+
+    private fun ParseContext.relativeDurationNotMemoized(): Duration? {
+        return with(dateTimeExtractor) {
+            relativeIndicatorDuration(
+                { with(durationExtractor) { duration() } },
+                { duration -> duration.multiply(-1) }
+            )
+        }
     }
 }
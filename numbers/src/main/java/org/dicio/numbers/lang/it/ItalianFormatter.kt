@@ -43,7 +43,7 @@ class ItalianFormatter : Formatter("config/it-it") {
         }
     }
 
-    override fun pronounceNumber(
+    override fun pronounceNumberNotCached(
         number: Double,
         places: Int,
         shortScale: Boolean,
@@ -1,11 +1,26 @@
 package org.dicio.numbers.lang.it
 
-import org.dicio.numbers.parser.lexer.TokenStream
+import org.dicio.numbers.parser.ParseContext
+import org.dicio.numbers.parser.lexer.Categories
+import org.dicio.numbers.parser.lexer.MemoRule
 import org.dicio.numbers.unit.Number
+import org.dicio.numbers.unit.NumberAccumulator
 import org.dicio.numbers.util.NumberExtractorUtils
 
-class ItalianNumberExtractor internal constructor(private val ts: TokenStream) {
-    fun numberPreferOrdinal(): Number? {
+/**
+ * The Italian number grammar. It holds no state (the token stream and the options are taken from the
+ * [ParseContext] receiver of each function), so it is created once by [ItalianParser] and can be
+ * used concurrently from multiple threads.
+ */
+class ItalianNumberExtractor internal constructor() {
+    // rules whose results can be reused by TokenStream.memoize; they also depend on the options in
+    // the ParseContext, which never change for a given token stream
+    private val numberPointRule = MemoRule("numberPoint")
+    private val numberPointOrdinalRule = MemoRule("numberPoint(ordinal)")
+    private val numberIntegerRule = MemoRule("numberInteger")
+    private val numberIntegerOrdinalRule = MemoRule("numberInteger(ordinal)")
+
+    fun ParseContext.numberPreferOrdinal(): Number? {
         val number = numberSuffixMultiplier() // first try with suffix multiplier, e.g. dozzina
             ?: numberSignPoint(true) // then try with normal number
 
@@ -17,7 +32,7 @@ class ItalianNumberExtractor internal constructor(private val ts: TokenStream) {
         }
     }
 
-    fun numberPreferFraction(): Number? {
+    fun ParseContext.numberPreferFraction(): Number? {
         val number = numberSuffixMultiplier() // first try with suffix multiplier, e.g. dozzina
             ?: numberSignPoint(false) // then try without ordinal
 
@@ -31,7 +46,7 @@ class ItalianNumberExtractor internal constructor(private val ts: TokenStream) {
         }
     }
 
-    fun numberNoOrdinal(): Number? {
+    fun ParseContext.numberNoOrdinal(): Number? {
         // for now this function is used internally just for duration parsing, but maybe it could
         // be exposed to library users, giving more control over how ordinals are handled.
 
@@ -47,7 +62,7 @@ class ItalianNumberExtractor internal constructor(private val ts: TokenStream) {
         }
     }
 
-    fun numberMustBeInteger(): Number? {
+    fun ParseContext.numberMustBeInteger(): Number? {
         val number = numberSuffixMultiplierInteger() // first try with suffix multiplier, e.g. dozzina
             ?: numberSignInteger(true) // then try with normal number
 
@@ -60,25 +75,25 @@ class ItalianNumberExtractor internal constructor(private val ts: TokenStream) {
             if (multiplier == null) {
                 number
             } else {
-                number.multiply(multiplier)
+                NumberExtractorUtils.multiply(number, multiplier, exact)
             }
         }
     }
 
 
-    fun divideByDenominatorIfPossible(numberToEdit: Number): Number {
+    fun ParseContext.divideByDenominatorIfPossible(numberToEdit: Number): Number {
         // if numberToEdit is directly followed by an ordinal number then it is a fraction (only if numberToEdit is not
         // ordinal or already decimal). Note: a big integer (i.e. 10^24) would be decimal, here we are assuming that
         // such a number will never have a fraction after it for simplicity.
 
         if (!numberToEdit.isOrdinal && !numberToEdit.isDecimal
-            && !ts[0].hasCategory("ignore")
+            && !ts[0].hasCategory(Categories.IGNORE)
         ) {
             val originalPosition = ts.position
             val denominator = numberInteger(true)
             if (denominator == null) {
                 // no denominator found: maybe a custom multiplier? e.g. mezzo (=0.5), dozzina (=12)
-                if (ts[0].hasCategory("suffix_multiplier")) {
+                if (ts[0].hasCategory(Categories.SUFFIX_MULTIPLIER)) {
                     ts.movePositionForwardBy(1)
 
                     val multiplier = ts[-1].number
@@ -92,7 +107,7 @@ class ItalianNumberExtractor internal constructor(private val ts: TokenStream) {
                         return numberToEdit.divide((1 / multiplier.decimalValue()).toLong())
                     }
 
-                    return numberToEdit.multiply(multiplier)
+                    return NumberExtractorUtils.multiply(numberToEdit, multiplier!!, exact)
                 }
             } else if (denominator.isOrdinal && denominator.moreThan(2)) {
                 return numberToEdit.divide(denominator) // valid denominator, e.g. un quinto
@@ -104,8 +119,8 @@ class ItalianNumberExtractor internal constructor(private val ts: TokenStream) {
         return numberToEdit
     }
 
-    fun numberSuffixMultiplier(): Number? {
-        if (ts[0].hasCategory("suffix_multiplier")) {
+    fun ParseContext.numberSuffixMultiplier(): Number? {
+        if (ts[0].hasCategory(Categories.SUFFIX_MULTIPLIER)) {
             ts.movePositionForwardBy(1)
             return ts[-1].number // a suffix multiplier, e.g. dozen, half, score, percent
         } else {
@@ -113,8 +128,8 @@ class ItalianNumberExtractor internal constructor(private val ts: TokenStream) {
         }
     }
 
-    fun numberSuffixMultiplierInteger(): Number? {
-        if (ts[0].hasCategory("suffix_multiplier") && ts[0].number!!.isInteger) {
+    fun ParseContext.numberSuffixMultiplierInteger(): Number? {
+        if (ts[0].hasCategory(Categories.SUFFIX_MULTIPLIER) && ts[0].number!!.isInteger) {
             ts.movePositionForwardBy(1)
             return ts[-1].number // a suffix multiplier, e.g. dozen, score
         } else {
@@ -122,53 +137,69 @@ class ItalianNumberExtractor internal constructor(private val ts: TokenStream) {
         }
     }
 
-    fun numberSignPoint(allowOrdinal: Boolean): Number? {
+    fun ParseContext.numberSignPoint(allowOrdinal: Boolean): Number? {
         return NumberExtractorUtils.signBeforeNumber(ts) { numberPoint(allowOrdinal) }
     }
 
-    fun numberSignInteger(allowOrdinal: Boolean): Number? {
+    fun ParseContext.numberSignInteger(allowOrdinal: Boolean): Number? {
         return NumberExtractorUtils.signBeforeNumber(ts) { numberInteger(allowOrdinal) }
     }
 
-    fun numberPoint(allowOrdinal: Boolean): Number? {
+    fun ParseContext.numberPoint(allowOrdinal: Boolean): Number? {
+        return ts.memoize(if (allowOrdinal) numberPointOrdinalRule else numberPointRule) {
+            numberPointNotMemoized(allowOrdinal)
+        }
+    }
+
+    private fun ParseContext.numberPointNotMemoized(allowOrdinal: Boolean): Number? {
         var n = numberInteger(allowOrdinal).let { // the `let` makes `n` be of non-null type
             if (it == null || it.isOrdinal) {
                 // numbers can not start with just "virgola"
                 // no point or fraction separator can appear after an ordinal number
-                return@numberPoint it
+                return@numberPointNotMemoized it
             }
             it
         }
 
-        if (ts[0].hasCategory("point")) {
+        if (ts[0].hasCategory(Categories.POINT)) {
             // parse point indicator from e.g. "twenty one point four five three"
 
-            if (!ts[1].hasCategory("digit_after_point")
-                && (!NumberExtractorUtils.isRawNumber(ts[1]) || ts[2].hasCategory("ordinal_suffix"))
+            if (!ts[1].hasCategory(Categories.DIGIT_AFTER_POINT)
+                && (!NumberExtractorUtils.isRawNumber(ts[1]) || ts[2].hasCategory(Categories.ORDINAL_SUFFIX))
             ) {
                 // also return if next up is an ordinal raw number, i.e. followed by °/esimo
                 return n // there is an only comma at the end of the number: it is not part of it
             }
             ts.movePositionForwardBy(1)
 
+            val digits = NumberAccumulator(exact).set(n) // avoid creating a Number for each digit
             var magnitude = 0.1
-            if (ts[0].value.length > 1 && NumberExtractorUtils.isRawNumber(ts[0])) {
+            if (ts[0].valueLength > 1 && NumberExtractorUtils.isRawNumber(ts[0])) {
                 // handle sequence of raw digits after point, e.g. .0123
                 // value.length > 1 since multiple single-digits are handled below, e.g. . 0 1 2 3
-                for (i in 0 until ts[0].value.length) {
-                    n = n.plus((ts[0].value[i].code - '0'.code) * magnitude)
+                for (i in 0 until ts[0].valueLength) {
+                    if (exact) {
+                        digits.plusDecimalDigit(ts[0].value[i].code - '0'.code)
+                    } else {
+                        digits.plus((ts[0].value[i].code - '0'.code) * magnitude)
+                    }
                     magnitude /= 10.0
                 }
                 ts.movePositionForwardBy(1)
             } else {
                 // read as many digits as possible, e.g. point one six 5 one 0 three
                 while (true) {
-                    if (ts[0].hasCategory("digit_after_point")
-                        || (ts[0].value.length == 1 && NumberExtractorUtils.isRawNumber(ts[0])
-                                && !ts[1].hasCategory("ordinal_suffix"))
+                    if (ts[0].hasCategory(Categories.DIGIT_AFTER_POINT)
+                        || (ts[0].valueLength == 1 && NumberExtractorUtils.isRawNumber(ts[0])
+                                && !ts[1].hasCategory(Categories.ORDINAL_SUFFIX))
                     ) {
                         // do not allow ordinal raw numbers, i.e. followed by st/nd/rd/th
-                        n = n.plus(ts[0].number!!.multiply(magnitude))
+                        val digit = ts[0].number!!
+                        if (exact && digit.isInteger && digit.integerValue() in 0..9) {
+                            digits.plusDecimalDigit(digit.integerValue().toInt())
+                        } else {
+                            digits.plusProduct(digit, magnitude)
+                        }
                         magnitude /= 10.0
                     } else {
                         break // reached a word that is not a valid digit
@@ -176,11 +207,12 @@ class ItalianNumberExtractor internal constructor(private val ts: TokenStream) {
                     ts.movePositionForwardBy(1)
                 }
             }
-        } else if (ts[0].hasCategory("fraction_separator")) {
+            n = digits.toNumber()
+        } else if (ts[0].hasCategory(Categories.FRACTION_SEPARATOR)) {
             // parse fraction from e.g. "twenty divided by one hundred"
 
             var separatorLength = 1
-            if (ts[1].hasCategory("fraction_separator_secondary")) {
+            if (ts[1].hasCategory(Categories.FRACTION_SEPARATOR_SECONDARY)) {
                 separatorLength = 2 // also remove "by" after "divided by"
             }
 
@@ -196,13 +228,19 @@ class ItalianNumberExtractor internal constructor(private val ts: TokenStream) {
         return n
     }
 
-    fun numberInteger(allowOrdinal: Boolean): Number? {
-        var n = NumberExtractorUtils.numberMadeOfGroups(ts) { ts, lastMultiplier ->
-            NumberExtractorUtils.numberGroupShortScale(ts, allowOrdinal, lastMultiplier)
+    fun ParseContext.numberInteger(allowOrdinal: Boolean): Number? {
+        return ts.memoize(if (allowOrdinal) numberIntegerOrdinalRule else numberIntegerRule) {
+            numberIntegerNotMemoized(allowOrdinal)
+        }
+    }
+
+    private fun ParseContext.numberIntegerNotMemoized(allowOrdinal: Boolean): Number? {
+        var n = NumberExtractorUtils.numberMadeOfGroups(ts, exact) { ts, lastMultiplier ->
+            NumberExtractorUtils.numberGroupShortScale(ts, allowOrdinal, lastMultiplier, exact)
         }
         if (n == null) {
             // try to parse big raw numbers (>=1000), e.g. 1207
-            return NumberExtractorUtils.numberBigRaw(ts, allowOrdinal)
+            return NumberExtractorUtils.numberBigRaw(ts, allowOrdinal, exact)
         } else if (n.isOrdinal) {
             return n // no more checks, as the ordinal word comes last, e.g. million twelfth
         }
@@ -211,24 +249,26 @@ class ItalianNumberExtractor internal constructor(private val ts: TokenStream) {
         if (n.lessThan(1000)) {
             // parse raw number n separated by comma, e.g. 123,045,006
             // assuming current position is at the first comma
-            if (NumberExtractorUtils.isRawNumber(ts[-1]) && ts[0].hasCategory("thousand_separator") && ts[1].value.length == 3 && NumberExtractorUtils.isRawNumber(
+            if (NumberExtractorUtils.isRawNumber(ts[-1]) && ts[0].hasCategory(Categories.THOUSAND_SEPARATOR) && ts[1].valueLength == 3 && NumberExtractorUtils.isRawNumber(
                     ts[1]
                 )
             ) {
                 val originalPosition = ts.position - 1
 
-                while (ts[0].hasCategory("thousand_separator") && ts[1].value.length == 3 && NumberExtractorUtils.isRawNumber(
+                val groups = NumberAccumulator(exact).set(n)
+                while (ts[0].hasCategory(Categories.THOUSAND_SEPARATOR) && ts[1].valueLength == 3 && NumberExtractorUtils.isRawNumber(
                         ts[1]
                     )
                 ) {
-                    n = n!!.multiply(1000).plus(ts[1].number)
+                    groups.multiply(1000).plus(ts[1].number!!)
                     ts.movePositionForwardBy(2) // do not allow ignored words in between
                 }
+                n = groups.toNumber()
 
-                if (ts[0].hasCategory("ordinal_suffix")) {
+                if (ts[0].hasCategory(Categories.ORDINAL_SUFFIX)) {
                     if (allowOrdinal) {
                         ts.movePositionForwardBy(1)
-                        return n!!.withOrdinal(true) // ordinal number, e.g. 20,056,789th
+                        return n.withOrdinal(true) // ordinal number, e.g. 20,056,789th
                     } else {
                         ts.position = originalPosition
                         return null // found ordinal number, revert since allowOrdinal is false
@@ -1,5 +1,6 @@
 package org.dicio.numbers.lang.it
 
+import org.dicio.numbers.parser.ParseContext
 import org.dicio.numbers.parser.Parser
 import org.dicio.numbers.parser.lexer.TokenStream
 import org.dicio.numbers.unit.Duration
@@ -8,17 +9,35 @@ import org.dicio.numbers.util.DurationExtractorUtils
 import java.time.LocalDateTime
 
 class ItalianParser : Parser("config/it-it") {
+    // stateless, so they are created only once and shared by all extractions
+    private val numberExtractor = ItalianNumberExtractor()
+    private val durationExtractor =
+        DurationExtractorUtils { with(numberExtractor) { numberNoOrdinal() } }
+    private val dateTimeExtractor = ItalianDateTimeExtractor()
+
     override fun extractNumber(
         tokenStream: TokenStream,
         shortScale: Boolean,
         preferOrdinal: Boolean,
         integerOnly: Boolean
     ): () -> Number? {
-        val numberExtractor = ItalianNumberExtractor(tokenStream)
-        return when {
-            integerOnly -> numberExtractor::numberMustBeInteger
-            preferOrdinal -> numberExtractor::numberPreferOrdinal
-            else -> numberExtractor::numberPreferFraction
+        return extractNumber(tokenStream, shortScale, preferOrdinal, integerOnly, false)
+    }
+
+    override fun extractNumber(
+        tokenStream: TokenStream,
+        shortScale: Boolean,
+        preferOrdinal: Boolean,
+        integerOnly: Boolean,
+        exact: Boolean
+    ): () -> Number? {
+        val context = ParseContext(tokenStream, exact = exact)
+        return with(numberExtractor) {
+            when {
+                integerOnly -> ({ context.numberMustBeInteger() })
+                preferOrdinal -> ({ context.numberPreferOrdinal() })
+                else -> ({ context.numberPreferFraction() })
+            }
         }
     }
 
@@ -26,8 +45,8 @@ class ItalianParser : Parser("config/it-it") {
         tokenStream: TokenStream,
         shortScale: Boolean
     ): () -> Duration? {
-        val numberExtractor = ItalianNumberExtractor(tokenStream)
-        return DurationExtractorUtils(tokenStream, numberExtractor::numberNoOrdinal)::duration
+        val context = ParseContext(tokenStream)
+        return { with(durationExtractor) { context.duration() } }
     }
 
     override fun extractDateTime(
@@ -36,6 +55,7 @@ class ItalianParser : Parser("config/it-it") {
         preferMonthBeforeDay: Boolean,
         now: LocalDateTime
     ): () -> LocalDateTime? {
-        return ItalianDateTimeExtractor(tokenStream, now)::dateTime
+        val context = ParseContext(tokenStream, now = now)
+        return { with(dateTimeExtractor) { context.dateTime() } }
     }
 }
@@ -0,0 +1,52 @@
+package org.dicio.numbers.parser
+
+import org.dicio.numbers.parser.lexer.TokenStream
+import org.dicio.numbers.unit.DurationAccumulator
+import java.time.LocalDateTime
+
+/**
+ * The mutable state of a single extraction: the token stream being parsed (whose position moves
+ * while extracting) and the options the extraction was requested with. Extractors (e.g.
+ * [org.dicio.numbers.lang.en.EnglishNumberExtractor]) instead hold no state and are created only
+ * once per [Parser], and their functions take a [ParseContext] as receiver, so that repeated
+ * extractions only need to allocate a new context.
+ *
+ * A token stream must always be parsed with the same context (or at least with the same options),
+ * since the results memoized in the token stream (see [TokenStream.memoize]) depend on them. This
+ * class is not thread safe, like [TokenStream].
+ *
+ * @param ts the token stream from which to obtain information
+ * @param shortScale whether to consider large numbers as short scale (true) or long scale (false)
+ * numbers, see [org.dicio.numbers.parser.param.ExtractNumberParams.shortScale]
+ * @param exact whether extracted numbers should keep their exact value, e.g. by adding up the
+ * digits after the decimal point exactly, see
+ * [org.dicio.numbers.parser.param.ExtractNumberParams.exact]
+ * @param preferMonthBeforeDay whether in case of ambiguities the month should be considered as
+ * coming before the day, see
+ * [org.dicio.numbers.parser.param.ExtractDateTimeParams.preferMonthBeforeDay]
+ * @param now the date/time to use as a base for relative date/times, see
+ * [org.dicio.numbers.parser.param.ExtractDateTimeParams.now]; if `null`, [LocalDateTime.now] is
+ * taken the first time it is needed (number and duration extractors never need it)
+ */
+class ParseContext @JvmOverloads constructor(
+    @JvmField val ts: TokenStream,
+    @JvmField val shortScale: Boolean = true,
+    @JvmField val exact: Boolean = false,
+    @JvmField val preferMonthBeforeDay: Boolean = false,
+    now: LocalDateTime? = null,
+) {
+    private var nowOrNull: LocalDateTime? = now
+    private var durationAccumulatorOrNull: DurationAccumulator? = null
+
+    val now: LocalDateTime
+        get() = nowOrNull ?: LocalDateTime.now().also { nowOrNull = it }
+
+    /**
+     * Used by [org.dicio.numbers.util.DurationExtractorUtils] to sum the groups of a duration in
+     * place, created only the first time it is needed.
+     */
+    internal val durationAccumulator: DurationAccumulator
+        get() = durationAccumulatorOrNull ?: DurationAccumulator().also {
+            durationAccumulatorOrNull = it
+        }
+}
@@ -1,13 +1,54 @@
 package org.dicio.numbers.parser
 
+import org.dicio.numbers.parser.lexer.Token
+import org.dicio.numbers.parser.lexer.TokenBuffer
 import org.dicio.numbers.parser.lexer.TokenStream
 import org.dicio.numbers.parser.lexer.Tokenizer
 import org.dicio.numbers.unit.Duration
 import org.dicio.numbers.unit.Number
+import org.dicio.numbers.util.LruCache
 import java.time.LocalDateTime
+import java.util.Collections
 
+/**
+ * Parses numbers, durations and date&times in a particular language. Parsers hold no mutable state
+ * (every call tokenizes into fresh tokens, and the stateless extractors they create once only keep
+ * the state of each call in a [ParseContext]) apart from the optional thread-safe tokenization
+ * cache (see [tokenizationCacheSize]), and their [Tokenizer] is shared
+ * process-wide via [Tokenizer.shared], so a parser can be used concurrently from multiple threads
+ * and constructing more parsers for the same language is cheap.
+ */
 abstract class Parser protected constructor(configFolder: String) {
-    protected val tokenizer: Tokenizer = Tokenizer(configFolder)
+    protected val tokenizer: Tokenizer = Tokenizer.shared(configFolder)
+
+    @Volatile
+    private var tokenizationCache: LruCache<String, List<Token>>? = null
+
+    /**
+     * How many tokenized utterances [tokenize] should keep in memory, so that utterances that are
+     * parsed over and over (e.g. common voice commands) are only tokenized once. When the cache is
+     * full, the least recently used utterance is evicted. **The default is `0`**, which disables
+     * the cache. Setting this empties the cache and resets the hit and miss counts.
+     */
+    var tokenizationCacheSize: Int
+        get() = tokenizationCache?.maxSize ?: 0
+        set(value) {
+            require(value >= 0) { "Invalid cache size: $value" }
+            tokenizationCache = if (value == 0) null else LruCache(value)
+        }
+
+    /**
+     * How many times [tokenize] found the utterance in the tokenization cache.
+     */
+    val tokenizationCacheHitCount: Long
+        get() = tokenizationCache?.hitCount ?: 0
+
+    /**
+     * How many times [tokenize] did not find the utterance in the tokenization cache, while it was
+     * enabled.
+     */
+    val tokenizationCacheMissCount: Long
+        get() = tokenizationCache?.missCount ?: 0
 
 
     abstract fun extractNumber(
@@ -17,6 +58,21 @@ abstract class Parser protected constructor(configFolder: String) {
         integerOnly: Boolean
     ): () -> Number?
 
+    /**
+     * @param exact whether the extracted numbers should have an exact [Number.toBigDecimal] value,
+     * see [org.dicio.numbers.parser.param.ExtractNumberParams.exact]. By default [exact] is
+     * ignored, so parsers that do not support it only need to implement the other overload.
+     */
+    open fun extractNumber(
+        tokenStream: TokenStream,
+        shortScale: Boolean,
+        preferOrdinal: Boolean,
+        integerOnly: Boolean,
+        exact: Boolean
+    ): () -> Number? {
+        return extractNumber(tokenStream, shortScale, preferOrdinal, integerOnly)
+    }
+
     abstract fun extractDuration(
         tokenStream: TokenStream,
         shortScale: Boolean
@@ -30,7 +86,57 @@ abstract class Parser protected constructor(configFolder: String) {
     ): () -> LocalDateTime?
 
 
-    fun tokenize(utterance: String): TokenStream {
-        return TokenStream(tokenizer.tokenize(utterance))
+    /**
+     * @param utterance the text to tokenize; only [String]s are looked up in the tokenization
+     * cache, since other [CharSequence]s might change after being added to it
+     */
+    fun tokenize(utterance: CharSequence): TokenStream {
+        val cache = tokenizationCache
+        if (cache == null || utterance !is String) {
+            return TokenStream(tokenizer.tokenize(utterance))
+        }
+        return TokenStream(cache.getOrPut(utterance) { tokenizeImmutable(utterance) })
+    }
+
+    /**
+     * Like [tokenize], but always returns tokens that can be read from multiple threads at once,
+     * e.g. to parse different parts of a long utterance in parallel.
+     */
+    internal fun tokenizeShared(utterance: CharSequence): List<Token> {
+        val cache = tokenizationCache
+        if (cache == null || utterance !is String) {
+            return tokenizeImmutable(utterance)
+        }
+        return cache.getOrPut(utterance) { tokenizeImmutable(utterance) }
+    }
+
+    /**
+     * Tokenizes [utterance] into [tokens], replacing their previous content. Useful together with
+     * [TokenStream.reset] to parse many utterances with the same token stream and extractors.
+     */
+    fun tokenize(utterance: CharSequence, tokens: TokenBuffer) {
+        tokenizer.tokenize(utterance, tokens)
+    }
+
+    /**
+     * See [Tokenizer.retokenize].
+     */
+    internal fun retokenize(utterance: CharSequence, tokens: TokenBuffer, commonPrefixLength: Int): Int {
+        return tokenizer.retokenize(utterance, tokens, commonPrefixLength)
+    }
+
+    /**
+     * @return the tokens of [utterance] in a list that can be shared between threads: [Token]s
+     * copy their value and spaces out of the utterance lazily, so do it now to make them immutable
+     */
+    private fun tokenizeImmutable(utterance: CharSequence): List<Token> {
+        val tokens = tokenizer.tokenize(utterance)
+        val result = ArrayList<Token>(tokens.size)
+        for (token in tokens) {
+            token.value
+            token.spacesFollowing
+            result.add(token)
+        }
+        return Collections.unmodifiableList(result)
     }
 }
@@ -0,0 +1,133 @@
+package org.dicio.numbers.parser
+
+import org.dicio.numbers.parser.lexer.Categories
+
+/**
+ * A grammar rule which parses something from the current position of the token stream of a
+ * [ParseContext], moving the position forward past what was parsed, or returns `null` if nothing
+ * could be parsed. Rules are meant to be built only once (e.g. as fields of a stateless extractor)
+ * and then combined with the functions in the companion object (e.g. [firstNotNull], [mostTokens]
+ * and [skipping]) into larger rules. Since the combined rules are just objects holding the rules
+ * they were built from, evaluating them does not allocate anything, unlike passing lambdas
+ * capturing the [ParseContext] to e.g. [org.dicio.numbers.util.Utils.firstNotNull] every time.
+ */
+fun interface Rule<out T : Any> {
+    /**
+     * @param context the context holding the token stream to parse
+     * @return the parsed value, or `null` if this rule did not match
+     */
+    fun parse(context: ParseContext): T?
+
+    companion object {
+        /**
+         * @return a rule that tries [rules] in order and returns the result of the first one that
+         * matched, or `null` if none matched. The rules are responsible for restoring the position
+         * of the token stream if they do not match, as usual.
+         */
+        @JvmStatic
+        @SafeVarargs
+        fun <T : Any> firstNotNull(vararg rules: Rule<T>): Rule<T> {
+            return FirstNotNullRule(rules.copyOf())
+        }
+
+        /**
+         * @return a rule that tries all of [rules] from the same position and returns the result
+         * of the one which matched and used the most tokens, or of the first one among those that
+         * used the same number of tokens. The position of the token stream is left at the end of
+         * the chosen result, or is restored if no rule matched.
+         */
+        @JvmStatic
+        @SafeVarargs
+        fun <T : Any> mostTokens(vararg rules: Rule<T>): Rule<T> {
+            return MostTokensRule(rules.copyOf())
+        }
+
+        /**
+         * @return a rule that tries [rule] first at the current position and then after each
+         * consecutive token with the [category], returning the first result found; the position is
+         * restored if no result is found. This is the same as
+         * [org.dicio.numbers.parser.lexer.TokenStream.tryOrSkipCategory], and skipping can also be
+         * disabled on a per-call basis, see [SkippingRule.parse].
+         */
+        @JvmStatic
+        fun <T : Any> skipping(category: Int, rule: Rule<T>): SkippingRule<T> {
+            return SkippingRule(category, rule)
+        }
+
+        /**
+         * Same as [skipping] with [Categories.DATE_TIME_IGNORE].
+         */
+        @JvmStatic
+        fun <T : Any> skippingDateTimeIgnore(rule: Rule<T>): SkippingRule<T> {
+            return SkippingRule(Categories.DATE_TIME_IGNORE, rule)
+        }
+    }
+}
+
+private class FirstNotNullRule<T : Any>(private val rules: Array<out Rule<T>>) : Rule<T> {
+    override fun parse(context: ParseContext): T? {
+        for (rule in rules) {
+            val result = rule.parse(context)
+            if (result != null) {
+                return result
+            }
+        }
+        return null
+    }
+}
+
+private class MostTokensRule<T : Any>(private val rules: Array<out Rule<T>>) : Rule<T> {
+    override fun parse(context: ParseContext): T? {
+        val ts = context.ts
+        val originalPosition = ts.position
+        var bestResult: T? = null
+        var bestPosition = originalPosition
+
+        for (rule in rules) {
+            ts.position = originalPosition
+            val result = rule.parse(context)
+            if (result != null && ts.position > bestPosition) {
+                bestResult = result
+                bestPosition = ts.position
+            }
+        }
+
+        ts.position = bestPosition
+        return bestResult
+    }
+}
+
+/**
+ * See [Rule.skipping].
+ */
+class SkippingRule<T : Any> internal constructor(
+    private val category: Int,
+    private val rule: Rule<T>,
+) : Rule<T> {
+    override fun parse(context: ParseContext): T? {
+        return parse(context, true)
+    }
+
+    /**
+     * @param doTrySkipping if false, [rule] is just tried at the current position
+     */
+    fun parse(context: ParseContext, doTrySkipping: Boolean): T? {
+        if (!doTrySkipping) {
+            return rule.parse(context)
+        }
+
+        val ts = context.ts
+        val originalPosition = ts.position
+        do {
+            val result = rule.parse(context)
+            if (result != null) {
+                return result
+            }
+            ts.movePositionForwardBy(1)
+        } while (ts[-1].hasCategory(category) && !ts.finished())
+
+        // found nothing, restore position
+        ts.position = originalPosition
+        return null
+    }
+}
@@ -0,0 +1,126 @@
+package org.dicio.numbers.parser.lexer
+
+/**
+ * IDs of the categories from `tokenizer.json` that extractors check for. Every
+ * [CategoryRegistry] assigns these IDs to the corresponding category names, so they can be used
+ * with [Token.hasCategory] regardless of the language. Categories that are not listed here are
+ * still given an ID by the registry of the language they appear in, but can only be checked for
+ * by name.
+ */
+object Categories {
+    const val AMPM_AFTER = 0
+    const val AMPM_AFTER_COMBINED = 1
+    const val AMPM_BEFORE = 2
+    const val AMPM_BEFORE_COMBINED = 3
+    const val AMPM_IDENTIFIER = 4
+    const val BCAD_AFTER = 5
+    const val BCAD_AFTER_COMBINED = 6
+    const val BCAD_BEFORE = 7
+    const val BCAD_BEFORE_COMBINED = 8
+    const val BCAD_ERA = 9
+    const val BCAD_IDENTIFIER = 10
+    const val DATE_TIME_IGNORE = 11
+    const val DAY_ADDER_AFTER = 12
+    const val DAY_ADDER_BEFORE = 13
+    const val DAY_ADDER_DAY = 14
+    const val DAY_ADDER_THE = 15
+    const val DAY_OF_WEEK = 16
+    const val DIGIT = 17
+    const val DIGIT_AFTER_POINT = 18
+    const val DURATION_SEPARATOR = 19
+    const val FRACTION_SEPARATOR = 20
+    const val FRACTION_SEPARATOR_SECONDARY = 21
+    const val HUNDRED = 22
+    const val IGNORE = 23
+    const val MOMENT_OF_DAY = 24
+    const val MONTH_NAME = 25
+    const val MULTIPLIER = 26
+    const val NEGATIVE = 27
+    const val NOON_MIDNIGHT_LIKE = 28
+    const val NUMBER = 29
+    const val OCLOCK_COMBINED = 30
+    const val ORDINAL = 31
+    const val ORDINAL_SUFFIX = 32
+    const val POINT = 33
+    const val POST_OCLOCK = 34
+    const val POST_RELATIVE_INDICATOR = 35
+    const val PRE_HOUR = 36
+    const val PRE_OCLOCK = 37
+    const val PRE_RELATIVE_INDICATOR = 38
+    const val PRE_SPECIAL_HOUR = 39
+    const val RAW = 40
+    const val SIGN = 41
+    const val SPECIAL_MINUTE_AFTER = 42
+    const val SPECIAL_MINUTE_BEFORE = 43
+    const val SUFFIX_MULTIPLIER = 44
+    const val TEEN = 45
+    const val TENS = 46
+    const val THOUSAND_SEPARATOR = 47
+    const val TODAY = 48
+    const val TOMORROW = 49
+    const val TOMORROW_ADDER = 50
+    const val YESTERDAY = 51
+    const val YESTERDAY_ADDER = 52
+
+    /**
+     * The number of categories with a fixed ID, i.e. the first ID a [CategoryRegistry] assigns to
+     * the categories not listed above.
+     */
+    const val FIXED_COUNT = 53
+
+    internal val FIXED_IDS: Map<String, Int> = mapOf(
+        "ampm_after" to AMPM_AFTER,
+        "ampm_after_combined" to AMPM_AFTER_COMBINED,
+        "ampm_before" to AMPM_BEFORE,
+        "ampm_before_combined" to AMPM_BEFORE_COMBINED,
+        "ampm_identifier" to AMPM_IDENTIFIER,
+        "bcad_after" to BCAD_AFTER,
+        "bcad_after_combined" to BCAD_AFTER_COMBINED,
+        "bcad_before" to BCAD_BEFORE,
+        "bcad_before_combined" to BCAD_BEFORE_COMBINED,
+        "bcad_era" to BCAD_ERA,
+        "bcad_identifier" to BCAD_IDENTIFIER,
+        "date_time_ignore" to DATE_TIME_IGNORE,
+        "day_adder_after" to DAY_ADDER_AFTER,
+        "day_adder_before" to DAY_ADDER_BEFORE,
+        "day_adder_day" to DAY_ADDER_DAY,
+        "day_adder_the" to DAY_ADDER_THE,
+        "day_of_week" to DAY_OF_WEEK,
+        "digit" to DIGIT,
+        "digit_after_point" to DIGIT_AFTER_POINT,
+        "duration_separator" to DURATION_SEPARATOR,
+        "fraction_separator" to FRACTION_SEPARATOR,
+        "fraction_separator_secondary" to FRACTION_SEPARATOR_SECONDARY,
+        "hundred" to HUNDRED,
+        "ignore" to IGNORE,
+        "moment_of_day" to MOMENT_OF_DAY,
+        "month_name" to MONTH_NAME,
+        "multiplier" to MULTIPLIER,
+        "negative" to NEGATIVE,
+        "noon_midnight_like" to NOON_MIDNIGHT_LIKE,
+        "number" to NUMBER,
+        "oclock_combined" to OCLOCK_COMBINED,
+        "ordinal" to ORDINAL,
+        "ordinal_suffix" to ORDINAL_SUFFIX,
+        "point" to POINT,
+        "post_oclock" to POST_OCLOCK,
+        "post_relative_indicator" to POST_RELATIVE_INDICATOR,
+        "pre_hour" to PRE_HOUR,
+        "pre_oclock" to PRE_OCLOCK,
+        "pre_relative_indicator" to PRE_RELATIVE_INDICATOR,
+        "pre_special_hour" to PRE_SPECIAL_HOUR,
+        "raw" to RAW,
+        "sign" to SIGN,
+        "special_minute_after" to SPECIAL_MINUTE_AFTER,
+        "special_minute_before" to SPECIAL_MINUTE_BEFORE,
+        "suffix_multiplier" to SUFFIX_MULTIPLIER,
+        "teen" to TEEN,
+        "tens" to TENS,
+        "thousand_separator" to THOUSAND_SEPARATOR,
+        "today" to TODAY,
+        "tomorrow" to TOMORROW,
+        "tomorrow_adder" to TOMORROW_ADDER,
+        "yesterday" to YESTERDAY,
+        "yesterday_adder" to YESTERDAY_ADDER
+    )
+}
@@ -0,0 +1,82 @@
+package org.dicio.numbers.parser.lexer
+
+import org.dicio.numbers.util.SnapshotReader
+import org.dicio.numbers.util.SnapshotWriter
+
+/**
+ * Interns category names into dense int IDs, so that checking whether a token has a category is
+ * just a bit test in a [CategorySet]. The categories in [Categories] always have their fixed ID,
+ * while other categories are assigned the next free ID the first time they are seen. Each
+ * [Tokenizer] has its own registry, which is only modified while loading the language config.
+ */
+class CategoryRegistry {
+    private val ids: MutableMap<String, Int> = HashMap(Categories.FIXED_IDS)
+
+    /**
+     * @return the ID of the category with the provided name, or -1 if no token can have such
+     * category
+     */
+    fun idOf(name: String): Int {
+        return ids[name] ?: -1
+    }
+
+    /**
+     * @return a set with the IDs of the provided category names, registering new names as needed
+     */
+    fun setOf(names: Collection<String>): CategorySet {
+        val setIds = names.map { name -> ids.getOrPut(name) { ids.size } }
+        val bits = LongArray((setIds.maxOrNull() ?: 0) / Long.SIZE_BITS + 1)
+        for (id in setIds) {
+            bits[id ushr 6] = bits[id ushr 6] or (1L shl id)
+        }
+        return CategorySet(this, bits)
+    }
+
+    /**
+     * Writes the names of the categories without a fixed ID, in ID order, so that [readFrom]
+     * can register them again with the same IDs.
+     */
+    internal fun writeTo(writer: SnapshotWriter) {
+        writer.writeStringArray(
+            ids.entries.filter { it.value >= Categories.FIXED_COUNT }
+                .sortedBy { it.value }
+                .map { it.key }
+                .toTypedArray()
+        )
+    }
+
+    internal fun readFrom(reader: SnapshotReader) {
+        for (name in reader.readStringArray()) {
+            ids.getOrPut(name) { ids.size }
+        }
+    }
+}
+
+/**
+ * An immutable set of category IDs from a [CategoryRegistry], stored as a bitmask.
+ */
+class CategorySet internal constructor(
+    private val registry: CategoryRegistry,
+    internal val bits: LongArray,
+) {
+    fun contains(id: Int): Boolean {
+        val word = id ushr 6
+        return word < bits.size && (bits[word] and (1L shl id)) != 0L
+    }
+
+    fun contains(name: String): Boolean {
+        val id = registry.idOf(name)
+        return id >= 0 && contains(id)
+    }
+
+    companion object {
+        /**
+         * @return a set containing the provided categories, in a new registry containing only the
+         * [Categories] with a fixed ID and the provided categories
+         */
+        @JvmStatic
+        fun of(names: Collection<String>): CategorySet {
+            return CategoryRegistry().setOf(names)
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package org.dicio.numbers.parser.lexer
+
+/**
+ * An immutable set of code points, e.g. the `spaces` or the `characters_as_word` of a language.
+ * Code points in the Basic Multilingual Plane are stored in a bitset, so checking them is a single
+ * bit test, while the (rare) supplementary code points are binary searched in a sorted array.
+ */
+internal class CodePointSet(codePoints: CharSequence) {
+    private val bmp = LongArray(BMP_SIZE / Long.SIZE_BITS)
+    private val supplementary: IntArray
+
+    init {
+        val supplementaryList = ArrayList<Int>()
+        var i = 0
+        while (i < codePoints.length) {
+            val codePoint = Character.codePointAt(codePoints, i)
+            if (codePoint < BMP_SIZE) {
+                bmp[codePoint ushr 6] = bmp[codePoint ushr 6] or (1L shl codePoint)
+            } else {
+                supplementaryList.add(codePoint)
+            }
+            i += Character.charCount(codePoint)
+        }
+        supplementary = supplementaryList.distinct().sorted().toIntArray()
+    }
+
+    operator fun contains(codePoint: Int): Boolean {
+        return if (codePoint < BMP_SIZE) {
+            (bmp[codePoint ushr 6] and (1L shl codePoint)) != 0L
+        } else {
+            supplementary.binarySearch(codePoint) >= 0
+        }
+    }
+
+    /**
+     * @return all of the code points in this set, in ascending order, e.g. to pass them to the
+     * constructor again
+     */
+    fun toCodePointString(): String {
+        val builder = StringBuilder()
+        for (codePoint in 0 until BMP_SIZE) {
+            if (contains(codePoint)) {
+                builder.append(codePoint.toChar())
+            }
+        }
+        for (codePoint in supplementary) {
+            builder.appendCodePoint(codePoint)
+        }
+        return builder.toString()
+    }
+
+    companion object {
+        private const val BMP_SIZE = 0x10000
+    }
+}
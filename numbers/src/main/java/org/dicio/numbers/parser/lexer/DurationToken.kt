@@ -3,13 +3,32 @@ package org.dicio.numbers.parser.lexer
 import org.dicio.numbers.unit.Duration
 
 class DurationToken internal constructor(
-    value: String,
-    spacesFollowing: String,
+    source: CharSequence,
+    valueStart: Int,
+    valueEnd: Int,
+    spacesStart: Int,
+    spacesEnd: Int,
     positionInOriginalString: Int,
+    valueOverride: String?,
     // this is basically the duration multiplier, but in plain text
     val durationCategory: String,
     val durationMultiplier: Duration,
     val isRestrictedAfterNumber: Boolean
-) : Token(value, spacesFollowing, positionInOriginalString) {
+) : Token(
+    source, valueStart, valueEnd, spacesStart, spacesEnd, positionInOriginalString, valueOverride
+) {
+
+    internal constructor(
+        value: String,
+        spacesFollowing: String,
+        positionInOriginalString: Int,
+        durationCategory: String,
+        durationMultiplier: Duration,
+        isRestrictedAfterNumber: Boolean
+    ) : this(
+        spacesFollowing, 0, 0, 0, spacesFollowing.length, positionInOriginalString, value,
+        durationCategory, durationMultiplier, isRestrictedAfterNumber
+    )
+
     override val asDurationToken = this
 }
@@ -0,0 +1,421 @@
+package org.dicio.numbers.parser.lexer
+
+import org.dicio.numbers.unit.Duration
+import org.dicio.numbers.unit.Number
+import org.dicio.numbers.util.SnapshotReader
+import org.dicio.numbers.util.SnapshotWriter
+import java.util.IdentityHashMap
+import java.util.TreeMap
+
+/**
+ * An immutable char trie holding all of the words a [Tokenizer] knows about, i.e. the word
+ * matches, the number mappings and the duration words, along with the plural endings to try
+ * stripping away. Since all of the information about a word is stored in a single [Entry], one
+ * walk over the cleaned value of a token is enough to find everything needed to build the token.
+ *
+ * The trie is stored in compressed sparse row form: the children of node `n` are the edges in the
+ * range `[childStart[n], childStart[n+1])`, sorted by character, so that they can be binary
+ * searched. Node `0` is the root.
+ */
+internal class Lexicon private constructor(
+    private val childStart: IntArray,
+    private val childChars: CharArray,
+    private val childNodes: IntArray,
+    private val nodeEntries: Array<Entry?>,
+    private val pluralEndings: Array<String>,
+    private val hasCompoundWordPieces: Boolean,
+) {
+
+    /**
+     * Everything that is known about a word. At least one of [numberMapping], [wordCategories]
+     * and [durationMapping] is not null.
+     */
+    class Entry(val word: String) {
+        var numberMapping: Mapping? = null
+        var wordCategories: CategorySet? = null
+        var durationMapping: DurationMapping? = null
+
+        /**
+         * The priority of this word when used as a piece of a compound word (lower is tried
+         * first), or -1 if this word is not a compound word piece.
+         */
+        var compoundPieceIndex: Int = -1
+    }
+
+    class Mapping(val categories: CategorySet, val number: Number)
+
+    class DurationMapping(val durationCategory: String, val durationMultiplier: Duration) {
+        var restrictedAfterNumber: Boolean = false
+    }
+
+
+    /**
+     * Looks up the characters of [s] in the range `[start, end)` as a whole word, or, if there is
+     * no such word, with the first plural ending that the characters end with stripped away.
+     * Both lookups happen during a single walk of the trie.
+     *
+     * @return the entry of the word or of its singular form, or null if neither is known
+     */
+    fun lookup(s: CharSequence, start: Int, end: Int): Entry? {
+        // only the first plural ending that matches is ever tried, the same way as in the JSON
+        // config the plural endings are listed by priority
+        var singularEnd = -1
+        for (pluralEnding in pluralEndings) {
+            if (regionEndsWith(s, start, end, pluralEnding)) {
+                singularEnd = end - pluralEnding.length
+                break
+            }
+        }
+
+        var node = 0
+        var singularEntry: Entry? = if (singularEnd == start) nodeEntries[0] else null
+        for (i in start until end) {
+            node = child(node, s[i])
+            if (node < 0) {
+                return singularEntry
+            }
+            if (i + 1 == singularEnd) {
+                singularEntry = nodeEntries[node]
+            }
+        }
+        return nodeEntries[node] ?: singularEntry
+    }
+
+    /**
+     * @return the entry for exactly the word [word], without trying to strip plural endings
+     */
+    fun lookupExact(word: CharSequence): Entry? {
+        var node = 0
+        for (i in word.indices) {
+            node = child(node, word[i])
+            if (node < 0) {
+                return null
+            }
+        }
+        return nodeEntries[node]
+    }
+
+    /**
+     * Splits the characters of [s] in the range `[start, end)` into compound word pieces (e.g.
+     * "ventitré" into "venti" and "tre"). When there are multiple ways to split the characters,
+     * at every position the piece with the lowest [Entry.compoundPieceIndex] that still allows
+     * splitting the rest of the characters is chosen.
+     *
+     * This is a dynamic programming segmentation running from the end towards the beginning:
+     * `pieceLength[i]` is the length of the piece chosen at position `i`, or 0 if the characters
+     * from `i` onwards can't be split. So every position is only visited once for each piece
+     * starting there, and the pieces themselves are never copied.
+     *
+     * @return the entries of the pieces in order, or null if the characters can't be split
+     */
+    fun splitCompoundWord(s: CharSequence, start: Int, end: Int): List<Entry>? {
+        if (!hasCompoundWordPieces || start >= end || !startsWithCompoundPiece(s, start, end)) {
+            return null // quick check to avoid allocating anything for most words
+        }
+
+        val length = end - start
+        val pieceLength = IntArray(length + 1)
+        val pieceEntry = arrayOfNulls<Entry>(length + 1)
+        for (i in length - 1 downTo 0) {
+            var bestPieceIndex = Int.MAX_VALUE
+            var node = 0
+            var depth = 0
+            while (i + depth < length) {
+                node = child(node, s[start + i + depth])
+                if (node < 0) {
+                    break
+                }
+                ++depth
+
+                val entry = nodeEntries[node]
+                if (entry != null && entry.compoundPieceIndex in 0 until bestPieceIndex
+                    && (i + depth == length || pieceLength[i + depth] != 0)
+                ) {
+                    bestPieceIndex = entry.compoundPieceIndex
+                    pieceLength[i] = depth
+                    pieceEntry[i] = entry
+                }
+            }
+        }
+
+        if (pieceLength[0] == 0) {
+            return null
+        }
+        val pieces = ArrayList<Entry>()
+        var i = 0
+        while (i < length) {
+            pieces.add(pieceEntry[i]!!)
+            i += pieceLength[i]
+        }
+        return pieces
+    }
+
+    private fun startsWithCompoundPiece(s: CharSequence, start: Int, end: Int): Boolean {
+        var node = 0
+        for (i in start until end) {
+            node = child(node, s[i])
+            if (node < 0) {
+                return false
+            }
+            if ((nodeEntries[node]?.compoundPieceIndex ?: -1) >= 0) {
+                return true
+            }
+        }
+        return false
+    }
+
+    private fun child(node: Int, c: Char): Int {
+        var low = childStart[node]
+        var high = childStart[node + 1] - 1
+        while (low <= high) {
+            val mid = (low + high) ushr 1
+            val midChar = childChars[mid]
+            if (midChar < c) {
+                low = mid + 1
+            } else if (midChar > c) {
+                high = mid - 1
+            } else {
+                return childNodes[mid]
+            }
+        }
+        return -1
+    }
+
+
+    /**
+     * Writes the trie arrays and the entries, so that [readFrom] can rebuild this lexicon without
+     * going through a [Builder]. Category sets shared by multiple entries are written only once.
+     */
+    fun writeTo(writer: SnapshotWriter) {
+        writer.writeStringArray(pluralEndings)
+        writer.writeBoolean(hasCompoundWordPieces)
+        writer.writeIntArray(childStart)
+        writer.writeCharArray(childChars)
+        writer.writeIntArray(childNodes)
+
+        val categorySetIndices = IdentityHashMap<CategorySet, Int>()
+        for (entry in nodeEntries.filterNotNull()) {
+            val categorySets = listOfNotNull(entry.numberMapping?.categories, entry.wordCategories)
+            for (categories in categorySets) {
+                categorySetIndices.putIfAbsent(categories, categorySetIndices.size)
+            }
+        }
+        writer.writeInt(categorySetIndices.size)
+        for ((categories, _) in categorySetIndices.entries.sortedBy { it.value }) {
+            writer.writeLongArray(categories.bits)
+        }
+
+        writer.writeInt(nodeEntries.count { it != null })
+        for ((node, entry) in nodeEntries.withIndex()) {
+            if (entry == null) {
+                continue
+            }
+            writer.writeInt(node)
+            writer.writeString(entry.word)
+            writer.writeInt(entry.compoundPieceIndex)
+
+            val numberMapping = entry.numberMapping
+            writer.writeInt(numberMapping?.let { categorySetIndices[it.categories] } ?: -1)
+            if (numberMapping != null) {
+                val number = numberMapping.number
+                writer.writeBoolean(number.isDecimal)
+                writer.writeBoolean(number.isOrdinal)
+                if (number.isDecimal) {
+                    writer.writeDouble(number.decimalValue())
+                } else {
+                    writer.writeLong(number.integerValue())
+                }
+            }
+
+            writer.writeInt(entry.wordCategories?.let { categorySetIndices[it] } ?: -1)
+
+            val durationMapping = entry.durationMapping
+            writer.writeBoolean(durationMapping != null)
+            if (durationMapping != null) {
+                writer.writeString(durationMapping.durationCategory)
+                writer.writeBoolean(durationMapping.restrictedAfterNumber)
+                val duration = durationMapping.durationMultiplier
+                writer.writeLong(duration.nanos)
+                writer.writeLong(duration.days)
+                writer.writeLong(duration.months)
+                writer.writeLong(duration.years)
+            }
+        }
+    }
+
+
+    /**
+     * Collects the words to put in the [Lexicon]. Adding information to an already added word
+     * overwrites the information of the same kind, but keeps the other kinds of information.
+     */
+    class Builder {
+        private val root = BuilderNode()
+        private val pluralEndings = ArrayList<String>()
+        private var compoundWordPieceCount = 0
+
+        fun addPluralEnding(pluralEnding: String) {
+            pluralEndings.add(pluralEnding)
+        }
+
+        fun addWordMatch(word: String, categories: CategorySet) {
+            entryFor(word).wordCategories = categories
+        }
+
+        fun addNumberMapping(word: String, categories: CategorySet, number: Number) {
+            entryFor(word).numberMapping = Mapping(categories, number)
+        }
+
+        fun addDurationMapping(word: String, durationMapping: DurationMapping) {
+            entryFor(word).durationMapping = durationMapping
+        }
+
+        /**
+         * Marks [word] as a compound word piece. Pieces added earlier are preferred over those
+         * added later when splitting compound words.
+         */
+        fun addCompoundWordPiece(word: String) {
+            val entry = entryFor(word)
+            if (entry.compoundPieceIndex < 0) {
+                entry.compoundPieceIndex = compoundWordPieceCount
+                ++compoundWordPieceCount
+            }
+        }
+
+        /**
+         * @return the duration mapping previously added for [word], if any
+         */
+        fun getDurationMapping(word: String): DurationMapping? {
+            var node: BuilderNode = root
+            for (c in word) {
+                node = node.children[c] ?: return null
+            }
+            return node.entry?.durationMapping
+        }
+
+        fun build(): Lexicon {
+            // number the nodes in breadth-first order, so that the children of each node are
+            // contiguous in the edge arrays
+            val nodes = ArrayList<BuilderNode>()
+            nodes.add(root)
+            var edgeCount = 0
+            var n = 0
+            while (n < nodes.size) {
+                for (child in nodes[n].children.values) {
+                    nodes.add(child)
+                    ++edgeCount
+                }
+                ++n
+            }
+
+            val childStart = IntArray(nodes.size + 1)
+            val childChars = CharArray(edgeCount)
+            val childNodes = IntArray(edgeCount)
+            val nodeEntries = arrayOfNulls<Entry>(nodes.size)
+            var edge = 0
+            var nextChildNode = 1
+            for ((i, node) in nodes.withIndex()) {
+                childStart[i] = edge
+                nodeEntries[i] = node.entry
+                // TreeMap iterates in ascending character order
+                for (c in node.children.keys) {
+                    childChars[edge] = c
+                    childNodes[edge] = nextChildNode
+                    ++edge
+                    ++nextChildNode
+                }
+            }
+            childStart[nodes.size] = edge
+
+            return Lexicon(
+                childStart, childChars, childNodes, nodeEntries, pluralEndings.toTypedArray(),
+                compoundWordPieceCount > 0
+            )
+        }
+
+        private fun entryFor(word: String): Entry {
+            var node: BuilderNode = root
+            for (c in word) {
+                node = node.children.getOrPut(c) { BuilderNode() }
+            }
+            return node.entry ?: Entry(word).also { node.entry = it }
+        }
+
+        private class BuilderNode {
+            val children = TreeMap<Char, BuilderNode>()
+            var entry: Entry? = null
+        }
+    }
+
+
+    companion object {
+        /**
+         * Reads a lexicon written by [writeTo]. The category sets are created in [registry], which
+         * must already contain the same categories as the registry of the written lexicon.
+         */
+        fun readFrom(reader: SnapshotReader, registry: CategoryRegistry): Lexicon {
+            val pluralEndings = reader.readStringArray()
+            val hasCompoundWordPieces = reader.readBoolean()
+            val childStart = reader.readIntArray()
+            val childChars = reader.readCharArray()
+            val childNodes = reader.readIntArray()
+
+            val categorySets = Array(reader.readInt()) {
+                CategorySet(registry, reader.readLongArray())
+            }
+
+            val nodeEntries = arrayOfNulls<Entry>(childStart.size - 1)
+            repeat(reader.readInt()) {
+                val node = reader.readInt()
+                val entry = Entry(reader.readString())
+                entry.compoundPieceIndex = reader.readInt()
+
+                val numberCategories = reader.readInt()
+                if (numberCategories >= 0) {
+                    val isDecimal = reader.readBoolean()
+                    val isOrdinal = reader.readBoolean()
+                    val number = if (isDecimal) {
+                        Number(reader.readDouble(), isOrdinal)
+                    } else {
+                        Number(reader.readLong(), isOrdinal)
+                    }
+                    entry.numberMapping = Mapping(categorySets[numberCategories], number)
+                }
+
+                val wordCategories = reader.readInt()
+                if (wordCategories >= 0) {
+                    entry.wordCategories = categorySets[wordCategories]
+                }
+
+                if (reader.readBoolean()) {
+                    val durationCategory = reader.readString()
+                    val restrictedAfterNumber = reader.readBoolean()
+                    val duration = Duration(
+                        reader.readLong(), reader.readLong(), reader.readLong(), reader.readLong()
+                    )
+                    entry.durationMapping = DurationMapping(durationCategory, duration)
+                        .also { it.restrictedAfterNumber = restrictedAfterNumber }
+                }
+
+                nodeEntries[node] = entry
+            }
+
+            return Lexicon(
+                childStart, childChars, childNodes, nodeEntries, pluralEndings,
+                hasCompoundWordPieces
+            )
+        }
+
+        private fun regionEndsWith(s: CharSequence, start: Int, end: Int, suffix: String): Boolean {
+            if (end - start < suffix.length) {
+                return false
+            }
+            val offset = end - suffix.length
+            for (i in suffix.indices) {
+                if (s[offset + i] != suffix[i]) {
+                    return false
+                }
+            }
+            return true
+        }
+    }
+}
@@ -1,13 +1,29 @@
 package org.dicio.numbers.parser.lexer
 
 open class MatchedToken internal constructor(
-    value: String,
-    spacesFollowing: String,
+    source: CharSequence,
+    valueStart: Int,
+    valueEnd: Int,
+    spacesStart: Int,
+    spacesEnd: Int,
     positionInOriginalString: Int,
-    private val categories: Set<String>
-) : Token(value, spacesFollowing, positionInOriginalString) {
+    valueOverride: String?,
+    private val categories: CategorySet
+) : Token(
+    source, valueStart, valueEnd, spacesStart, spacesEnd, positionInOriginalString, valueOverride
+) {
     private var durationTokenMatch: DurationToken? = null
 
+    internal constructor(
+        value: String,
+        spacesFollowing: String,
+        positionInOriginalString: Int,
+        categories: Set<String>
+    ) : this(
+        spacesFollowing, 0, 0, 0, spacesFollowing.length, positionInOriginalString, value,
+        CategorySet.of(categories)
+    )
+
     fun setDurationTokenMatch(durationTokenMatch: DurationToken?) {
         this.durationTokenMatch = durationTokenMatch
     }
@@ -16,6 +32,10 @@ open class MatchedToken internal constructor(
         return categories.contains(category)
     }
 
+    override fun hasCategory(category: Int): Boolean {
+        return categories.contains(category)
+    }
+
     override val asDurationToken: DurationToken?
         get() = durationTokenMatch
 }
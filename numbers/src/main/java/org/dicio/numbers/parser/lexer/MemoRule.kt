@@ -0,0 +1,18 @@
+package org.dicio.numbers.parser.lexer
+
+/**
+ * Identifies an extractor rule (e.g. "parse an integer, allowing ordinals") whose results can be
+ * memoized with [TokenStream.memoize]. Rules are compared by identity, and the results of a rule
+ * must only depend on the position and token count of the token stream. Rules whose results also
+ * depend on the options of an extraction (e.g. short scale or not) can still be created once per
+ * extractor, since a token stream is always parsed with the same
+ * [org.dicio.numbers.parser.ParseContext], while a rule of a stateless utility function can be a
+ * constant.
+ *
+ * @param name only used for debugging
+ */
+class MemoRule(private val name: String) {
+    override fun toString(): String {
+        return name
+    }
+}
@@ -3,12 +3,31 @@ package org.dicio.numbers.parser.lexer
 import org.dicio.numbers.unit.Number
 
 class NumberToken internal constructor(
-    value: String,
-    spacesFollowing: String,
+    source: CharSequence,
+    valueStart: Int,
+    valueEnd: Int,
+    spacesStart: Int,
+    spacesEnd: Int,
     positionInOriginalString: Int,
-    categories: Set<String>,
+    valueOverride: String?,
+    categories: CategorySet,
     override val number: Number
-) : MatchedToken(value, spacesFollowing, positionInOriginalString, categories) {
+) : MatchedToken(
+    source, valueStart, valueEnd, spacesStart, spacesEnd, positionInOriginalString, valueOverride,
+    categories
+) {
+
+    internal constructor(
+        value: String,
+        spacesFollowing: String,
+        positionInOriginalString: Int,
+        categories: Set<String>,
+        number: Number
+    ) : this(
+        spacesFollowing, 0, 0, 0, spacesFollowing.length, positionInOriginalString, value,
+        CategorySet.of(categories), number
+    )
+
     override fun isNumberEqualTo(integer: Long): Boolean {
         return number.equals(integer)
     }
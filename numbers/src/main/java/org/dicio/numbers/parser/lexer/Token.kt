@@ -3,16 +3,87 @@ package org.dicio.numbers.parser.lexer
 import org.dicio.numbers.unit.Number
 
 /**
+ * A token is a view over a range of the string that was tokenized: its [value] and its
+ * [spacesFollowing] are only copied out of the original string the first time they are requested.
+ * Therefore the original string (which may be any [CharSequence]) must not be modified while
+ * tokens obtained from it are still in use.
+ *
+ * @param source the original string, or just the spaces following the token in case the token
+ * was built directly from strings
+ * @param valueStart index in [source] at which [value] starts
+ * @param valueEnd index in [source] at which [value] ends (exclusive)
+ * @param spacesStart index in [source] at which [spacesFollowing] starts
+ * @param spacesEnd index in [source] at which [spacesFollowing] ends (exclusive)
  * @param positionInOriginalString index in the original string at which `value` starts
+ * @param valueOverride if not null, the value to use instead of the range in [source], e.g. for
+ * the pieces of compound words
  */
 open class Token internal constructor(
-    @JvmField val value: String,
-    @JvmField val spacesFollowing: String,
+    private val source: CharSequence,
+    private val valueStart: Int,
+    private val valueEnd: Int,
+    private val spacesStart: Int,
+    private val spacesEnd: Int,
     @JvmField val positionInOriginalString: Int,
+    valueOverride: String?,
 ) {
+    private var valueString: String? = valueOverride
+    private var spacesFollowingString: String? = null
+
+    internal constructor(
+        value: String,
+        spacesFollowing: String,
+        positionInOriginalString: Int,
+    ) : this(spacesFollowing, 0, 0, 0, spacesFollowing.length, positionInOriginalString, value)
+
+    val value: String
+        get() = valueString ?: source.substring(valueStart, valueEnd).also { valueString = it }
+
+    val spacesFollowing: String
+        get() = spacesFollowingString
+            ?: source.substring(spacesStart, spacesEnd).also { spacesFollowingString = it }
+
+    /**
+     * The length of [value], without materializing it.
+     */
+    val valueLength: Int
+        get() = valueString?.length ?: (valueEnd - valueStart)
 
     fun isValue(value: String?): Boolean {
-        return this.value.equals(value, ignoreCase = true)
+        if (value == null) {
+            return false
+        }
+        valueString?.let { return it.equals(value, ignoreCase = true) }
+
+        if (valueEnd - valueStart != value.length) {
+            return false
+        }
+        for (i in value.indices) {
+            if (!source[valueStart + i].equals(value[i], ignoreCase = true)) {
+                return false
+            }
+        }
+        return true
+    }
+
+    /**
+     * Appends [value] and then [spacesFollowing] to [builder], without materializing them.
+     */
+    fun appendValueAndSpacesTo(builder: StringBuilder) {
+        val valueString = valueString
+        if (valueString == null) {
+            builder.append(source, valueStart, valueEnd)
+        } else {
+            builder.append(valueString)
+        }
+        appendSpacesTo(builder)
+    }
+
+    /**
+     * Appends [spacesFollowing] to [builder], without materializing it.
+     */
+    fun appendSpacesTo(builder: StringBuilder) {
+        builder.append(source, spacesStart, spacesEnd)
     }
 
     open fun isNumberEqualTo(integer: Long): Boolean {
@@ -23,6 +94,13 @@ open class Token internal constructor(
         return false // false by default, overridden
     }
 
+    /**
+     * @param category the ID of the category, e.g. one of the constants in [Categories]
+     */
+    open fun hasCategory(category: Int): Boolean {
+        return false // false by default, overridden
+    }
+
     open val number: Number? = null
 
     open val asDurationToken: DurationToken? = null // null by default, but overridden
@@ -0,0 +1,174 @@
+package org.dicio.numbers.parser.lexer
+
+import org.dicio.numbers.unit.Number
+
+/**
+ * A reusable buffer that [Tokenizer.tokenize] writes tokens into. Tokens are stored in a
+ * structure-of-arrays layout: offsets into the original string, the categories, the number and the
+ * duration of each token are kept in separate arrays that are only reallocated when a longer
+ * string than ever before is tokenized. [Token] objects are only created when they are requested
+ * via [get], e.g. by a [TokenStream], and their value and spaces are in turn only copied out of the
+ * original string when requested.
+ *
+ * Tokens returned by [get] stay valid even after the buffer is reused, but this buffer itself is
+ * not thread safe, so each thread should use its own buffer.
+ */
+class TokenBuffer : AbstractList<Token>(), RandomAccess {
+    private var source: CharSequence = ""
+    private var count = 0
+
+    private var valueStarts = IntArray(INITIAL_CAPACITY)
+    private var valueEnds = IntArray(INITIAL_CAPACITY)
+    private var spacesStarts = IntArray(INITIAL_CAPACITY)
+    private var spacesEnds = IntArray(INITIAL_CAPACITY)
+    private var valueOverrides = arrayOfNulls<String>(INITIAL_CAPACITY)
+    private var categories = arrayOfNulls<CategorySet>(INITIAL_CAPACITY)
+    private var numbers = arrayOfNulls<Number>(INITIAL_CAPACITY)
+    private var durations = arrayOfNulls<Lexicon.DurationMapping>(INITIAL_CAPACITY)
+    private var tokens = arrayOfNulls<Token>(INITIAL_CAPACITY)
+
+    override val size: Int
+        get() = count
+
+    override fun get(index: Int): Token {
+        if (index < 0 || index >= count) {
+            throw IndexOutOfBoundsException("Index $index out of bounds for size $count")
+        }
+        return tokens[index] ?: createToken(index).also { tokens[index] = it }
+    }
+
+    /**
+     * Same as `get(index).hasCategory(category)`, but does not create a [Token] object.
+     */
+    fun hasCategory(index: Int, category: Int): Boolean {
+        return categories[index]?.contains(category) ?: false
+    }
+
+    /**
+     * Same as `get(index).number`, but does not create a [Token] object.
+     */
+    fun getNumber(index: Int): Number? {
+        return numbers[index]
+    }
+
+    /**
+     * Same as `get(index).positionInOriginalString`, but does not create a [Token] object.
+     */
+    fun getPositionInOriginalString(index: Int): Int {
+        return valueStarts[index]
+    }
+
+
+    internal fun reset(source: CharSequence) {
+        truncate(source, 0)
+    }
+
+    /**
+     * Replaces the source with [source] and removes all tokens but the first [keptCount]. The kept
+     * tokens must cover the same characters in [source] as in the old source.
+     */
+    internal fun truncate(source: CharSequence, keptCount: Int) {
+        this.source = source
+        // drop references to old tokens, so that they can be garbage collected
+        valueOverrides.fill(null, keptCount, count)
+        categories.fill(null, keptCount, count)
+        numbers.fill(null, keptCount, count)
+        durations.fill(null, keptCount, count)
+        tokens.fill(null, keptCount, count)
+        count = keptCount
+    }
+
+    /**
+     * @return the index right after the spaces following the token at [index], i.e. where the
+     * tokenizer started scanning the token after it
+     */
+    internal fun getSpacesEnd(index: Int): Int {
+        return spacesEnds[index]
+    }
+
+    /**
+     * Adds a token at the end of the buffer. If [number] is not null, then [categories] must not be
+     * null either.
+     */
+    internal fun add(
+        valueStart: Int,
+        valueEnd: Int,
+        spacesStart: Int,
+        spacesEnd: Int,
+        valueOverride: String?,
+        categories: CategorySet?,
+        number: Number?,
+        duration: Lexicon.DurationMapping?,
+    ) {
+        if (count == valueStarts.size) {
+            grow()
+        }
+        valueStarts[count] = valueStart
+        valueEnds[count] = valueEnd
+        spacesStarts[count] = spacesStart
+        spacesEnds[count] = spacesEnd
+        valueOverrides[count] = valueOverride
+        this.categories[count] = categories
+        numbers[count] = number
+        durations[count] = duration
+        ++count
+    }
+
+    private fun grow() {
+        val capacity = valueStarts.size * 2
+        valueStarts = valueStarts.copyOf(capacity)
+        valueEnds = valueEnds.copyOf(capacity)
+        spacesStarts = spacesStarts.copyOf(capacity)
+        spacesEnds = spacesEnds.copyOf(capacity)
+        valueOverrides = valueOverrides.copyOf(capacity)
+        categories = categories.copyOf(capacity)
+        numbers = numbers.copyOf(capacity)
+        durations = durations.copyOf(capacity)
+        tokens = tokens.copyOf(capacity)
+    }
+
+    private fun createToken(index: Int): Token {
+        val valueStart = valueStarts[index]
+        val valueEnd = valueEnds[index]
+        val spacesStart = spacesStarts[index]
+        val spacesEnd = spacesEnds[index]
+        val valueOverride = valueOverrides[index]
+        val categories = categories[index]
+        val number = numbers[index]
+
+        val matchedToken = if (number != null) {
+            NumberToken(
+                source, valueStart, valueEnd, spacesStart, spacesEnd, valueStart, valueOverride,
+                categories!!, number
+            )
+        } else if (categories != null) {
+            MatchedToken(
+                source, valueStart, valueEnd, spacesStart, spacesEnd, valueStart, valueOverride,
+                categories
+            )
+        } else {
+            null
+        }
+
+        val dur = durations[index]
+        if (dur != null) {
+            val durationToken = DurationToken(
+                source, valueStart, valueEnd, spacesStart, spacesEnd, valueStart, valueOverride,
+                dur.durationCategory, dur.durationMultiplier, dur.restrictedAfterNumber
+            )
+            if (matchedToken == null) {
+                return durationToken
+            } else {
+                matchedToken.setDurationTokenMatch(durationToken)
+            }
+        }
+
+        return matchedToken ?: Token(
+            source, valueStart, valueEnd, spacesStart, spacesEnd, valueStart, valueOverride
+        )
+    }
+
+    companion object {
+        private const val INITIAL_CAPACITY = 16
+    }
+}
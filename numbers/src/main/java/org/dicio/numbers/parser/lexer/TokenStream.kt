@@ -14,8 +14,51 @@ class TokenStream(private val tokens: List<Token>) {
     var tokenCount = tokens.size
         set(value) { field = minOf(value, tokens.size) }
 
+    /**
+     * Whether [memoize] should store and reuse the results of extractor rules. **The default is
+     * `false`**, since memoization only pays off when the same rules are run many times at the same
+     * positions, e.g. in [org.dicio.numbers.parser.param.ParserParams.parsePossibleIntervals].
+     */
+    var memoization = false
+        set(value) {
+            field = value
+            memo.clear()
+        }
+
+    /**
+     * The results of the memoized rules. For each rule, the list contains at each position the
+     * results obtained by running the rule from there, with different token counts.
+     */
+    private val memo = HashMap<MemoRule, ArrayList<MemoEntry?>>()
+
+    /**
+     * The highest index of a token that was accessed in any way (including checking whether it
+     * exists) since the start of the current [memoize] call, or since it was last set to `-1`.
+     */
+    internal var maxAccessedIndex = -1
+
+    private class MemoEntry(
+        val result: Any?,
+        val endPosition: Int,
+        val maxAccessedIndex: Int,
+        // whether the rule accessed tokens not before tokenCount, i.e. if it "saw" the end
+        val sawEnd: Boolean,
+        val tokenCount: Int,
+        val next: MemoEntry?,
+    ) {
+        fun isValidFor(tokenCount: Int): Boolean {
+            return if (sawEnd) {
+                tokenCount == this.tokenCount
+            } else {
+                // the rule only accessed tokens that would still be there with this tokenCount
+                maxAccessedIndex < tokenCount
+            }
+        }
+    }
+
     operator fun get(aheadBy: Int): Token {
         val index = position + aheadBy
+        markAccessed(index)
         return if (index in 0..<tokenCount) {
             tokens[index]
         } else {
@@ -33,9 +76,74 @@ class TokenStream(private val tokens: List<Token>) {
     }
 
     fun finished(): Boolean {
+        markAccessed(position)
         return position >= tokenCount
     }
 
+    /**
+     * Moves back to the first token and considers all tokens again, e.g. after the [TokenBuffer]
+     * this stream reads from has been filled with the tokens of another string. Extractors built on
+     * this stream can then be reused for the new tokens.
+     */
+    fun reset() {
+        position = 0
+        tokenCount = tokens.size
+        memo.clear()
+    }
+
+    /**
+     * Runs [rule] from the current position, or, if [memoization] is enabled and the same rule was
+     * already run from the current position with compatible token counts, reuses its result and
+     * moves to the position where the rule had ended. The result of a rule is reused only if the
+     * rule did not look at the tokens that the difference in token count would hide or reveal:
+     * this is tracked through the tokens the rule accesses via this stream, so the result of a
+     * rule is reused e.g. when [tokenCount] is reduced to exclude tokens the rule never looked at.
+     *
+     * @param rule identifies the rule, see [MemoRule]
+     * @param function runs the rule, which must only depend on [position], [tokenCount] and on the
+     * tokens, must leave [tokenCount] unchanged and must only access tokens via this stream
+     * @return the result of the rule
+     */
+    fun <T> memoize(rule: MemoRule, function: () -> T?): T? {
+        if (!memoization) {
+            return function()
+        }
+
+        val entries = memo.getOrPut(rule) { ArrayList() }
+        val startPosition = position
+        var entry = entries.getOrNull(startPosition)
+        while (entry != null) {
+            if (entry.isValidFor(tokenCount)) {
+                position = entry.endPosition
+                markAccessed(entry.maxAccessedIndex)
+                @Suppress("UNCHECKED_CAST")
+                return entry.result as T?
+            }
+            entry = entry.next
+        }
+
+        val outerMaxAccessedIndex = maxAccessedIndex
+        maxAccessedIndex = -1
+        val result = function()
+        val ruleMaxAccessedIndex = maxAccessedIndex
+        maxAccessedIndex = max(outerMaxAccessedIndex, ruleMaxAccessedIndex)
+
+        while (entries.size <= startPosition) {
+            entries.add(null)
+        }
+        entries[startPosition] = MemoEntry(
+            result, position, ruleMaxAccessedIndex, ruleMaxAccessedIndex >= tokenCount,
+            tokenCount, entries[startPosition]
+        )
+        return result
+    }
+
+    private fun markAccessed(index: Int) {
+        if (index > maxAccessedIndex) {
+            maxAccessedIndex = index
+        }
+    }
+
 
     /**
      * Finds the first token without the provided category and returns the aheadBy offset
@@ -47,14 +155,42 @@ class TokenStream(private val tokens: List<Token>) {
     fun indexOfWithoutCategory(category: String, startFromAheadBy: Int): Int {
         for (i in max(position + startFromAheadBy, 0) until tokenCount) {
             if (!tokens[i].hasCategory(category)) {
+                markAccessed(i)
+                return i - position
+            }
+        }
+        markAccessed(tokenCount)
+        return tokenCount - position
+    }
+
+    /**
+     * Same as [indexOfWithoutCategory], but takes a category ID, e.g. one of [Categories].
+     */
+    fun indexOfWithoutCategory(category: Int, startFromAheadBy: Int): Int {
+        if (tokens is TokenBuffer) {
+            // avoid creating token objects for the tokens that are just skipped
+            for (i in max(position + startFromAheadBy, 0) until tokenCount) {
+                if (!tokens.hasCategory(i, category)) {
+                    markAccessed(i)
+                    return i - position
+                }
+            }
+            markAccessed(tokenCount)
+            return tokenCount - position
+        }
+
+        for (i in max(position + startFromAheadBy, 0) until tokenCount) {
+            if (!tokens[i].hasCategory(category)) {
+                markAccessed(i)
                 return i - position
             }
         }
+        markAccessed(tokenCount)
         return tokenCount - position
     }
 
     fun <T> tryOrSkipCategory(
-        category: String,
+        category: Int,
         doTrySkipping: Boolean,
         function: () -> T
     ): T? {
@@ -77,7 +213,7 @@ class TokenStream(private val tokens: List<Token>) {
     }
 
     fun <T> tryOrSkipDateTimeIgnore(doTrySkipping: Boolean, function: () -> T): T? {
-        return tryOrSkipCategory("date_time_ignore", doTrySkipping, function)
+        return tryOrSkipCategory(Categories.DATE_TIME_IGNORE, doTrySkipping, function)
     }
 
     @SafeVarargs
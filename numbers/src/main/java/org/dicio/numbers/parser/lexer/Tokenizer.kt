@@ -8,356 +8,478 @@ import com.grack.nanojson.JsonParser
 import com.grack.nanojson.JsonParserException
 import org.dicio.numbers.unit.Duration
 import org.dicio.numbers.unit.Number
+import org.dicio.numbers.util.ConfigSnapshot
 import org.dicio.numbers.util.ResourceOpener
-import org.dicio.numbers.util.Utils
+import org.dicio.numbers.util.SnapshotReader
+import org.dicio.numbers.util.SnapshotWriter
 import java.io.FileNotFoundException
-import java.text.Normalizer
+import java.math.BigDecimal
 import java.time.temporal.ChronoUnit
-import java.util.Locale
+import java.util.concurrent.ConcurrentHashMap
 import java.util.regex.Pattern
 
-class Tokenizer(configFolder: String) {
-    private val spaces: String
-    private val charactersAsWord: String
-    private val rawNumberCategories: Set<String>
-    private val pluralEndings: MutableList<String>
+/**
+ * Splits strings into [Token]s according to the `tokenizer.json` of a language. Once constructed, a
+ * tokenizer is immutable and can be used concurrently from multiple threads, so prefer obtaining
+ * one via [shared] instead of loading the same configuration multiple times.
+ *
+ * The configuration is loaded from the [ConfigSnapshot] of the language if there is one, otherwise
+ * it is parsed from `tokenizer.json`.
+ */
+class Tokenizer internal constructor(configFolder: String, snapshot: SnapshotReader?) {
+    private val spaces: CodePointSet
+    private val charactersAsWord: CodePointSet
+    private val categoryRegistry = CategoryRegistry()
+    private val rawNumberCategories: CategorySet
 
-    private val wordMatches: MutableMap<String, Set<String>>
-    private val numberMappings: MutableMap<String, Mapping>
-    private val compoundWordPieces: MutableList<String>
-    private val durationMappings: MutableMap<String, DurationMapping>
+    private val lexicon: Lexicon
 
 
+    /**
+     * @param configFolder the folder containing the `tokenizer.json` of the language
+     */
+    constructor(configFolder: String) : this(
+        configFolder,
+        ConfigSnapshot.open(configFolder, ConfigSnapshot.TOKENIZER_SECTION)
+    )
+
     init {
-        try {
-            val root = JsonParser.`object`().from(
-                ResourceOpener.getResourceAsStream("$configFolder/tokenizer.json")
-            )
+        if (snapshot != null) {
+            spaces = CodePointSet(snapshot.readString())
+            charactersAsWord = CodePointSet(snapshot.readString())
+            categoryRegistry.readFrom(snapshot)
+            rawNumberCategories = CategorySet(categoryRegistry, snapshot.readLongArray())
+            lexicon = Lexicon.readFrom(snapshot, categoryRegistry)
+        } else {
+            try {
+                val root = JsonParser.`object`().from(
+                    ResourceOpener.getResourceAsStream("$configFolder/tokenizer.json")
+                )
 
-            spaces = root.getString("spaces")
-            charactersAsWord = root.getString("characters_as_word")
+                spaces = CodePointSet(root.getString("spaces"))
+                charactersAsWord = CodePointSet(root.getString("characters_as_word"))
 
-            val compoundWordPieceCategory = root.getString("compound_word_piece_category", null)
-            compoundWordPieces = ArrayList()
+                val compoundWordPieceCategory = root.getString("compound_word_piece_category", null)
 
-            rawNumberCategories = readCategories(root.getArray("raw_number_categories"))
+                rawNumberCategories = categoryRegistry.setOf(
+                    readCategories(root.getArray("raw_number_categories"))
+                )
 
-            pluralEndings = ArrayList()
-            for (o in root.getArray("plural_endings")) {
-                if (o !is String) {
-                    throw RuntimeException(
-                        "Content of plural_endings array is not string: $o"
-                    )
+                val lexiconBuilder = Lexicon.Builder()
+                for (o in root.getArray("plural_endings")) {
+                    if (o !is String) {
+                        throw RuntimeException(
+                            "Content of plural_endings array is not string: $o"
+                        )
+                    }
+                    lexiconBuilder.addPluralEnding(o)
                 }
-                pluralEndings.add(o)
-            }
 
-            wordMatches = HashMap()
-            for (match in root.getArray("word_matches")) {
-                if (match !is JsonObject) {
-                    throw RuntimeException("Content of word_matches array is not object: $match")
-                }
+                for (match in root.getArray("word_matches")) {
+                    if (match !is JsonObject) {
+                        throw RuntimeException(
+                            "Content of word_matches array is not object: $match"
+                        )
+                    }
 
-                val categories = readCategories(match.getArray("categories"))
+                    val categories =
+                        categoryRegistry.setOf(readCategories(match.getArray("categories")))
 
-                for (v in match.getArray("values")) {
-                    if (v !is String) {
-                        throw RuntimeException("Content of values array is not string: $v")
-                    }
-                    wordMatches[v] = categories
+                    for (v in match.getArray("values")) {
+                        if (v !is String) {
+                            throw RuntimeException("Content of values array is not string: $v")
+                        }
+                        lexiconBuilder.addWordMatch(v, categories)
 
-                    if (categories.contains(compoundWordPieceCategory)) {
-                        compoundWordPieces.add(v)
+                        if (compoundWordPieceCategory != null
+                            && categories.contains(compoundWordPieceCategory)) {
+                            lexiconBuilder.addCompoundWordPiece(v)
+                        }
                     }
                 }
-            }
 
-            numberMappings = HashMap()
-            for (mapping in root.getArray("number_mappings")) {
-                if (mapping !is JsonObject) {
-                    throw RuntimeException(
-                        "Content of number_mappings array is not an object: $mapping"
-                    )
-                }
+                for (mapping in root.getArray("number_mappings")) {
+                    if (mapping !is JsonObject) {
+                        throw RuntimeException(
+                            "Content of number_mappings array is not an object: $mapping"
+                        )
+                    }
 
-                val categories = readCategories(mapping.getArray("categories"))
-                val values = mapping.getObject("values")
-                    ?: throw RuntimeException("Missing values object in mapping: $mapping")
+                    val categories =
+                        categoryRegistry.setOf(readCategories(mapping.getArray("categories")))
+                    val values = mapping.getObject("values")
+                        ?: throw RuntimeException("Missing values object in mapping: $mapping")
 
-                for ((key, value) in values) {
-                    numberMappings[key] = Mapping(categories, Number.fromObject(value))
-                    if (categories.contains(compoundWordPieceCategory)) {
-                        compoundWordPieces.add(key)
+                    for ((key, value) in values) {
+                        lexiconBuilder.addNumberMapping(key, categories, Number.fromObject(value))
+                        if (compoundWordPieceCategory != null
+                            && categories.contains(compoundWordPieceCategory)) {
+                            lexiconBuilder.addCompoundWordPiece(key)
+                        }
                     }
                 }
-            }
 
-            durationMappings = HashMap()
-            for ((key, value) in root.getObject("duration_words")) {
-                val parts = AT_SPACES_SPLITTER.split(key)
-                if (parts.size != 2) {
-                    throw RuntimeException(
-                        "Duration \"" + key + "\" is not valid, it"
-                                + " should be made of an integer number followed by a unit"
-                    )
-                }
+                for ((key, value) in root.getObject("duration_words")) {
+                    val parts = AT_SPACES_SPLITTER.split(key)
+                    if (parts.size != 2) {
+                        throw RuntimeException(
+                            "Duration \"" + key + "\" is not valid, it"
+                                    + " should be made of an integer number followed by a unit"
+                        )
+                    }
 
-                val multiplier = try {
-                    Number(parts[0].toLong())
-                } catch (e: NumberFormatException) {
-                    throw RuntimeException(
-                        "Multiplier \"" + parts[0] + "\" of duration \""
-                                + key + "\" is not an integer", e
-                    )
-                }
+                    val multiplier = try {
+                        Number(parts[0].toLong())
+                    } catch (e: NumberFormatException) {
+                        throw RuntimeException(
+                            "Multiplier \"" + parts[0] + "\" of duration \""
+                                    + key + "\" is not an integer", e
+                        )
+                    }
 
-                val chronoUnit = try {
-                    ChronoUnit.valueOf(parts[1])
-                } catch (e: IllegalArgumentException) {
-                    throw RuntimeException(
-                        "Unit \"" + parts[1] + "\" of duration \""
-                                + key + "\" is not a valid unit; valid units are: "
-                                + ChronoUnit::class.java.enumConstants.contentToString(),
-                        e
-                    )
-                }
+                    val chronoUnit = try {
+                        ChronoUnit.valueOf(parts[1])
+                    } catch (e: IllegalArgumentException) {
+                        throw RuntimeException(
+                            "Unit \"" + parts[1] + "\" of duration \""
+                                    + key + "\" is not a valid unit; valid units are: "
+                                    + ChronoUnit::class.java.enumConstants.contentToString(),
+                            e
+                        )
+                    }
 
-                if (value !is JsonArray) {
-                    throw RuntimeException(
-                        "Value corresponding to duration \"" + key
-                                + "\" is not an array: " + value
-                    )
-                }
-                for (w in value) {
-                    if (w !is String) {
+                    if (value !is JsonArray) {
                         throw RuntimeException(
-                            "Entry in array for duration \"" + key +
-                                    "\" is not a string: " + w
+                            "Value corresponding to duration \"" + key
+                                    + "\" is not an array: " + value
+                        )
+                    }
+                    for (w in value) {
+                        if (w !is String) {
+                            throw RuntimeException(
+                                "Entry in array for duration \"" + key +
+                                        "\" is not a string: " + w
+                            )
+                        }
+                        // make sure to create a new DurationMapping object each time, since their
+                        // restrictedAfterNumber value is changed in the for below
+                        lexiconBuilder.addDurationMapping(
+                            w, Lexicon.DurationMapping(key, Duration().plus(multiplier, chronoUnit))
                         )
                     }
-                    // make sure to create a new DurationMapping object each time, since their
-                    // restrictedAfterNumber value is changed in the for below
-                    durationMappings[w] = DurationMapping(
-                        key,
-                        Duration().plus(multiplier, chronoUnit)
-                    )
                 }
-            }
-            for (o in root.getArray("duration_restrict_after_number")) {
-                if (o !is String || !durationMappings.containsKey(o)) {
-                    throw RuntimeException(
-                        "Found entry in duration_restrict_after_number array"
-                                + " that was not in duration_words: " + o
-                    )
+                for (o in root.getArray("duration_restrict_after_number")) {
+                    val durationMapping =
+                        (o as? String)?.let { lexiconBuilder.getDurationMapping(it) }
+                            ?: throw RuntimeException(
+                                "Found entry in duration_restrict_after_number array"
+                                        + " that was not in duration_words: " + o
+                            )
+                    durationMapping.restrictedAfterNumber = true
                 }
-                durationMappings[o]!!.restrictedAfterNumber = true
+
+                lexicon = lexiconBuilder.build()
+            } catch (e: FileNotFoundException) {
+                throw RuntimeException(e)
+            } catch (e: JsonParserException) {
+                throw RuntimeException(e)
             }
-        } catch (e: FileNotFoundException) {
-            throw RuntimeException(e)
-        } catch (e: JsonParserException) {
-            throw RuntimeException(e)
         }
     }
 
 
-    fun tokenize(s: String): List<Token> {
-        val tokens: MutableList<Token> = ArrayList()
+    /**
+     * Writes this tokenizer in the format read back by the constructor when a snapshot is provided.
+     */
+    internal fun writeTo(writer: SnapshotWriter) {
+        writer.writeString(spaces.toCodePointString())
+        writer.writeString(charactersAsWord.toCodePointString())
+        categoryRegistry.writeTo(writer)
+        writer.writeLongArray(rawNumberCategories.bits)
+        lexicon.writeTo(writer)
+    }
 
-        // the spaces at the beginning are put in a separate token
-        var i = 0
-        while (i < s.length && Utils.containsCodePoint(spaces, s.codePointAt(i))) {
-            ++i
+    /**
+     * @param s the string to tokenize, which must not be modified while the tokens are in use
+     * @return a new list containing the tokens of [s]
+     */
+    fun tokenize(s: CharSequence): List<Token> {
+        val tokens = TokenBuffer()
+        tokenize(s, tokens)
+        return tokens
+    }
+
+    /**
+     * Tokenizes [s] into [tokens], replacing the previous contents of [tokens]. Reusing the same
+     * [TokenBuffer] for multiple strings avoids allocating most of the memory needed for tokens.
+     *
+     * @param s the string to tokenize, which must not be modified while the tokens are in use
+     * @param tokens the buffer in which to put the tokens of [s]
+     */
+    fun tokenize(s: CharSequence, tokens: TokenBuffer) {
+        tokens.reset(s)
+        tokenizeFrom(s, tokens, 0)
+    }
+
+    /**
+     * Tokenizes [s] into [tokens], which contains the tokens of a previous string with the same
+     * first [commonPrefixLength] characters as [s]. The tokens that only depend on the common prefix
+     * are kept, and only the rest of [s] is tokenized again, so the result is the same as calling
+     * [tokenize] on [s], but takes time proportional to the part of [s] after the common prefix.
+     *
+     * @param s the new string to tokenize, which must not be modified while the tokens are in use
+     * @param tokens the buffer containing the tokens of the previous string
+     * @param commonPrefixLength how many characters at the beginning of the previous string and of
+     * [s] are the same
+     * @return the index of the first token that was not kept
+     */
+    internal fun retokenize(s: CharSequence, tokens: TokenBuffer, commonPrefixLength: Int): Int {
+        // the scan of a token ends at the first character after its spaces, so a token is only
+        // surely the same if that character is also in the common prefix
+        var keptCount = tokens.size
+        while (keptCount > 0 && tokens.getSpacesEnd(keptCount - 1) >= commonPrefixLength) {
+            --keptCount
         }
-        if (i != 0) {
-            tokens.add(Token("", s.substring(0, i), 0))
+
+        tokens.truncate(s, keptCount)
+        tokenizeFrom(s, tokens, if (keptCount == 0) 0 else tokens.getSpacesEnd(keptCount - 1))
+        return keptCount
+    }
+
+    /**
+     * Tokenizes [s] starting from [start], which must be either `0` or the index where a token
+     * starts, adding the tokens to [tokens].
+     */
+    private fun tokenizeFrom(s: CharSequence, tokens: TokenBuffer, start: Int) {
+        val clean = StringBuilder() // reused for cleaning the value of every token
+
+        // the spaces at the beginning are put in a separate token
+        var i = skipSpaces(s, start)
+        if (i != start) {
+            tokens.add(start, start, start, i, null, null, null, null)
         }
 
-        var begin = i
         while (i < s.length) {
-            // token values are either a 1-char-long string from the charactersAsWord array,
+            // token values are either a 1-codepoint-long string from the charactersAsWord array,
             // or another arbitrary string not containing any spaces
+            val valueStart = i
             var tokenIsDigits = false
             var valueNeedsCleaning = true
             while (i < s.length) {
-                if (Utils.containsCodePoint(spaces, s.codePointAt(i))) {
+                val codePoint = Character.codePointAt(s, i)
+                if (codePoint in spaces) {
                     break // current character is a space
-                } else if (Utils.containsCodePoint(charactersAsWord, s.codePointAt(i))) {
-                    if (i == begin) {
+                } else if (codePoint in charactersAsWord) {
+                    if (i == valueStart) {
                         valueNeedsCleaning = false // do not normalize single characters
-                        ++i // found character to be considered as a separate word at the beginning
+                        // found character to be considered as a separate word at the beginning
+                        i += Character.charCount(codePoint)
                     }
                     break // current character is to be considered as a separate word, stop
-                } else if (Character.isDigit(s.codePointAt(i))) {
-                    if (i == begin) {
+                } else if (Character.isDigit(codePoint)) {
+                    if (i == valueStart) {
                         tokenIsDigits = true // found a digit at the beginning, get others
-                        ++i
-                        while (i < s.length && Character.isDigit(s.codePointAt(i))) {
-                            ++i // collect as many digits as possible
-                        }
+                        i = skipDigits(s, i)
                     }
                     break // found a digit, stop
                 }
-                ++i
+                i += Character.charCount(codePoint)
             }
-            val positionInOriginalString = begin
-            val value = s.substring(begin, i)
-            begin = i
+            val valueEnd = i
+            i = skipSpaces(s, i) // collect as many spaces as possible
 
-            while (i < s.length && Utils.containsCodePoint(spaces, s.codePointAt(i))) {
-                ++i // collect as many spaces as possible
-            }
-            val spacesFollowing = s.substring(begin, i)
-            begin = i
+            addTokenFromValue(
+                tokens, s, valueStart, valueEnd, i, tokenIsDigits, valueNeedsCleaning, clean
+            )
+        }
+    }
 
-            addTokenFromValue(tokens, value, positionInOriginalString, spacesFollowing, tokenIsDigits, valueNeedsCleaning)
+
+    /**
+     * @return the index of the first code point in [s] starting from [start] which is not a space
+     */
+    private fun skipSpaces(s: CharSequence, start: Int): Int {
+        var i = start
+        while (i < s.length) {
+            val codePoint = Character.codePointAt(s, i)
+            if (codePoint !in spaces) {
+                break
+            }
+            i += Character.charCount(codePoint)
         }
-        return tokens
+        return i
     }
 
+    /**
+     * @return the index of the first code point in [s] starting from [start] which is not a digit
+     */
+    private fun skipDigits(s: CharSequence, start: Int): Int {
+        var i = start
+        while (i < s.length) {
+            val codePoint = Character.codePointAt(s, i)
+            if (!Character.isDigit(codePoint)) {
+                break
+            }
+            i += Character.charCount(codePoint)
+        }
+        return i
+    }
 
     private fun addTokenFromValue(
-        tokens: MutableList<Token>,
-        value: String,
-        positionInOriginalString: Int,
-        spacesFollowing: String,
+        tokens: TokenBuffer,
+        s: CharSequence,
+        valueStart: Int,
+        valueEnd: Int,
+        spacesEnd: Int,
         tokenIsDigits: Boolean,
-        valueNeedsCleaning: Boolean
+        valueNeedsCleaning: Boolean,
+        clean: StringBuilder,
     ) {
         if (tokenIsDigits) {
-            // `value` might be too big to fit in a Long, in that case first try parsing it as
-            // Double, and if even that does not work, don't consider this a number
-            val number = runCatching { Number(value.toLong()) }.getOrNull()
-                ?: Number(value.toDouble()).takeIf { it.decimalValue().isFinite() }
+            val number = parseRawNumber(s, valueStart, valueEnd)
             if (number != null) {
-                tokens.add(NumberToken(value, spacesFollowing, positionInOriginalString,
-                                       rawNumberCategories, number))
+                tokens.add(
+                    valueStart, valueEnd, valueEnd, spacesEnd, null,
+                    rawNumberCategories, number, null
+                )
                 return
             }
         }
 
-        val clean = if (valueNeedsCleaning) cleanValue(value) else value
-        var token = tokenFromValueExact(clean, value, positionInOriginalString, spacesFollowing)
-        if (token == null) {
-            val removedPluralEndings = removePluralEndings(clean)
-            if (removedPluralEndings != null) {
-                token = tokenFromValueExact(removedPluralEndings, value, positionInOriginalString, spacesFollowing)
-            }
+        // a single lookup takes care of both the exact match and the match without plural endings
+        val entry = if (valueNeedsCleaning) {
+            clean.setLength(0)
+            ValueCleaner.clean(s, valueStart, valueEnd, clean)
+            lexicon.lookup(clean, 0, clean.length)
+        } else {
+            lexicon.lookup(s, valueStart, valueEnd)
         }
 
-        if (token == null) {
-            // try to parse compound word
-            val compoundWord: List<Token>? = tokenizeCompoundWord(clean, spacesFollowing, positionInOriginalString)
-            if (!compoundWord.isNullOrEmpty()) {
-                // results from tokenizeCompoundWord are reversed
-                tokens.addAll(compoundWord.reversed())
-                return
-            }
+        if (entry != null) {
+            addTokenFromEntry(tokens, entry, valueStart, valueEnd, valueEnd, spacesEnd, null)
+        } else if (!valueNeedsCleaning
+            || !addCompoundWordTokens(tokens, clean, valueStart, valueEnd, spacesEnd)
+        ) {
+            tokens.add(valueStart, valueEnd, valueEnd, spacesEnd, null, null, null, null)
         }
+    }
 
-        tokens.add(token ?: Token(value, spacesFollowing, positionInOriginalString))
+    private fun addTokenFromEntry(
+        tokens: TokenBuffer,
+        entry: Lexicon.Entry,
+        valueStart: Int,
+        valueEnd: Int,
+        spacesStart: Int,
+        spacesEnd: Int,
+        valueOverride: String?,
+    ) {
+        // number mappings have the precedence over word matches
+        val mapping = entry.numberMapping
+        tokens.add(
+            valueStart, valueEnd, spacesStart, spacesEnd, valueOverride,
+            mapping?.categories ?: entry.wordCategories, mapping?.number, entry.durationMapping
+        )
     }
 
-    private fun tokenFromValueExact(
-        clean: String,
-        value: String,
-        positionInOriginalString: Int,
-        spacesFollowing: String
-    ): Token? {
-        var matchedToken: MatchedToken? = null
-        val mapping = numberMappings[clean]
-        if (mapping == null) {
-            val wordMatch = wordMatches[clean]
-            if (wordMatch != null) {
-                matchedToken = MatchedToken(
-                    value, spacesFollowing, positionInOriginalString, wordMatch
-                )
-            }
-        } else {
-            matchedToken = NumberToken(
-                value, spacesFollowing, positionInOriginalString, mapping.categories, mapping.number
+    /**
+     * Tokenizes a compound word (e.g. twentytwo is parsed into two tokens: twenty and two)
+     * @param clean the clean word
+     * @return true if the word could be split into compound word pieces, in which case the tokens
+     * have been added to [tokens], false otherwise
+     */
+    private fun addCompoundWordTokens(
+        tokens: TokenBuffer,
+        clean: CharSequence,
+        valueStart: Int,
+        valueEnd: Int,
+        spacesEnd: Int,
+    ): Boolean {
+        val pieces = lexicon.splitCompoundWord(clean, 0, clean.length) ?: return false
+
+        var offset = 0
+        for ((i, piece) in pieces.withIndex()) {
+            // only the last piece is followed by the spaces following the whole word
+            val spacesStart = if (i == pieces.size - 1) valueEnd else spacesEnd
+            addTokenFromEntry(
+                tokens, piece, valueStart + offset, valueStart + offset + piece.word.length,
+                spacesStart, spacesEnd, piece.word
             )
+            offset += piece.word.length
         }
+        return true
+    }
 
-        val dur = durationMappings[clean]
-        if (dur != null) {
-            val durationToken = DurationToken(
-                value, spacesFollowing, positionInOriginalString,
-                dur.durationCategory, dur.durationMultiplier, dur.restrictedAfterNumber
-            )
-            if (matchedToken == null) {
-                return durationToken
-            } else {
-                matchedToken.setDurationTokenMatch(durationToken)
-            }
-        }
 
-        return matchedToken
-    }
+    companion object {
+        private val SHARED_TOKENIZERS = ConcurrentHashMap<String, Tokenizer>()
+
+        /**
+         * Returns the tokenizer for the provided config folder, loading it only the first time it
+         * is requested in this process. The returned instance is shared by all callers (e.g. by
+         * all of the [org.dicio.numbers.parser.Parser]s of the same language).
+         *
+         * @param configFolder the folder containing the `tokenizer.json` of the language
+         * @return the process-wide tokenizer for the provided config folder
+         */
+        @JvmStatic
+        fun shared(configFolder: String): Tokenizer {
+            return SHARED_TOKENIZERS.computeIfAbsent(configFolder) { Tokenizer(it) }
+        }
 
-    private fun removePluralEndings(value: String): String? {
-        for (pluralEnding in pluralEndings) {
-            if (value.endsWith(pluralEnding)) {
-                return value.substring(0, value.length - pluralEnding.length)
+        /**
+         * Parses the digits in the range `[start, end)` of [s] as a number. The digits might be too
+         * many to fit in a Long, in that case they are parsed as Double, and if even that does not
+         * work, null is returned. Digits from any script are accepted, since they are detected
+         * with [Character.isDigit] in the first place.
+         */
+        private fun parseRawNumber(s: CharSequence, start: Int, end: Int): Number? {
+            var result = 0L
+            var i = start
+            while (i < end) {
+                val codePoint = Character.codePointAt(s, i)
+                val digit = Character.digit(codePoint, 10)
+                if (digit < 0 || result > (Long.MAX_VALUE - digit) / 10) {
+                    return parseRawNumberAsDouble(s, start, end)
+                }
+                result = result * 10 + digit
+                i += Character.charCount(codePoint)
             }
+            return Number(result)
         }
-        return null
-    }
 
-    private fun cleanValue(value: String): String {
-        // nfkd normalize (i.e. remove accents) and make lowercase
-        val normalized =
-            Normalizer.normalize(value.lowercase(Locale.getDefault()), Normalizer.Form.NFKD)
-        return DIACRITICAL_MARKS_REMOVER.matcher(normalized).replaceAll("")
-    }
+        private fun parseRawNumberAsDouble(s: CharSequence, start: Int, end: Int): Number? {
+            return asciiDigits(s, start, end)
+                ?.toDouble()
+                ?.takeIf { it.isFinite() }
+                ?.let { Number(it) }
+        }
 
-    /**
-     * Tokenizes a compound word (e.g. twentytwo is parsed into two tokens: twewnty and two)
-     * @param clean the clean word
-     * @return a list of tokens in reverse order (e.g. [two, twenty] for input twentytwo)
-     */
-    private fun tokenizeCompoundWord(
-        clean: String,
-        spacesFollowing: String,
-        positionInOriginalString: Int,
-    ): MutableList<Token>? {
-        if (clean.isEmpty()) {
-            return ArrayList()
+        /**
+         * Parses the digits of the raw number [s] exactly, for when the [Number] it was tokenized
+         * into is not exact, because it did not fit in a Long (see
+         * [org.dicio.numbers.parser.param.ExtractNumberParams.exact]).
+         *
+         * @return the exact value of [s], or null if [s] is not made only of digits
+         */
+        internal fun parseRawNumberExact(s: CharSequence): BigDecimal? {
+            return asciiDigits(s, 0, s.length)?.let { BigDecimal(it) }
         }
 
-        for (compoundPiece in compoundWordPieces) {
-            if (clean.startsWith(compoundPiece)) {
-                val nextTokens = tokenizeCompoundWord(
-                    clean = clean.substring(compoundPiece.length),
-                    spacesFollowing = spacesFollowing,
-                    positionInOriginalString = positionInOriginalString + compoundPiece.length,
-                )
-                if (nextTokens != null) {
-                    nextTokens.add(
-                        tokenFromValueExact(
-                            clean = compoundPiece,
-                            value = compoundPiece,
-                            spacesFollowing = if (nextTokens.isEmpty()) spacesFollowing else "",
-                            positionInOriginalString = positionInOriginalString,
-                        )!!
-                    )
-                    return nextTokens // will be in reverse order, since first matches are added last
+        private fun asciiDigits(s: CharSequence, start: Int, end: Int): String? {
+            val asciiDigits = StringBuilder(end - start)
+            var i = start
+            while (i < end) {
+                val codePoint = Character.codePointAt(s, i)
+                val digit = Character.digit(codePoint, 10)
+                if (digit < 0) {
+                    return null
                 }
+                asciiDigits.append('0' + digit)
+                i += Character.charCount(codePoint)
             }
+            return asciiDigits.toString()
         }
 
-        return null
-    }
-
-
-    private class Mapping(val categories: Set<String>, val number: Number)
-
-    private class DurationMapping(val durationCategory: String, val durationMultiplier: Duration) {
-        var restrictedAfterNumber: Boolean = false
-    }
-
-    companion object {
-        private val DIACRITICAL_MARKS_REMOVER: Pattern =
-            Pattern.compile("\\p{InCombiningDiacriticalMarks}+")
         private val AT_SPACES_SPLITTER: Pattern = Pattern.compile(" ")
 
 
@@ -0,0 +1,60 @@
+package org.dicio.numbers.parser.lexer
+
+import java.text.Normalizer
+import java.util.Locale
+import java.util.regex.Pattern
+
+/**
+ * Cleans token values before looking them up in the [Lexicon], i.e. makes them lowercase and
+ * removes accents (by NFKD-normalizing them and then removing the combining diacritical marks).
+ * Values made only of ASCII and Latin-1/Latin Extended-A characters, which are by far the most
+ * common ones in the supported languages, are cleaned with a single pass over a precomputed fold
+ * table, while the others go through [Normalizer].
+ *
+ * Lowercasing always uses [Locale.ROOT], so that the results don't depend on the JVM locale (e.g.
+ * the Turkish locale would turn "I" into a dotless "ı").
+ */
+internal object ValueCleaner {
+    private val DIACRITICAL_MARKS_REMOVER: Pattern =
+        Pattern.compile("\\p{InCombiningDiacriticalMarks}+")
+
+    /**
+     * Marks the characters in [FOLD_TABLE] that would not become exactly one character when
+     * cleaned, e.g. "ŉ" becomes "ʼn", and therefore need to go through the slow path.
+     */
+    private const val NOT_FOLDABLE = '\uFFFF'
+
+    /**
+     * The cleaned version of each of the characters up to the end of Latin Extended-A, built with
+     * the slow path itself, so that the two paths always produce the same results.
+     */
+    private val FOLD_TABLE = CharArray(0x180) { c ->
+        val cleaned = cleanSlow(c.toChar().toString())
+        if (cleaned.length == 1) cleaned[0] else NOT_FOLDABLE
+    }
+
+    /**
+     * Appends the clean version of the characters of [s] in the range `[start, end)` to [out].
+     */
+    fun clean(s: CharSequence, start: Int, end: Int, out: StringBuilder) {
+        val outStart = out.length
+        for (i in start until end) {
+            val c = s[i]
+            val folded = if (c.code < FOLD_TABLE.size) FOLD_TABLE[c.code] else NOT_FOLDABLE
+            if (folded == NOT_FOLDABLE) {
+                // undo the fast path and clean the whole value at once, since normalization and
+                // lowercasing are not always applicable character by character
+                out.setLength(outStart)
+                out.append(cleanSlow(s.substring(start, end)))
+                return
+            }
+            out.append(folded)
+        }
+    }
+
+    private fun cleanSlow(value: String): String {
+        // nfkd normalize (i.e. remove accents) and make lowercase
+        val normalized = Normalizer.normalize(value.lowercase(Locale.ROOT), Normalizer.Form.NFKD)
+        return DIACRITICAL_MARKS_REMOVER.matcher(normalized).replaceAll("")
+    }
+}
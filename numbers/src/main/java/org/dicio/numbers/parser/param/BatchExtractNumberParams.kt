@@ -0,0 +1,127 @@
+package org.dicio.numbers.parser.param
+
+import org.dicio.numbers.parser.Parser
+import org.dicio.numbers.parser.lexer.TokenBuffer
+import org.dicio.numbers.parser.lexer.TokenStream
+import java.util.concurrent.Callable
+import java.util.concurrent.ForkJoinPool
+
+/**
+ * Like [ExtractNumberParams], but extracts the numbers from many utterances at once. A single
+ * [TokenBuffer], [TokenStream] and number extractor are reused for all of the utterances (one set
+ * per worker when running in parallel), so there is no per-utterance setup cost apart from
+ * tokenization itself.
+ */
+class BatchExtractNumberParams(
+    private val parser: Parser,
+    private val utterances: List<CharSequence>,
+) {
+    // default values
+    private var shortScale = true
+    private var preferOrdinal = false
+    private var integerOnly = false
+    private var exact = false
+    private var pool: ForkJoinPool? = null
+
+    /**
+     * See [ExtractNumberParams.shortScale].
+     * @return this
+     */
+    fun shortScale(shortScale: Boolean): BatchExtractNumberParams {
+        this.shortScale = shortScale
+        return this
+    }
+
+    /**
+     * See [ExtractNumberParams.preferOrdinal].
+     * @return this
+     */
+    fun preferOrdinal(preferOrdinal: Boolean): BatchExtractNumberParams {
+        this.preferOrdinal = preferOrdinal
+        return this
+    }
+
+    /**
+     * See [ExtractNumberParams.integerOnly].
+     * @return this
+     */
+    fun integerOnly(integerOnly: Boolean): BatchExtractNumberParams {
+        this.integerOnly = integerOnly
+        return this
+    }
+
+    /**
+     * See [ExtractNumberParams.exact]. The exact values can then be obtained with
+     * [ExtractedNumbers.getExactDecimalValue].
+     * @return this
+     */
+    fun exact(exact: Boolean): BatchExtractNumberParams {
+        this.exact = exact
+        return this
+    }
+
+    /**
+     * @param pool the pool to split the utterances across, or `null` to parse all of them in the
+     * calling thread. **The default is `null`.** The results do not depend on whether a pool is
+     * used or not.
+     * @return this
+     */
+    fun parallel(pool: ForkJoinPool?): BatchExtractNumberParams {
+        this.pool = pool
+        return this
+    }
+
+    /**
+     * @return the numbers in all of the utterances, found the same way as the numbers in the list
+     * returned by [ParserParams.parseMixedWithText] for each utterance, along with their position
+     * in the utterance
+     */
+    fun parse(): ExtractedNumbers {
+        val pool = pool
+        if (pool == null || utterances.size < 2 * CHUNK_SIZE) {
+            return parseRange(0, utterances.size).build()
+        }
+
+        val tasks = (utterances.indices step CHUNK_SIZE).map { start ->
+            pool.submit(Callable {
+                parseRange(start, minOf(start + CHUNK_SIZE, utterances.size))
+            })
+        }
+        val result = ExtractedNumbers.Builder()
+        for (task in tasks) {
+            result.addAll(task.join())
+        }
+        return result.build()
+    }
+
+    private fun parseRange(from: Int, to: Int): ExtractedNumbers.Builder {
+        val tokens = TokenBuffer()
+        val ts = TokenStream(tokens)
+        val extractor = parser.extractNumber(ts, shortScale, preferOrdinal, integerOnly, exact)
+        val result = ExtractedNumbers.Builder()
+
+        for (i in from until to) {
+            parser.tokenize(utterances[i], tokens)
+            ts.reset()
+            while (!ts.finished()) {
+                val start = ts[0].positionInOriginalString
+                val number = extractor()
+                if (number == null) {
+                    ts.movePositionForwardBy(1)
+                } else {
+                    result.add(start, ts[-1].positionInOriginalString + ts[-1].valueLength, number)
+                }
+            }
+            result.endUtterance()
+        }
+        return result
+    }
+
+    private companion object {
+        /**
+         * How many utterances each task parses when running in parallel, so that each task does
+         * enough work to amortize creating its own buffer and extractor.
+         */
+        const val CHUNK_SIZE = 256
+    }
+}
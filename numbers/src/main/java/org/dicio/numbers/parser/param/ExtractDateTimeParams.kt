@@ -4,7 +4,7 @@ import org.dicio.numbers.parser.Parser
 import org.dicio.numbers.parser.lexer.TokenStream
 import java.time.LocalDateTime
 
-class ExtractDateTimeParams(parser: Parser, utterance: String) :
+class ExtractDateTimeParams(parser: Parser, utterance: CharSequence) :
     ParserParams<LocalDateTime>(parser, utterance) {
     // default values
     private var now: LocalDateTime = LocalDateTime.now()
@@ -4,7 +4,7 @@ import org.dicio.numbers.parser.Parser
 import org.dicio.numbers.parser.lexer.TokenStream
 import org.dicio.numbers.unit.Duration
 
-class ExtractDurationParams(parser: Parser, utterance: String) :
+class ExtractDurationParams(parser: Parser, utterance: CharSequence) :
     ParserParams<Duration>(parser, utterance) {
     // default values
     private var shortScale = true
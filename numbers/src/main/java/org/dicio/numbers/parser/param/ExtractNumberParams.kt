@@ -4,12 +4,13 @@ import org.dicio.numbers.parser.Parser
 import org.dicio.numbers.parser.lexer.TokenStream
 import org.dicio.numbers.unit.Number
 
-class ExtractNumberParams(parser: Parser, utterance: String) :
+class ExtractNumberParams(parser: Parser, utterance: CharSequence) :
     ParserParams<Number>(parser, utterance) {
     // default values
     private var shortScale = true
     private var preferOrdinal = false
     private var integerOnly = false
+    private var exact = false
 
     /**
      * @param shortScale consider large numbers (e.g. the "one billion") as short scale (true) or
@@ -51,6 +52,24 @@ class ExtractNumberParams(parser: Parser, utterance: String) :
         return this
     }
 
+    /**
+     * @param exact whether to compute the exact value of decimal numbers, which can then be
+     * obtained with [Number.toBigDecimal] (see also [Number.isExact]). **The default is `false`.**
+     * E.g. if [exact]`=true`, then "zero point one two three four five six seven eight nine one
+     * two three four five six seven eight" will be parsed as exactly `0.123456789123456789`, while
+     * otherwise only the nearest [Double] would be known. The digits after the decimal point are
+     * accumulated in a scaled [Long] and converted to a [java.math.BigDecimal] once every 18
+     * digits, and the [Number.decimalValue] is then the [Double] nearest to the exact value.
+     * Integers too big for a [Long] also keep their exact value only if [exact]`=true`, and
+     * otherwise become [Double]s. The results of fractions are exact only up to 34 significant
+     * digits, and numbers involving words with an inexact value (e.g. "a third") are never exact.
+     * @return this
+     */
+    fun exact(exact: Boolean): ExtractNumberParams {
+        this.exact = exact
+        return this
+    }
+
     /**
      * @return Like [parseFirst], but returns [Number.integerValue]`()`, and does so only if
      * [Number.isInteger] is `true`. When parsing a string like "one point two", the result will be
@@ -63,6 +82,6 @@ class ExtractNumberParams(parser: Parser, utterance: String) :
     }
 
     override fun getExtractorAtCurrentPosition(tokenStream: TokenStream): () -> Number? {
-        return parser.extractNumber(tokenStream, shortScale, preferOrdinal, integerOnly)
+        return parser.extractNumber(tokenStream, shortScale, preferOrdinal, integerOnly, exact)
     }
 }
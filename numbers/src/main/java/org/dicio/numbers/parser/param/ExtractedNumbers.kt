@@ -0,0 +1,204 @@
+package org.dicio.numbers.parser.param
+
+import org.dicio.numbers.unit.Number
+import java.math.BigDecimal
+
+/**
+ * The numbers found by [BatchExtractNumberParams.parse] in a list of utterances, stored in columnar
+ * form: each property of the numbers is kept in its own primitive array, so that even millions of
+ * results take little memory and no per-number objects are created unless [getNumber] is called.
+ *
+ * Numbers are indexed from `0` until [size], in the order of the utterances they were found in,
+ * and then in the order in which they appear in the utterance. The numbers found in utterance `u`
+ * are those with index in [indicesOf]`(u)`.
+ *
+ * The exact values of decimal numbers (see [BatchExtractNumberParams.exact]) are kept in an
+ * additional column, which is only allocated once the first exact decimal number is found.
+ */
+class ExtractedNumbers internal constructor(
+    private val utteranceStarts: IntArray,
+    private val starts: IntArray,
+    private val ends: IntArray,
+    private val flags: ByteArray,
+    private val integerValues: LongArray,
+    private val decimalValues: DoubleArray,
+    private val exactDecimalValues: Array<BigDecimal?>?,
+) {
+    /**
+     * The total number of numbers found in all utterances.
+     */
+    val size: Int
+        get() = starts.size
+
+    /**
+     * The number of utterances that were parsed.
+     */
+    val utteranceCount: Int
+        get() = utteranceStarts.size - 1
+
+    /**
+     * @return the indices of the numbers found in the utterance with index [utterance]
+     */
+    fun indicesOf(utterance: Int): IntRange {
+        return utteranceStarts[utterance] until utteranceStarts[utterance + 1]
+    }
+
+    /**
+     * @return the index of the first character of the number with index [index] in its utterance
+     */
+    fun getStart(index: Int): Int {
+        return starts[index]
+    }
+
+    /**
+     * @return the index of one past the last character of the number with index [index] in its
+     * utterance
+     */
+    fun getEnd(index: Int): Int {
+        return ends[index]
+    }
+
+    fun isDecimal(index: Int): Boolean {
+        return (flags[index].toInt() and DECIMAL) != 0
+    }
+
+    fun isOrdinal(index: Int): Boolean {
+        return (flags[index].toInt() and ORDINAL) != 0
+    }
+
+    /**
+     * @return the value of the number with index [index], only meaningful if it is not
+     * [isDecimal]
+     */
+    fun getIntegerValue(index: Int): Long {
+        return integerValues[index]
+    }
+
+    /**
+     * @return the value of the number with index [index], only meaningful if it [isDecimal]
+     */
+    fun getDecimalValue(index: Int): Double {
+        return decimalValues[index]
+    }
+
+    /**
+     * @return the exact value of the number with index [index] if it [isDecimal] and has one (see
+     * [Number.isExact]), otherwise `null`
+     */
+    fun getExactDecimalValue(index: Int): BigDecimal? {
+        return exactDecimalValues?.get(index)
+    }
+
+    /**
+     * @return a new [Number] object representing the number with index [index]
+     */
+    fun getNumber(index: Int): Number {
+        return if (isDecimal(index)) {
+            getExactDecimalValue(index)?.let { Number(it, isOrdinal(index)) }
+                ?: Number(decimalValues[index], isOrdinal(index))
+        } else {
+            Number(integerValues[index], isOrdinal(index))
+        }
+    }
+
+
+    /**
+     * Collects numbers one utterance at a time, growing its arrays as needed.
+     */
+    internal class Builder {
+        // utteranceStarts[0] is always 0, and utteranceStarts[u + 1] is where utterance u ends
+        private var utteranceStarts = IntArray(INITIAL_CAPACITY)
+        private var utteranceCount = 0
+        private var count = 0
+        private var starts = IntArray(INITIAL_CAPACITY)
+        private var ends = IntArray(INITIAL_CAPACITY)
+        private var flags = ByteArray(INITIAL_CAPACITY)
+        private var integerValues = LongArray(INITIAL_CAPACITY)
+        private var decimalValues = DoubleArray(INITIAL_CAPACITY)
+        private var exactDecimalValues: Array<BigDecimal?>? = null // only if needed
+
+        fun add(start: Int, end: Int, number: Number) {
+            if (count == starts.size) {
+                grow(count * 2)
+            }
+            starts[count] = start
+            ends[count] = end
+            flags[count] = ((if (number.isDecimal) DECIMAL else 0)
+                    or (if (number.isOrdinal) ORDINAL else 0)).toByte()
+            integerValues[count] = number.integerValue()
+            decimalValues[count] = number.decimalValue()
+            if (number.isDecimal && number.isExact) {
+                exactDecimalValues()[count] = number.toBigDecimal()
+            }
+            ++count
+        }
+
+        /**
+         * Marks the end of the numbers of the current utterance.
+         */
+        fun endUtterance() {
+            if (utteranceCount + 1 == utteranceStarts.size) {
+                utteranceStarts = utteranceStarts.copyOf(utteranceStarts.size * 2)
+            }
+            ++utteranceCount
+            utteranceStarts[utteranceCount] = count
+        }
+
+        /**
+         * Appends all of the utterances collected by [other] after the ones collected by this.
+         */
+        fun addAll(other: Builder) {
+            if (count + other.count > starts.size) {
+                grow(count + other.count)
+            }
+            System.arraycopy(other.starts, 0, starts, count, other.count)
+            System.arraycopy(other.ends, 0, ends, count, other.count)
+            System.arraycopy(other.flags, 0, flags, count, other.count)
+            System.arraycopy(other.integerValues, 0, integerValues, count, other.count)
+            System.arraycopy(other.decimalValues, 0, decimalValues, count, other.count)
+            other.exactDecimalValues?.let {
+                System.arraycopy(it, 0, exactDecimalValues(), count, other.count)
+            }
+            if (utteranceCount + other.utteranceCount >= utteranceStarts.size) {
+                utteranceStarts = utteranceStarts.copyOf(utteranceCount + other.utteranceCount + 1)
+            }
+            for (u in 1..other.utteranceCount) {
+                utteranceStarts[utteranceCount + u] = count + other.utteranceStarts[u]
+            }
+            utteranceCount += other.utteranceCount
+            count += other.count
+        }
+
+        fun build(): ExtractedNumbers {
+            return ExtractedNumbers(
+                utteranceStarts.copyOf(utteranceCount + 1),
+                starts.copyOf(count),
+                ends.copyOf(count),
+                flags.copyOf(count),
+                integerValues.copyOf(count),
+                decimalValues.copyOf(count),
+                exactDecimalValues?.copyOf(count),
+            )
+        }
+
+        private fun grow(capacity: Int) {
+            starts = starts.copyOf(capacity)
+            ends = ends.copyOf(capacity)
+            flags = flags.copyOf(capacity)
+            integerValues = integerValues.copyOf(capacity)
+            decimalValues = decimalValues.copyOf(capacity)
+            exactDecimalValues = exactDecimalValues?.copyOf(capacity)
+        }
+
+        private fun exactDecimalValues(): Array<BigDecimal?> {
+            return exactDecimalValues
+                ?: arrayOfNulls<BigDecimal>(starts.size).also { exactDecimalValues = it }
+        }
+    }
+
+    private companion object {
+        const val DECIMAL = 1
+        const val ORDINAL = 2
+        const val INITIAL_CAPACITY = 16
+    }
+}
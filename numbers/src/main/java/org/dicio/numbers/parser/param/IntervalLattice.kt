@@ -0,0 +1,175 @@
+package org.dicio.numbers.parser.param
+
+/**
+ * All of the objects of type [T] that [ParserParams.parseLattice] found in an utterance, stored as
+ * a lattice (a directed acyclic graph) whose nodes are the token boundaries of the utterance and
+ * whose edges are the parsed objects: the edge with index `e` goes from token [getStartToken]`(e)`
+ * (inclusive) to token [getEndToken]`(e)` (exclusive), covers the characters from [getStart]`(e)`
+ * to [getEnd]`(e)` of the utterance and carries the value [getValue]`(e)`.
+ *
+ * The edges are stored in columnar form and indexed from `0` until [size], sorted first by start
+ * token and then by reversed end token, so the edges that start at token `t` are those with index
+ * in [edgesFrom]`(t)`, the first of which is the longest. This is the same order in which
+ * [ParserParams.parsePossibleIntervals] returns its ranges, see [toMatchedRanges].
+ */
+class IntervalLattice<T> internal constructor(
+    private val edgesFromToken: IntArray,
+    private val startTokens: IntArray,
+    private val endTokens: IntArray,
+    private val starts: IntArray,
+    private val ends: IntArray,
+    private val values: Array<Any?>,
+    private val largestPossible: BooleanArray,
+) {
+    /**
+     * The number of tokens in the utterance, i.e. the node `tokenCount` is the end of the utterance.
+     */
+    val tokenCount: Int
+        get() = edgesFromToken.size - 1
+
+    /**
+     * The number of edges, i.e. the number of objects found in the utterance.
+     */
+    val size: Int
+        get() = startTokens.size
+
+    /**
+     * @return the indices of the edges that start at token [token], from the longest to the
+     * shortest one
+     */
+    fun edgesFrom(token: Int): IntRange {
+        return edgesFromToken[token] until edgesFromToken[token + 1]
+    }
+
+    /**
+     * @return the index of the longest edge that starts at token [token], or `-1` if no object
+     * starts there
+     */
+    fun longestEdgeFrom(token: Int): Int {
+        return if (edgesFromToken[token] == edgesFromToken[token + 1]) -1 else edgesFromToken[token]
+    }
+
+    fun getStartToken(edge: Int): Int {
+        return startTokens[edge]
+    }
+
+    /**
+     * @return the index of the token right after the last token of the edge with index [edge]
+     */
+    fun getEndToken(edge: Int): Int {
+        return endTokens[edge]
+    }
+
+    /**
+     * @return the index of the first character of the edge with index [edge] in the utterance
+     */
+    fun getStart(edge: Int): Int {
+        return starts[edge]
+    }
+
+    /**
+     * @return the index of one past the last character of the edge with index [edge] in the
+     * utterance
+     */
+    fun getEnd(edge: Int): Int {
+        return ends[edge]
+    }
+
+    fun getValue(edge: Int): T {
+        @Suppress("UNCHECKED_CAST")
+        return values[edge] as T
+    }
+
+    /**
+     * @return whether the edge with index [edge] is not contained in any other edge, see
+     * [ParserParams.MatchedRange.isLargestPossible]
+     */
+    fun isLargestPossible(edge: Int): Boolean {
+        return largestPossible[edge]
+    }
+
+    /**
+     * @return the edges of this lattice as [ParserParams.MatchedRange]s, i.e. the same list that
+     * [ParserParams.parsePossibleIntervals] would return
+     */
+    fun toMatchedRanges(): List<ParserParams.MatchedRange<T>> {
+        return (0 until size).map { edge ->
+            ParserParams.MatchedRange(
+                starts[edge], ends[edge], getValue(edge), largestPossible[edge]
+            )
+        }
+    }
+
+
+    /**
+     * Collects edges one start token at a time, growing its arrays as needed. The edges must be
+     * added in the order described in [IntervalLattice].
+     */
+    internal class Builder(private val tokenCount: Int) {
+        // edgesFromToken[t] is the index of the first edge starting at token t or after it, and
+        // it is filled lazily up to (excluding) filledTokens
+        private val edgesFromToken = IntArray(tokenCount + 1)
+        private var filledTokens = 0
+        private var count = 0
+        private var startTokens = IntArray(INITIAL_CAPACITY)
+        private var endTokens = IntArray(INITIAL_CAPACITY)
+        private var starts = IntArray(INITIAL_CAPACITY)
+        private var ends = IntArray(INITIAL_CAPACITY)
+        private var values = arrayOfNulls<Any?>(INITIAL_CAPACITY)
+        private var largestPossible = BooleanArray(INITIAL_CAPACITY)
+
+        fun add(
+            startToken: Int,
+            endToken: Int,
+            start: Int,
+            end: Int,
+            value: Any?,
+            isLargestPossible: Boolean
+        ) {
+            if (count == startTokens.size) {
+                grow(count * 2)
+            }
+            fillEdgesFromToken(startToken)
+            startTokens[count] = startToken
+            endTokens[count] = endToken
+            starts[count] = start
+            ends[count] = end
+            values[count] = value
+            largestPossible[count] = isLargestPossible
+            ++count
+        }
+
+        fun <T> build(): IntervalLattice<T> {
+            fillEdgesFromToken(tokenCount)
+            return IntervalLattice(
+                edgesFromToken,
+                startTokens.copyOf(count),
+                endTokens.copyOf(count),
+                starts.copyOf(count),
+                ends.copyOf(count),
+                values.copyOf(count),
+                largestPossible.copyOf(count),
+            )
+        }
+
+        private fun fillEdgesFromToken(upToToken: Int) {
+            while (filledTokens <= upToToken) {
+                edgesFromToken[filledTokens] = count
+                ++filledTokens
+            }
+        }
+
+        private fun grow(capacity: Int) {
+            startTokens = startTokens.copyOf(capacity)
+            endTokens = endTokens.copyOf(capacity)
+            starts = starts.copyOf(capacity)
+            ends = ends.copyOf(capacity)
+            values = values.copyOf(capacity)
+            largestPossible = largestPossible.copyOf(capacity)
+        }
+    }
+
+    private companion object {
+        const val INITIAL_CAPACITY = 16
+    }
+}
@@ -0,0 +1,223 @@
+package org.dicio.numbers.parser.param
+
+import org.dicio.numbers.parser.lexer.Token
+import org.dicio.numbers.parser.lexer.TokenStream
+import java.util.concurrent.Callable
+import java.util.concurrent.ForkJoinPool
+
+/**
+ * The parallel version of [ParserParams.parseMixedWithText], for long utterances such as meeting
+ * transcripts or subtitles. The tokens are split into chunks, preferably right after sentence
+ * punctuation, and the greedy loop of [ParserParams.parseMixedWithText] is run in parallel from the
+ * start of each chunk up to the start of the next one. The runs are then stitched together in
+ * order.
+ *
+ * Since each iteration of the greedy loop only depends on the position it starts from, the run of a
+ * chunk coincides with the sequential one from the first iteration that starts where the run of
+ * the previous chunk ended. If that never happens, because an object found by the previous run
+ * crossed the boundary and the run of the chunk did not start any iteration at its end, the greedy
+ * loop is continued in the calling thread until it reaches an iteration of the run of the chunk, or
+ * the end of the chunk. So the result is always the same as the sequential one, wherever the
+ * boundaries end up being.
+ *
+ * @param tokens the tokens of the utterance, which must be safe to read from multiple threads
+ * @param getExtractorAtCurrentPosition see [ParserParams.getExtractorAtCurrentPosition]
+ */
+internal class ParallelMixedWithText<T>(
+    private val tokens: List<Token>,
+    private val getExtractorAtCurrentPosition: (TokenStream) -> () -> T?,
+) {
+    /**
+     * Some consecutive iterations of the greedy loop: the i-th one started at the token with index
+     * `starts[i]` and found `values[i]` (or nothing if `null`), ending where the next iteration
+     * starts, or at [end] for the last one.
+     */
+    private class Run<T> {
+        var starts = IntArray(INITIAL_CAPACITY)
+        val values = ArrayList<T?>()
+        var end = 0
+
+        val size: Int
+            get() = values.size
+
+        fun add(start: Int, value: T?) {
+            if (values.size == starts.size) {
+                starts = starts.copyOf(starts.size * 2)
+            }
+            starts[values.size] = start
+            values.add(value)
+        }
+
+        fun endOf(index: Int): Int {
+            return if (index + 1 < values.size) starts[index + 1] else end
+        }
+
+        /**
+         * @return the index of the iteration which started at [start], or `-1` if there is none
+         */
+        fun indexOfStart(start: Int): Int {
+            val index = starts.binarySearch(start, 0, values.size)
+            return if (index < 0) -1 else index
+        }
+    }
+
+    fun parse(pool: ForkJoinPool): List<Any> {
+        val boundaries = chunkBoundaries(pool.parallelism)
+        val tasks = (1..<boundaries.size - 1).map { i ->
+            pool.submit(Callable { run(boundaries[i], boundaries[i + 1]) })
+        }
+
+        // the calling thread takes care of the first chunk, and of the stitching afterwards
+        val ts = TokenStream(tokens)
+        val extractor = getExtractorAtCurrentPosition(ts)
+        val result = MixedWithTextBuilder()
+        val firstRun = run(ts, extractor, boundaries[0], boundaries[1])
+        result.addAll(firstRun, 0)
+        var position = firstRun.end
+
+        for ((i, task) in tasks.withIndex()) {
+            val run = task.join()
+            val chunkEnd = boundaries[i + 2]
+
+            // continue the greedy loop here until it meets an iteration of the run of this chunk
+            var index = run.indexOfStart(position)
+            while (index < 0 && position < chunkEnd) {
+                ts.position = position
+                val value = extractor()
+                if (value == null) {
+                    ts.movePositionForwardBy(1)
+                }
+                result.add(position, ts.position, value)
+                position = ts.position
+                index = run.indexOfStart(position)
+            }
+
+            if (index >= 0) {
+                // from here on the run of this chunk is the same as the sequential one
+                result.addAll(run, index)
+                position = run.end
+            }
+        }
+
+        return result.build()
+    }
+
+    /**
+     * @return the indices of the tokens at which chunks start, followed by the number of tokens
+     */
+    private fun chunkBoundaries(parallelism: Int): IntArray {
+        val chunkCount =
+            maxOf(1, minOf(tokens.size / MIN_CHUNK_TOKENS, parallelism * CHUNKS_PER_THREAD))
+        val boundaries = IntArray(chunkCount + 1)
+        var boundaryCount = 1 // the first chunk starts at 0
+        for (i in 1..<chunkCount) {
+            val boundary = sentenceStartNear(tokens.size * i / chunkCount)
+            if (boundary > boundaries[boundaryCount - 1] && boundary < tokens.size) {
+                boundaries[boundaryCount++] = boundary
+            }
+        }
+        boundaries[boundaryCount++] = tokens.size
+        return boundaries.copyOf(boundaryCount)
+    }
+
+    /**
+     * @return the index of the first token after [target] which follows sentence punctuation, where
+     * objects are unlikely to cross the boundary and the run of the chunk will likely start an
+     * iteration, or [target] itself if there is no such token nearby
+     */
+    private fun sentenceStartNear(target: Int): Int {
+        for (i in target..<minOf(target + SENTENCE_SEARCH_TOKENS, tokens.size)) {
+            val previous = tokens[i - 1]
+            if (previous.valueLength == 1 && previous.value[0] in SENTENCE_PUNCTUATION
+                && previous.spacesFollowing.isNotEmpty()
+            ) {
+                return i
+            }
+        }
+        return target
+    }
+
+    private fun run(from: Int, to: Int): Run<T> {
+        val ts = TokenStream(tokens)
+        return run(ts, getExtractorAtCurrentPosition(ts), from, to)
+    }
+
+    /**
+     * Runs the greedy loop of [ParserParams.parseMixedWithText] from the token with index [from],
+     * until an iteration ends at or after [to].
+     */
+    private fun run(ts: TokenStream, extractor: () -> T?, from: Int, to: Int): Run<T> {
+        val run = Run<T>()
+        ts.position = from
+        while (ts.position < to) {
+            val start = ts.position
+            val value = extractor()
+            if (value == null) {
+                ts.movePositionForwardBy(1)
+            }
+            run.add(start, value)
+        }
+        run.end = ts.position
+        return run
+    }
+
+    /**
+     * Builds the list returned by [ParserParams.parseMixedWithText] out of the iterations of the
+     * greedy loop, in order.
+     */
+    private inner class MixedWithTextBuilder {
+        private val textAndObjects = ArrayList<Any>()
+        private val currentText = StringBuilder()
+
+        fun add(start: Int, end: Int, value: T?) {
+            if (value == null) {
+                tokens[start].appendValueAndSpacesTo(currentText)
+            } else {
+                if (currentText.isNotEmpty()) {
+                    textAndObjects.add(currentText.toString()) // add the text before the object
+                    currentText.setLength(0)
+                }
+                textAndObjects.add(value)
+                tokens[end - 1].appendSpacesTo(currentText) // spaces after the object
+            }
+        }
+
+        fun addAll(run: Run<T>, fromIndex: Int) {
+            for (i in fromIndex..<run.size) {
+                add(run.starts[i], run.endOf(i), run.values[i])
+            }
+        }
+
+        fun build(): List<Any> {
+            if (currentText.isNotEmpty()) {
+                // add leftover text
+                textAndObjects.add(currentText.toString())
+            }
+            return textAndObjects
+        }
+    }
+
+    private companion object {
+        const val INITIAL_CAPACITY = 64
+
+        /**
+         * The minimum number of tokens in a chunk, so that each task does enough work to amortize
+         * creating its own extractor and waiting for it.
+         */
+        const val MIN_CHUNK_TOKENS = 512
+
+        /**
+         * How many chunks to create for each thread of the pool, so that threads which end early
+         * (e.g. because their chunk contains fewer objects) can take more work.
+         */
+        const val CHUNKS_PER_THREAD = 4
+
+        /**
+         * How many tokens after the evenly spaced boundaries to look at in search of the start of a
+         * sentence.
+         */
+        const val SENTENCE_SEARCH_TOKENS = 64
+
+        val SENTENCE_PUNCTUATION = charArrayOf('.', '!', '?', ';')
+    }
+}
@@ -2,12 +2,21 @@ package org.dicio.numbers.parser.param
 
 import org.dicio.numbers.parser.Parser
 import org.dicio.numbers.parser.lexer.TokenStream
+import java.util.concurrent.ForkJoinPool
 
 /**
- * TODO add documentation
+ * The base class of the parameter objects that find objects of type [T] in [utterance] in various
+ * ways, e.g. [parseFirst] or [parseMixedWithText].
+ *
+ * [utterance] can be any [CharSequence], e.g. a [StringBuilder] or a [java.nio.CharBuffer] decoded
+ * from a memory mapped file. It is read in place without being copied into a [String]: tokens only
+ * store offsets into it, and [parseEntities] reports where the objects are as offsets too. For this
+ * reason [utterance] must not be modified until the parsing function returns. Only the text
+ * returned by [parseMixedWithText] is copied, and only [String]s are stored in the tokenization
+ * cache (see [Parser.tokenizationCacheSize]).
  */
 abstract class ParserParams<T> protected constructor(
-    protected val parser: Parser, private val utterance: String
+    protected val parser: Parser, private val utterance: CharSequence
 ) {
     /**
      * Builds an extractor for the given token stream. When the extractor is called, it must start
@@ -68,8 +77,7 @@ abstract class ParserParams<T> protected constructor(
 
             if (o == null) {
                 // no object here, add text and spaces of the current token to currentText instead
-                currentText.append(ts[0].value)
-                currentText.append(ts[0].spacesFollowing)
+                ts[0].appendValueAndSpacesTo(currentText)
                 ts.movePositionForwardBy(1)
             } else {
                 if (currentText.isNotEmpty()) {
@@ -77,7 +85,7 @@ abstract class ParserParams<T> protected constructor(
                     currentText.setLength(0) // clear the string builder efficiently
                 }
                 textAndObjects.add(o)
-                currentText.append(ts[-1].spacesFollowing) // spaces after the object
+                ts[-1].appendSpacesTo(currentText) // spaces after the object
             }
         }
 
@@ -89,6 +97,61 @@ abstract class ParserParams<T> protected constructor(
         return textAndObjects
     }
 
+    /**
+     * Finds the same objects as [parseMixedWithText], but instead of copying the text in between
+     * them into [String]s, only returns the objects along with the range of characters of
+     * [utterance] each one spans, which can be used to get the text in between if needed.
+     *
+     * @return the objects of type [T] found in [utterance], in order
+     */
+    fun parseEntities(): List<ParserSession.Entity<T>> {
+        val ts = parser.tokenize(utterance)
+        val extractorAtCurrentPosition = getExtractorAtCurrentPosition(ts)
+        val entities = ArrayList<ParserSession.Entity<T>>()
+
+        while (!ts.finished()) {
+            val start = ts[0].positionInOriginalString
+            val o: T? = extractorAtCurrentPosition()
+
+            if (o == null) {
+                ts.movePositionForwardBy(1)
+            } else {
+                entities.add(ParserSession.Entity(
+                    start, ts[-1].positionInOriginalString + ts[-1].valueLength, o
+                ))
+            }
+        }
+
+        return entities
+    }
+
+    /**
+     * Same as [parseMixedWithText], but for long utterances (e.g. meeting transcripts or subtitles)
+     * uses the threads of [pool] to find the objects in different parts of [utterance] at once. The
+     * parts are preferably split at sentence punctuation, and objects crossing the boundary between
+     * two parts are taken care of, so **the result is always the same as [parseMixedWithText]**.
+     *
+     * @param pool the pool to split the work across, or `null` to parse everything in the calling
+     * thread, i.e. to just call [parseMixedWithText]
+     */
+    fun parseMixedWithText(pool: ForkJoinPool?): List<Any> {
+        if (pool == null) {
+            return parseMixedWithText()
+        }
+        return ParallelMixedWithText(parser.tokenizeShared(utterance), this::getExtractorAtCurrentPosition)
+            .parse(pool)
+    }
+
+    /**
+     * @return a session that finds the same objects as [parseMixedWithText] in [utterance], and
+     * can then be updated with new versions of [utterance] (e.g. with more words at the end)
+     * without parsing again the parts that did not change. Since the session keeps the text, it
+     * takes a [String] copy of [utterance].
+     */
+    fun startSession(): ParserSession<T> {
+        return ParserSession(parser, utterance.toString(), this::getExtractorAtCurrentPosition)
+    }
+
     /**
      * [[start], [end]) is an inclusive-exclusive interval representing the range of characters in
      * [utterance] that correspond to [parsedData]. [isLargestPossible] is `true` only if this range
@@ -110,13 +173,35 @@ abstract class ParserParams<T> protected constructor(
      * `h` is by how many tokens the extractor advanced the `tokenStream` during execution).
      *
      * @return a list of ranges, one for every interval where an object of type [T] could be parsed,
-     * sorted first according to [MatchedRange.start] and then by reversed [MatchedRange.end].
+     * sorted first according to [MatchedRange.start] and then by reversed [MatchedRange.end]. This
+     * is the same as `parseLattice().toMatchedRanges()`, see [parseLattice].
      */
     fun parsePossibleIntervals(): List<MatchedRange<T>> {
+        return parseLattice().toMatchedRanges()
+    }
+
+    /**
+     * Finds the same objects as [parsePossibleIntervals] with the same complexity, but returns them
+     * as an [IntervalLattice] instead, which stores them compactly and also keeps track of which
+     * tokens each object spans, so that it can be traversed as a graph without creating a
+     * [MatchedRange] for every object.
+     *
+     * Note that this is not a different parsing algorithm: the extractors are greedy and only
+     * return the longest object starting at a position, so the shorter objects are still found by
+     * running the extractor again from the same start with fewer tokens available. What makes this
+     * affordable is [TokenStream.memoization], which reuses the results of the rules that did not
+     * look at the excluded tokens.
+     *
+     * @return the lattice of all of the objects of type [T] that could be parsed in [utterance]
+     */
+    fun parseLattice(): IntervalLattice<T> {
         val ts = parser.tokenize(utterance)
+        // the same rules are run at the same positions with many different token counts, so reuse
+        // the results of the memoized ones if they did not look at the tokens being excluded
+        ts.memoization = true
         val tokenCount = ts.tokenCount
         val extractorAtCurrentPosition = getExtractorAtCurrentPosition(ts)
-        val ranges = ArrayList<MatchedRange<T>>()
+        val lattice = IntervalLattice.Builder(tokenCount)
 
         var maxEndSoFar = 0
         for (start in 0..<tokenCount) {
@@ -132,16 +217,16 @@ abstract class ParserParams<T> protected constructor(
                     ?: break // nothing found, so there also won't be anything if we restrict the interval further
                 assert(ts.position != start) // something was matched, so the token stream surely advanced
 
-                ranges.add(
-                    MatchedRange(
-                        start = startPositionInOriginalString,
-                        end = ts[-1].positionInOriginalString + ts[-1].value.length,
-                        parsedData = parsedData,
-                        // If this is the longest range starting from here, and it reaches further
-                        // right than ever observed before, then this range is not contained in any
-                        // other range for sure.
-                        isLargestPossible = ts.tokenCount == tokenCount && ts.position > maxEndSoFar,
-                    )
+                lattice.add(
+                    startToken = start,
+                    endToken = ts.position,
+                    start = startPositionInOriginalString,
+                    end = ts[-1].positionInOriginalString + ts[-1].valueLength,
+                    value = parsedData,
+                    // If this is the longest range starting from here, and it reaches further
+                    // right than ever observed before, then this range is not contained in any
+                    // other range for sure.
+                    isLargestPossible = ts.tokenCount == tokenCount && ts.position > maxEndSoFar,
                 )
 
                 maxEndSoFar = maxOf(maxEndSoFar, ts.position)
@@ -149,6 +234,6 @@ abstract class ParserParams<T> protected constructor(
             }
         }
 
-        return ranges
+        return lattice.build()
     }
 }
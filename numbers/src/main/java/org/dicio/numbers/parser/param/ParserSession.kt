@@ -0,0 +1,216 @@
+package org.dicio.numbers.parser.param
+
+import org.dicio.numbers.parser.Parser
+import org.dicio.numbers.parser.lexer.TokenBuffer
+import org.dicio.numbers.parser.lexer.TokenStream
+import java.util.Collections
+
+/**
+ * An incremental version of [ParserParams.parseMixedWithText], for text that changes only at the
+ * end from one call to the next, e.g. the partial transcripts of a speech recognizer, which grow
+ * word by word and whose last few words may be revised. Obtain one with
+ * [ParserParams.startSession], and then pass each new version of the text to [update].
+ *
+ * The session keeps the tokens and the objects found in the text. On each [update], only the tokens
+ * after the part of the text that did not change are tokenized again, and only the extractor calls
+ * that looked at those tokens (plus the ones after them) are run again. [update] still needs to
+ * compare the whole new text with the old one to find out which part did not change, while
+ * [append] and [replaceSuffix] already know it, so their cost does not grow with the length of the
+ * unchanged part of the text.
+ *
+ * This class is not thread safe.
+ */
+class ParserSession<T> internal constructor(
+    private val parser: Parser,
+    text: String,
+    getExtractorAtCurrentPosition: (TokenStream) -> () -> T?,
+) {
+    /**
+     * An object found in [text] (or in the utterance of [ParserParams.parseEntities]): [[start],
+     * [end]) is the inclusive-exclusive range of characters in the text that correspond to [value].
+     */
+    data class Entity<T>(
+        val start: Int,
+        val end: Int, // exclusive
+        val value: T,
+    )
+
+    /**
+     * One iteration of the greedy loop in [ParserParams.parseMixedWithText]: the extractor was run
+     * at [startToken] and either found [entity] ending at [endToken], or found nothing, in which
+     * case [entity] is null and [endToken] is `startToken + 1`.
+     */
+    private class Step<T>(
+        val startToken: Int,
+        val endToken: Int,
+        val entity: Entity<T>?,
+        // the number of entities found up to this step (included)
+        val entityCount: Int,
+        // the highest index of a token that was accessed up to this step (included), so that
+        // the result of this step and of all of the previous ones depend only on tokens up to it
+        val maxAccessedIndex: Int,
+    )
+
+    private val tokens = TokenBuffer()
+    private val ts = TokenStream(tokens)
+    private val extractor = getExtractorAtCurrentPosition(ts)
+    private val steps = ArrayList<Step<T>>()
+    private val entityList = ArrayList<Entity<T>>()
+
+    // the current text, which is modified in place by append and replaceSuffix; the tokens only
+    // ever reference characters that did not change
+    private val textBuilder = StringBuilder()
+    private var textString: String? = ""
+
+    /**
+     * The current text, i.e. the one passed to the last call to [update], or the one resulting
+     * from the following calls to [append] and [replaceSuffix].
+     */
+    val text: String
+        get() = textString ?: textBuilder.toString().also { textString = it }
+
+    /**
+     * The objects found in [text], in order. This list is updated by [update].
+     */
+    val entities: List<Entity<T>> = Collections.unmodifiableList(entityList)
+
+    init {
+        update(text)
+    }
+
+    /**
+     * Replaces [text] with [newText] and updates [entities] accordingly.
+     *
+     * @param newText the new text, which usually shares most of its beginning with [text]
+     * @return the index of the first entity in [entities] that changed: the entities before it were
+     * kept, while those from it on were found again in [newText] (some of them might be equal to
+     * the entities that were there before this update)
+     */
+    fun update(newText: String): Int {
+        var commonPrefixLength = 0
+        val maxCommonPrefixLength = minOf(textBuilder.length, newText.length)
+        while (commonPrefixLength < maxCommonPrefixLength
+            && textBuilder[commonPrefixLength] == newText[commonPrefixLength]
+        ) {
+            ++commonPrefixLength
+        }
+
+        textBuilder.setLength(commonPrefixLength)
+        textBuilder.append(newText, commonPrefixLength, newText.length)
+        textString = newText
+        return retokenizeAndParse(commonPrefixLength)
+    }
+
+    /**
+     * Appends [suffix] to [text], see [update]. The cost depends only on the length of [suffix]
+     * and on the tokens near the end of [text], and not on the length of [text].
+     */
+    fun append(suffix: CharSequence): Int {
+        val commonPrefixLength = textBuilder.length
+        textBuilder.append(suffix)
+        textString = null
+        return retokenizeAndParse(commonPrefixLength)
+    }
+
+    /**
+     * Replaces the characters of [text] after the first [stableLength] ones with [suffix], e.g. to
+     * replace the unstable part of a partial transcript. See [update]. Like [append], the cost does
+     * not depend on [stableLength].
+     */
+    fun replaceSuffix(stableLength: Int, suffix: CharSequence): Int {
+        require(stableLength in 0..textBuilder.length) { "Invalid stable length: $stableLength" }
+        textBuilder.setLength(stableLength)
+        textBuilder.append(suffix)
+        textString = null
+        return retokenizeAndParse(stableLength)
+    }
+
+    /**
+     * Updates the tokens and [entities] after the text changed, keeping the first
+     * [commonPrefixLength] characters. See [update] for the return value.
+     */
+    private fun retokenizeAndParse(commonPrefixLength: Int): Int {
+        val firstChangedToken = parser.retokenize(textBuilder, tokens, commonPrefixLength)
+        ts.reset()
+
+        // keep the steps that only looked at tokens that were kept
+        val keptSteps = firstStepAccessing(firstChangedToken)
+        steps.subList(keptSteps, steps.size).clear()
+        val lastStep = steps.lastOrNull()
+        entityList.subList(lastStep?.entityCount ?: 0, entityList.size).clear()
+        val firstChangedEntity = entityList.size
+
+        // continue the greedy loop of parseMixedWithText from where the kept steps ended
+        var position = lastStep?.endToken ?: 0
+        var maxAccessedIndex = lastStep?.maxAccessedIndex ?: -1
+        while (position < tokens.size) {
+            ts.position = position
+            ts.maxAccessedIndex = -1
+            val value = extractor()
+            maxAccessedIndex = maxOf(maxAccessedIndex, ts.maxAccessedIndex)
+
+            if (value == null) {
+                steps.add(Step(position, position + 1, null, entityList.size, maxAccessedIndex))
+                position += 1
+            } else {
+                val entity = Entity<T>(
+                    tokens.getPositionInOriginalString(position),
+                    ts[-1].positionInOriginalString + ts[-1].valueLength,
+                    value
+                )
+                entityList.add(entity)
+                steps.add(Step(position, ts.position, entity, entityList.size, maxAccessedIndex))
+                position = ts.position
+            }
+        }
+
+        return firstChangedEntity
+    }
+
+    /**
+     * @return the same list that [ParserParams.parseMixedWithText] would return for [text], built
+     * from the current [entities] without running any extractor
+     */
+    fun parseMixedWithText(): List<Any> {
+        val textAndObjects = ArrayList<Any>()
+        val currentText = StringBuilder()
+
+        for (step in steps) {
+            if (step.entity == null) {
+                tokens[step.startToken].appendValueAndSpacesTo(currentText)
+            } else {
+                if (currentText.isNotEmpty()) {
+                    textAndObjects.add(currentText.toString()) // add the text before the object
+                    currentText.setLength(0)
+                }
+                textAndObjects.add(step.entity.value as Any)
+                tokens[step.endToken - 1].appendSpacesTo(currentText) // spaces after the object
+            }
+        }
+
+        if (currentText.isNotEmpty()) {
+            // add leftover text
+            textAndObjects.add(currentText.toString())
+        }
+        return textAndObjects
+    }
+
+    /**
+     * @return the index of the first step that accessed the token with index [token] or a later
+     * one, or the number of steps if there is none
+     */
+    private fun firstStepAccessing(token: Int): Int {
+        // maxAccessedIndex never decreases from one step to the next, so binary search
+        var low = 0
+        var high = steps.size
+        while (low < high) {
+            val mid = (low + high) ushr 1
+            if (steps[mid].maxAccessedIndex >= token) {
+                high = mid
+            } else {
+                low = mid + 1
+            }
+        }
+        return low
+    }
+}
@@ -0,0 +1,153 @@
+package org.dicio.numbers.unit
+
+import org.dicio.numbers.util.Utils
+import java.time.temporal.ChronoUnit
+
+/**
+ * A mutable version of [Duration], to be used inside extractors when building a duration out of
+ * many groups (e.g. "one hour twenty minutes and thirty seconds"), so that a new [Duration] is not
+ * allocated for every group and for every step of [Duration.multiply]. [plusProduct] behaves
+ * exactly like `plus(duration.multiply(number))`, including how fractional days, months and years
+ * are carried over to smaller units, while additions and multiplications that would overflow a
+ * [Long] saturate to [Long.MAX_VALUE] or [Long.MIN_VALUE] instead of silently wrapping around (see
+ * [hasOverflowed]). Call [toDuration] to get the result.
+ */
+class DurationAccumulator {
+    private var nanos: Long = 0
+    private var days: Long = 0
+    private var months: Long = 0
+    private var years: Long = 0
+
+    /**
+     * Whether any operation since the last [set] or [reset] overflowed a [Long], in which case the
+     * overflown field was saturated.
+     */
+    var hasOverflowed: Boolean = false
+        private set
+
+    /**
+     * Resets the value of this accumulator to an empty duration.
+     * @return this
+     */
+    fun reset(): DurationAccumulator {
+        nanos = 0
+        days = 0
+        months = 0
+        years = 0
+        hasOverflowed = false
+        return this
+    }
+
+    /**
+     * Sets the value of this accumulator to that of [duration].
+     * @return this
+     */
+    fun set(duration: Duration): DurationAccumulator {
+        nanos = duration.nanos
+        days = duration.days
+        months = duration.months
+        years = duration.years
+        hasOverflowed = false
+        return this
+    }
+
+    fun plus(duration: Duration): DurationAccumulator {
+        nanos = add(nanos, duration.nanos)
+        days = add(days, duration.days)
+        months = add(months, duration.months)
+        years = add(years, duration.years)
+        return this
+    }
+
+    /**
+     * Equivalent to `plus(duration.multiply(number))`, without creating any intermediate
+     * [Duration].
+     */
+    fun plusProduct(duration: Duration, number: Number): DurationAccumulator {
+        return if (number.isInteger) {
+            plusProduct(duration, number.integerValue())
+        } else {
+            plusProduct(duration, number.decimalValue())
+        }
+    }
+
+    /**
+     * Equivalent to `plus(duration.multiply(number))`, without creating any intermediate
+     * [Duration].
+     */
+    fun plusProduct(duration: Duration, number: Long): DurationAccumulator {
+        nanos = add(nanos, multiply(duration.nanos, number))
+        days = add(days, multiply(duration.days, number))
+        months = add(months, multiply(duration.months, number))
+        years = add(years, multiply(duration.years, number))
+        return this
+    }
+
+    /**
+     * Equivalent to `plus(duration.multiply(number))`, without creating any intermediate
+     * [Duration]. The fractional part of days, months and years is carried over to the next
+     * smaller unit, exactly like [Duration.plus] with a [Double] does.
+     */
+    fun plusProduct(duration: Duration, number: Double): DurationAccumulator {
+        nanos = add(nanos, Utils.roundToLong(duration.nanos * number))
+        plusYears(duration.years * number)
+        plusMonths(duration.months * number)
+        plusDays(duration.days * number)
+        return this
+    }
+
+    /**
+     * @return a new immutable [Duration] with the current value of this accumulator
+     */
+    fun toDuration(): Duration {
+        return Duration(nanos, days, months, years)
+    }
+
+    override fun toString(): String {
+        return toDuration().toString()
+    }
+
+    private fun plusYears(value: Double) {
+        val rounded = Utils.roundToLong(value)
+        years = add(years, rounded)
+        // a year is exactly 12 months according to the built-in ChronoUnit estimations
+        plusMonths((value - rounded) * MONTHS_IN_YEAR)
+    }
+
+    private fun plusMonths(value: Double) {
+        val rounded = Utils.roundToLong(value)
+        months = add(months, rounded)
+        plusDays((value - rounded) * DAYS_IN_MONTH)
+    }
+
+    private fun plusDays(value: Double) {
+        val rounded = Utils.roundToLong(value)
+        days = add(days, rounded)
+        nanos = add(nanos, Utils.roundToLong((value - rounded) * NANOS_IN_DAY))
+    }
+
+    private fun add(a: Long, b: Long): Long {
+        if (Utils.additionOverflows(a, b)) {
+            hasOverflowed = true
+            return if (b > 0) Long.MAX_VALUE else Long.MIN_VALUE
+        }
+        return a + b
+    }
+
+    private fun multiply(a: Long, b: Long): Long {
+        if (Utils.multiplicationOverflows(a, b)) {
+            hasOverflowed = true
+            return if ((a < 0) == (b < 0)) Long.MAX_VALUE else Long.MIN_VALUE
+        }
+        return a * b
+    }
+
+    private companion object {
+        val NANOS_IN_DAY = ChronoUnit.DAYS.duration.toNanos()
+        val MONTHS_IN_YEAR =
+            ChronoUnit.YEARS.duration.seconds / ChronoUnit.MONTHS.duration.seconds
+        // the same as in Duration, ~30.436875
+        val DAYS_IN_MONTH =
+            ChronoUnit.MONTHS.duration.seconds.toDouble() / ChronoUnit.DAYS.duration.seconds.toDouble()
+    }
+}
@@ -1,22 +1,36 @@
 package org.dicio.numbers.unit
 
+import org.dicio.numbers.util.Utils
+import java.math.BigDecimal
+import java.math.MathContext
 import java.util.Objects
 
 /**
  * TODO add documentation
+ *
+ * Decimal numbers may also carry an exact [BigDecimal] value (see [toBigDecimal] and [isExact]),
+ * which is the case only for numbers extracted with
+ * [org.dicio.numbers.parser.param.ExtractNumberParams.exact] (integers that overflow a [Long] here
+ * just become [Double]s instead, see [NumberAccumulator] for keeping them exact). Operations keep
+ * track of the exact value as long as all of the operands are exact, i.e. integers or decimal
+ * numbers with an exact value, while an operation with an inexact [Double] makes the result
+ * inexact too. [decimalValue] is always computed with the usual [Double] operations. The exact
+ * value is not taken into account by [equals] and [hashCode].
  */
 class Number private constructor(
     @JvmField val isDecimal: Boolean,
     private val integerValue: Long,
     private val decimalValue: Double,
-    val isOrdinal: Boolean
+    val isOrdinal: Boolean,
+    private val exactDecimalValue: BigDecimal?,
 ) {
     @JvmOverloads
     constructor(integerValue: Long, isOrdinal: Boolean = false) : this(
         false,
         integerValue,
         Double.NaN,
-        isOrdinal
+        isOrdinal,
+        null
     )
 
     @JvmOverloads
@@ -24,13 +38,34 @@ class Number private constructor(
         true,
         0,
         decimalValue,
-        isOrdinal
+        isOrdinal,
+        null
+    )
+
+    /**
+     * A decimal number with the provided exact value, and whose [decimalValue] is the nearest
+     * [Double] to it.
+     */
+    @JvmOverloads
+    constructor(exactDecimalValue: BigDecimal, isOrdinal: Boolean = false) : this(
+        true,
+        0,
+        exactDecimalValue.toDouble(),
+        isOrdinal,
+        exactDecimalValue
     )
 
 
     val isInteger: Boolean
         get() = !isDecimal
 
+    /**
+     * Whether [toBigDecimal] returns the exact value of this number, i.e. whether this number is
+     * an integer or a decimal number with an exact value.
+     */
+    val isExact: Boolean
+        get() = !isDecimal || exactDecimalValue != null
+
     fun integerValue(): Long {
         return integerValue
     }
@@ -39,20 +74,32 @@ class Number private constructor(
         return decimalValue
     }
 
+    /**
+     * @return the exact value of this number if [isExact], otherwise the value of the shortest
+     * decimal representation of [decimalValue] (see [BigDecimal.valueOf])
+     * @throws NumberFormatException if this number is neither exact nor finite
+     */
+    fun toBigDecimal(): BigDecimal {
+        return exactDecimalValue
+            ?: if (isDecimal) BigDecimal.valueOf(decimalValue) else BigDecimal.valueOf(integerValue)
+    }
+
     fun withOrdinal(isOrdinal: Boolean): Number {
-        return Number(this.isDecimal, this.integerValue, this.decimalValue, isOrdinal)
+        return Number(
+            this.isDecimal, this.integerValue, this.decimalValue, isOrdinal, exactDecimalValue
+        )
     }
 
 
     fun multiply(integer: Long): Number {
         return if (isDecimal) {
-            Number(decimalValue * integer, isOrdinal)
-        } else {
-            try {
-                Number(Math.multiplyExact(integerValue, integer), isOrdinal)
-            } catch (e: ArithmeticException) {
-                Number(integerValue.toDouble() * integer, isOrdinal)
+            withExact(Number(decimalValue * integer, isOrdinal), exactDecimalValue) {
+                it.multiply(BigDecimal.valueOf(integer))
             }
+        } else if (Utils.multiplicationOverflows(integerValue, integer)) {
+            Number(integerValue.toDouble() * integer, isOrdinal)
+        } else {
+            Number(integerValue * integer, isOrdinal)
         }
     }
 
@@ -64,20 +111,21 @@ class Number private constructor(
     }
 
     fun multiply(number: Number?): Number {
-        return (if (number!!.isDecimal) multiply(number.decimalValue) else multiply(
+        val result = (if (number!!.isDecimal) multiply(number.decimalValue) else multiply(
             number.integerValue
         ))
+        return withExact(result, number.exactDecimalValue) { toBigDecimalOrNull()?.multiply(it) }
     }
 
     fun plus(integer: Long): Number {
         return if (isDecimal) {
-            Number(decimalValue + integer, isOrdinal)
-        } else {
-            try {
-                Number(Math.addExact(integerValue, integer), isOrdinal)
-            } catch (e: ArithmeticException) {
-                Number(integerValue.toDouble() + integer, isOrdinal)
+            withExact(Number(decimalValue + integer, isOrdinal), exactDecimalValue) {
+                it.add(BigDecimal.valueOf(integer))
             }
+        } else if (Utils.additionOverflows(integerValue, integer)) {
+            Number(integerValue.toDouble() + integer, isOrdinal)
+        } else {
+            Number(integerValue + integer, isOrdinal)
         }
     }
 
@@ -89,12 +137,16 @@ class Number private constructor(
     }
 
     fun plus(number: Number?): Number {
-        return if (number!!.isDecimal) plus(number.decimalValue) else plus(number.integerValue)
+        val result =
+            if (number!!.isDecimal) plus(number.decimalValue) else plus(number.integerValue)
+        return withExact(result, number.exactDecimalValue) { toBigDecimalOrNull()?.add(it) }
     }
 
     fun divide(integer: Long): Number {
         return if (isDecimal) {
-            Number(decimalValue / integer, isOrdinal)
+            withExact(Number(decimalValue / integer, isOrdinal), exactDecimalValue) {
+                exactDivide(it, BigDecimal.valueOf(integer))
+            }
         } else if (integerValue % integer == 0L) {
             Number(integerValue / integer, isOrdinal)
         } else {
@@ -110,7 +162,37 @@ class Number private constructor(
     }
 
     fun divide(number: Number): Number {
-        return if (number.isDecimal) divide(number.decimalValue) else divide(number.integerValue)
+        val result =
+            if (number.isDecimal) divide(number.decimalValue) else divide(number.integerValue)
+        return withExact(result, number.exactDecimalValue) { divisor ->
+            toBigDecimalOrNull()?.let { exactDivide(it, divisor) }
+        }
+    }
+
+    /**
+     * @return [result] with the exact value computed by [exactOperation] if [exactOperand] is not
+     * null (i.e. if the operation involved an exact decimal number), otherwise just [result]
+     */
+    private inline fun withExact(
+        result: Number,
+        exactOperand: BigDecimal?,
+        exactOperation: (BigDecimal) -> BigDecimal?
+    ): Number {
+        if (exactOperand == null || !result.isDecimal) {
+            return result
+        }
+        return result.withExactDecimalValue(exactOperation(exactOperand))
+    }
+
+    private fun withExactDecimalValue(exactDecimalValue: BigDecimal?): Number {
+        return Number(true, 0, decimalValue, isOrdinal, exactDecimalValue)
+    }
+
+    /**
+     * @return the exact value of this number, or `null` if it is not [isExact]
+     */
+    private fun toBigDecimalOrNull(): BigDecimal? {
+        return exactDecimalValue ?: if (isDecimal) null else BigDecimal.valueOf(integerValue)
     }
 
     fun lessThan(integer: Long): Boolean {
@@ -155,6 +237,28 @@ class Number private constructor(
     }
 
     companion object {
+        // used when dividing exact values, since their quotient might not be representable
+        private val DIVISION_MATH_CONTEXT = MathContext.DECIMAL128
+
+        /**
+         * @return a decimal number with [decimalValue] and, if not null, [exactDecimalValue]
+         */
+        internal fun decimal(
+            decimalValue: Double,
+            isOrdinal: Boolean,
+            exactDecimalValue: BigDecimal?
+        ): Number {
+            return Number(true, 0, decimalValue, isOrdinal, exactDecimalValue)
+        }
+
+        internal fun exactDivide(dividend: BigDecimal, divisor: BigDecimal): BigDecimal? {
+            return if (divisor.signum() == 0) {
+                null // the decimal value is infinite or NaN
+            } else {
+                dividend.divide(divisor, DIVISION_MATH_CONTEXT)
+            }
+        }
+
         fun fromObject(o: Any): Number {
             return when (o) {
                 is Short, is Int, is Long -> Number((o as kotlin.Number).toLong())
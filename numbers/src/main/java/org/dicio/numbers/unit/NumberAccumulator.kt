@@ -0,0 +1,246 @@
+package org.dicio.numbers.unit
+
+import org.dicio.numbers.util.Utils
+import java.math.BigDecimal
+
+/**
+ * A mutable version of [Number], to be used inside extractors when building a number through many
+ * operations (e.g. one addition per digit after the decimal point), so that a new [Number] is not
+ * allocated after every operation. All operations behave exactly like the [Number] ones with the
+ * same name, including switching from integer to decimal when the integer value would overflow
+ * (which is detected without throwing exceptions) and keeping track of exact values (see
+ * [Number.toBigDecimal]). Call [toNumber] to get the result.
+ *
+ * @param exact whether integer values that overflow a [Long] should keep their exact value, as
+ * needed by [org.dicio.numbers.parser.param.ExtractNumberParams.exact]; otherwise they just become
+ * [Double]s, like with [Number]
+ */
+class NumberAccumulator @JvmOverloads constructor(private val exact: Boolean = false) {
+    var isDecimal: Boolean = false
+        private set
+    private var integerValue: Long = 0
+    private var decimalValue: Double = Double.NaN
+    private var exactDecimalValue: BigDecimal? = null
+    var isOrdinal: Boolean = false
+
+    // the digits added with plusDecimalDigit and not yet folded into the value, as a scaled long
+    private var pendingDigits: Long = 0
+    private var pendingDigitsScale = 0
+    private var decimalDigitCount = 0
+
+    /**
+     * Sets the value of this accumulator to that of [number], including whether it is ordinal.
+     * @return this
+     */
+    fun set(number: Number): NumberAccumulator {
+        isDecimal = number.isDecimal
+        integerValue = if (number.isDecimal) 0 else number.integerValue()
+        decimalValue = if (number.isDecimal) number.decimalValue() else Double.NaN
+        exactDecimalValue = if (number.isDecimal && number.isExact) number.toBigDecimal() else null
+        isOrdinal = number.isOrdinal
+        pendingDigits = 0
+        pendingDigitsScale = 0
+        decimalDigitCount = 0
+        return this
+    }
+
+    fun integerValue(): Long {
+        foldPendingDigits()
+        return integerValue
+    }
+
+    fun decimalValue(): Double {
+        foldPendingDigits()
+        return decimalValue
+    }
+
+    fun multiply(integer: Long): NumberAccumulator {
+        foldPendingDigits()
+        if (isDecimal) {
+            decimalValue *= integer
+            exactDecimalValue = exactDecimalValue?.multiply(BigDecimal.valueOf(integer))
+        } else if (Utils.multiplicationOverflows(integerValue, integer)) {
+            setDecimal(
+                integerValue.toDouble() * integer,
+                if (exact) BigDecimal.valueOf(integerValue).multiply(BigDecimal.valueOf(integer))
+                else null
+            )
+        } else {
+            integerValue *= integer
+        }
+        return this
+    }
+
+    fun multiply(decimal: Double): NumberAccumulator {
+        foldPendingDigits()
+        setDecimal(asDouble() * decimal, null)
+        return this
+    }
+
+    fun multiply(number: Number): NumberAccumulator {
+        val exact = exactOperation(number) { it.multiply(number.toBigDecimal()) }
+        if (number.isDecimal) multiply(number.decimalValue()) else multiply(number.integerValue())
+        return withExactResult(number, exact)
+    }
+
+    fun plus(integer: Long): NumberAccumulator {
+        foldPendingDigits()
+        if (isDecimal) {
+            decimalValue += integer
+            exactDecimalValue = exactDecimalValue?.add(BigDecimal.valueOf(integer))
+        } else if (Utils.additionOverflows(integerValue, integer)) {
+            setDecimal(
+                integerValue.toDouble() + integer,
+                if (exact) BigDecimal.valueOf(integerValue).add(BigDecimal.valueOf(integer))
+                else null
+            )
+        } else {
+            integerValue += integer
+        }
+        return this
+    }
+
+    fun plus(decimal: Double): NumberAccumulator {
+        foldPendingDigits()
+        setDecimal(asDouble() + decimal, null)
+        return this
+    }
+
+    fun plus(number: Number): NumberAccumulator {
+        val exact = exactOperation(number) { it.add(number.toBigDecimal()) }
+        if (number.isDecimal) plus(number.decimalValue()) else plus(number.integerValue())
+        return withExactResult(number, exact)
+    }
+
+    /**
+     * Equivalent to `plus(number.multiply(decimal))`, without creating the intermediate [Number],
+     * e.g. for adding a digit after the decimal point.
+     */
+    fun plusProduct(number: Number, decimal: Double): NumberAccumulator {
+        val value = if (number.isDecimal) number.decimalValue() else number.integerValue().toDouble()
+        return plus(value * decimal)
+    }
+
+    /**
+     * Adds [digit] (between `0` and `9`) as the next digit after the decimal point, i.e. the first
+     * call adds `digit / 10`, the second one `digit / 100`, and so on, until [set] is called. The
+     * digits are added exactly, using a scaled long that is converted to a [BigDecimal] only once
+     * every 18 digits, and the resulting number will be decimal and exact (see
+     * [Number.toBigDecimal]) as long as the value before the first call was exact, otherwise
+     * the digits are just added to the [Double] value.
+     */
+    fun plusDecimalDigit(digit: Int): NumberAccumulator {
+        if (pendingDigitsScale == MAX_PENDING_DIGITS) {
+            foldPendingDigits()
+        }
+        pendingDigits = pendingDigits * 10 + digit
+        ++pendingDigitsScale
+        ++decimalDigitCount
+        return this
+    }
+
+    fun divide(integer: Long): NumberAccumulator {
+        foldPendingDigits()
+        if (isDecimal) {
+            decimalValue /= integer
+            exactDecimalValue = exactDecimalValue
+                ?.let { Number.exactDivide(it, BigDecimal.valueOf(integer)) }
+        } else if (integerValue % integer == 0L) {
+            integerValue /= integer
+        } else {
+            setDecimal(integerValue.toDouble() / integer, null)
+        }
+        return this
+    }
+
+    fun divide(decimal: Double): NumberAccumulator {
+        foldPendingDigits()
+        setDecimal(asDouble() / decimal, null)
+        return this
+    }
+
+    fun divide(number: Number): NumberAccumulator {
+        val exact = exactOperation(number) { Number.exactDivide(it, number.toBigDecimal()) }
+        if (number.isDecimal) divide(number.decimalValue()) else divide(number.integerValue())
+        return withExactResult(number, exact)
+    }
+
+    fun lessThan(integer: Long): Boolean {
+        foldPendingDigits()
+        return if (isDecimal) (decimalValue < integer) else (integerValue < integer)
+    }
+
+    /**
+     * @return a new immutable [Number] with the current value of this accumulator
+     */
+    fun toNumber(): Number {
+        foldPendingDigits()
+        return if (isDecimal) {
+            Number.decimal(decimalValue, isOrdinal, exactDecimalValue)
+        } else {
+            Number(integerValue, isOrdinal)
+        }
+    }
+
+    override fun toString(): String {
+        return toNumber().toString()
+    }
+
+    /**
+     * @return the exact result of applying [operation] to the value of this accumulator, if
+     * [number] has an exact decimal value (otherwise the usual operations are enough)
+     */
+    private inline fun exactOperation(
+        number: Number,
+        operation: (BigDecimal) -> BigDecimal?
+    ): BigDecimal? {
+        if (!number.isDecimal || !number.isExact) {
+            return null
+        }
+        foldPendingDigits()
+        val current = exactDecimalValue
+            ?: if (isDecimal) return null else BigDecimal.valueOf(integerValue)
+        return operation(current)
+    }
+
+    private fun withExactResult(number: Number, exact: BigDecimal?): NumberAccumulator {
+        if (number.isDecimal && number.isExact && isDecimal) {
+            exactDecimalValue = exact
+        }
+        return this
+    }
+
+    private fun foldPendingDigits() {
+        if (pendingDigitsScale == 0) {
+            return
+        }
+        val digits = BigDecimal.valueOf(pendingDigits, decimalDigitCount)
+        pendingDigits = 0
+        pendingDigitsScale = 0
+        val current = exactDecimalValue
+            ?: if (isDecimal) null else BigDecimal.valueOf(integerValue)
+        if (current == null) {
+            // the value is not exact anyway, so the digits need not be either
+            setDecimal(decimalValue + digits.toDouble(), null)
+        } else {
+            val sum = current.add(digits)
+            setDecimal(sum.toDouble(), sum)
+        }
+    }
+
+    private fun asDouble(): Double {
+        return if (isDecimal) decimalValue else integerValue.toDouble()
+    }
+
+    private fun setDecimal(decimal: Double, exact: BigDecimal?) {
+        isDecimal = true
+        integerValue = 0
+        decimalValue = decimal
+        exactDecimalValue = exact
+    }
+
+    private companion object {
+        // 18 digits always fit in a long
+        const val MAX_PENDING_DIGITS = 18
+    }
+}
@@ -0,0 +1,102 @@
+package org.dicio.numbers.util
+
+import org.dicio.numbers.formatter.datetime.DateTimeConfig
+import org.dicio.numbers.parser.lexer.Tokenizer
+import java.io.File
+import java.io.FileNotFoundException
+import java.nio.ByteBuffer
+
+/**
+ * A compact binary image of the configuration of a language, generated at build time by the
+ * `generateConfigSnapshots` Gradle task (see [main]) and stored in the config folder next to the
+ * json files it is generated from. It contains the already built [Tokenizer] lexicon and the
+ * already parsed [DateTimeConfig] format strings, so that loading a language at runtime is just a
+ * matter of reading one resource into a [ByteBuffer] and copying arrays out of it, instead of
+ * parsing and validating json.
+ *
+ * The snapshot starts with a header made of [MAGIC], [VERSION] and the offsets of the sections
+ * ([TOKENIZER_SECTION] and [DATE_TIME_SECTION]). If there is no snapshot, or if it was written by
+ * an incompatible version, [open] returns null and the json files are loaded instead.
+ */
+internal object ConfigSnapshot {
+    const val FILE_NAME = "config.snapshot"
+    const val TOKENIZER_SECTION = 0
+    const val DATE_TIME_SECTION = 1
+
+    private const val MAGIC = 0x444e4353 // "DNCS"
+    private const val VERSION = 2
+    private const val SECTION_COUNT = 2
+    private const val HEADER_SIZE = (2 + SECTION_COUNT) * Int.SIZE_BYTES
+
+    /**
+     * @param configFolder the config folder of the language, e.g. "config/en-us"
+     * @param section the section to read, e.g. [TOKENIZER_SECTION]
+     * @return a reader positioned at the beginning of the section of the snapshot of the language,
+     * or null if there is no valid snapshot for the language
+     */
+    fun open(configFolder: String, section: Int): SnapshotReader? {
+        val inputStream = try {
+            ResourceOpener.getResourceAsStream("$configFolder/$FILE_NAME")
+        } catch (e: FileNotFoundException) {
+            return null
+        }
+        return read(ByteBuffer.wrap(inputStream.use { it.readBytes() }), section)
+    }
+
+    /**
+     * @param snapshot the whole content of a snapshot
+     * @param section the section to read, e.g. [TOKENIZER_SECTION]
+     * @return a reader positioned at the beginning of the section, or null if the content is not
+     * a snapshot with the current [VERSION]
+     */
+    fun read(snapshot: ByteBuffer, section: Int): SnapshotReader? {
+        if (snapshot.remaining() < HEADER_SIZE
+            || snapshot.getInt(snapshot.position()) != MAGIC
+            || snapshot.getInt(snapshot.position() + Int.SIZE_BYTES) != VERSION
+        ) {
+            return null
+        }
+
+        val buffer = snapshot.slice()
+        buffer.position(buffer.getInt((2 + section) * Int.SIZE_BYTES))
+        return SnapshotReader(buffer)
+    }
+
+    /**
+     * @return the snapshot containing the provided tokenizer and date time config
+     */
+    fun write(tokenizer: Tokenizer, dateTimeConfig: DateTimeConfig): ByteArray {
+        val tokenizerSection = SnapshotWriter().also { tokenizer.writeTo(it) }.toByteArray()
+        val dateTimeSection = SnapshotWriter().also { dateTimeConfig.writeTo(it) }.toByteArray()
+
+        val snapshot =
+            ByteBuffer.allocate(HEADER_SIZE + tokenizerSection.size + dateTimeSection.size)
+        snapshot.putInt(MAGIC)
+        snapshot.putInt(VERSION)
+        snapshot.putInt(HEADER_SIZE)
+        snapshot.putInt(HEADER_SIZE + tokenizerSection.size)
+        snapshot.put(tokenizerSection)
+        snapshot.put(dateTimeSection)
+        return snapshot.array()
+    }
+
+    /**
+     * Generates the snapshots of the provided config folders, loading them from their json files.
+     * Used by the `generateConfigSnapshots` Gradle task.
+     *
+     * @param args the output directory, followed by the config folders to generate snapshots for
+     * (e.g. "config/en-us"), which must be available as resources
+     */
+    @JvmStatic
+    fun main(args: Array<String>) {
+        require(args.isNotEmpty()) { "Usage: <output directory> <config folder>..." }
+        for (configFolder in args.drop(1)) {
+            val outputFile = File(File(args[0], configFolder), FILE_NAME)
+            outputFile.parentFile.mkdirs()
+            // pass no snapshot, so that the configs are always loaded from json
+            outputFile.writeBytes(
+                write(Tokenizer(configFolder, null), DateTimeConfig(configFolder, null))
+            )
+        }
+    }
+}
@@ -1,9 +1,9 @@
 package org.dicio.numbers.util
 
-import org.dicio.numbers.parser.lexer.TokenStream
+import org.dicio.numbers.parser.ParseContext
+import org.dicio.numbers.parser.lexer.Categories
 import org.dicio.numbers.unit.Duration
 import java.time.DayOfWeek
-import java.time.LocalDateTime
 import java.time.Month
 
 /**
@@ -11,36 +11,48 @@ import java.time.Month
  * other languages though). Requires the token stream to have been tokenized with the same rules
  * as in the English language.
  *
- * @param ts the token stream from which to obtain information
+ * The token stream from which to obtain information and `now` are the ones in the [ParseContext]
+ * receiver of each function, so an instance can be used with any number of contexts, even
+ * concurrently.
  */
 class DateTimeExtractorUtils(
-    private val ts: TokenStream,
-    private val now: LocalDateTime,
-    private val extractIntegerInRange: (Int, Int) -> Int?
+    private val extractIntegerInRange: ParseContext.(Int, Int) -> Int?
 ) {
-    fun ampm(): Boolean? {
-        return bcadOrAmpm("ampm")
+    fun ParseContext.ampm(): Boolean? {
+        return bcadOrAmpm(
+            Categories.AMPM_BEFORE, Categories.AMPM_AFTER, Categories.AMPM_IDENTIFIER,
+            Categories.AMPM_BEFORE_COMBINED, Categories.AMPM_AFTER_COMBINED
+        )
     }
 
-    fun bcad(): Boolean? {
-        return bcadOrAmpm("bcad")
+    fun ParseContext.bcad(): Boolean? {
+        return bcadOrAmpm(
+            Categories.BCAD_BEFORE, Categories.BCAD_AFTER, Categories.BCAD_IDENTIFIER,
+            Categories.BCAD_BEFORE_COMBINED, Categories.BCAD_AFTER_COMBINED
+        )
     }
 
     /**
-     * @param prefix either "bcad" or "ampm", i.e. the prefix to use for the following categories:
-     * _before, _after, _identifier, _before_combined, _after_combined
+     * The parameters are the IDs of either the "bcad" or the "ampm" categories with the following
+     * suffixes: _before, _after, _identifier, _before_combined, _after_combined
      * @return false if before+identifier matches, true if after+identifier matches, null otherwise
      */
-    private fun bcadOrAmpm(prefix: String): Boolean? {
+    private fun ParseContext.bcadOrAmpm(
+        before: Int,
+        after: Int,
+        identifier: Int,
+        beforeCombined: Int,
+        afterCombined: Int,
+    ): Boolean? {
         ts.movePositionForwardBy(1)
-        val result = if (ts[-1].hasCategory(prefix + "_before")) {
+        val result = if (ts[-1].hasCategory(before)) {
             false
-        } else if (ts[-1].hasCategory(prefix + "_after")) {
+        } else if (ts[-1].hasCategory(after)) {
             true
-        } else if (ts[-1].hasCategory(prefix + "_before_combined")) {
+        } else if (ts[-1].hasCategory(beforeCombined)) {
             // found am or bc in a single word -> return "before"
             return false
-        } else if (ts[-1].hasCategory(prefix + "_after_combined")) {
+        } else if (ts[-1].hasCategory(afterCombined)) {
             // found pm or ad in a single word -> return "after"
             return true
         } else {
@@ -50,9 +62,8 @@ class DateTimeExtractorUtils(
         }
 
         // we can't use ts.indexOfWithoutCategory, since some ignore words might be identifiers
-        val foundIdentifier = ts.tryOrSkipCategory(
-            "ignore", true
-        ) { if (ts[0].hasCategory(prefix + "_identifier")) true else null }
+        val foundIdentifier = ts.tryOrSkipCategory(Categories.IGNORE, true
+        ) { if (ts[0].hasCategory(identifier)) true else null }
         if (foundIdentifier != null) {
             ts.movePositionForwardBy(1)
             return result
@@ -63,8 +74,8 @@ class DateTimeExtractorUtils(
     }
 
 
-    fun monthName(): Int? {
-        if (ts[0].hasCategory("month_name")) {
+    fun ParseContext.monthName(): Int? {
+        if (ts[0].hasCategory(Categories.MONTH_NAME)) {
             ts.movePositionForwardBy(1)
             return ts[-1].number!!.integerValue().toInt()
         } else {
@@ -72,8 +83,8 @@ class DateTimeExtractorUtils(
         }
     }
 
-    fun dayOfWeek(): Int? {
-        if (ts[0].hasCategory("day_of_week")) {
+    fun ParseContext.dayOfWeek(): Int? {
+        if (ts[0].hasCategory(Categories.DAY_OF_WEEK)) {
             ts.movePositionForwardBy(1)
             return ts[-1].number!!.integerValue().toInt()
         } else {
@@ -82,15 +93,15 @@ class DateTimeExtractorUtils(
     }
 
 
-    fun second(): Int? {
+    fun ParseContext.second(): Int? {
         return minuteOrSecond("1 SECONDS")
     }
 
-    fun minute(): Int? {
+    fun ParseContext.minute(): Int? {
         return minuteOrSecond("1 MINUTES")
     }
 
-    fun minuteOrSecond(durationCategory: String): Int? {
+    fun ParseContext.minuteOrSecond(durationCategory: String): Int? {
         val number = extractIntegerInRange(0, 59) ?: return null
 
         if (ts[0].asDurationToken?.durationCategory == durationCategory) {
@@ -102,8 +113,8 @@ class DateTimeExtractorUtils(
     }
 
 
-    fun relativeToday(): Int? {
-        if (ts[0].hasCategory("today")) {
+    fun ParseContext.relativeToday(): Int? {
+        if (ts[0].hasCategory(Categories.TODAY)) {
             ts.movePositionForwardBy(1)
             return 0 // no offset
         } else {
@@ -111,7 +122,7 @@ class DateTimeExtractorUtils(
         }
     }
 
-    fun relativeDayOfWeekDuration(): Int? {
+    fun ParseContext.relativeDayOfWeekDuration(): Int? {
         return relativeIndicatorDuration({
             var number = extractIntegerInRange(1, Int.MAX_VALUE)
             if (number == null) {
@@ -119,9 +130,9 @@ class DateTimeExtractorUtils(
                 number = 1
             } else {
                 // found a number, e.g. fra due
-                ts.movePositionForwardBy(ts.indexOfWithoutCategory("date_time_ignore", 0))
+                ts.movePositionForwardBy(ts.indexOfWithoutCategory(Categories.DATE_TIME_IGNORE, 0))
             }
-            if (ts[0].hasCategory("day_of_week")) {
+            if (ts[0].hasCategory(Categories.DAY_OF_WEEK)) {
                 // found a day of week, e.g. giovedì
                 val daysDifference = ts[0].number!!.integerValue().toInt() - now.dayOfWeek.ordinal
                 val daysOffset =
@@ -141,9 +152,9 @@ class DateTimeExtractorUtils(
         })
     }
 
-    fun relativeMonthDuration(): Duration? {
+    fun ParseContext.relativeMonthDuration(): Duration? {
         val months = relativeIndicatorDuration({
-            if (ts[0].hasCategory("month_name")) {
+            if (ts[0].hasCategory(Categories.MONTH_NAME)) {
                 val monthsDifference = ts[0].number!!.integerValue() - now.month.value
                 val monthsOffset =
                     ((monthsDifference + MONTHS_IN_YEAR) % MONTHS_IN_YEAR // add a year if the two months coincide
@@ -162,17 +173,17 @@ class DateTimeExtractorUtils(
         return if (months == null) null else Duration(0, 0, months, 0)
     }
 
-    fun <T> relativeIndicatorDuration(
+    fun <T> ParseContext.relativeIndicatorDuration(
         durationExtractor: () -> T?,
         oppositeDuration: (T) -> T
     ): T? {
         val originalTsPosition = ts.position
 
         var relativeIndicator = 0 // 0 = not found, otherwise the sign, +1 or -1
-        if (ts[0].hasCategory("pre_relative_indicator")) {
+        if (ts[0].hasCategory(Categories.PRE_RELATIVE_INDICATOR)) {
             // there is a relative indicator before, e.g. fra
-            relativeIndicator = if (ts[0].hasCategory("negative")) -1 else 1
-            ts.movePositionForwardBy(ts.indexOfWithoutCategory("date_time_ignore", 1))
+            relativeIndicator = if (ts[0].hasCategory(Categories.NEGATIVE)) -1 else 1
+            ts.movePositionForwardBy(ts.indexOfWithoutCategory(Categories.DATE_TIME_IGNORE, 1))
         }
 
         val result: T? = durationExtractor()
@@ -182,12 +193,12 @@ class DateTimeExtractorUtils(
             return null
         }
 
-        val nextNotIgnore = ts.indexOfWithoutCategory("date_time_ignore", 0)
+        val nextNotIgnore = ts.indexOfWithoutCategory(Categories.DATE_TIME_IGNORE, 0)
         if (relativeIndicator == 0
-            && ts[nextNotIgnore].hasCategory("post_relative_indicator")
+            && ts[nextNotIgnore].hasCategory(Categories.POST_RELATIVE_INDICATOR)
         ) {
             // there is a relative indicator after, e.g. due settimane fa
-            relativeIndicator = if (ts[nextNotIgnore].hasCategory("negative")) -1 else 1
+            relativeIndicator = if (ts[nextNotIgnore].hasCategory(Categories.NEGATIVE)) -1 else 1
             ts.movePositionForwardBy(nextNotIgnore + 1)
         }
 
@@ -1,7 +1,10 @@
 package org.dicio.numbers.util
 
-import org.dicio.numbers.parser.lexer.TokenStream
+import org.dicio.numbers.parser.ParseContext
+import org.dicio.numbers.parser.lexer.Categories
+import org.dicio.numbers.parser.lexer.MemoRule
 import org.dicio.numbers.unit.Duration
+import org.dicio.numbers.unit.DurationAccumulator
 import org.dicio.numbers.unit.Number
 
 /**
@@ -9,26 +12,37 @@ import org.dicio.numbers.unit.Number
  * other languages though). Requires the token stream to have been tokenized with the same rules
  * as in the English language.
  *
- * @param ts the token stream from which to obtain information
+ * The token stream from which to obtain information is the one in the [ParseContext] receiver of
+ * each function, so an instance can be used with any number of contexts, even concurrently.
+ *
  * @param extractOneNumberNoOrdinal tries to extract a non-ordinal number at the current token
  * stream position. Will be called multiple times. Should not
  * prefer ordinal numbers (i.e. preferOrdinal should be false).
  */
 class DurationExtractorUtils(
-    private val ts: TokenStream,
-    private val extractOneNumberNoOrdinal: () -> Number?
+    private val extractOneNumberNoOrdinal: ParseContext.() -> Number?
 ) {
+    // the result of duration() depends on extractOneNumberNoOrdinal, so each instance needs its own
+    // rule to be used with TokenStream.memoize
+    private val durationRule = MemoRule("duration")
+
     /**
      * Extract a duration at the current position (i.e. no words will be skipped, not even ignorable
-     * words) in the token stream provided in the constructor
+     * words) in the token stream of the context
      * @return the found duration, or null if no duration was found
      */
-    fun duration(): Duration? {
+    fun ParseContext.duration(): Duration? {
+        return ts.memoize(durationRule) { durationNotMemoized() }
+    }
+
+    private fun ParseContext.durationNotMemoized(): Duration? {
         val originalPosition = ts.position
         val firstNumber = extractOneNumberNoOrdinal()
-        var result = durationAfterNullableNumber(firstNumber)
+        // durationNotMemoized() is never reentrant, so the context can provide a single accumulator
+        // to sum the duration groups in place and allocate a Duration only for the final result
+        val accumulator = durationAccumulator.reset()
 
-        if (result == null) {
+        if (!addDurationAfterNullableNumber(accumulator, firstNumber)) {
             // duration not found at current position
             ts.position = originalPosition
             return null
@@ -38,51 +52,61 @@ class DurationExtractorUtils(
         var positionLastDurationFound = ts.position
         while (!ts.finished()) {
             val number = extractOneNumberNoOrdinal()
-            val duration = durationAfterNullableNumber(number)
 
-            if (number == null && duration == null && ts[0].hasCategory("ignore")) {
+            if (addDurationAfterNullableNumber(accumulator, number)) {
+                // found another duration group, already added, continue
+                positionLastDurationFound = ts.position
+            } else if (number == null && ts[0].hasCategory(Categories.IGNORE)) {
                 ts.movePositionForwardBy(1) // skip this ignorable word and continue
-            } else if (duration == null) {
-                break
             } else {
-                positionLastDurationFound = ts.position
-                result = result!!.plus(duration) // found another duration group, add and continue
+                break
             }
         }
 
         ts.position = positionLastDurationFound
-        return result
+        return accumulator.toDuration()
     }
 
-    private fun durationAfterNullableNumber(number: Number?): Duration? {
+    /**
+     * Adds the duration group made of [number] (if not null) and of the following duration token
+     * to [accumulator], moving the token stream forward past the group.
+     * @return whether a duration group was found, otherwise the accumulator and the token stream
+     * position are left untouched
+     */
+    private fun ParseContext.addDurationAfterNullableNumber(
+        accumulator: DurationAccumulator,
+        number: Number?
+    ): Boolean {
         if (number == null) {
-            val durationToken = ts[0].asDurationToken ?: return null
+            val durationToken = ts[0].asDurationToken ?: return false
             if (durationToken.isRestrictedAfterNumber) {
                 // found duration token that requires a number before it, but there is not one,
                 // e.g. s, ms, h
-                return null
+                return false
             } else {
                 // found valid duration token at current position, without a number before,
                 // e.g. a second (since "a" is not considered a number)
                 ts.movePositionForwardBy(1)
-                return durationToken.durationMultiplier
+                accumulator.plus(durationToken.durationMultiplier)
+                return true
             }
         } else {
-            var nextNotIgnore = ts.indexOfWithoutCategory("ignore", 0)
-            if (ts[nextNotIgnore].hasCategory("duration_separator")) {
+            var nextNotIgnore = ts.indexOfWithoutCategory(Categories.IGNORE, 0)
+            if (ts[nextNotIgnore].hasCategory(Categories.DURATION_SEPARATOR)) {
                 // found a duration separator (like "of") after the number, e.g. a couple of hours
-                nextNotIgnore = ts.indexOfWithoutCategory("ignore", nextNotIgnore + 1)
+                nextNotIgnore = ts.indexOfWithoutCategory(Categories.IGNORE, nextNotIgnore + 1)
             }
 
             val durationToken = ts[nextNotIgnore].asDurationToken ?:
                 // the number that was found was not followed by a duration multiplier,
                 // e.g. fifteen people, a couple of houses
-                return null
+                return false
 
             // found a number followed by a duration multiplier,
             // e.g. two seconds, a couple of hours
             ts.movePositionForwardBy(nextNotIgnore + 1)
-            return durationToken.durationMultiplier.multiply(number)
+            accumulator.plusProduct(durationToken.durationMultiplier, number)
+            return true
         }
     }
 }
@@ -0,0 +1,66 @@
+package org.dicio.numbers.util
+
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * A thread-safe map with at most [maxSize] entries, which evicts the least recently used entry
+ * when a new one is added while full. It also counts how many lookups found a value ([hitCount])
+ * and how many did not ([missCount]), so that users can check whether the cache is worth it.
+ *
+ * @param maxSize the maximum number of entries, must be positive
+ */
+class LruCache<K, V>(val maxSize: Int) {
+    private val map = object : LinkedHashMap<K, V>(16, 0.75f, true) {
+        override fun removeEldestEntry(eldest: MutableMap.MutableEntry<K, V>?): Boolean {
+            return size > maxSize
+        }
+    }
+    private val hits = AtomicLong()
+    private val misses = AtomicLong()
+
+    init {
+        require(maxSize > 0) { "Invalid cache size: $maxSize" }
+    }
+
+    val hitCount: Long
+        get() = hits.get()
+
+    val missCount: Long
+        get() = misses.get()
+
+    val size: Int
+        get() = synchronized(map) { map.size }
+
+    /**
+     * @return the value for [key], marking it as the most recently used, or null if there is none
+     */
+    operator fun get(key: K): V? {
+        val value = synchronized(map) { map[key] }
+        (if (value == null) misses else hits).incrementAndGet()
+        return value
+    }
+
+    /**
+     * Stores [value] for [key], possibly evicting the least recently used entry.
+     */
+    fun put(key: K, value: V) {
+        synchronized(map) {
+            map[key] = value
+        }
+    }
+
+    /**
+     * @return the value for [key] if there is one, otherwise the value computed by [compute], which
+     * is also stored. [compute] is run outside of any lock, so it may run more than once if
+     * multiple threads request the same missing key at the same time.
+     */
+    fun getOrPut(key: K, compute: () -> V): V {
+        return get(key) ?: compute().also { put(key, it) }
+    }
+
+    fun clear() {
+        synchronized(map) {
+            map.clear()
+        }
+    }
+}
@@ -1,10 +1,19 @@
 package org.dicio.numbers.util
 
+import org.dicio.numbers.parser.lexer.Categories
+import org.dicio.numbers.parser.lexer.MemoRule
 import org.dicio.numbers.parser.lexer.Token
 import org.dicio.numbers.parser.lexer.TokenStream
+import org.dicio.numbers.parser.lexer.Tokenizer
 import org.dicio.numbers.unit.Number
+import org.dicio.numbers.unit.NumberAccumulator
 
 object NumberExtractorUtils {
+    // rules whose results can be reused by TokenStream.memoize; numberLessThan1000 only depends on
+    // the token stream, so the same rules can be shared by all token streams
+    private val NUMBER_LESS_THAN_1000_RULE = MemoRule("numberLessThan1000")
+    private val NUMBER_LESS_THAN_1000_ORDINAL_RULE = MemoRule("numberLessThan1000(ordinal)")
+
     @JvmStatic
     fun extractOneIntegerInRange(
         ts: TokenStream,
@@ -29,10 +38,10 @@ object NumberExtractorUtils {
         ts: TokenStream,
         numberSupplier: () -> Number?
     ): Number? {
-        if (ts[0].hasCategory("sign")) {
+        if (ts[0].hasCategory(Categories.SIGN)) {
             // parse sign from e.g. "minus twelve"
 
-            val negative = ts[0].hasCategory("negative")
+            val negative = ts[0].hasCategory(Categories.NEGATIVE)
             ts.movePositionForwardBy(1)
 
             val n = numberSupplier()
@@ -46,57 +55,88 @@ object NumberExtractorUtils {
         return numberSupplier()
     }
 
-    fun numberBigRaw(ts: TokenStream, allowOrdinal: Boolean): Number? {
+    /**
+     * @param exact whether to keep the exact value of raw numbers too big for a [Long], see
+     * [org.dicio.numbers.parser.param.ExtractNumberParams.exact]
+     */
+    @JvmOverloads
+    fun numberBigRaw(ts: TokenStream, allowOrdinal: Boolean, exact: Boolean = false): Number? {
         // try to parse big raw numbers (bigger than 999), e.g. 1207, 57378th
         if (isRawNumber(ts[0])) {
-            val ordinal = ts[1].hasCategory("ordinal_suffix")
+            val ordinal = ts[1].hasCategory(Categories.ORDINAL_SUFFIX)
             if (!allowOrdinal && ordinal) {
                 return null // do not allow ordinal if allowOrdinal is false
             } else {
                 // a big number in raw form, e.g. 1250067, 5839th
                 ts.movePositionForwardBy(if (ordinal) 2 else 1)
-                return ts[if (ordinal) -2 else -1].number!!.withOrdinal(ordinal)
+                val token = ts[if (ordinal) -2 else -1]
+                val number = token.number!!
+                if (exact && !number.isExact) {
+                    // the tokenizer parsed the digits into a Double, since they overflow a Long
+                    Tokenizer.parseRawNumberExact(token.value)?.let {
+                        return Number(it, ordinal)
+                    }
+                }
+                return number.withOrdinal(ordinal)
             }
         } else {
             return null // nothing was found
         }
     }
 
+    /**
+     * @param exact whether to keep the exact value of the sum of the groups even if it overflows a
+     * [Long], see [org.dicio.numbers.parser.param.ExtractNumberParams.exact]
+     */
+    @JvmOverloads
     fun numberMadeOfGroups(
         ts: TokenStream,
+        exact: Boolean = false,
         getNumberGroup: (ts: TokenStream, lastMultiplier: Double) -> Number?
     ): Number? {
         // read as many groups as possible (e.g. 123 billion + 45 million + 6 thousand + 78)
-        var groups: Number? = null
+        var firstGroup: Number? = null
+        var groups: NumberAccumulator? = null // only needed if there is more than one group
         var lastMultiplier = Double.MAX_VALUE
         while (true) {
-            val group = ts.tryOrSkipCategory("ignore", groups != null) {
+            val group = ts.tryOrSkipCategory(Categories.IGNORE, firstGroup != null) {
                 getNumberGroup(ts, lastMultiplier)
             }
 
-            groups = if (group == null) {
+            if (group == null) {
                 break // either nothing else was found or next multiplier is bigger than last one
-            } else if (groups == null) {
-                group // first group
+            } else if (firstGroup == null) {
+                firstGroup = group
             } else {
+                if (groups == null) {
+                    groups = NumberAccumulator(exact).set(firstGroup)
+                }
                 groups.plus(group) // e.g. seven hundred thousand + thirteen
             }
 
             if (group.isOrdinal) {
-                groups = groups.withOrdinal(true)
+                if (groups != null) {
+                    groups.isOrdinal = true
+                }
                 break // ordinal numbers terminate at the ordinal group
             }
             lastMultiplier =
                 if (group.isDecimal) group.decimalValue() else group.integerValue().toDouble()
         }
-        return groups
+        return groups?.toNumber() ?: firstGroup
     }
 
+    /**
+     * @param exact whether to keep the exact value of the group even if it overflows a [Long], see
+     * [org.dicio.numbers.parser.param.ExtractNumberParams.exact]
+     */
     @JvmStatic
+    @JvmOverloads
     fun numberGroupShortScale(
         ts: TokenStream,
         allowOrdinal: Boolean,
-        lastMultiplier: Double
+        lastMultiplier: Double,
+        exact: Boolean = false
     ): Number? {
         if (lastMultiplier < 1000) {
             return null // prevent two numbers smaller than 1000 to be one after another
@@ -112,9 +152,9 @@ object NumberExtractorUtils {
         val nextNotIgnore = if (groupValue == null)
             0 // do not skip ahead if nothing was matched so far
         else
-            ts.indexOfWithoutCategory("ignore", 0)
-        val ordinal = ts[nextNotIgnore].hasCategory("ordinal")
-        if (ts[nextNotIgnore].hasCategory("multiplier") && (allowOrdinal || !ordinal)) {
+            ts.indexOfWithoutCategory(Categories.IGNORE, 0)
+        val ordinal = ts[nextNotIgnore].hasCategory(Categories.ORDINAL)
+        if (ts[nextNotIgnore].hasCategory(Categories.MULTIPLIER) && (allowOrdinal || !ordinal)) {
             // prevent ordinal multiplier if allowOrdinal is false
             val multiplier = ts[nextNotIgnore].number
             if (multiplier!!.lessThan(lastMultiplier)) {
@@ -124,7 +164,7 @@ object NumberExtractorUtils {
                     multiplier.withOrdinal(ordinal)
                 } else {
                     // number smaller than 1000 followed by a multiplier, e.g. thirteen billion
-                    multiplier.multiply(groupValue).withOrdinal(ordinal)
+                    multiply(multiplier, groupValue, exact).withOrdinal(ordinal)
                 }
             }
         } else {
@@ -140,6 +180,14 @@ object NumberExtractorUtils {
 
     @JvmStatic
     fun numberLessThan1000(ts: TokenStream, allowOrdinal: Boolean): Number? {
+        return ts.memoize(
+            if (allowOrdinal) NUMBER_LESS_THAN_1000_ORDINAL_RULE else NUMBER_LESS_THAN_1000_RULE
+        ) {
+            numberLessThan1000NotMemoized(ts, allowOrdinal)
+        }
+    }
+
+    private fun numberLessThan1000NotMemoized(ts: TokenStream, allowOrdinal: Boolean): Number? {
         var hundred: Long = -1
         var ten: Long = -1
         var digit: Long = -1
@@ -150,15 +198,15 @@ object NumberExtractorUtils {
                 firstIteration = false
                 0 // do not skip ahead if nothing was matched so far
             } else {
-                ts.indexOfWithoutCategory("ignore", 0)
+                ts.indexOfWithoutCategory(Categories.IGNORE, 0)
             }
 
-            if (!allowOrdinal && ts[nextNotIgnore].hasCategory("ordinal")) {
+            if (!allowOrdinal && ts[nextNotIgnore].hasCategory(Categories.ORDINAL)) {
                 // prevent ordinal numbers if allowOrdinal is false
                 break
             }
 
-            if (ts[nextNotIgnore].hasCategory("digit")) {
+            if (ts[nextNotIgnore].hasCategory(Categories.DIGIT)) {
                 if (digit < 0 && (!ts[nextNotIgnore].isNumberEqualTo(0)
                             || (ten < 0 && hundred < 0))
                 ) {
@@ -167,20 +215,20 @@ object NumberExtractorUtils {
                 } else {
                     break // unexpected double digit
                 }
-            } else if (ts[nextNotIgnore].hasCategory("teen")) {
+            } else if (ts[nextNotIgnore].hasCategory(Categories.TEEN)) {
                 if (ten < 0 && digit < 0) {
                     ten = ts[nextNotIgnore].number!!.integerValue()
                     digit = 0 // ten contains also the digit, but set to 0 to prevent double digit
                 } else {
                     break // unexpected double ten or ten after digit
                 }
-            } else if (ts[nextNotIgnore].hasCategory("tens")) {
+            } else if (ts[nextNotIgnore].hasCategory(Categories.TENS)) {
                 if (ten < 0 && digit < 0) {
                     ten = ts[nextNotIgnore].number!!.integerValue()
                 } else {
                     break // unexpected double ten or ten after digit
                 }
-            } else if (ts[nextNotIgnore].hasCategory("hundred")) {
+            } else if (ts[nextNotIgnore].hasCategory(Categories.HUNDRED)) {
                 if (hundred < 0 && ten < 0) {
                     if (digit < 0) {
                         hundred = 100 // e.g. a hundred
@@ -202,7 +250,7 @@ object NumberExtractorUtils {
                     break
                 }
 
-                if (!allowOrdinal && ts[nextNotIgnore + 1].hasCategory("ordinal_suffix")) {
+                if (!allowOrdinal && ts[nextNotIgnore + 1].hasCategory(Categories.ORDINAL_SUFFIX)) {
                     break // do not allow ordinal if allowOrdinal is false
                 }
 
@@ -234,7 +282,7 @@ object NumberExtractorUtils {
                 }
 
                 // this point is reached only if the raw number was accepted
-                ordinal = ts[nextNotIgnore + 1].hasCategory("ordinal_suffix")
+                ordinal = ts[nextNotIgnore + 1].hasCategory(Categories.ORDINAL_SUFFIX)
                 if (ordinal) {
                     ts.movePositionForwardBy(nextNotIgnore + 2)
                     break // raw number followed by st/nd/rd/th, nothing else allowed, e.g. 407th
@@ -244,7 +292,7 @@ object NumberExtractorUtils {
             }
 
             ts.movePositionForwardBy(nextNotIgnore + 1)
-            if (ts[-1].hasCategory("ordinal")) {
+            if (ts[-1].hasCategory(Categories.ORDINAL)) {
                 // ordinal number encountered, nothing else can follow, e.g. two hundredth
                 ordinal = true
                 break
@@ -261,7 +309,20 @@ object NumberExtractorUtils {
         }
     }
 
+    /**
+     * @return [number] multiplied by [multiplier], keeping the exact value of the product even if
+     * it overflows a [Long] only if [exact] (see [NumberAccumulator]), so that the default path does
+     * not allocate anything more than [Number.multiply]
+     */
+    fun multiply(number: Number, multiplier: Number, exact: Boolean): Number {
+        return if (exact) {
+            NumberAccumulator(true).set(number).multiply(multiplier).toNumber()
+        } else {
+            number.multiply(multiplier)
+        }
+    }
+
     fun isRawNumber(token: Token): Boolean {
-        return token.hasCategory("number") && token.hasCategory("raw")
+        return token.hasCategory(Categories.NUMBER) && token.hasCategory(Categories.RAW)
     }
 }
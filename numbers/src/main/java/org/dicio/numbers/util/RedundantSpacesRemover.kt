@@ -0,0 +1,64 @@
+package org.dicio.numbers.util
+
+/**
+ * An [Appendable] that forwards everything to [out] except for leading, trailing and duplicate
+ * spaces, so that the text that reaches [out] is the same that [Utils.removeRedundantSpaces] would
+ * have returned for the whole text appended to this, but without building the whole text first.
+ * Trailing whitespace is only known to be trailing at the end, so it is simply never forwarded.
+ */
+internal class RedundantSpacesRemover(private val out: Appendable) : Appendable {
+    private var started = false
+    // whitespace seen after the last non-whitespace character, forwarded only once another
+    // non-whitespace character arrives
+    private val pending = StringBuilder()
+
+    override fun append(c: Char): Appendable {
+        if (c <= ' ') {
+            appendWhitespace(c)
+        } else {
+            flushPending()
+            out.append(c)
+        }
+        return this
+    }
+
+    override fun append(csq: CharSequence?): Appendable {
+        val s = csq ?: "null"
+        return append(s, 0, s.length)
+    }
+
+    override fun append(csq: CharSequence?, start: Int, end: Int): Appendable {
+        val s = csq ?: "null"
+        var i = start
+        while (i < end) {
+            if (s[i] <= ' ') {
+                appendWhitespace(s[i])
+                ++i
+            } else {
+                // forward whole words at once
+                var wordEnd = i + 1
+                while (wordEnd < end && s[wordEnd] > ' ') {
+                    ++wordEnd
+                }
+                flushPending()
+                out.append(s, i, wordEnd)
+                i = wordEnd
+            }
+        }
+        return this
+    }
+
+    private fun appendWhitespace(c: Char) {
+        if (started && (c != ' ' || pending.isEmpty() || pending[pending.length - 1] != ' ')) {
+            pending.append(c)
+        }
+    }
+
+    private fun flushPending() {
+        if (pending.isNotEmpty()) {
+            out.append(pending)
+            pending.setLength(0)
+        }
+        started = true
+    }
+}
@@ -0,0 +1,66 @@
+package org.dicio.numbers.util
+
+import java.nio.ByteBuffer
+import java.nio.charset.StandardCharsets
+
+/**
+ * Reads back the primitive values written by a [SnapshotWriter], directly from a [ByteBuffer]
+ * holding a whole [ConfigSnapshot].
+ */
+internal class SnapshotReader(private val buffer: ByteBuffer) {
+
+    fun readBoolean(): Boolean {
+        return buffer.get() != 0.toByte()
+    }
+
+    fun readInt(): Int {
+        return buffer.getInt()
+    }
+
+    fun readLong(): Long {
+        return buffer.getLong()
+    }
+
+    fun readDouble(): Double {
+        return buffer.getDouble()
+    }
+
+    fun readString(): String {
+        val length = buffer.getInt()
+        val result = if (buffer.hasArray()) {
+            String(buffer.array(), buffer.arrayOffset() + buffer.position(), length,
+                StandardCharsets.UTF_8)
+        } else {
+            val bytes = ByteArray(length)
+            buffer.duplicate().get(bytes)
+            String(bytes, StandardCharsets.UTF_8)
+        }
+        buffer.position(buffer.position() + length)
+        return result
+    }
+
+    fun readStringArray(): Array<String> {
+        return Array(buffer.getInt()) { readString() }
+    }
+
+    fun readIntArray(): IntArray {
+        val values = IntArray(buffer.getInt())
+        buffer.asIntBuffer().get(values)
+        buffer.position(buffer.position() + values.size * Int.SIZE_BYTES)
+        return values
+    }
+
+    fun readLongArray(): LongArray {
+        val values = LongArray(buffer.getInt())
+        buffer.asLongBuffer().get(values)
+        buffer.position(buffer.position() + values.size * Long.SIZE_BYTES)
+        return values
+    }
+
+    fun readCharArray(): CharArray {
+        val values = CharArray(buffer.getInt())
+        buffer.asCharBuffer().get(values)
+        buffer.position(buffer.position() + values.size * Char.SIZE_BYTES)
+        return values
+    }
+}
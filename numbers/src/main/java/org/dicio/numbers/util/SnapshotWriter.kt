@@ -0,0 +1,61 @@
+package org.dicio.numbers.util
+
+import java.io.ByteArrayOutputStream
+import java.io.DataOutputStream
+import java.nio.charset.StandardCharsets
+
+/**
+ * Writes the primitive values a [ConfigSnapshot] is made of, in the same order in which a
+ * [SnapshotReader] will read them back.
+ */
+internal class SnapshotWriter {
+    private val bytes = ByteArrayOutputStream()
+    private val out = DataOutputStream(bytes)
+
+    fun writeBoolean(value: Boolean) {
+        out.writeBoolean(value)
+    }
+
+    fun writeInt(value: Int) {
+        out.writeInt(value)
+    }
+
+    fun writeLong(value: Long) {
+        out.writeLong(value)
+    }
+
+    fun writeDouble(value: Double) {
+        out.writeDouble(value)
+    }
+
+    fun writeString(value: String) {
+        val encoded = value.toByteArray(StandardCharsets.UTF_8)
+        out.writeInt(encoded.size)
+        out.write(encoded)
+    }
+
+    fun writeStringArray(values: Array<String>) {
+        out.writeInt(values.size)
+        values.forEach(::writeString)
+    }
+
+    fun writeIntArray(values: IntArray) {
+        out.writeInt(values.size)
+        values.forEach(out::writeInt)
+    }
+
+    fun writeLongArray(values: LongArray) {
+        out.writeInt(values.size)
+        values.forEach(out::writeLong)
+    }
+
+    fun writeCharArray(values: CharArray) {
+        out.writeInt(values.size)
+        values.forEach { out.writeChar(it.code) }
+    }
+
+    fun toByteArray(): ByteArray {
+        out.flush()
+        return bytes.toByteArray()
+    }
+}
@@ -104,6 +104,27 @@ object Utils {
         return result
     }
 
+    /**
+     * @return whether `a + b` does not fit in a [Long], like [Math.addExact] would report, but
+     * without throwing exceptions
+     */
+    @JvmStatic
+    fun additionOverflows(a: Long, b: Long): Boolean {
+        val result = a + b
+        // overflow iff both operands have the same sign and the result has a different one
+        return ((a xor result) and (b xor result)) < 0
+    }
+
+    /**
+     * @return whether `a * b` does not fit in a [Long], like [Math.multiplyExact] would report,
+     * but without throwing exceptions
+     */
+    @JvmStatic
+    fun multiplicationOverflows(a: Long, b: Long): Boolean {
+        // the product fits iff the high 64 bits are just the sign extension of the low 64 bits
+        return Math.multiplyHigh(a, b) != ((a * b) shr 63)
+    }
+
     /**
      * @param s the string to clean
      * @return the original string but without leading, trailing or duplicate spaces
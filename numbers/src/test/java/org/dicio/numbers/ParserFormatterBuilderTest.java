@@ -1,13 +1,23 @@
 package org.dicio.numbers;
 
+import org.dicio.numbers.formatter.datetime.DateTimeConfig;
+import org.dicio.numbers.parser.lexer.Tokenizer;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.dicio.numbers.ParserFormatterBuilder.ParserFormatterPair;
 import static org.dicio.numbers.ParserFormatterBuilder.parserFormatterPairForLocale;
+import static org.dicio.numbers.test.TestUtils.n;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 
 public class ParserFormatterBuilderTest {
 
@@ -30,6 +40,43 @@ public class ParserFormatterBuilderTest {
                 npf.extractNumber("hello first twenty four three point two").shortScale(true).preferOrdinal(false).integerOnly(false).parseFirst());
     }
 
+    @Test
+    public void sharedInstances() {
+        assertSame(ParserFormatter.shared(Locale.ENGLISH), ParserFormatter.shared(Locale.US));
+        assertSame(ParserFormatter.shared(Locale.ITALIAN), ParserFormatter.shared(Locale.ITALY));
+        assertNotSame(ParserFormatter.shared(Locale.ENGLISH), ParserFormatter.shared(Locale.ITALIAN));
+        assertSame(Tokenizer.shared("config/en-us"), Tokenizer.shared("config/en-us"));
+        assertSame(DateTimeConfig.shared("config/it-it"), DateTimeConfig.shared("config/it-it"));
+    }
+
+    @Test
+    public void sharedAcrossThreads() throws Exception {
+        final ParserFormatter npf = ParserFormatter.shared(Locale.ENGLISH);
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<Object[]>> futures = new ArrayList<>();
+            for (int i = 0; i < 16; ++i) {
+                final int n = i;
+                futures.add(executor.submit(() -> new Object[] {
+                        npf.pronounceNumber(n * 1000 + 7).get(),
+                        npf.extractNumber("I have " + (n * 1000 + 7) + " apples").parseFirst()
+                }));
+            }
+            for (int i = 0; i < 16; ++i) {
+                final Object[] result = futures.get(i).get();
+                assertEquals(npf.pronounceNumber(i * 1000 + 7).get(), result[0]);
+                assertEquals(n(i * 1000 + 7), result[1]);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void sharedUnsupported() {
+        ParserFormatter.shared(Locale.ROOT);
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void parserFormatterPairForLocaleUnsupported() {
         parserFormatterPairForLocale(Locale.ROOT);
@@ -0,0 +1,168 @@
+package org.dicio.numbers.formatter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+
+import org.dicio.numbers.lang.en.EnglishFormatter;
+import org.dicio.numbers.lang.it.ItalianFormatter;
+import org.dicio.numbers.unit.Duration;
+import org.dicio.numbers.unit.MixedFraction;
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.Supplier;
+
+public class FormatterTest {
+
+    private static Formatter notCached(final Supplier<Formatter> constructor) {
+        final Formatter formatter = constructor.get();
+        formatter.setPrecomputedPronunciationsLimit(0);
+        formatter.setPronounceNumberCacheSize(0);
+        return formatter;
+    }
+
+    private static void assertSamePronunciations(final Supplier<Formatter> constructor) {
+        final Formatter cached = constructor.get();
+        final Formatter expected = notCached(constructor);
+
+        for (int i = 0; i < Formatter.DEFAULT_PRECOMPUTED_PRONUNCIATIONS_LIMIT + 10; ++i) {
+            for (final boolean ordinal : new boolean[] {false, true}) {
+                assertEquals(expected.pronounceNumber(i, 0, true, false, ordinal),
+                        cached.pronounceNumber(i, 0, true, false, ordinal));
+                assertEquals(expected.pronounceNumber(i, 2, false, false, ordinal),
+                        cached.pronounceNumber(i, 2, false, false, ordinal));
+            }
+        }
+
+        final Random random = new Random(42);
+        for (int i = 0; i < 1000; ++i) {
+            final double number = (random.nextDouble() - 0.3) * Math.pow(10, random.nextInt(25));
+            final int places = random.nextInt(4);
+            final boolean shortScale = random.nextBoolean();
+            final boolean scientific = random.nextInt(5) == 0;
+            final boolean ordinal = random.nextBoolean();
+            for (int repetition = 0; repetition < 2; ++repetition) {
+                assertEquals(
+                        expected.pronounceNumber(number, places, shortScale, scientific, ordinal),
+                        cached.pronounceNumber(number, places, shortScale, scientific, ordinal));
+            }
+        }
+
+        assertEquals(expected.pronounceNumber(-0.0, 0, true, false, false),
+                cached.pronounceNumber(-0.0, 0, true, false, false));
+        assertEquals(expected.pronounceNumber(-7, 0, true, false, true),
+                cached.pronounceNumber(-7, 0, true, false, true));
+    }
+
+    @Test
+    public void testSamePronunciationsEnglish() {
+        assertSamePronunciations(EnglishFormatter::new);
+    }
+
+    @Test
+    public void testSamePronunciationsItalian() {
+        assertSamePronunciations(ItalianFormatter::new);
+    }
+
+    @Test
+    public void testPrecomputePronunciations() {
+        final Formatter formatter = new ItalianFormatter();
+        formatter.precomputePronunciations();
+        assertEquals("mille, nove cento ottanta quattro",
+                formatter.pronounceNumber(1984, 2, true, false, false));
+        // the table computed in advance is shared with the other formatters of the language
+        assertSame(formatter.pronounceNumber(1984, 2, true, false, false),
+                new ItalianFormatter().pronounceNumber(1984, 2, true, false, false));
+    }
+
+    @Test
+    public void testCaches() {
+        final Formatter formatter = new EnglishFormatter();
+        // precomputed, and shared by formatters of the same language
+        assertSame(formatter.pronounceNumber(1984, 2, true, false, false),
+                new EnglishFormatter().pronounceNumber(1984, 2, true, false, false));
+        // cached
+        assertSame(formatter.pronounceNumber(123456.5, 2, true, false, false),
+                formatter.pronounceNumber(123456.5, 2, true, false, false));
+
+        formatter.setPrecomputedPronunciationsLimit(10);
+        assertEquals(10, formatter.getPrecomputedPronunciationsLimit());
+        assertEquals("nineteen eighty four", formatter.pronounceNumber(1984, 2, true, false, false));
+        assertEquals("ninth", formatter.pronounceNumber(9, 2, true, false, true));
+        // the pronunciations precomputed for the higher limit are reused
+        assertSame(formatter.pronounceNumber(9, 2, true, false, true),
+                new EnglishFormatter().pronounceNumber(9, 2, true, false, true));
+
+        formatter.setPronounceNumberCacheSize(0);
+        assertEquals(0, formatter.getPronounceNumberCacheSize());
+        assertEquals("one hundred and twenty three thousand, four hundred and fifty six point five",
+                formatter.pronounceNumber(123456.5, 2, true, false, false));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> formatter.setPrecomputedPronunciationsLimit(-1));
+        final int maxLimit = Formatter.MAX_PRECOMPUTED_PRONUNCIATIONS_LIMIT;
+        assertThrows(IllegalArgumentException.class,
+                () -> formatter.setPrecomputedPronunciationsLimit(maxLimit + 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> formatter.setPrecomputedPronunciationsLimit(1 << 30));
+        formatter.setPrecomputedPronunciationsLimit(maxLimit);
+        assertEquals(maxLimit, formatter.getPrecomputedPronunciationsLimit());
+        assertThrows(IllegalArgumentException.class,
+                () -> formatter.setPronounceNumberCacheSize(-1));
+    }
+
+    private static void assertAppendsSame(final Formatter formatter) {
+        final LocalDate now = LocalDate.of(2021, 4, 28);
+        final StringBuilder expected = new StringBuilder("prefix ");
+        final StringBuilder actual = new StringBuilder("prefix ");
+        final StringBuilder expectedWritten = new StringBuilder("prefix ");
+        final StringWriter writer = new StringWriter();
+        writer.append("prefix ");
+
+        for (final LocalDate date : new LocalDate[] {LocalDate.of(-800, 1, 1),
+                LocalDate.of(1984, 2, 29), LocalDate.of(2021, 4, 27), LocalDate.of(2021, 4, 30),
+                LocalDate.of(2021, 5, 2), LocalDate.of(2105, 12, 31)}) {
+            expected.append(formatter.niceYear(date));
+            formatter.niceYear(date, actual);
+            expected.append(formatter.niceDate(date, null)).append(formatter.niceDate(date, now));
+            formatter.niceDate(date, null, actual);
+            formatter.niceDate(date, now, actual);
+            expected.append(formatter.niceDateTime(date, now, LocalTime.of(17, 3), false, true));
+            formatter.niceDateTime(date, now, LocalTime.of(17, 3), false, true, actual);
+        }
+
+        for (final boolean speech : new boolean[] {true, false}) {
+            final Duration duration = new Duration(java.time.Duration.ofSeconds(93784));
+            expected.append(formatter.niceDuration(duration, speech));
+            formatter.niceDuration(duration, speech, actual);
+            expected.append(formatter.niceTime(LocalTime.of(0, 45), speech, true, false));
+            formatter.niceTime(LocalTime.of(0, 45), speech, true, false, actual);
+            final MixedFraction fraction = MixedFraction.Companion.of(-3.75, Arrays.asList(2, 4, 8));
+            expected.append(formatter.niceNumber(fraction, speech));
+            formatter.niceNumber(fraction, speech, actual);
+            expected.append(formatter.pronounceNumber(1234567.891, 2, speech, false, speech));
+            formatter.pronounceNumber(1234567.891, 2, speech, false, speech, actual);
+            // not a StringBuilder, which is handled differently when appending numbers
+            expectedWritten.append(formatter.niceDuration(duration, speech));
+            formatter.niceDuration(duration, speech, writer);
+        }
+
+        assertEquals(expected.toString(), actual.toString());
+        assertEquals(expectedWritten.toString(), writer.toString());
+    }
+
+    @Test
+    public void testAppendableEnglish() {
+        assertAppendsSame(new EnglishFormatter());
+    }
+
+    @Test
+    public void testAppendableItalian() {
+        assertAppendsSame(new ItalianFormatter());
+    }
+}
@@ -0,0 +1,83 @@
+package org.dicio.numbers.formatter.datetime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import com.grack.nanojson.JsonObject;
+import com.grack.nanojson.JsonParser;
+import com.grack.nanojson.JsonParserException;
+
+import org.dicio.numbers.util.ResourceOpener;
+import org.dicio.numbers.util.SnapshotReader;
+import org.dicio.numbers.util.SnapshotWriter;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.regex.Pattern;
+
+public class DigitShapeMatcherTest {
+
+    private static void assertSameAsRegex(final String regex) {
+        final DigitShapeMatcher matcher = DigitShapeMatcher.Companion.compile(regex);
+        assertNotNull(regex, matcher);
+        final SnapshotWriter writer = new SnapshotWriter();
+        matcher.writeTo(writer);
+        final DigitShapeMatcher readMatcher = DigitShapeMatcher.Companion.readFrom(
+                new SnapshotReader(ByteBuffer.wrap(writer.toByteArray())));
+
+        final Pattern pattern = Pattern.compile(regex);
+        for (int i = 0; i < 100000; ++i) {
+            final boolean expected = pattern.matcher(String.valueOf(i)).matches();
+            assertEquals(regex + " " + i, expected, matcher.matches(i));
+            assertEquals(regex + " read " + i, expected, readMatcher.matches(i));
+        }
+        for (final int i : new int[] {123456, 1000000, 99999999, 1000000000, Integer.MAX_VALUE}) {
+            final boolean expected = pattern.matcher(String.valueOf(i)).matches();
+            assertEquals(regex + " " + i, expected, matcher.matches(i));
+            assertEquals(regex + " read " + i, expected, readMatcher.matches(i));
+        }
+    }
+
+    private static void assertConfigSameAsRegex(final String configFolder)
+            throws IOException, JsonParserException {
+        final JsonObject root;
+        try (InputStream inputStream = ResourceOpener.getResourceAsStream(
+                configFolder + "/date_time.json")) {
+            root = JsonParser.object().from(inputStream);
+        }
+        for (final String key : new String[] {"decade_format", "hundreds_format",
+                "thousand_format", "year_format"}) {
+            final JsonObject formats = root.getObject(key);
+            for (int i = 1; formats.has(String.valueOf(i)); ++i) {
+                assertSameAsRegex(formats.getObject(String.valueOf(i)).getString("match"));
+            }
+        }
+    }
+
+    @Test
+    public void testConfigPatterns() throws IOException, JsonParserException {
+        assertConfigSameAsRegex("config/en-us");
+        assertConfigSameAsRegex("config/it-it");
+    }
+
+    @Test
+    public void testSupportedPatterns() {
+        assertSameAsRegex("^[2-9][1|8]");
+        assertSameAsRegex("^(1\\d{3})|(\\d0\\d{2})$");
+        assertSameAsRegex("(1|2[05-7]?)\\d{0,2}");
+        assertSameAsRegex("([13]0){2}|\\d{10}");
+        assertSameAsRegex("[-0-3a]\\d");
+        assertSameAsRegex("0");
+    }
+
+    @Test
+    public void testUnsupportedPatterns() {
+        for (final String regex : new String[] {"\\d+", "\\d*", "\\d{2,}", "[^0]\\d", "1.",
+                "(?:12)", "-\\d", "[0-9&&[^5]]", "\\d\\b", "1^2", "(1$)", "\\d??"}) {
+            assertNull(regex, DigitShapeMatcher.Companion.compile(regex));
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package org.dicio.numbers.formatter.datetime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+import org.dicio.numbers.util.Utils;
+import org.junit.Test;
+
+import java.util.Map;
+
+public class NiceYearRendererTest {
+
+    /**
+     * How years used to be formatted, with substitution maps and intermediate strings.
+     */
+    private static String niceYearWithSubstitutionTable(final DateTimeConfig config,
+                                                        final int yearWithSign) {
+        final Map<String, String> substitutionTable =
+                NiceYearSubstitutionTableBuilder.build(config, yearWithSign);
+        final int year = Math.abs(yearWithSign);
+
+        substitutionTable.put("number", String.valueOf(year % 100));
+        substitutionTable.put("formatted_decade", config.decadeFormat
+                .getMostSuitableFormatString(year % 100).format(substitutionTable));
+        substitutionTable.put("number", String.valueOf(year % 1000));
+        substitutionTable.put("formatted_hundreds", config.hundredFormat
+                .getMostSuitableFormatString(year % 1000).format(substitutionTable));
+        substitutionTable.put("number", String.valueOf(year % 10000));
+        substitutionTable.put("formatted_thousand", config.thousandFormat
+                .getMostSuitableFormatString(year % 10000).format(substitutionTable));
+        substitutionTable.put("number", String.valueOf(year));
+        substitutionTable.put("bc", yearWithSign >= 0 ? "" : config.bc);
+
+        return Utils.removeRedundantSpaces(config.yearFormat
+                .getMostSuitableFormatString(year).format(substitutionTable));
+    }
+
+    private static String render(final NiceYearRenderer renderer, final int year) {
+        final StringBuilder result = new StringBuilder();
+        renderer.appendTo(year, result);
+        return result.toString();
+    }
+
+    private static void assertSameAsSubstitutionTable(final String configFolder,
+                                                      final int maxYear) {
+        final DateTimeConfig config = new DateTimeConfig(configFolder);
+        final NiceYearRenderer renderer = new NiceYearRenderer(config);
+        for (int year = -maxYear; year <= maxYear; ++year) {
+            final String expected = niceYearWithSubstitutionTable(config, year);
+            assertEquals(expected, render(renderer, year));
+            assertEquals(expected, render(renderer, year)); // possibly memoized
+        }
+    }
+
+    @Test
+    public void testEnglish() {
+        assertSameAsSubstitutionTable("config/en-us", 12000);
+    }
+
+    @Test
+    public void testItalian() {
+        assertSameAsSubstitutionTable("config/it-it", 9999);
+        // the Italian default year format uses an unknown key, which was never supported
+        final DateTimeConfig config = new DateTimeConfig("config/it-it");
+        assertThrows(IllegalArgumentException.class,
+                () -> niceYearWithSubstitutionTable(config, 12345));
+        assertThrows(IllegalArgumentException.class,
+                () -> render(new NiceYearRenderer(config), 12345));
+    }
+
+    @Test
+    public void testMemo() {
+        final NiceYearRenderer renderer = new NiceYearRenderer(new DateTimeConfig("config/en-us"));
+        final StringBuilder first = new StringBuilder();
+        final StringBuilder second = new StringBuilder("prefix ");
+        renderer.appendTo(1984, first);
+        renderer.appendTo(1984, second);
+        assertEquals("nineteen eighty four", first.toString());
+        assertEquals("prefix nineteen eighty four", second.toString());
+    }
+}
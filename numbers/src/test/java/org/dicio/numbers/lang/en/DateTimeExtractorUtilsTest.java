@@ -4,6 +4,7 @@ import static org.dicio.numbers.test.TestUtils.t;
 import static org.dicio.numbers.util.NumberExtractorUtils.signBeforeNumber;
 import static java.time.temporal.ChronoUnit.MONTHS;
 
+import org.dicio.numbers.parser.ParseContext;
 import org.dicio.numbers.parser.lexer.TokenStream;
 import org.dicio.numbers.test.DateTimeExtractorUtilsTestBase;
 import org.dicio.numbers.util.DateTimeExtractorUtils;
@@ -23,13 +24,18 @@ public class DateTimeExtractorUtilsTest extends DateTimeExtractorUtilsTestBase {
     }
 
     @Override
-    public DateTimeExtractorUtils build(final TokenStream ts) {
-        final EnglishNumberExtractor numberExtractor = new EnglishNumberExtractor(ts, false);
-        return new DateTimeExtractorUtils(ts, NOW, (fromInclusive, toInclusive) ->
-            NumberExtractorUtils.extractOneIntegerInRange(ts, fromInclusive, toInclusive,
-                    () -> signBeforeNumber(ts, () -> numberExtractor.numberInteger(false)))
+    public DateTimeExtractorUtils build() {
+        final EnglishNumberExtractor numberExtractor = new EnglishNumberExtractor();
+        return new DateTimeExtractorUtils((ctx, fromInclusive, toInclusive) ->
+            NumberExtractorUtils.extractOneIntegerInRange(ctx.ts, fromInclusive, toInclusive,
+                    () -> signBeforeNumber(ctx.ts, () -> numberExtractor.numberInteger(ctx, false)))
         );
     }
+
+    @Override
+    public ParseContext context(final TokenStream ts) {
+        return new ParseContext(ts, false, false, false, NOW);
+    }
     @Test
     public void testRelativeMonthDuration() {
         assertRelativeMonthDuration("next september",             t(7, MONTHS),   2);
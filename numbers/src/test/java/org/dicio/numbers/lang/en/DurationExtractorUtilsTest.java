@@ -14,6 +14,7 @@ import static org.dicio.numbers.test.TestUtils.t;
 import static org.junit.Assert.assertTrue;
 
 import org.dicio.numbers.ParserFormatter;
+import org.dicio.numbers.parser.ParseContext;
 import org.dicio.numbers.parser.lexer.TokenStream;
 import org.dicio.numbers.test.DurationExtractorUtilsTestBase;
 import org.dicio.numbers.unit.Duration;
@@ -32,9 +33,9 @@ public class DurationExtractorUtilsTest extends DurationExtractorUtilsTestBase {
 
     @Override
     public Duration extractDuration(final TokenStream ts, final boolean shortScale) {
-        final EnglishNumberExtractor numberExtractor
-                = new EnglishNumberExtractor(ts, shortScale);
-        return new DurationExtractorUtils(ts, numberExtractor::numberNoOrdinal).duration();
+        final EnglishNumberExtractor numberExtractor = new EnglishNumberExtractor();
+        return new DurationExtractorUtils(numberExtractor::numberNoOrdinal)
+                .duration(new ParseContext(ts, shortScale));
     }
 
 
@@ -16,6 +16,7 @@ import static java.time.temporal.ChronoUnit.WEEKS;
 import static java.time.temporal.ChronoUnit.YEARS;
 
 import org.dicio.numbers.ParserFormatter;
+import org.dicio.numbers.parser.ParseContext;
 import org.dicio.numbers.parser.lexer.TokenStream;
 import org.dicio.numbers.test.WithTokenizerTestBase;
 import org.dicio.numbers.unit.Duration;
@@ -24,7 +25,7 @@ import org.junit.Test;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.util.function.Function;
+import java.util.function.BiFunction;
 
 public class ExtractDateTimeTest extends WithTokenizerTestBase {
 
@@ -40,14 +41,14 @@ public class ExtractDateTimeTest extends WithTokenizerTestBase {
     private void assertRelativeDurationFunction(final String s,
                                                 final Duration expectedDuration,
                                                 final int finalTokenStreamPosition,
-                                                final Function<EnglishDateTimeExtractor, Duration> durationFunction) {
+                                                final BiFunction<EnglishDateTimeExtractor, ParseContext, Duration> durationFunction) {
         // some random but deterministic values: we don't actually use big numbers here so it
         // shouldn't make a difference, and preferMonthBeforeDay only affects date and dateTime
         final boolean shortScale = (s.hashCode() % 2) == 0;
         final boolean preferMonthBeforeDay = ((s.hashCode() / 2) % 2) == 0;
 
         final TokenStream ts = new TokenStream(tokenizer.tokenize(s));
-        final Duration actualDuration = durationFunction.apply(new EnglishDateTimeExtractor(ts, shortScale, preferMonthBeforeDay, NOW));
+        final Duration actualDuration = durationFunction.apply(new EnglishDateTimeExtractor(), new ParseContext(ts, shortScale, false, preferMonthBeforeDay, NOW));
         assertNotNull("null relative duration for string \"" + s + "\"", actualDuration);
         assertEquals("wrong final token position for string \"" + s + "\"",
                 finalTokenStreamPosition, ts.position);
@@ -61,14 +62,14 @@ public class ExtractDateTimeTest extends WithTokenizerTestBase {
     }
 
     private void assertRelativeDurationFunctionNull(final String s,
-                                                    final Function<EnglishDateTimeExtractor, Duration> durationFunction) {
+                                                    final BiFunction<EnglishDateTimeExtractor, ParseContext, Duration> durationFunction) {
         // some random but deterministic values: we don't actually use big numbers here so it
         // shouldn't make a difference, and preferMonthBeforeDay only affects date and dateTime
         final boolean shortScale = (s.hashCode() % 2) == 0;
         final boolean preferMonthBeforeDay = ((s.hashCode() / 2) % 2) == 0;
 
         final TokenStream ts = new TokenStream(tokenizer.tokenize(s));
-        final Duration duration = durationFunction.apply(new EnglishDateTimeExtractor(ts, shortScale, preferMonthBeforeDay, NOW));
+        final Duration duration = durationFunction.apply(new EnglishDateTimeExtractor(), new ParseContext(ts, shortScale, false, preferMonthBeforeDay, NOW));
 
         if (duration != null) {
             fail("expected no relative duration (null), but got \"" + niceDuration(duration)
@@ -80,21 +81,21 @@ public class ExtractDateTimeTest extends WithTokenizerTestBase {
                                     final boolean preferMonthBeforeDay,
                                     final T expectedResult,
                                     int finalTokenStreamPosition,
-                                    final Function<EnglishDateTimeExtractor, T> function) {
+                                    final BiFunction<EnglishDateTimeExtractor, ParseContext, T> function) {
         // some random but deterministic value: we don't actually use big numbers here so it
         // shouldn't make a difference
         final boolean shortScale = (s.hashCode() % 2) == 0;
 
         final TokenStream ts = new TokenStream(tokenizer.tokenize(s));
         assertEquals("wrong result for string \"" + s + "\"",
-                expectedResult, function.apply(new EnglishDateTimeExtractor(ts, shortScale, preferMonthBeforeDay, NOW)));
+                expectedResult, function.apply(new EnglishDateTimeExtractor(), new ParseContext(ts, shortScale, false, preferMonthBeforeDay, NOW)));
         assertEquals("wrong final token position for string \"" + s + "\"",
                 finalTokenStreamPosition, ts.position);
     }
 
     private <T> void assertFunctionNull(final String s,
                                         final boolean preferMonthBeforeDay,
-                                        final Function<EnglishDateTimeExtractor, T> numberFunction) {
+                                        final BiFunction<EnglishDateTimeExtractor, ParseContext, T> numberFunction) {
         assertFunction(s, preferMonthBeforeDay, null, 0, numberFunction);
     }
 
@@ -1,6 +1,7 @@
 package org.dicio.numbers.lang.en;
 
 import org.dicio.numbers.ParserFormatter;
+import org.dicio.numbers.parser.ParseContext;
 import org.dicio.numbers.parser.lexer.TokenStream;
 import org.dicio.numbers.test.WithTokenizerTestBase;
 import org.dicio.numbers.unit.Number;
@@ -26,9 +27,9 @@ public class ExtractNumbersTest extends WithTokenizerTestBase {
                                       final boolean shortScale,
                                       final Number value,
                                       final int finalTokenStreamPosition,
-                                      final BiFunction<EnglishNumberExtractor, TokenStream, Number> numberFunction) {
+                                      final BiFunction<EnglishNumberExtractor, ParseContext, Number> numberFunction) {
         final TokenStream ts = new TokenStream(tokenizer.tokenize(s));
-        final Number number = numberFunction.apply(new EnglishNumberExtractor(ts, shortScale), ts);
+        final Number number = numberFunction.apply(new EnglishNumberExtractor(), new ParseContext(ts, shortScale));
         assertEquals("wrong value for string " + s, value, number);
         assertEquals("wrong final token position for number " + value, finalTokenStreamPosition,
                 ts.position);
@@ -36,52 +37,52 @@ public class ExtractNumbersTest extends WithTokenizerTestBase {
 
     private void assertNumberFunctionNull(final String s,
                                           final boolean shortScale,
-                                          final BiFunction<EnglishNumberExtractor, TokenStream, Number> numberFunction) {
+                                          final BiFunction<EnglishNumberExtractor, ParseContext, Number> numberFunction) {
         assertNumberFunction(s, shortScale, null, 0, numberFunction);
     }
 
     private void assertNumberGroupLongScale(final String s, final boolean allowOrdinal, final double lastMultiplier, final double value, final boolean isOrdinal, final int finalTokenStreamPosition) {
         assertNumberFunction(s, true, numberDeduceType(value).withOrdinal(isOrdinal), finalTokenStreamPosition,
-                (enp, ts) -> EnglishNumberExtractor.numberGroupLongScale(ts, allowOrdinal, lastMultiplier));
+                (enp, ctx) -> EnglishNumberExtractor.numberGroupLongScale(ctx.ts, allowOrdinal, lastMultiplier));
     }
 
     private void assertNumberGroupLongScaleNull(final String s, final boolean allowOrdinal, final double lastMultiplier) {
-        assertNumberFunctionNull(s, true, (enp, ts) -> EnglishNumberExtractor.numberGroupLongScale(ts, allowOrdinal, lastMultiplier));
+        assertNumberFunctionNull(s, true, (enp, ctx) -> EnglishNumberExtractor.numberGroupLongScale(ctx.ts, allowOrdinal, lastMultiplier));
     }
 
     private void assertNumberInteger(final String s, final boolean shortScale, final boolean allowOrdinal, final double value, final boolean isOrdinal, final int finalTokenStreamPosition) {
         assertNumberFunction(s, shortScale, numberDeduceType(value).withOrdinal(isOrdinal), finalTokenStreamPosition,
-                (enp, ts) -> enp.numberInteger(allowOrdinal));
+                (enp, ctx) -> enp.numberInteger(ctx, allowOrdinal));
     }
 
     private void assertNumberIntegerNull(final String s, final boolean allowOrdinal) {
-        assertNumberFunctionNull(s, true, (enp, ts) -> enp.numberInteger(allowOrdinal));
-        assertNumberFunctionNull(s, false, (enp, ts) -> enp.numberInteger(allowOrdinal));
+        assertNumberFunctionNull(s, true, (enp, ctx) -> enp.numberInteger(ctx, allowOrdinal));
+        assertNumberFunctionNull(s, false, (enp, ctx) -> enp.numberInteger(ctx, allowOrdinal));
     }
 
     private void assertNumberPoint(final String s, final boolean shortScale, final boolean allowOrdinal, final double value, final boolean isOrdinal, final int finalTokenStreamPosition) {
         assertNumberFunction(s, shortScale, numberDeduceType(value).withOrdinal(isOrdinal),
-                finalTokenStreamPosition, (enp, ts) -> enp.numberPoint(allowOrdinal));
+                finalTokenStreamPosition, (enp, ctx) -> enp.numberPoint(ctx, allowOrdinal));
     }
 
     private void assertNumberPointNull(final String s, final boolean allowOrdinal) {
-        assertNumberFunctionNull(s, true, (enp, ts) -> enp.numberPoint(allowOrdinal));
-        assertNumberFunctionNull(s, false, (enp, ts) -> enp.numberPoint(allowOrdinal));
+        assertNumberFunctionNull(s, true, (enp, ctx) -> enp.numberPoint(ctx, allowOrdinal));
+        assertNumberFunctionNull(s, false, (enp, ctx) -> enp.numberPoint(ctx, allowOrdinal));
     }
 
     private void assertNumberSignPoint(final String s, final boolean shortScale, final boolean allowOrdinal, final double value, final boolean isOrdinal, final int finalTokenStreamPosition) {
         assertNumberFunction(s, shortScale, numberDeduceType(value).withOrdinal(isOrdinal),
-                finalTokenStreamPosition, (enp, ts) -> enp.numberSignPoint(allowOrdinal));
+                finalTokenStreamPosition, (enp, ctx) -> enp.numberSignPoint(ctx, allowOrdinal));
     }
 
     private void assertNumberSignPointNull(final String s, final boolean allowOrdinal) {
-        assertNumberFunctionNull(s, true, (enp, ts) -> enp.numberSignPoint(allowOrdinal));
-        assertNumberFunctionNull(s, false, (enp, ts) -> enp.numberSignPoint(allowOrdinal));
+        assertNumberFunctionNull(s, true, (enp, ctx) -> enp.numberSignPoint(ctx, allowOrdinal));
+        assertNumberFunctionNull(s, false, (enp, ctx) -> enp.numberSignPoint(ctx, allowOrdinal));
     }
 
     private void assertDivideByDenominatorIfPossible(final String s, final Number startingNumber, final Number value, final int finalTokenStreamPosition) {
         assertNumberFunction(s, true, value, finalTokenStreamPosition,
-                (enp, ts) -> enp.divideByDenominatorIfPossible(startingNumber));
+                (enp, ctx) -> enp.divideByDenominatorIfPossible(ctx, startingNumber));
     }
 
 
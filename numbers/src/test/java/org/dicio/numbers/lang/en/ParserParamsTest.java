@@ -10,6 +10,7 @@ import static org.dicio.numbers.test.TestUtils.YEAR;
 import static org.dicio.numbers.test.TestUtils.n;
 import static org.dicio.numbers.test.TestUtils.t;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import org.dicio.numbers.ParserFormatter;
@@ -19,13 +20,17 @@ import org.dicio.numbers.parser.param.ExtractDurationParams;
 import org.dicio.numbers.parser.param.ExtractNumberParams;
 import org.dicio.numbers.parser.param.ParserParams;
 import org.dicio.numbers.parser.param.ParserParamsTestBase;
+import org.dicio.numbers.parser.param.ParserSession;
 import org.dicio.numbers.unit.Duration;
 import org.dicio.numbers.unit.Number;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import java.math.BigDecimal;
+import java.nio.CharBuffer;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Random;
@@ -160,6 +165,68 @@ public class ParserParamsTest extends ParserParamsTestBase {
         assertNumberFirstIfInteger("two halves",            T, T, T, 2L);
     }
 
+    @Test
+    public void testNumberExact() {
+        final String s = "it is zero point one two three four five six seven eight nine one two three four five six seven eight nine";
+        final Number exact = new ExtractNumberParams(numberParser(), s).exact(true).parseFirst();
+        assertTrue(exact.isExact());
+        assertEquals(new BigDecimal("0.123456789123456789"), exact.toBigDecimal());
+        assertEquals(new BigDecimal("3.25"), new ExtractNumberParams(numberParser(),
+                "three point 25").exact(true).parseFirst().toBigDecimal());
+        assertEquals(new BigDecimal("123456789012345678901234567890"), new ExtractNumberParams(
+                numberParser(), "123456789012345678901234567890").exact(true).parseFirst()
+                .toBigDecimal());
+        assertEquals(new BigDecimal("20000000000000000000.1234567"), new ExtractNumberParams(
+                numberParser(), "twenty quintillion point one two three four five six seven")
+                .exact(true).parseFirst().toBigDecimal());
+        assertEquals(new BigDecimal("3000000000000000000000000000000"), new ExtractNumberParams(
+                numberParser(), "three quintillion").shortScale(false).exact(true).parseFirst()
+                .toBigDecimal());
+
+        // the double values are the same as in the non-exact mode, which does not track exactness
+        final Number notExact = new ExtractNumberParams(numberParser(), s).parseFirst();
+        assertEquals(notExact.decimalValue(), exact.decimalValue(), 1e-15);
+        assertFalse(notExact.isExact());
+        assertFalse(new ExtractNumberParams(numberParser(), "123456789012345678901234567890")
+                .parseFirst().isExact());
+        assertFalse(new ExtractNumberParams(numberParser(),
+                "twenty quintillion point one two three four five six seven").parseFirst()
+                .isExact());
+    }
+
+    @Test
+    public void testCharSequence() {
+        final String s = "I was born on 2nd of March 2001, twenty three years ago";
+        final List<Object> expected = new ExtractNumberParams(numberParser(), s).parseMixedWithText();
+        assertEquals(expected, new ExtractNumberParams(numberParser(), new StringBuilder(s))
+                .parseMixedWithText());
+        assertEquals(expected, new ExtractNumberParams(numberParser(), CharBuffer.wrap(s))
+                .parseMixedWithText());
+
+        // a CharBuffer in the middle of a bigger array, with the position not at 0
+        final CharBuffer buffer = CharBuffer.wrap(("xx" + s + "yy").toCharArray(), 2, s.length());
+        assertEquals(expected, new ExtractNumberParams(numberParser(), buffer).parseMixedWithText());
+        assertEquals(String.valueOf(new ExtractDateTimeParams(numberParser(), s).parseFirst()),
+                String.valueOf(new ExtractDateTimeParams(numberParser(), buffer).parseFirst()));
+    }
+
+    @Test
+    public void testEntities() {
+        final String s = "one, 2 and three quarters of the 4th";
+        final CharBuffer buffer = CharBuffer.wrap(s);
+        final List<ParserSession.Entity<Number>> entities =
+                new ExtractNumberParams(numberParser(), buffer).preferOrdinal(true).parseEntities();
+        assertEquals(Arrays.asList(
+                new ParserSession.Entity<>(0, 3, n(1)),
+                new ParserSession.Entity<>(5, 6, n(2)),
+                new ParserSession.Entity<>(11, 25, n(0.75)),
+                new ParserSession.Entity<>(33, 36, n(4, T))
+        ), entities);
+        assertEquals("three quarters", buffer.subSequence(11, 25).toString());
+        assertEquals(Collections.emptyList(),
+                new ExtractNumberParams(numberParser(), "no numbers").parseEntities());
+    }
+
     @Test
     public void testNumberMixedWithText() {
         assertNumberMixedWithText(" hello  ciao!, 3/5 or four sevenths?", T, F, F, " hello  ciao!, ", n(3.0 / 5.0, F), " or ", n(4.0 / 7.0, F), "?");
@@ -384,4 +451,13 @@ public class ParserParamsTest extends ParserParamsTestBase {
             assertTrue(objects.size() / ((double) partsOfDateTimeStressTest) > 4);
         }
     }
+
+    @Test
+    public void testPossibleIntervalsSameAsNotMemoized() {
+        // memoization must not change the results, whatever the token counts the rules are run with
+        final LocalDateTime now = LocalDateTime.of(2026, 2, 24, 6, 5, 4);
+        assertPossibleIntervalsSameAsNotMemoized(longNumberMixedWithText.substring(0, 3000), now);
+        assertPossibleIntervalsSameAsNotMemoized(durationStressTest, now);
+        assertPossibleIntervalsSameAsNotMemoized(dateTimeStressTest.substring(0, 3000), now);
+    }
 }
@@ -4,6 +4,7 @@ import static org.dicio.numbers.test.TestUtils.t;
 import static org.dicio.numbers.util.NumberExtractorUtils.signBeforeNumber;
 import static java.time.temporal.ChronoUnit.MONTHS;
 
+import org.dicio.numbers.parser.ParseContext;
 import org.dicio.numbers.parser.lexer.TokenStream;
 import org.dicio.numbers.test.DateTimeExtractorUtilsTestBase;
 import org.dicio.numbers.util.DateTimeExtractorUtils;
@@ -23,14 +24,19 @@ public class DateTimeExtractorUtilsTest extends DateTimeExtractorUtilsTestBase {
     }
 
     @Override
-    public DateTimeExtractorUtils build(final TokenStream ts) {
-        final ItalianNumberExtractor numberExtractor = new ItalianNumberExtractor(ts);
-        return new DateTimeExtractorUtils(ts, NOW, (fromInclusive, toInclusive) ->
-            NumberExtractorUtils.extractOneIntegerInRange(ts, fromInclusive, toInclusive,
-                    () -> signBeforeNumber(ts, () -> numberExtractor.numberInteger(false)))
+    public DateTimeExtractorUtils build() {
+        final ItalianNumberExtractor numberExtractor = new ItalianNumberExtractor();
+        return new DateTimeExtractorUtils((ctx, fromInclusive, toInclusive) ->
+            NumberExtractorUtils.extractOneIntegerInRange(ctx.ts, fromInclusive, toInclusive,
+                    () -> signBeforeNumber(ctx.ts, () -> numberExtractor.numberInteger(ctx, false)))
         );
     }
 
+    @Override
+    public ParseContext context(final TokenStream ts) {
+        return new ParseContext(ts, true, false, false, NOW);
+    }
+
     @Test
     public void testRelativeMonthDuration() {
         assertRelativeMonthDuration("settembre che viene",   t(4, MONTHS),   3);
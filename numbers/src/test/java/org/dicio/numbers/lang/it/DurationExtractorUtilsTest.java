@@ -12,6 +12,7 @@ import static org.dicio.numbers.test.TestUtils.t;
 import static org.junit.Assert.assertTrue;
 
 import org.dicio.numbers.ParserFormatter;
+import org.dicio.numbers.parser.ParseContext;
 import org.dicio.numbers.parser.lexer.TokenStream;
 import org.dicio.numbers.test.DurationExtractorUtilsTestBase;
 import org.dicio.numbers.unit.Duration;
@@ -30,8 +31,9 @@ public class DurationExtractorUtilsTest extends DurationExtractorUtilsTestBase {
 
     @Override
     public Duration extractDuration(final TokenStream ts, final boolean shortScale) {
-        final ItalianNumberExtractor numberExtractor = new ItalianNumberExtractor(ts);
-        return new DurationExtractorUtils(ts, numberExtractor::numberNoOrdinal).duration();
+        final ItalianNumberExtractor numberExtractor = new ItalianNumberExtractor();
+        return new DurationExtractorUtils(numberExtractor::numberNoOrdinal)
+                .duration(new ParseContext(ts));
     }
 
     private void assertDuration(final String s, final java.time.Duration duration) {
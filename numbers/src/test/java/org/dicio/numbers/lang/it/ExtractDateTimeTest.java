@@ -14,6 +14,7 @@ import static java.time.temporal.ChronoUnit.WEEKS;
 import static java.time.temporal.ChronoUnit.YEARS;
 
 import org.dicio.numbers.ParserFormatter;
+import org.dicio.numbers.parser.ParseContext;
 import org.dicio.numbers.parser.lexer.TokenStream;
 import org.dicio.numbers.test.WithTokenizerTestBase;
 import org.dicio.numbers.unit.Duration;
@@ -22,7 +23,7 @@ import org.junit.Test;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.util.function.Function;
+import java.util.function.BiFunction;
 
 public class ExtractDateTimeTest extends WithTokenizerTestBase {
 
@@ -38,9 +39,9 @@ public class ExtractDateTimeTest extends WithTokenizerTestBase {
     private void assertRelativeDurationFunction(final String s,
                                                 final Duration expectedDuration,
                                                 final int finalTokenStreamPosition,
-                                                final Function<ItalianDateTimeExtractor, Duration> durationFunction) {
+                                                final BiFunction<ItalianDateTimeExtractor, ParseContext, Duration> durationFunction) {
         final TokenStream ts = new TokenStream(tokenizer.tokenize(s));
-        final Duration actualDuration = durationFunction.apply(new ItalianDateTimeExtractor(ts, NOW));
+        final Duration actualDuration = durationFunction.apply(new ItalianDateTimeExtractor(), new ParseContext(ts, true, false, false, NOW));
         assertNotNull("null relative duration for string \"" + s + "\"", actualDuration);
         assertEquals("wrong final token position for string \"" + s + "\"",
                 finalTokenStreamPosition, ts.position);
@@ -54,9 +55,9 @@ public class ExtractDateTimeTest extends WithTokenizerTestBase {
     }
 
     private void assertRelativeDurationFunctionNull(final String s,
-                                                    final Function<ItalianDateTimeExtractor, Duration> durationFunction) {
+                                                    final BiFunction<ItalianDateTimeExtractor, ParseContext, Duration> durationFunction) {
         final TokenStream ts = new TokenStream(tokenizer.tokenize(s));
-        final Duration duration = durationFunction.apply(new ItalianDateTimeExtractor(ts, NOW));
+        final Duration duration = durationFunction.apply(new ItalianDateTimeExtractor(), new ParseContext(ts, true, false, false, NOW));
 
         if (duration != null) {
             fail("expected no relative duration (null), but got \"" + niceDuration(duration)
@@ -67,16 +68,16 @@ public class ExtractDateTimeTest extends WithTokenizerTestBase {
     private <T> void assertFunction(final String s,
                                     final T expectedResult,
                                     int finalTokenStreamPosition,
-                                    final Function<ItalianDateTimeExtractor, T> function) {
+                                    final BiFunction<ItalianDateTimeExtractor, ParseContext, T> function) {
         final TokenStream ts = new TokenStream(tokenizer.tokenize(s));
         assertEquals("wrong result for string \"" + s + "\"",
-                expectedResult, function.apply(new ItalianDateTimeExtractor(ts, NOW)));
+                expectedResult, function.apply(new ItalianDateTimeExtractor(), new ParseContext(ts, true, false, false, NOW)));
         assertEquals("wrong final token position for string \"" + s + "\"",
                 finalTokenStreamPosition, ts.position);
     }
 
     private <T> void assertFunctionNull(final String s,
-                                        final Function<ItalianDateTimeExtractor, T> numberFunction) {
+                                        final BiFunction<ItalianDateTimeExtractor, ParseContext, T> numberFunction) {
         assertFunction(s, null, 0, numberFunction);
     }
 
@@ -1,12 +1,13 @@
 package org.dicio.numbers.lang.it;
 
 import org.dicio.numbers.ParserFormatter;
+import org.dicio.numbers.parser.ParseContext;
 import org.dicio.numbers.parser.lexer.TokenStream;
 import org.dicio.numbers.test.WithTokenizerTestBase;
 import org.dicio.numbers.unit.Number;
 import org.junit.Test;
 
-import java.util.function.Function;
+import java.util.function.BiFunction;
 
 import static org.dicio.numbers.test.TestUtils.F;
 import static org.dicio.numbers.test.TestUtils.T;
@@ -25,49 +26,49 @@ public class ExtractNumbersTest extends WithTokenizerTestBase {
     private void assertNumberFunction(final String s,
                                       final Number value,
                                       final int finalTokenStreamPosition,
-                                      final Function<ItalianNumberExtractor, Number> numberFunction) {
+                                      final BiFunction<ItalianNumberExtractor, ParseContext, Number> numberFunction) {
         final TokenStream ts = new TokenStream(tokenizer.tokenize(s));
-        final Number number = numberFunction.apply(new ItalianNumberExtractor(ts));
+        final Number number = numberFunction.apply(new ItalianNumberExtractor(), new ParseContext(ts));
         assertEquals("wrong value for string " + s, value, number);
         assertEquals("wrong final token position for number " + value, finalTokenStreamPosition,
                 ts.position);
     }
 
     private void assertNumberFunctionNull(final String s,
-                                          final Function<ItalianNumberExtractor, Number> numberFunction) {
+                                          final BiFunction<ItalianNumberExtractor, ParseContext, Number> numberFunction) {
         assertNumberFunction(s, null, 0, numberFunction);
     }
 
     private void assertNumberInteger(final String s, final boolean allowOrdinal, final double value, final boolean isOrdinal, final int finalTokenStreamPosition) {
         assertNumberFunction(s, numberDeduceType(value).withOrdinal(isOrdinal), finalTokenStreamPosition,
-                (enp) -> enp.numberInteger(allowOrdinal));
+                (enp, ctx) -> enp.numberInteger(ctx, allowOrdinal));
     }
 
     private void assertNumberIntegerNull(final String s, final boolean allowOrdinal) {
-        assertNumberFunctionNull(s, (enp) -> enp.numberInteger(allowOrdinal));
+        assertNumberFunctionNull(s, (enp, ctx) -> enp.numberInteger(ctx, allowOrdinal));
     }
 
     private void assertNumberPoint(final String s, final boolean allowOrdinal, final double value, final boolean isOrdinal, final int finalTokenStreamPosition) {
         assertNumberFunction(s, numberDeduceType(value).withOrdinal(isOrdinal),
-                finalTokenStreamPosition, (enp) -> enp.numberPoint(allowOrdinal));
+                finalTokenStreamPosition, (enp, ctx) -> enp.numberPoint(ctx, allowOrdinal));
     }
 
     private void assertNumberPointNull(final String s, final boolean allowOrdinal) {
-        assertNumberFunctionNull(s, (enp) -> enp.numberPoint(allowOrdinal));
+        assertNumberFunctionNull(s, (enp, ctx) -> enp.numberPoint(ctx, allowOrdinal));
     }
 
     private void assertNumberSignPoint(final String s, final boolean allowOrdinal, final double value, final boolean isOrdinal, final int finalTokenStreamPosition) {
         assertNumberFunction(s, numberDeduceType(value).withOrdinal(isOrdinal),
-                finalTokenStreamPosition, (enp) -> enp.numberSignPoint(allowOrdinal));
+                finalTokenStreamPosition, (enp, ctx) -> enp.numberSignPoint(ctx, allowOrdinal));
     }
 
     private void assertNumberSignPointNull(final String s, final boolean allowOrdinal) {
-        assertNumberFunctionNull(s, (enp) -> enp.numberSignPoint(allowOrdinal));
+        assertNumberFunctionNull(s, (enp, ctx) -> enp.numberSignPoint(ctx, allowOrdinal));
     }
 
     private void assertDivideByDenominatorIfPossible(final String s, final Number startingNumber, final Number value, final int finalTokenStreamPosition) {
         assertNumberFunction(s, value, finalTokenStreamPosition,
-                (enp) -> enp.divideByDenominatorIfPossible(startingNumber));
+                (enp, ctx) -> enp.divideByDenominatorIfPossible(ctx, startingNumber));
     }
 
 
@@ -24,6 +24,7 @@ import org.dicio.numbers.unit.Number;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -171,6 +172,15 @@ public class ParserParamsTest extends ParserParamsTestBase {
         assertNumberFirstIfInteger("due mezzi",                 T, T, 2L);
     }
 
+    @Test
+    public void testNumberExact() {
+        assertEquals(new BigDecimal("0.10000000000000000000001"), new ExtractNumberParams(
+                numberParser(), "zero virgola uno zero zero zero zero zero zero zero zero zero zero zero zero zero zero zero zero zero zero zero zero zero uno")
+                .exact(true).parseFirst().toBigDecimal());
+        assertEquals(new BigDecimal("12.0625"), new ExtractNumberParams(numberParser(),
+                "dodici virgola 0625").exact(true).parseFirst().toBigDecimal());
+    }
+
     @Test
     public void testNumberMixedWithText() {
         assertNumberMixedWithText("un miliardesimo e mille sei cento novanta quattro",  F, F, n(1.0 / 1000000000.0, F), " e ", n(1694, F));
@@ -392,4 +402,13 @@ public class ParserParamsTest extends ParserParamsTestBase {
             assertTrue(objects.size() / ((double) partsOfDateTimeStressTest) > 4);
         }
     }
+
+    @Test
+    public void testPossibleIntervalsSameAsNotMemoized() {
+        // memoization must not change the results, whatever the token counts the rules are run with
+        final LocalDateTime now = LocalDateTime.of(2026, 2, 24, 6, 5, 4);
+        assertPossibleIntervalsSameAsNotMemoized(longNumberMixedWithText.substring(0, 3000), now);
+        assertPossibleIntervalsSameAsNotMemoized(durationStressTest, now);
+        assertPossibleIntervalsSameAsNotMemoized(dateTimeStressTest.substring(0, 3000), now);
+    }
 }
@@ -0,0 +1,136 @@
+package org.dicio.numbers.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+
+import org.dicio.numbers.lang.en.EnglishParser;
+import org.dicio.numbers.parser.lexer.Token;
+import org.dicio.numbers.parser.lexer.TokenStream;
+import org.dicio.numbers.parser.param.ExtractDateTimeParams;
+import org.dicio.numbers.parser.param.ExtractDurationParams;
+import org.dicio.numbers.parser.param.ExtractNumberParams;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class ParserTest {
+
+    private static List<Token> tokensOf(final TokenStream ts) {
+        final List<Token> tokens = new ArrayList<>();
+        for (int i = 0; i < ts.getTokenCount(); ++i) {
+            tokens.add(ts.get(i));
+        }
+        return tokens;
+    }
+
+    @Test
+    public void testTokenizationCacheDisabledByDefault() {
+        final Parser parser = new EnglishParser();
+        assertEquals(0, parser.getTokenizationCacheSize());
+        parser.tokenize("set a timer");
+        parser.tokenize("set a timer");
+        assertEquals(0, parser.getTokenizationCacheHitCount());
+        assertEquals(0, parser.getTokenizationCacheMissCount());
+    }
+
+    @Test
+    public void testTokenizationCache() {
+        final Parser parser = new EnglishParser();
+        parser.setTokenizationCacheSize(2);
+
+        final List<Token> timer = tokensOf(parser.tokenize("set a timer for five minutes"));
+        final List<Token> again = tokensOf(parser.tokenize("set a timer for five minutes"));
+        assertEquals(6, timer.size());
+        for (int i = 0; i < timer.size(); ++i) {
+            assertSame(timer.get(i), again.get(i));
+        }
+        assertEquals(1, parser.getTokenizationCacheHitCount());
+        assertEquals(1, parser.getTokenizationCacheMissCount());
+
+        // evicts "set a timer for five minutes"
+        parser.tokenize("in ten minutes");
+        parser.tokenize("what time is it");
+        parser.tokenize("set a timer for five minutes");
+        assertEquals(1, parser.getTokenizationCacheHitCount());
+        assertEquals(4, parser.getTokenizationCacheMissCount());
+
+        // the results do not change
+        assertEquals(new ExtractNumberParams(new EnglishParser(), "what time is it").parseFirst(),
+                new ExtractNumberParams(parser, "what time is it").parseFirst());
+        assertEquals(2, parser.getTokenizationCacheHitCount());
+
+        parser.setTokenizationCacheSize(0);
+        assertEquals(0, parser.getTokenizationCacheHitCount());
+        assertThrows(IllegalArgumentException.class, () -> parser.setTokenizationCacheSize(-1));
+    }
+
+    @Test
+    public void testTokenizationCacheAcrossThreads() throws Exception {
+        final Parser parser = new EnglishParser();
+        parser.setTokenizationCacheSize(16);
+        final String[] utterances = {"set a timer for five minutes", "in ten minutes",
+                "twenty three apples and a half", "the 3rd of may at 5 p.m."};
+
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<Object>> futures = new ArrayList<>();
+            for (int i = 0; i < 400; ++i) {
+                final String utterance = utterances[i % utterances.length];
+                futures.add(executor.submit(() ->
+                        new ExtractNumberParams(parser, utterance).parseMixedWithText()));
+            }
+            for (int i = 0; i < futures.size(); ++i) {
+                assertEquals(new ExtractNumberParams(new EnglishParser(),
+                                utterances[i % utterances.length]).parseMixedWithText(),
+                        futures.get(i).get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(400, parser.getTokenizationCacheHitCount()
+                + parser.getTokenizationCacheMissCount());
+    }
+
+    private static List<Object> parseAll(final Parser parser, final String utterance, final int i) {
+        // use different options every time, since they are kept in a ParseContext, not in the
+        // extractors that the parser shares between all calls
+        final List<Object> result = new ArrayList<>();
+        result.addAll(new ExtractNumberParams(parser, utterance)
+                .shortScale(i % 2 == 0).preferOrdinal(i % 3 == 0).parseMixedWithText());
+        result.addAll(new ExtractDurationParams(parser, utterance).parseMixedWithText());
+        result.addAll(new ExtractDateTimeParams(parser, utterance)
+                .now(LocalDateTime.of(2024, 5, 6, 7, 8, 9)).preferMonthBeforeDay(i % 2 == 1)
+                .parseMixedWithText());
+        return result;
+    }
+
+    @Test
+    public void testExtractorsAcrossThreads() throws Exception {
+        final Parser parser = new EnglishParser();
+        final String[] utterances = {"set a timer for five minutes", "in ten minutes",
+                "one billion and a half apples", "the 3/5/2024 at 5 p.m. or two days ago"};
+
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<List<Object>>> futures = new ArrayList<>();
+            for (int i = 0; i < 400; ++i) {
+                final String utterance = utterances[i % utterances.length];
+                final int options = i;
+                futures.add(executor.submit(() -> parseAll(parser, utterance, options)));
+            }
+            for (int i = 0; i < futures.size(); ++i) {
+                assertEquals(parseAll(new EnglishParser(), utterances[i % utterances.length], i)
+                                .toString(),
+                        futures.get(i).get().toString());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
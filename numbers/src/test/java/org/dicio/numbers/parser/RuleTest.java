@@ -0,0 +1,100 @@
+package org.dicio.numbers.parser;
+
+import static org.dicio.numbers.test.TestUtils.n;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.dicio.numbers.parser.lexer.Categories;
+import org.dicio.numbers.parser.lexer.MatchedToken;
+import org.dicio.numbers.parser.lexer.NumberToken;
+import org.dicio.numbers.parser.lexer.Token;
+import org.dicio.numbers.parser.lexer.TokenStream;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class RuleTest {
+    private static final List<Token> TOKENS = Arrays.asList(
+            new MatchedToken("and", " ", 0, Collections.singleton("ignore")),
+            new MatchedToken("the", " ", 4, Collections.singleton("ignore")),
+            new NumberToken("2", " ", 8, Collections.emptySet(), n(2)),
+            new NumberToken("3", " ", 10, Collections.emptySet(), n(3)),
+            new MatchedToken("hello", "", 12, Collections.emptySet())
+    );
+
+    /**
+     * @return a rule parsing {@code count} consecutive numbers and returning their sum
+     */
+    private static Rule<Long> numbers(final int count) {
+        return context -> {
+            long sum = 0;
+            for (int i = 0; i < count; ++i) {
+                if (context.ts.get(i).getNumber() == null) {
+                    return null;
+                }
+                sum += context.ts.get(i).getNumber().integerValue();
+            }
+            context.ts.movePositionForwardBy(count);
+            return sum;
+        };
+    }
+
+    private static ParseContext context(final int position) {
+        final TokenStream ts = new TokenStream(TOKENS);
+        ts.position = position;
+        return new ParseContext(ts);
+    }
+
+    @Test
+    public void testFirstNotNull() {
+        ParseContext context = context(2);
+        assertEquals(Long.valueOf(5), Rule.firstNotNull(numbers(3), numbers(2), numbers(1))
+                .parse(context));
+        assertEquals(4, context.ts.position);
+
+        context = context(2);
+        assertNull(Rule.<Long>firstNotNull().parse(context));
+        assertNull(Rule.firstNotNull(numbers(3), c -> null).parse(context));
+        assertEquals(2, context.ts.position);
+    }
+
+    @Test
+    public void testMostTokens() {
+        ParseContext context = context(2);
+        assertEquals(Long.valueOf(5), Rule.mostTokens(numbers(1), numbers(2), numbers(0))
+                .parse(context));
+        assertEquals(4, context.ts.position);
+
+        // the first rule wins if the same number of tokens is used
+        context = context(2);
+        assertEquals(Long.valueOf(2), Rule.mostTokens(numbers(1), c -> {
+            c.ts.movePositionForwardBy(1);
+            return 100L;
+        }).parse(context));
+        assertEquals(3, context.ts.position);
+
+        context = context(2);
+        assertNull(Rule.mostTokens(numbers(3), c -> null).parse(context));
+        assertEquals(2, context.ts.position);
+    }
+
+    @Test
+    public void testSkipping() {
+        final SkippingRule<Long> rule = Rule.skipping(Categories.IGNORE, numbers(2));
+        ParseContext context = context(0);
+        assertEquals(Long.valueOf(5), rule.parse(context));
+        assertEquals(4, context.ts.position);
+
+        context = context(0);
+        assertNull(rule.parse(context, false));
+        assertEquals(0, context.ts.position);
+
+        // "2" is not ignored, so "hello" can not be reached
+        context = context(0);
+        assertNull(Rule.skipping(Categories.IGNORE, c -> c.ts.get(0).isValue("hello") ? 1 : null)
+                .parse(context));
+        assertEquals(0, context.ts.position);
+    }
+}
@@ -0,0 +1,91 @@
+package org.dicio.numbers.parser.lexer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class CategoryRegistryTest {
+
+    @Test
+    public void testFixedIds() {
+        final CategoryRegistry registry = new CategoryRegistry();
+        assertEquals(Categories.NUMBER, registry.idOf("number"));
+        assertEquals(Categories.ORDINAL_SUFFIX, registry.idOf("ordinal_suffix"));
+        assertEquals(Categories.AMPM_BEFORE_COMBINED, registry.idOf("ampm_before_combined"));
+        assertEquals(Categories.YESTERDAY_ADDER, registry.idOf("yesterday_adder"));
+        assertEquals(-1, registry.idOf("compound_word_piece"));
+        assertEquals(-1, registry.idOf(""));
+
+        final Set<Integer> ids = new HashSet<>();
+        for (final java.lang.reflect.Field field : Categories.class.getFields()) {
+            if (field.getType() == int.class && !field.getName().equals("FIXED_COUNT")) {
+                try {
+                    final int id = field.getInt(null);
+                    assertEquals(field.getName(),
+                            id, registry.idOf(field.getName().toLowerCase()));
+                    ids.add(id);
+                } catch (final IllegalAccessException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        }
+        assertEquals(Categories.FIXED_COUNT, ids.size());
+    }
+
+    @Test
+    public void testDenseIds() {
+        final CategoryRegistry registry = new CategoryRegistry();
+        final CategorySet set = registry.setOf(Arrays.asList("a", "ordinal", "b", "a"));
+        assertEquals(Categories.FIXED_COUNT, registry.idOf("a"));
+        assertEquals(Categories.FIXED_COUNT + 1, registry.idOf("b"));
+
+        assertTrue(set.contains("a"));
+        assertTrue(set.contains("b"));
+        assertTrue(set.contains("ordinal"));
+        assertTrue(set.contains(Categories.ORDINAL));
+        assertTrue(set.contains(Categories.FIXED_COUNT));
+        assertFalse(set.contains("c"));
+        assertFalse(set.contains(Categories.NUMBER));
+        assertFalse(set.contains(-1));
+        assertFalse(set.contains(1000));
+
+        registry.setOf(Collections.singleton("c"));
+        assertEquals(Categories.FIXED_COUNT + 2, registry.idOf("c"));
+        assertFalse(set.contains("c"));
+    }
+
+    @Test
+    public void testManyCategories() {
+        final List<String> names = Arrays.asList(new String[200]);
+        for (int i = 0; i < names.size(); ++i) {
+            names.set(i, "category" + i);
+        }
+        final CategorySet set = CategorySet.of(names.subList(0, 150));
+        for (int i = 0; i < names.size(); ++i) {
+            assertEquals(names.get(i), i < 150, set.contains(names.get(i)));
+        }
+        assertFalse(set.contains(Categories.NUMBER));
+    }
+
+    @Test
+    public void testTokenizerCategories() {
+        final List<Token> tokens = new Tokenizer("config/it-it").tokenize("ventesimo ieri");
+        assertTrue(tokens.get(0).hasCategory(Categories.TENS));
+        assertTrue(tokens.get(0).hasCategory(Categories.ORDINAL));
+        assertTrue(tokens.get(0).hasCategory("compound_word_piece"));
+        assertFalse(tokens.get(0).hasCategory(Categories.DIGIT));
+        assertTrue(tokens.get(1).hasCategory(Categories.YESTERDAY));
+        assertNotEquals(tokens.get(1).hasCategory(Categories.YESTERDAY),
+                tokens.get(1).hasCategory(Categories.TOMORROW));
+        assertFalse(Token.emptyToken().hasCategory(Categories.YESTERDAY));
+    }
+}
@@ -0,0 +1,41 @@
+package org.dicio.numbers.parser.lexer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class CodePointSetTest {
+
+    @Test
+    public void testBmp() {
+        final CodePointSet set = new CodePointSet(" \t\n;»«'\"￿");
+        for (final char c : " \t\n;»«'\"￿".toCharArray()) {
+            assertTrue("Character " + (int) c, set.contains(c));
+        }
+        for (final char c : "a0:?\u0000￾".toCharArray()) {
+            assertFalse("Character " + (int) c, set.contains(c));
+        }
+    }
+
+    @Test
+    public void testSupplementary() {
+        final CodePointSet set = new CodePointSet("😀a𝟏😀"); // 😀, a, 𝟏, 😀
+        assertTrue(set.contains("😀".codePointAt(0)));
+        assertTrue(set.contains(0x1D7CF));
+        assertTrue(set.contains('a'));
+        assertFalse(set.contains("😁".codePointAt(0)));
+        assertFalse(set.contains(0x10FFFF));
+        // surrogates are not matched individually
+        assertFalse(set.contains(0xD835));
+        assertFalse(set.contains(0xDFCF));
+    }
+
+    @Test
+    public void testEmpty() {
+        final CodePointSet set = new CodePointSet("");
+        assertFalse(set.contains(' '));
+        assertFalse(set.contains(0x1F600));
+    }
+}
@@ -0,0 +1,151 @@
+package org.dicio.numbers.parser.lexer;
+
+import static org.dicio.numbers.test.TestUtils.n;
+import static org.dicio.numbers.test.TestUtils.t;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.dicio.numbers.unit.Duration;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class LexiconTest {
+    private static final CategorySet WORD = CategorySet.of(Collections.singleton("word"));
+    private static final CategorySet OTHER = CategorySet.of(Collections.singleton("other"));
+
+    private static Lexicon buildLexicon() {
+        final Lexicon.Builder builder = new Lexicon.Builder();
+        builder.addPluralEnding("es");
+        builder.addPluralEnding("s");
+        builder.addWordMatch("box", WORD);
+        builder.addWordMatch("bo", OTHER);
+        builder.addWordMatch("boxes", OTHER);
+        builder.addWordMatch("cat", WORD);
+        builder.addWordMatch("cat", OTHER);
+        builder.addNumberMapping("cat", WORD, n(9));
+        builder.addWordMatch("tree", WORD);
+        builder.addDurationMapping("second", new Lexicon.DurationMapping("1 SECONDS",
+                new Duration(t(1))));
+        return builder.build();
+    }
+
+    private static Lexicon.Entry lookup(final Lexicon lexicon, final String s) {
+        // surround the value with other characters to make sure the bounds are respected
+        final String surrounded = "xx" + s + "yy";
+        return lexicon.lookup(surrounded, 2, surrounded.length() - 2);
+    }
+
+    @Test
+    public void testExactMatches() {
+        final Lexicon lexicon = buildLexicon();
+        assertSame(OTHER, lookup(lexicon, "bo").getWordCategories());
+        assertSame(WORD, lookup(lexicon, "box").getWordCategories());
+        assertSame(OTHER, lookup(lexicon, "boxes").getWordCategories());
+        assertNull(lookup(lexicon, "b"));
+        assertNull(lookup(lexicon, "boxe"));
+        assertNull(lookup(lexicon, "boxing"));
+        assertNull(lookup(lexicon, ""));
+        assertNull(lookup(lexicon, "zzz"));
+    }
+
+    @Test
+    public void testMergedInformation() {
+        final Lexicon.Entry cat = lookup(buildLexicon(), "cat");
+        assertNotNull(cat);
+        assertEquals("cat", cat.getWord());
+        assertSame(OTHER, cat.getWordCategories()); // the last word match wins
+        assertSame(WORD, cat.getNumberMapping().getCategories());
+        assertEquals(n(9), cat.getNumberMapping().getNumber());
+        assertNull(cat.getDurationMapping());
+
+        final Lexicon.Entry second = lookup(buildLexicon(), "second");
+        assertNotNull(second);
+        assertNull(second.getWordCategories());
+        assertNull(second.getNumberMapping());
+        assertEquals("1 SECONDS", second.getDurationMapping().getDurationCategory());
+    }
+
+    @Test
+    public void testPluralEndings() {
+        final Lexicon lexicon = buildLexicon();
+        assertEquals("cat", lookup(lexicon, "cats").getWord());
+        assertEquals("second", lookup(lexicon, "seconds").getWord());
+        // only the first plural ending that matches is tried, so "tre" is looked up, not "tree"
+        assertNull(lookup(lexicon, "trees"));
+        // exact matches have the precedence over plurals
+        assertEquals("boxes", lookup(lexicon, "boxes").getWord());
+        assertNull(lookup(lexicon, "catss"));
+        assertNull(lookup(lexicon, "s"));
+    }
+
+    @Test
+    public void testLookupExact() {
+        final Lexicon lexicon = buildLexicon();
+        assertEquals("tree", lexicon.lookupExact("tree").getWord());
+        assertNull(lexicon.lookupExact("trees"));
+        assertNull(lexicon.lookupExact(""));
+    }
+
+    private static String splitCompoundWord(final Lexicon lexicon, final String s) {
+        final String surrounded = "xx" + s + "yy";
+        final List<Lexicon.Entry> pieces
+                = lexicon.splitCompoundWord(surrounded, 2, surrounded.length() - 2);
+        if (pieces == null) {
+            return null;
+        }
+        return pieces.stream().map(Lexicon.Entry::getWord).collect(Collectors.joining(" "));
+    }
+
+    @Test
+    public void testSplitCompoundWord() {
+        final Lexicon.Builder builder = new Lexicon.Builder();
+        for (final String piece : new String[] {"ab", "a", "bc", "c", "abc", "d"}) {
+            builder.addWordMatch(piece, WORD);
+            builder.addCompoundWordPiece(piece);
+        }
+        builder.addWordMatch("b", WORD); // not a compound piece
+        final Lexicon lexicon = builder.build();
+
+        assertEquals("ab c", splitCompoundWord(lexicon, "abc")); // "ab" has priority over "a"
+        assertEquals("ab c d", splitCompoundWord(lexicon, "abcd"));
+        assertEquals("ab ab", splitCompoundWord(lexicon, "abab"));
+        assertEquals("a a a", splitCompoundWord(lexicon, "aaa"));
+        assertNull(splitCompoundWord(lexicon, "abb")); // "b" is not a piece
+        assertNull(splitCompoundWord(lexicon, "abx"));
+        assertNull(splitCompoundWord(lexicon, ""));
+        assertNull(splitCompoundWord(buildLexicon(), "boxcat")); // no pieces at all
+    }
+
+    @Test
+    public void testSplitCompoundWordLong() {
+        final Lexicon.Builder builder = new Lexicon.Builder();
+        builder.addWordMatch("a", WORD);
+        builder.addCompoundWordPiece("a");
+        builder.addWordMatch("aa", WORD);
+        builder.addCompoundWordPiece("aa");
+        final Lexicon lexicon = builder.build();
+
+        // with backtracking this would take exponential time, since the final "b" makes every
+        // possible split of the "a"s fail
+        assertNull(splitCompoundWord(lexicon, "a".repeat(10000) + "b"));
+        assertEquals(String.join(" ", Collections.nCopies(10000, "a")),
+                splitCompoundWord(lexicon, "a".repeat(10000)));
+    }
+
+    @Test
+    public void testRestrictedAfterNumber() {
+        final Lexicon.Builder builder = new Lexicon.Builder();
+        builder.addDurationMapping("s", new Lexicon.DurationMapping("1 SECONDS",
+                new Duration(t(1))));
+        assertNull(builder.getDurationMapping("ms"));
+        builder.getDurationMapping("s").setRestrictedAfterNumber(true);
+        assertTrue(builder.build().lookupExact("s").getDurationMapping()
+                .getRestrictedAfterNumber());
+    }
+}
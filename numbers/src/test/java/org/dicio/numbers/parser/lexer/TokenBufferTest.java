@@ -0,0 +1,96 @@
+package org.dicio.numbers.parser.lexer;
+
+import static org.dicio.numbers.test.TestUtils.n;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.dicio.numbers.test.WithTokenizerTestBase;
+import org.junit.Test;
+
+import java.util.List;
+
+public class TokenBufferTest extends WithTokenizerTestBase {
+
+    @Override
+    public String configFolder() {
+        return "config/en-us";
+    }
+
+    @Test
+    public void testReuse() {
+        final TokenBuffer buffer = new TokenBuffer();
+        final StringBuilder s = new StringBuilder("  twenty two, hours  ");
+        tokenizer.tokenize(s, buffer);
+        assertEquals(5, buffer.size());
+        final Token twenty = buffer.get(1);
+        final Token hours = buffer.get(4);
+        assertSame(twenty, buffer.get(1)); // tokens are only created once
+
+        // the buffer contains more tokens than the initial capacity, so it will need to grow
+        tokenizer.tokenize("one 2 three 4 five 6 seven 8 nine 10 eleven 12 thirteen 14 fifteen"
+                + " 16 seventeen 18 nineteen 20", buffer);
+        assertEquals(20, buffer.size());
+        assertEquals("one", buffer.get(0).getValue());
+        assertEquals(" ", buffer.get(18).getSpacesFollowing());
+        assertEquals("20", buffer.get(19).getValue());
+        assertEquals(n(20), buffer.getNumber(19));
+
+        // tokens obtained before reusing the buffer are still valid
+        assertEquals("twenty", twenty.getValue());
+        assertEquals(" ", twenty.getSpacesFollowing());
+        assertEquals(2, twenty.positionInOriginalString);
+        assertEquals(n(20), twenty.getNumber());
+        assertEquals("hours", hours.getValue());
+        assertEquals("  ", hours.getSpacesFollowing());
+        assertTrue(hours.getAsDurationToken() != null);
+
+        tokenizer.tokenize("", buffer);
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    public void testAccessorsWithoutTokens() {
+        final TokenBuffer buffer = new TokenBuffer();
+        tokenizer.tokenize("and 3rd hello", buffer);
+        final List<Token> tokens = tokenizer.tokenize("and 3rd hello");
+        assertEquals(tokens.size(), buffer.size());
+        for (int i = 0; i < buffer.size(); ++i) {
+            assertEquals(tokens.get(i).getNumber(), buffer.getNumber(i));
+            assertEquals(tokens.get(i).positionInOriginalString,
+                    buffer.getPositionInOriginalString(i));
+            for (final int category : new int[] {Categories.IGNORE, Categories.NUMBER,
+                    Categories.RAW, Categories.ORDINAL_SUFFIX}) {
+                assertEquals(tokens.get(i).hasCategory(category),
+                        buffer.hasCategory(i, category));
+            }
+        }
+        assertTrue(buffer.hasCategory(0, Categories.IGNORE));
+        assertTrue(buffer.hasCategory(1, Categories.RAW));
+        assertTrue(buffer.hasCategory(2, Categories.ORDINAL_SUFFIX));
+        assertFalse(buffer.hasCategory(3, Categories.IGNORE));
+        assertNull(buffer.getNumber(3));
+    }
+
+    @Test
+    public void testTokenStreamOverBuffer() {
+        final TokenBuffer buffer = new TokenBuffer();
+        tokenizer.tokenize("and a an hello", buffer);
+        final TokenStream ts = new TokenStream(buffer);
+        assertEquals(3, ts.indexOfWithoutCategory(Categories.IGNORE, 0));
+        assertEquals(3, ts.indexOfWithoutCategory("ignore", 0));
+        assertEquals(4, ts.indexOfWithoutCategory(Categories.IGNORE, 4));
+        assertTrue(ts.get(3).isValue("HELLO"));
+        assertFalse(ts.get(3).isValue("hell"));
+        assertEquals(5, ts.get(3).getValueLength());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testOutOfBounds() {
+        final TokenBuffer buffer = new TokenBuffer();
+        tokenizer.tokenize("a b", buffer);
+        buffer.get(2);
+    }
+}
@@ -128,4 +128,95 @@ public class TokenStreamTest {
         assertEquals(TOKENS.get(0), ts.get(0));
         assertEquals(Token.emptyToken(), ts.get(2));
     }
+
+    private static Integer skipIgnore(final TokenStream ts, final int[] calls) {
+        ++calls[0];
+        final int skipped = ts.indexOfWithoutCategory("ignore", 0);
+        ts.movePositionForwardBy(skipped);
+        return skipped;
+    }
+
+    @Test
+    public void testMemoize() {
+        final TokenStream ts = new TokenStream(TOKENS_IGNORES);
+        final MemoRule rule = new MemoRule("skipIgnore");
+        final int[] calls = {0};
+
+        // memoization is disabled by default
+        assertEquals(1, (int) ts.memoize(rule, () -> skipIgnore(ts, calls)));
+        ts.position = 0;
+        assertEquals(1, (int) ts.memoize(rule, () -> skipIgnore(ts, calls)));
+        assertEquals(2, calls[0]);
+
+        ts.setMemoization(true);
+        calls[0] = 0;
+        ts.position = 0;
+        assertEquals(1, (int) ts.memoize(rule, () -> skipIgnore(ts, calls)));
+        assertEquals(1, ts.position);
+        ts.position = 0;
+        assertEquals(1, (int) ts.memoize(rule, () -> skipIgnore(ts, calls)));
+        assertEquals(1, ts.position);
+        assertEquals(1, calls[0]);
+
+        // the rule only looked at tokens 0 and 1, so excluding the following ones changes nothing
+        ts.position = 0;
+        ts.setTokenCount(2);
+        assertEquals(1, (int) ts.memoize(rule, () -> skipIgnore(ts, calls)));
+        assertEquals(1, calls[0]);
+
+        // but excluding token 1 does, and the new result depends on where the tokens end
+        ts.position = 0;
+        ts.setTokenCount(1);
+        assertEquals(1, (int) ts.memoize(rule, () -> skipIgnore(ts, calls)));
+        assertEquals(2, calls[0]);
+        ts.position = 0;
+        ts.setTokenCount(0);
+        assertEquals(0, (int) ts.memoize(rule, () -> skipIgnore(ts, calls)));
+        assertEquals(3, calls[0]);
+        ts.position = 0;
+        ts.setTokenCount(1);
+        assertEquals(1, (int) ts.memoize(rule, () -> skipIgnore(ts, calls)));
+        assertEquals(3, calls[0]);
+
+        // results at other positions are stored separately
+        ts.position = 2;
+        ts.setTokenCount(100);
+        assertEquals(2, (int) ts.memoize(rule, () -> skipIgnore(ts, calls)));
+        assertEquals(4, ts.position);
+        assertEquals(4, calls[0]);
+
+        ts.reset();
+        assertEquals(1, (int) ts.memoize(rule, () -> skipIgnore(ts, calls)));
+        assertEquals(5, calls[0]);
+    }
+
+    @Test
+    public void testMemoizeNested() {
+        final TokenStream ts = new TokenStream(TOKENS_IGNORES);
+        final MemoRule inner = new MemoRule("inner");
+        final MemoRule outer = new MemoRule("outer");
+        final int[] innerCalls = {0};
+        final int[] outerCalls = {0};
+        ts.setMemoization(true);
+
+        assertEquals(1, (int) ts.memoize(inner, () -> skipIgnore(ts, innerCalls)));
+        ts.position = 0;
+        assertEquals(1, (int) ts.memoize(outer, () -> {
+            ++outerCalls[0];
+            return ts.memoize(inner, () -> skipIgnore(ts, innerCalls));
+        }));
+        assertEquals(1, innerCalls[0]);
+        assertEquals(1, outerCalls[0]);
+
+        // the tokens looked at by the inner rule count as looked at by the outer rule, even if the
+        // result of the inner rule was reused
+        ts.position = 0;
+        ts.setTokenCount(1);
+        assertEquals(1, (int) ts.memoize(outer, () -> {
+            ++outerCalls[0];
+            return ts.memoize(inner, () -> skipIgnore(ts, innerCalls));
+        }));
+        assertEquals(2, innerCalls[0]);
+        assertEquals(2, outerCalls[0]);
+    }
 }
@@ -22,8 +22,8 @@ public class TokenizerTest extends WithTokenizerTestBase {
                                         final String value,
                                         final String spacesFollowing,
                                         final int positionInOriginalString) {
-        assertEquals(value, token.value);
-        assertEquals(spacesFollowing, token.spacesFollowing);
+        assertEquals(value, token.getValue());
+        assertEquals(spacesFollowing, token.getSpacesFollowing());
         assertEquals(positionInOriginalString, token.positionInOriginalString);
         assertTrue(token.isValue(value));
         assertFalse(token.isValue(spacesFollowing));
@@ -119,6 +119,31 @@ public class TokenizerTest extends WithTokenizerTestBase {
         assertToken(tokens.get(4),  "z",        ";",  22);
     }
 
+    @Test
+    public void longCompound() {
+        final List<Token> tokens = new Tokenizer("config/it-it").tokenize("duemilanovecentosettantaquattro ventitré");
+        assertToken(tokens.get(0),  "due",      "",   0,  cat("number", "digit", "compound_word_piece"),        cat("ordinal"),    new Number(2));
+        assertToken(tokens.get(1),  "mila",     "",   3,  cat("number", "multiplier", "compound_word_piece"),   cat("ordinal"),    new Number(1000));
+        assertToken(tokens.get(2),  "nove",     "",   7,  cat("number", "digit", "compound_word_piece"),        cat("ordinal"),    new Number(9));
+        assertToken(tokens.get(3),  "cento",    "",   11, cat("number", "hundred", "compound_word_piece"),      cat("ordinal"),    new Number(100));
+        assertToken(tokens.get(4),  "settanta", "",   16, cat("number", "tens", "compound_word_piece"),         cat("ordinal"),    new Number(70));
+        assertToken(tokens.get(5),  "quattro",  " ",  24, cat("number", "digit", "compound_word_piece"),        cat("ordinal"),    new Number(4));
+        assertToken(tokens.get(6),  "venti",    "",   32, cat("number", "tens", "compound_word_piece"),         cat("ordinal"),    new Number(20));
+        assertToken(tokens.get(7),  "tre",      "",   37, cat("number", "digit", "compound_word_piece"),        cat("ordinal"),    new Number(3));
+        assertEquals(8, tokens.size());
+    }
+
+    @Test
+    public void supplementaryCodePoints() {
+        final List<Token> tokens = tokenizer.tokenize("a😀b 😀, 𝟏2 𝟏 two");
+        assertToken(tokens.get(0),  "a😀b",            " ", 0);
+        assertToken(tokens.get(1),  "😀",              "",  5);
+        assertToken(tokens.get(2),  ",",              " ", 7,  cat("ignore"),             cat("number"));
+        assertToken(tokens.get(3),  "𝟏2",             " ", 9,  cat("number", "raw"),      cat("digit"),  new Number(12));
+        assertToken(tokens.get(4),  "𝟏",              " ", 13, cat("number", "raw"),      cat("digit"),  new Number(1));
+        assertToken(tokens.get(5),  "two",            "",  16, cat("number", "digit"),    cat("raw"),    new Number(2));
+    }
+
     @Test
     public void hugeNumbers() {
         final String doubleMax = "179769313486231570000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000";
@@ -136,5 +161,10 @@ public class TokenizerTest extends WithTokenizerTestBase {
         assertToken(tokens.get(8),  doubleMax,              " ", 105, cat("number", "raw"),    cat("digit"),  new Number(Double.MAX_VALUE));
         assertToken(tokens.get(9),  "1" + doubleMax,        " ", 415);
         assertToken(tokens.get(10), doubleMax.repeat(10),   "",  726);
+
+        final String arabicIndicDigits = "٠١٢٣٤٥٦٧٨٩";
+        final List<Token> arabicIndicTokens = tokenizer.tokenize(arabicIndicDigits + " " + arabicIndicDigits.repeat(3));
+        assertToken(arabicIndicTokens.get(0), arabicIndicDigits,           " ", 0,  cat("number", "raw"), cat("digit"), new Number(123456789L));
+        assertToken(arabicIndicTokens.get(1), arabicIndicDigits.repeat(3), "",  11, cat("number", "raw"), cat("digit"), new Number(12345678901234567890123456789.0));
     }
 }
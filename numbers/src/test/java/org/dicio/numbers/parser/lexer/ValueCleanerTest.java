@@ -0,0 +1,68 @@
+package org.dicio.numbers.parser.lexer;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.text.Normalizer;
+import java.util.Locale;
+
+public class ValueCleanerTest {
+
+    private static String clean(final String s) {
+        final StringBuilder out = new StringBuilder("prefix");
+        ValueCleaner.INSTANCE.clean("<" + s + ">", 1, s.length() + 1, out);
+        assertEquals("prefix", out.substring(0, 6));
+        return out.substring(6);
+    }
+
+    private static String reference(final String s) {
+        return Normalizer.normalize(s.toLowerCase(Locale.ROOT), Normalizer.Form.NFKD)
+                .replaceAll("\\p{InCombiningDiacriticalMarks}+", "");
+    }
+
+    @Test
+    public void testAscii() {
+        assertEquals("hello", clean("HeLLo"));
+        assertEquals("", clean(""));
+        assertEquals("a1-b2!", clean("A1-b2!"));
+    }
+
+    @Test
+    public void testAccents() {
+        assertEquals("perche", clean("perché"));
+        assertEquals("piu", clean("PIÙ"));
+        assertEquals("e", clean("è"));
+        assertEquals("citta", clean("città"));
+        assertEquals("threes", clean("ThréèS"));
+        assertEquals("couple", clean("çòÙplé"));
+        assertEquals("i", clean("İ"));
+    }
+
+    @Test
+    public void testSameAsNormalizer() {
+        // single characters, both inside and outside the fold table
+        for (char c = 0; c < 0x800; ++c) {
+            final String s = "a" + c + "b";
+            assertEquals("Character " + (int) c, reference(s), clean(s));
+        }
+
+        // characters that are not cleaned character by character
+        for (final String s : new String[] {"ŉ", "ﬁve", "½", "Ǆ", "ΣΑΣ", "é", "́",
+                "𝟏", "ĳ", "ß", "Ⅻ", "ª°"}) {
+            assertEquals(s, reference(s), clean(s));
+        }
+    }
+
+    @Test
+    public void testIndependentFromDefaultLocale() {
+        final Locale defaultLocale = Locale.getDefault();
+        try {
+            Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+            assertEquals("iki", clean("IKI"));
+            assertEquals("milano", clean("MİLANO"));
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+}
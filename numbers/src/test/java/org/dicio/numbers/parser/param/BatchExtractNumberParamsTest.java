@@ -0,0 +1,141 @@
+package org.dicio.numbers.parser.param;
+
+import static org.dicio.numbers.test.TestUtils.n;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.dicio.numbers.lang.en.EnglishParser;
+import org.dicio.numbers.parser.Parser;
+import org.dicio.numbers.unit.Number;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class BatchExtractNumberParamsTest {
+    private static final Parser PARSER = new EnglishParser();
+    private static final String[] WORDS = {"I", "have", "twenty", "three", "point", "five",
+            "apples", "and", "a", "half", "hundred", "first", "second", "million", "2", "17.5",
+            "the", "42nd", "of", "thousand", "minus", "seven", "eighths", ",", "dozen"};
+
+    private static List<String> randomUtterances(final int count) {
+        final Random random = new Random(42);
+        final List<String> utterances = new ArrayList<>();
+        for (int i = 0; i < count; ++i) {
+            final StringBuilder utterance = new StringBuilder();
+            for (int j = random.nextInt(12); j > 0; --j) {
+                utterance.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+            }
+            utterances.add(utterance.toString());
+        }
+        return utterances;
+    }
+
+    private static void assertSameAsMixedWithText(final List<String> utterances,
+                                                  final ExtractedNumbers result) {
+        assertEquals(utterances.size(), result.getUtteranceCount());
+        int index = 0;
+        for (int u = 0; u < utterances.size(); ++u) {
+            final List<Number> expected = new ArrayList<>();
+            for (final Object o : new ExtractNumberParams(PARSER, utterances.get(u))
+                    .preferOrdinal(true).parseMixedWithText()) {
+                if (o instanceof Number) {
+                    expected.add((Number) o);
+                }
+            }
+
+            final List<Number> actual = new ArrayList<>();
+            for (final int i : result.indicesOf(u)) {
+                assertEquals(index++, i);
+                actual.add(result.getNumber(i));
+            }
+            assertEquals(utterances.get(u), expected, actual);
+        }
+        assertEquals(index, result.getSize());
+    }
+
+    @Test
+    public void testResults() {
+        final ExtractedNumbers result = new BatchExtractNumberParams(PARSER, Arrays.asList(
+                "I am twenty three years old", "", "no numbers here", "the first and 2.5"))
+                .parse();
+
+        assertEquals(4, result.getUtteranceCount());
+        assertEquals(3, result.getSize());
+        assertEquals(0, result.indicesOf(0).getFirst());
+        assertEquals(0, result.indicesOf(0).getLast());
+        assertTrue(result.indicesOf(1).isEmpty());
+        assertTrue(result.indicesOf(2).isEmpty());
+        assertEquals(1, result.indicesOf(3).getFirst());
+        assertEquals(2, result.indicesOf(3).getLast());
+
+        assertEquals(5, result.getStart(0));
+        assertEquals(17, result.getEnd(0));
+        assertFalse(result.isDecimal(0));
+        assertFalse(result.isOrdinal(0));
+        assertEquals(23, result.getIntegerValue(0));
+
+        assertEquals(4, result.getStart(1));
+        assertEquals(9, result.getEnd(1));
+        assertTrue(result.isOrdinal(1));
+        assertEquals(n(1, true), result.getNumber(1));
+
+        assertEquals(14, result.getStart(2));
+        assertEquals(17, result.getEnd(2));
+        assertTrue(result.isDecimal(2));
+        assertEquals(2.5, result.getDecimalValue(2), 0.0);
+    }
+
+    @Test
+    public void testSameAsMixedWithText() {
+        final List<String> utterances = randomUtterances(300);
+        assertSameAsMixedWithText(utterances, new BatchExtractNumberParams(PARSER, utterances)
+                .preferOrdinal(true).parse());
+    }
+
+    @Test
+    public void testParallel() {
+        final List<String> utterances = randomUtterances(3000);
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertSameAsMixedWithText(utterances, new BatchExtractNumberParams(PARSER, utterances)
+                    .preferOrdinal(true).parallel(pool).parse());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testExact() {
+        final List<String> utterances = Arrays.asList("zero point one two three and 7",
+                "123456789012345678901234567890", "one point five");
+        final ExtractedNumbers exact =
+                new BatchExtractNumberParams(PARSER, utterances).exact(true).parse();
+        assertEquals(4, exact.getSize());
+        assertEquals(new BigDecimal("0.123"), exact.getExactDecimalValue(0));
+        assertEquals(new BigDecimal("0.123"), exact.getNumber(0).toBigDecimal());
+        assertNull(exact.getExactDecimalValue(1)); // integers need no exact value
+        assertEquals(new BigDecimal("123456789012345678901234567890"),
+                exact.getExactDecimalValue(2));
+        assertEquals(new BigDecimal("1.5"), exact.getExactDecimalValue(3));
+
+        // exact values are not kept by default
+        final ExtractedNumbers notExact = new BatchExtractNumberParams(PARSER, utterances).parse();
+        assertNull(notExact.getExactDecimalValue(0));
+        assertFalse(notExact.getNumber(2).isExact());
+    }
+
+    @Test
+    public void testEmpty() {
+        final ExtractedNumbers result =
+                new BatchExtractNumberParams(PARSER, new ArrayList<>()).parse();
+        assertEquals(0, result.getUtteranceCount());
+        assertEquals(0, result.getSize());
+    }
+}
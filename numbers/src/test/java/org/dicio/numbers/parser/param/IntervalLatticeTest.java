@@ -0,0 +1,88 @@
+package org.dicio.numbers.parser.param;
+
+import static org.dicio.numbers.test.TestUtils.n;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.dicio.numbers.lang.en.EnglishParser;
+import org.dicio.numbers.parser.Parser;
+import org.dicio.numbers.unit.Number;
+import org.junit.Test;
+
+public class IntervalLatticeTest {
+    private static final Parser PARSER = new EnglishParser();
+
+    @Test
+    public void testEdges() {
+        final IntervalLattice<Number> lattice =
+                new ExtractNumberParams(PARSER, "I have twenty three apples").parseLattice();
+
+        assertEquals(5, lattice.getTokenCount());
+        assertEquals(3, lattice.getSize());
+        for (final int token : new int[] {0, 1, 4}) {
+            assertTrue(lattice.edgesFrom(token).isEmpty());
+            assertEquals(-1, lattice.longestEdgeFrom(token));
+        }
+
+        // "twenty three", then "twenty"
+        assertEquals(0, lattice.edgesFrom(2).getFirst());
+        assertEquals(1, lattice.edgesFrom(2).getLast());
+        assertEquals(0, lattice.longestEdgeFrom(2));
+        assertEquals(2, lattice.getStartToken(0));
+        assertEquals(4, lattice.getEndToken(0));
+        assertEquals(7, lattice.getStart(0));
+        assertEquals(19, lattice.getEnd(0));
+        assertEquals(n(23, false), lattice.getValue(0));
+        assertTrue(lattice.isLargestPossible(0));
+        assertEquals(2, lattice.getStartToken(1));
+        assertEquals(3, lattice.getEndToken(1));
+        assertEquals(n(20, false), lattice.getValue(1));
+        assertFalse(lattice.isLargestPossible(1));
+
+        // "three"
+        assertEquals(2, lattice.longestEdgeFrom(3));
+        assertEquals(2, lattice.edgesFrom(3).getFirst());
+        assertEquals(2, lattice.edgesFrom(3).getLast());
+        assertEquals(3, lattice.getStartToken(2));
+        assertEquals(4, lattice.getEndToken(2));
+        assertEquals(14, lattice.getStart(2));
+        assertEquals(19, lattice.getEnd(2));
+        assertEquals(n(3, false), lattice.getValue(2));
+        assertFalse(lattice.isLargestPossible(2));
+    }
+
+    @Test
+    public void testEmpty() {
+        final IntervalLattice<Number> lattice =
+                new ExtractNumberParams(PARSER, "no numbers here").parseLattice();
+        assertEquals(3, lattice.getTokenCount());
+        assertEquals(0, lattice.getSize());
+        for (int token = 0; token < lattice.getTokenCount(); ++token) {
+            assertTrue(lattice.edgesFrom(token).isEmpty());
+        }
+        assertTrue(lattice.toMatchedRanges().isEmpty());
+
+        assertEquals(0, new ExtractNumberParams(PARSER, "").parseLattice().getTokenCount());
+    }
+
+    @Test
+    public void testSameAsPossibleIntervals() {
+        final String s = "the 3rd of may at twenty past five, a million and a half people, "
+                + "one hundred and twelve point three, minus seven eighths";
+        final IntervalLattice<Number> lattice = new ExtractNumberParams(PARSER, s).parseLattice();
+        assertEquals(new ExtractNumberParams(PARSER, s).parsePossibleIntervals(),
+                lattice.toMatchedRanges());
+
+        // every edge starts at the token it is listed under and ends after it
+        for (int token = 0; token < lattice.getTokenCount(); ++token) {
+            int previousEnd = Integer.MAX_VALUE;
+            for (final int edge : lattice.edgesFrom(token)) {
+                assertEquals(token, lattice.getStartToken(edge));
+                assertTrue(lattice.getEndToken(edge) > token);
+                assertTrue(lattice.getEndToken(edge) < previousEnd);
+                previousEnd = lattice.getEndToken(edge);
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package org.dicio.numbers.parser.param;
+
+import static org.junit.Assert.assertEquals;
+
+import org.dicio.numbers.lang.en.EnglishParser;
+import org.dicio.numbers.lang.it.ItalianParser;
+import org.dicio.numbers.parser.Parser;
+import org.junit.AfterClass;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class ParallelMixedWithTextTest {
+    private static final Parser EN_PARSER = new EnglishParser();
+    private static final Parser IT_PARSER = new ItalianParser();
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 2, 29, 9, 41, 3);
+    private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+    private static final String[] EN_WORDS = {"I", "have", "twenty", "three", "point", "five",
+            "apples", "and", "a", "half", "hundred", "first", "second", "million", "2", "17.5",
+            "the", "42nd", "of", "thousand", "minus", "seven", "eighths", ",", "dozen", "minutes",
+            "hours", "ago", "in", "tomorrow", "at", "pm", "january", "monday", "next", "week", "."};
+    private static final String[] IT_WORDS = {"ho", "ventitre", "virgola", "cinque", "mele", "e",
+            "mezzo", "cento", "primo", "secondo", "milioni", "2", "17,5", "il", "di", "mila",
+            "meno", "sette", "ottavi", ",", "dozzina", "minuti", "ore", "fa", "tra", "domani",
+            "alle", "sera", "gennaio", "lunedì", "prossima", "settimana", "."};
+
+    @AfterClass
+    public static void shutdownPool() {
+        POOL.shutdown();
+    }
+
+    /**
+     * @param punctuation whether to end sentences with punctuation, otherwise chunk boundaries
+     *                    will mostly fall in the middle of objects
+     */
+    private static String randomDocument(final String[] words,
+                                         final int wordCount,
+                                         final boolean punctuation,
+                                         final long seed) {
+        final Random random = new Random(seed);
+        final StringBuilder document = new StringBuilder();
+        for (int i = 0; i < wordCount; ++i) {
+            final String word = words[random.nextInt(words.length)];
+            if (punctuation || !word.equals(".")) {
+                document.append(word).append(random.nextInt(10) == 0 ? "\n" : " ");
+            }
+        }
+        return document.toString();
+    }
+
+    private static List<String> toStrings(final List<Object> textAndObjects) {
+        // durations do not implement equals, so compare everything as strings (along with the
+        // class, so that e.g. text can not be confused with numbers)
+        final List<String> result = new ArrayList<>();
+        for (final Object o : textAndObjects) {
+            result.add(o.getClass().getSimpleName() + ":" + o);
+        }
+        return result;
+    }
+
+    private static void assertSameAsSequential(final ParserParams<?> params) {
+        assertEquals(toStrings(params.parseMixedWithText()),
+                toStrings(params.parseMixedWithText(POOL)));
+    }
+
+    private static void assertSameAsSequential(final Parser parser, final String document) {
+        assertSameAsSequential(new ExtractNumberParams(parser, document).preferOrdinal(true));
+        assertSameAsSequential(new ExtractNumberParams(parser, document).integerOnly(true));
+        assertSameAsSequential(new ExtractDurationParams(parser, document));
+        assertSameAsSequential(new ExtractDateTimeParams(parser, document).now(NOW));
+    }
+
+    @Test
+    public void testEnglish() {
+        for (int seed = 0; seed < 3; ++seed) {
+            assertSameAsSequential(EN_PARSER, randomDocument(EN_WORDS, 20000, true, seed));
+            assertSameAsSequential(EN_PARSER, randomDocument(EN_WORDS, 20000, false, seed));
+        }
+    }
+
+    @Test
+    public void testItalian() {
+        for (int seed = 0; seed < 3; ++seed) {
+            assertSameAsSequential(IT_PARSER, randomDocument(IT_WORDS, 20000, true, seed));
+            assertSameAsSequential(IT_PARSER, randomDocument(IT_WORDS, 20000, false, seed));
+        }
+    }
+
+    @Test
+    public void testObjectsAcrossAllChunks() {
+        // a single number spanning the whole document, which all chunks but the first one start in
+        // the middle of
+        final StringBuilder document = new StringBuilder("the number");
+        for (int i = 0; i < 3000; ++i) {
+            document.append(" 123,456");
+        }
+        document.append(" is big");
+        assertSameAsSequential(new ExtractNumberParams(EN_PARSER, document.toString()));
+    }
+
+    @Test
+    public void testShort() {
+        assertSameAsSequential(EN_PARSER, "");
+        assertSameAsSequential(EN_PARSER, "   ");
+        assertSameAsSequential(EN_PARSER, "twenty three minutes ago, at seven pm");
+        assertEquals(new ExtractNumberParams(EN_PARSER, "one two three").parseMixedWithText(),
+                new ExtractNumberParams(EN_PARSER, "one two three").parseMixedWithText(null));
+    }
+}
@@ -5,12 +5,15 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
 
 import org.dicio.numbers.parser.Parser;
+import org.dicio.numbers.parser.lexer.TokenStream;
 import org.dicio.numbers.unit.Duration;
 import org.dicio.numbers.unit.Number;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 @SuppressWarnings({"unchecked", "DataFlowIssue"})
 public abstract class ParserParamsTestBase {
@@ -120,4 +123,59 @@ public abstract class ParserParamsTestBase {
         assertPpPossibleIntervals(new ExtractDateTimeParams(numberParser(), s).now(now),
                 Function.identity(), expectedRanges);
     }
+
+    /**
+     * The same as {@link ParserParams#parsePossibleIntervals()}, but with memoization disabled.
+     */
+    private <T> List<ParserParams.MatchedRange<T>> possibleIntervalsNotMemoized(
+            final ParserParams<T> pp, final String s) {
+        final TokenStream ts = numberParser().tokenize(s);
+        final int tokenCount = ts.getTokenCount();
+        final Supplier<T> extractor = pp.getExtractorAtCurrentPosition(ts)::invoke;
+        final List<ParserParams.MatchedRange<T>> ranges = new ArrayList<>();
+
+        int maxEndSoFar = 0;
+        for (int start = 0; start < tokenCount; ++start) {
+            ts.setTokenCount(tokenCount);
+            ts.position = start;
+            final int startPositionInOriginalString = ts.get(0).positionInOriginalString;
+            while (true) {
+                ts.position = start;
+                final T parsedData = extractor.get();
+                if (parsedData == null) {
+                    break;
+                }
+                ranges.add(new ParserParams.MatchedRange<>(startPositionInOriginalString,
+                        ts.get(-1).positionInOriginalString + ts.get(-1).getValueLength(),
+                        parsedData,
+                        ts.getTokenCount() == tokenCount && ts.position > maxEndSoFar));
+                maxEndSoFar = Math.max(maxEndSoFar, ts.position);
+                ts.setTokenCount(ts.position - 1);
+            }
+        }
+        return ranges;
+    }
+
+    private <T> void assertPossibleIntervalsMemoized(final ParserParams<T> pp, final String s) {
+        final List<ParserParams.MatchedRange<T>> expected = possibleIntervalsNotMemoized(pp, s);
+        final List<ParserParams.MatchedRange<T>> actual = pp.parsePossibleIntervals();
+        for (int i = 0; i < Math.min(expected.size(), actual.size()); ++i) {
+            // compare the string representations, since Duration does not implement equals()
+            assertEquals("Range " + i, expected.get(i).toString(), actual.get(i).toString());
+        }
+        assertEquals(expected.size(), actual.size());
+    }
+
+    protected void assertPossibleIntervalsSameAsNotMemoized(final String s,
+                                                            final LocalDateTime now) {
+        for (final boolean shortScale : new boolean[] {false, true}) {
+            for (final boolean preferOrdinal : new boolean[] {false, true}) {
+                assertPossibleIntervalsMemoized(new ExtractNumberParams(numberParser(), s)
+                        .shortScale(shortScale).preferOrdinal(preferOrdinal), s);
+            }
+            assertPossibleIntervalsMemoized(
+                    new ExtractDurationParams(numberParser(), s).shortScale(shortScale), s);
+        }
+        assertPossibleIntervalsMemoized(new ExtractDateTimeParams(numberParser(), s).now(now), s);
+    }
 }
@@ -0,0 +1,132 @@
+package org.dicio.numbers.parser.param;
+
+import static org.dicio.numbers.test.TestUtils.n;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+
+import org.dicio.numbers.lang.en.EnglishParser;
+import org.dicio.numbers.lang.it.ItalianParser;
+import org.dicio.numbers.parser.Parser;
+import org.dicio.numbers.unit.Number;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+public class ParserSessionTest {
+    private static final Parser EN = new EnglishParser();
+    private static final Parser IT = new ItalianParser();
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 2, 24, 6, 5, 4);
+
+    private static final String[] EN_WORDS = {"set", "a", "timer", "for", "twenty", "three",
+            "minutes", "and", "half", "hour", "at", "5", "p.m.", "on", "the", "first", "of", "may",
+            "tomorrow", "two", "thousand", "twentytwo", "seconds", ",", "next", "week", "17:30",
+            "million", "point", "seven", "-", "eighths", "  ", "dozen", "days", "ago"};
+    private static final String[] IT_WORDS = {"imposta", "un", "timer", "di", "venti", "tre",
+            "minuti", "e", "mezza", "ora", "alle", "5", "il", "primo", "maggio", "domani", "due",
+            "mila", "ventidue", "secondi", ",", "prossima", "settimana", "17:30", "milioni",
+            "virgola", "sette", "ottavi", "  ", "dozzina", "giorni", "fa"};
+
+    private static String randomText(final Random random, final String[] words) {
+        final StringBuilder text = new StringBuilder();
+        for (int i = random.nextInt(40); i > 0; --i) {
+            text.append(words[random.nextInt(words.length)]);
+            text.append(random.nextInt(5) == 0 ? "" : " ");
+        }
+        return text.toString();
+    }
+
+    private static <T> void assertSameAsMixedWithText(
+            final Function<String, ParserParams<T>> params,
+            final ParserSession<T> session) {
+        // compare the string representations, since Duration does not implement equals()
+        assertEquals(session.getText(),
+                params.apply(session.getText()).parseMixedWithText().toString(),
+                session.parseMixedWithText().toString());
+    }
+
+    private static <T> void assertIncrementalSameAsMixedWithText(
+            final Function<String, ParserParams<T>> params,
+            final String[] words) {
+        final Random random = new Random(42);
+        for (int i = 0; i < 30; ++i) {
+            final String fullText = randomText(random, words);
+            final ParserSession<T> session = params.apply("").startSession();
+            assertSameAsMixedWithText(params, session);
+
+            // add a few characters at a time, cutting words in the middle too
+            int length = 0;
+            while (length < fullText.length()) {
+                length = Math.min(fullText.length(), length + 1 + random.nextInt(8));
+                if (random.nextInt(4) == 0) {
+                    // the recognizer changes its mind about the last part of the text
+                    session.replaceSuffix(Math.max(0, session.getText().length()
+                            - random.nextInt(10)), randomText(random, words));
+                    assertSameAsMixedWithText(params, session);
+                }
+                final String currentText = session.getText();
+                if (random.nextBoolean() && currentText.length() <= length
+                        && fullText.startsWith(currentText)) {
+                    session.append(fullText.substring(currentText.length(), length));
+                } else {
+                    session.update(fullText.substring(0, length));
+                }
+                assertSameAsMixedWithText(params, session);
+            }
+        }
+    }
+
+    @Test
+    public void testEnglish() {
+        assertIncrementalSameAsMixedWithText(s -> new ExtractNumberParams(EN, s), EN_WORDS);
+        assertIncrementalSameAsMixedWithText(s -> new ExtractNumberParams(EN, s)
+                .shortScale(false).preferOrdinal(true), EN_WORDS);
+        assertIncrementalSameAsMixedWithText(s -> new ExtractDurationParams(EN, s), EN_WORDS);
+        assertIncrementalSameAsMixedWithText(s -> new ExtractDateTimeParams(EN, s).now(NOW),
+                EN_WORDS);
+    }
+
+    @Test
+    public void testItalian() {
+        assertIncrementalSameAsMixedWithText(s -> new ExtractNumberParams(IT, s), IT_WORDS);
+        assertIncrementalSameAsMixedWithText(s -> new ExtractDurationParams(IT, s), IT_WORDS);
+        assertIncrementalSameAsMixedWithText(s -> new ExtractDateTimeParams(IT, s).now(NOW),
+                IT_WORDS);
+    }
+
+    @Test
+    public void testEntities() {
+        final ParserSession<Number> session =
+                new ExtractNumberParams(EN, "I have twenty").startSession();
+        assertEquals(1, session.getEntities().size());
+        assertEquals(new ParserSession.Entity<>(7, 13, n(20, false)),
+                session.getEntities().get(0));
+
+        // "twenty" is still the last word, so it could still become part of a longer number
+        assertEquals(0, session.append(" three apples and"));
+        assertEquals(1, session.getEntities().size());
+        final ParserSession.Entity<Number> twentyThree = session.getEntities().get(0);
+        assertEquals(new ParserSession.Entity<>(7, 19, n(23, false)), twentyThree);
+
+        // now the first number is not looked at anymore, and is kept as is
+        assertEquals(1, session.append(" 4 pears"));
+        assertEquals(2, session.getEntities().size());
+        assertSame(twentyThree, session.getEntities().get(0));
+        assertEquals(new ParserSession.Entity<>(31, 32, n(4, false)),
+                session.getEntities().get(1));
+
+        assertEquals(1, session.replaceSuffix(31, "five"));
+        assertEquals("I have twenty three apples and five", session.getText());
+        assertSame(twentyThree, session.getEntities().get(0));
+        assertEquals(new ParserSession.Entity<>(31, 35, n(5, false)),
+                session.getEntities().get(1));
+
+        assertThrows(IllegalArgumentException.class, () -> session.replaceSuffix(100, ""));
+
+        assertEquals(0, session.update(""));
+        assertEquals(0, session.getEntities().size());
+    }
+}
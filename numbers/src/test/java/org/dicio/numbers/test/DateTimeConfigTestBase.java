@@ -8,6 +8,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 
 public abstract class DateTimeConfigTestBase {
@@ -43,9 +44,9 @@ public abstract class DateTimeConfigTestBase {
         assertNotNull(config.today);
         assertNotNull(config.tomorrow);
         assertNotNull(config.yesterday);
-        assertNotNull(config.weekdays);
-        assertNotNull(config.days);
-        assertNotNull(config.months);
+        assertNotNull(config.weekdayNames);
+        assertNotNull(config.dayNames);
+        assertNotNull(config.monthNames);
         assertNotNull(config.numbers);
         assertNotNull(config.dayWord);
         assertNotNull(config.daysWord);
@@ -91,13 +92,22 @@ public abstract class DateTimeConfigTestBase {
 
     @Test
     public void correctLengths() {
-        assertEquals(7, config.weekdays.length);
-        assertEquals(31, config.days.length);
-        assertEquals(12, config.months.length);
+        assertEquals(7, config.weekdayNames.size());
+        assertEquals(31, config.dayNames.size());
+        assertEquals(12, config.monthNames.size());
         assertTrue("numbers list size " + config.numbers.size() + " is not at least 20",
                 config.numbers.size() > 20);
     }
 
+    @Test
+    public void unmodifiable() {
+        // configs are shared by all users of a language, so nobody may change them
+        assertThrows(UnsupportedOperationException.class, () -> config.weekdayNames.set(0, ""));
+        assertThrows(UnsupportedOperationException.class, () -> config.dayNames.set(0, ""));
+        assertThrows(UnsupportedOperationException.class, () -> config.monthNames.set(0, ""));
+        assertThrows(UnsupportedOperationException.class, () -> config.numbers.put(0, ""));
+    }
+
     @Test
     public void numbers() {
         for (int i = 0; i < 20; ++i) {
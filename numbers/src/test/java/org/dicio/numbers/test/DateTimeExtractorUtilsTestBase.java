@@ -9,23 +9,26 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import org.dicio.numbers.lang.it.ItalianDateTimeExtractor;
+import org.dicio.numbers.parser.ParseContext;
 import org.dicio.numbers.parser.lexer.TokenStream;
 import org.dicio.numbers.unit.Duration;
 import org.dicio.numbers.util.DateTimeExtractorUtils;
 import org.junit.Test;
 
-import java.util.function.Function;
+import java.util.function.BiFunction;
 
 public abstract class DateTimeExtractorUtilsTestBase extends WithTokenizerTestBase {
 
-    public abstract DateTimeExtractorUtils build(final TokenStream ts);
+    public abstract DateTimeExtractorUtils build();
+
+    public abstract ParseContext context(final TokenStream ts);
 
     public void assertRelativeDurationFunction(final String s,
                                                final Duration expectedDuration,
                                                final int finalTokenStreamPosition,
-                                               final Function<DateTimeExtractorUtils, Duration> durationFunction) {
+                                               final BiFunction<DateTimeExtractorUtils, ParseContext, Duration> durationFunction) {
         final TokenStream ts = new TokenStream(tokenizer.tokenize(s));
-        final Duration actualDuration = durationFunction.apply(build(ts));
+        final Duration actualDuration = durationFunction.apply(build(), context(ts));
         assertNotNull("null relative duration for string \"" + s + "\"", actualDuration);
         assertEquals("wrong final token position for string \"" + s + "\"",
                 finalTokenStreamPosition, ts.position);
@@ -39,9 +42,9 @@ public abstract class DateTimeExtractorUtilsTestBase extends WithTokenizerTestBa
     }
 
     public void assertRelativeDurationFunctionNull(final String s,
-                                                   final Function<DateTimeExtractorUtils, Duration> durationFunction) {
+                                                   final BiFunction<DateTimeExtractorUtils, ParseContext, Duration> durationFunction) {
         final TokenStream ts = new TokenStream(tokenizer.tokenize(s));
-        final Duration duration = durationFunction.apply(build(ts));
+        final Duration duration = durationFunction.apply(build(), context(ts));
 
         if (duration != null) {
             fail("expected no relative duration (null), but got \"" + niceDuration(duration) + "\"");
@@ -51,16 +54,16 @@ public abstract class DateTimeExtractorUtilsTestBase extends WithTokenizerTestBa
     public <T> void assertFunction(final String s,
                                    final T expectedResult,
                                    int finalTokenStreamPosition,
-                                   final Function<DateTimeExtractorUtils, T> function) {
+                                   final BiFunction<DateTimeExtractorUtils, ParseContext, T> function) {
         final TokenStream ts = new TokenStream(tokenizer.tokenize(s));
         assertEquals("wrong result for string \"" + s + "\"",
-                expectedResult, function.apply(build(ts)));
+                expectedResult, function.apply(build(), context(ts)));
         assertEquals("wrong final token position for string \"" + s + "\"",
                 finalTokenStreamPosition, ts.position);
     }
 
     public <T> void assertFunctionNull(final String s,
-                                       final Function<DateTimeExtractorUtils, T> numberFunction) {
+                                       final BiFunction<DateTimeExtractorUtils, ParseContext, T> numberFunction) {
         assertFunction(s, null, 0, numberFunction);
     }
 
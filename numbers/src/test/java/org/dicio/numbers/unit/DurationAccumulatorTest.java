@@ -0,0 +1,97 @@
+package org.dicio.numbers.unit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+public class DurationAccumulatorTest {
+
+    private static Duration randomDuration(final Random random) {
+        switch (random.nextInt(4)) {
+            case 0:
+                return new Duration(random.nextInt(1000) * 1000000000L, 0, 0, 0);
+            case 1:
+                return new Duration(0, random.nextInt(30), 0, 0);
+            case 2:
+                return new Duration(0, 0, random.nextInt(12), 0);
+            default:
+                return new Duration(random.nextInt(100000), random.nextInt(30),
+                        random.nextInt(12), random.nextInt(100));
+        }
+    }
+
+    private static Number randomNumber(final Random random) {
+        switch (random.nextInt(3)) {
+            case 0:
+                return new Number(random.nextInt(100));
+            case 1:
+                return new Number(random.nextInt(20) / 4.0);
+            default:
+                return new Number(random.nextDouble() * 100);
+        }
+    }
+
+    private static void assertSameDuration(final Duration expected, final Duration actual) {
+        assertEquals(expected.nanos, actual.nanos);
+        assertEquals(expected.days, actual.days);
+        assertEquals(expected.months, actual.months);
+        assertEquals(expected.years, actual.years);
+    }
+
+    @Test
+    public void testSameAsDuration() {
+        final Random random = new Random(42);
+        final DurationAccumulator accumulator = new DurationAccumulator();
+        for (int i = 0; i < 100; ++i) {
+            Duration expected = randomDuration(random);
+            accumulator.set(expected);
+            for (int j = 0; j < 10; ++j) {
+                final Duration duration = randomDuration(random);
+                if (random.nextBoolean()) {
+                    expected = expected.plus(duration);
+                    accumulator.plus(duration);
+                } else {
+                    final Number number = randomNumber(random);
+                    expected = expected.plus(duration.multiply(number));
+                    accumulator.plusProduct(duration, number);
+                }
+                assertSameDuration(expected, accumulator.toDuration());
+            }
+            assertFalse(accumulator.getHasOverflowed());
+        }
+    }
+
+    @Test
+    public void testFractionalUnits() {
+        final DurationAccumulator accumulator = new DurationAccumulator();
+        assertSameDuration(new Duration(6 * 3600 * 1000000000L, 1, 0, 0),
+                accumulator.plusProduct(new Duration(0, 1, 0, 0), 1.25).toDuration());
+        assertSameDuration(new Duration(6 * 3600 * 1000000000L, 1, 3, 2),
+                accumulator.plusProduct(new Duration(0, 0, 0, 1), 2.25).toDuration());
+        assertSameDuration(new Duration(0, 0, 0, 0),
+                accumulator.reset().toDuration());
+    }
+
+    @Test
+    public void testOverflow() {
+        final DurationAccumulator accumulator = new DurationAccumulator()
+                .set(new Duration(Long.MAX_VALUE - 1, 0, 0, 0));
+        accumulator.plus(new Duration(1, 0, 0, 0));
+        assertFalse(accumulator.getHasOverflowed());
+        accumulator.plus(new Duration(1, 0, 0, 0));
+        assertTrue(accumulator.getHasOverflowed());
+        assertEquals(Long.MAX_VALUE, accumulator.toDuration().nanos);
+
+        accumulator.reset().plusProduct(new Duration(0, 0, 0, -3), Long.MAX_VALUE);
+        assertTrue(accumulator.getHasOverflowed());
+        assertEquals(Long.MIN_VALUE, accumulator.toDuration().years);
+
+        accumulator.set(new Duration(0, 0, 5, 0));
+        assertFalse(accumulator.getHasOverflowed());
+        assertEquals(5, accumulator.toDuration().months);
+    }
+}
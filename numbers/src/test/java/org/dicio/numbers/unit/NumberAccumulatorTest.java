@@ -0,0 +1,134 @@
+package org.dicio.numbers.unit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+public class NumberAccumulatorTest {
+
+    private static Number randomNumber(final Random random) {
+        switch (random.nextInt(4)) {
+            case 0:
+                return new Number(random.nextInt(2000) - 1000);
+            case 1:
+                return new Number(random.nextLong());
+            case 2:
+                return new Number((random.nextDouble() - 0.5) * 1e6);
+            default:
+                return new Number(1 + random.nextInt(20));
+        }
+    }
+
+    @Test
+    public void testSameAsNumber() {
+        final Random random = new Random(42);
+        for (int i = 0; i < 1000; ++i) {
+            Number expected = randomNumber(random).withOrdinal(random.nextBoolean());
+            final NumberAccumulator accumulator = new NumberAccumulator().set(expected);
+
+            for (int j = 0; j < 10; ++j) {
+                final Number operand = randomNumber(random);
+                switch (random.nextInt(4)) {
+                    case 0:
+                        expected = expected.plus(operand);
+                        accumulator.plus(operand);
+                        break;
+                    case 1:
+                        expected = expected.multiply(operand);
+                        accumulator.multiply(operand);
+                        break;
+                    case 2:
+                        expected = expected.divide(operand);
+                        accumulator.divide(operand);
+                        break;
+                    default:
+                        expected = expected.plus(operand.multiply(0.01));
+                        accumulator.plusProduct(operand, 0.01);
+                        break;
+                }
+                assertEquals(expected, accumulator.toNumber());
+                assertEquals(expected.toString(), accumulator.toString());
+            }
+        }
+    }
+
+    @Test
+    public void testOverflow() {
+        final NumberAccumulator accumulator = new NumberAccumulator().set(new Number(Long.MAX_VALUE));
+        assertFalse(accumulator.isDecimal());
+        accumulator.plus(1);
+        assertTrue(accumulator.isDecimal());
+        assertEquals(Long.MAX_VALUE + 1.0, accumulator.decimalValue(), 0.0);
+
+        accumulator.set(new Number(Long.MIN_VALUE / 2)).multiply(2);
+        assertFalse(accumulator.isDecimal());
+        assertEquals(Long.MIN_VALUE, accumulator.integerValue());
+        accumulator.multiply(-1);
+        assertTrue(accumulator.isDecimal());
+        assertEquals(-(double) Long.MIN_VALUE, accumulator.decimalValue(), 0.0);
+    }
+
+    @Test
+    public void testOrdinal() {
+        final NumberAccumulator accumulator = new NumberAccumulator().set(new Number(3, true));
+        assertTrue(accumulator.isOrdinal());
+        assertTrue(accumulator.plus(4).toNumber().isOrdinal());
+        accumulator.setOrdinal(false);
+        assertEquals(new Number(7), accumulator.toNumber());
+        assertSame(accumulator, accumulator.plus(1.5));
+        assertEquals(new Number(8.5), accumulator.toNumber());
+    }
+
+    @Test
+    public void testDecimalDigits() {
+        final NumberAccumulator accumulator = new NumberAccumulator().set(new Number(7));
+        final StringBuilder expected = new StringBuilder("7.");
+        final Random random = new Random(42);
+        for (int i = 0; i < 50; ++i) { // more than the 18 digits that fit in a long
+            final int digit = random.nextInt(10);
+            accumulator.plusDecimalDigit(digit);
+            expected.append(digit);
+        }
+
+        final Number number = accumulator.toNumber();
+        assertTrue(number.isDecimal);
+        assertTrue(number.isExact());
+        assertEquals(new BigDecimal(expected.toString()), number.toBigDecimal());
+        assertEquals(Double.parseDouble(expected.toString()), number.decimalValue(), 0.0);
+
+        // operations after the digits keep the value exact
+        assertEquals(new BigDecimal(expected.toString()).multiply(BigDecimal.TEN),
+                accumulator.multiply(10).toNumber().toBigDecimal());
+        assertEquals(new BigDecimal("0.25"),
+                accumulator.set(new Number(0)).plusDecimalDigit(2).plusDecimalDigit(5)
+                        .toNumber().toBigDecimal());
+
+        // digits added to an inexact value are not exact
+        assertFalse(new NumberAccumulator().set(new Number(0.1)).plusDecimalDigit(5).toNumber()
+                .isExact());
+        assertFalse(accumulator.plus(0.5).toNumber().isExact());
+    }
+
+    @Test
+    public void testExactOverflow() {
+        final Number overflown = new NumberAccumulator(true).set(new Number(Long.MAX_VALUE))
+                .plus(1).toNumber();
+        assertTrue(overflown.isDecimal);
+        assertTrue(overflown.isExact());
+        assertEquals(BigDecimal.valueOf(Long.MAX_VALUE).add(BigDecimal.ONE),
+                overflown.toBigDecimal());
+        assertEquals(new BigDecimal("85070591730234615847396907784232501249"),
+                new NumberAccumulator(true).set(new Number(Long.MAX_VALUE))
+                        .multiply(Long.MAX_VALUE).toNumber().toBigDecimal());
+
+        // overflowing is not exact by default, like with Number
+        assertFalse(new NumberAccumulator().set(new Number(Long.MAX_VALUE)).plus(1).toNumber()
+                .isExact());
+    }
+}
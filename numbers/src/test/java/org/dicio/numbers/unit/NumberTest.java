@@ -3,6 +3,8 @@ package org.dicio.numbers.unit;
 import org.dicio.numbers.unit.Number;
 import org.junit.Test;
 
+import java.math.BigDecimal;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
@@ -91,4 +93,43 @@ public class NumberTest {
         assertFalse(new Number(45234.254).equals(767));
         assertFalse(new Number(234.0).equals(234));
     }
+
+    @Test
+    public void exact() {
+        assertTrue(new Number(12).isExact());
+        assertFalse(new Number(0.1).isExact());
+        assertTrue(new Number(new BigDecimal("0.1")).isExact());
+        assertEquals(new BigDecimal("0.1"), new Number(0.1).toBigDecimal());
+        assertEquals(new BigDecimal(-35), new Number(-35).toBigDecimal());
+
+        // overflowing just switches to doubles, see NumberAccumulator for keeping exact values
+        final Number overflown = new Number(Long.MAX_VALUE).plus(1);
+        assertTrue(overflown.isDecimal);
+        assertFalse(overflown.isExact());
+        assertFalse(new Number(Long.MAX_VALUE).multiply(Long.MAX_VALUE).isExact());
+
+        // operations keep track of the exact value
+        final Number exact = new Number(new BigDecimal("0.1"));
+        assertEquals(new BigDecimal("0.3"), exact.plus(new Number(new BigDecimal("0.2")))
+                .toBigDecimal());
+        assertEquals(new BigDecimal("1.1"), exact.plus(1).toBigDecimal());
+        assertEquals(new BigDecimal("0.7"), exact.multiply(7).toBigDecimal());
+        assertTrue(exact.withOrdinal(true).isExact());
+        assertEquals(new BigDecimal("0.05"), exact.divide(2).toBigDecimal());
+        assertEquals(new BigDecimal("2.1"), new Number(2).plus(exact).toBigDecimal());
+
+        // operations with inexact doubles are not exact
+        assertFalse(exact.plus(0.2).isExact());
+        assertFalse(exact.multiply(3.0).isExact());
+        assertFalse(exact.divide(new Number(0.2)).isExact());
+        assertFalse(new Number(0.1).plus(exact).isExact());
+        assertFalse(new Number(Long.MAX_VALUE).plus(1).plus(exact).isExact());
+    }
+
+    @Test
+    public void exactEquality() {
+        // the exact value does not influence equality
+        assertEquals(new Number(0.1), new Number(new BigDecimal("0.1")));
+        assertEquals(new Number(0.1).hashCode(), new Number(new BigDecimal("0.1")).hashCode());
+    }
 }
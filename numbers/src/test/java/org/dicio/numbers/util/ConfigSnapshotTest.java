@@ -0,0 +1,150 @@
+package org.dicio.numbers.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import org.dicio.numbers.formatter.datetime.DateTimeConfig;
+import org.dicio.numbers.formatter.datetime.FormatStringCollection;
+import org.dicio.numbers.parser.lexer.Categories;
+import org.dicio.numbers.parser.lexer.DurationToken;
+import org.dicio.numbers.parser.lexer.Token;
+import org.dicio.numbers.parser.lexer.Tokenizer;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ConfigSnapshotTest {
+
+    private static final Map<String, String> ANY_KEY = new HashMap<String, String>() {
+        @Override
+        public boolean containsKey(final Object key) {
+            return true;
+        }
+
+        @Override
+        public String get(final Object key) {
+            return "<" + key + ">";
+        }
+    };
+
+    private static byte[] writeSnapshot(final String configFolder) {
+        return ConfigSnapshot.INSTANCE.write(new Tokenizer(configFolder, null),
+                new DateTimeConfig(configFolder, null));
+    }
+
+    private static void assertTokenizedTheSame(final String configFolder, final String s) {
+        final byte[] snapshot = writeSnapshot(configFolder);
+        final List<Token> expected = new Tokenizer(configFolder, null).tokenize(s);
+        final List<Token> actual = new Tokenizer(configFolder, ConfigSnapshot.INSTANCE.read(
+                ByteBuffer.wrap(snapshot), ConfigSnapshot.TOKENIZER_SECTION)).tokenize(s);
+
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); ++i) {
+            final Token e = expected.get(i);
+            final Token a = actual.get(i);
+            final String message = "Token " + i + " \"" + e.getValue() + "\"";
+            assertEquals(message, e.getClass(), a.getClass());
+            assertEquals(message, e.getValue(), a.getValue());
+            assertEquals(message, e.getSpacesFollowing(), a.getSpacesFollowing());
+            assertEquals(message, e.positionInOriginalString, a.positionInOriginalString);
+            assertEquals(message, e.getNumber(), a.getNumber());
+            for (int category = 0; category < Categories.FIXED_COUNT; ++category) {
+                assertEquals(message, e.hasCategory(category), a.hasCategory(category));
+            }
+            for (final String category : new String[] {"compound_word_piece", "positive", "x"}) {
+                assertEquals(message, e.hasCategory(category), a.hasCategory(category));
+            }
+
+            final DurationToken ed = e.getAsDurationToken();
+            final DurationToken ad = a.getAsDurationToken();
+            assertEquals(message, ed == null, ad == null);
+            if (ed != null) {
+                assertEquals(message, ed.getDurationCategory(), ad.getDurationCategory());
+                assertEquals(message, ed.getDurationMultiplier().toString(),
+                        ad.getDurationMultiplier().toString());
+                assertEquals(message, ed.isRestrictedAfterNumber(), ad.isRestrictedAfterNumber());
+            }
+        }
+    }
+
+    private static void assertFormatsTheSame(final FormatStringCollection expected,
+                                             final FormatStringCollection actual) {
+        // negative numbers are matched with the lazily compiled regex instead of the digit shapes
+        for (int i = -1000; i < 10000; ++i) {
+            assertEquals(expected.getMostSuitableFormatString(i).format(ANY_KEY),
+                    actual.getMostSuitableFormatString(i).format(ANY_KEY));
+        }
+    }
+
+    private static void assertDateTimeConfigTheSame(final String configFolder) {
+        final byte[] snapshot = writeSnapshot(configFolder);
+        final DateTimeConfig expected = new DateTimeConfig(configFolder, null);
+        final DateTimeConfig actual = new DateTimeConfig(configFolder, ConfigSnapshot.INSTANCE
+                .read(ByteBuffer.wrap(snapshot), ConfigSnapshot.DATE_TIME_SECTION));
+
+        assertFormatsTheSame(expected.decadeFormat, actual.decadeFormat);
+        assertFormatsTheSame(expected.hundredFormat, actual.hundredFormat);
+        assertFormatsTheSame(expected.thousandFormat, actual.thousandFormat);
+        assertFormatsTheSame(expected.yearFormat, actual.yearFormat);
+        assertEquals(expected.bc, actual.bc);
+        assertEquals(expected.dateFormatFull.format(ANY_KEY), actual.dateFormatFull.format(ANY_KEY));
+        assertEquals(expected.dateFormatFullNoYear.format(ANY_KEY),
+                actual.dateFormatFullNoYear.format(ANY_KEY));
+        assertEquals(expected.dateFormatFullNoYearMonth.format(ANY_KEY),
+                actual.dateFormatFullNoYearMonth.format(ANY_KEY));
+        assertEquals(expected.dateTimeFormat.format(ANY_KEY), actual.dateTimeFormat.format(ANY_KEY));
+        assertEquals(expected.today, actual.today);
+        assertEquals(expected.tomorrow, actual.tomorrow);
+        assertEquals(expected.yesterday, actual.yesterday);
+        assertEquals(expected.weekdayNames, actual.weekdayNames);
+        assertEquals(expected.dayNames, actual.dayNames);
+        assertEquals(expected.monthNames, actual.monthNames);
+        assertEquals(expected.numbers, actual.numbers);
+        assertEquals(expected.dayWord, actual.dayWord);
+        assertEquals(expected.daysWord, actual.daysWord);
+        assertEquals(expected.hourWord, actual.hourWord);
+        assertEquals(expected.hoursWord, actual.hoursWord);
+        assertEquals(expected.minuteWord, actual.minuteWord);
+        assertEquals(expected.minutesWord, actual.minutesWord);
+        assertEquals(expected.secondWord, actual.secondWord);
+        assertEquals(expected.secondsWord, actual.secondsWord);
+    }
+
+    @Test
+    public void testEnglishRoundTrip() {
+        assertTokenizedTheSame("config/en-us", "Set a timer for two hours and 3 minutes, the 23rd"
+                + " of may at 5 p.m.; a million and a half tenths, one hundred thousand seconds,"
+                + " twelve dozen mins ago, next weeks, first, second, thirty-fourth 1/2 -7.5");
+        assertDateTimeConfigTheSame("config/en-us");
+    }
+
+    @Test
+    public void testItalianRoundTrip() {
+        assertTokenizedTheSame("config/it-it", "Imposta un timer di duemilanovecentosettantaquattro"
+                + " secondi e ventitré minuti, il centoventottesimo giorno, mezzogiorno, dopodomani"
+                + " alle diciassette e un quarto, Millenovecentottantaquattro; settimane, mesi, 3°");
+        assertDateTimeConfigTheSame("config/it-it");
+    }
+
+    @Test
+    public void testInvalidSnapshot() {
+        assertNull(ConfigSnapshot.INSTANCE.read(ByteBuffer.wrap(new byte[] {1, 2, 3}),
+                ConfigSnapshot.TOKENIZER_SECTION));
+
+        final byte[] snapshot = writeSnapshot("config/en-us");
+        assertNotNull(ConfigSnapshot.INSTANCE.read(ByteBuffer.wrap(snapshot),
+                ConfigSnapshot.TOKENIZER_SECTION));
+        ++snapshot[7]; // change the version
+        assertNull(ConfigSnapshot.INSTANCE.read(ByteBuffer.wrap(snapshot),
+                ConfigSnapshot.TOKENIZER_SECTION));
+    }
+
+    @Test
+    public void testMissingSnapshot() {
+        assertNull(ConfigSnapshot.INSTANCE.open("config/missing", ConfigSnapshot.TOKENIZER_SECTION));
+    }
+}
@@ -0,0 +1,44 @@
+package org.dicio.numbers.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+public class LruCacheTest {
+
+    @Test
+    public void testEviction() {
+        final LruCache<String, Integer> cache = new LruCache<>(2);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        assertEquals(1, (int) cache.get("a")); // now "b" is the least recently used
+        cache.put("c", 3);
+
+        assertEquals(2, cache.getSize());
+        assertNull(cache.get("b"));
+        assertEquals(1, (int) cache.get("a"));
+        assertEquals(3, (int) cache.get("c"));
+    }
+
+    @Test
+    public void testCounts() {
+        final LruCache<String, Integer> cache = new LruCache<>(10);
+        assertNull(cache.get("a"));
+        assertEquals(1, (int) cache.getOrPut("a", () -> 1));
+        assertEquals(1, (int) cache.getOrPut("a", () -> 2));
+        assertEquals(1, (int) cache.get("a"));
+        assertEquals(2, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+
+        cache.clear();
+        assertEquals(0, cache.getSize());
+        assertNull(cache.get("a"));
+        assertEquals(3, cache.getMissCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidSize() {
+        new LruCache<String, Integer>(0);
+    }
+}
@@ -0,0 +1,48 @@
+package org.dicio.numbers.util;
+
+import static org.dicio.numbers.util.Utils.removeRedundantSpaces;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+public class RedundantSpacesRemoverTest {
+
+    private static String removeAppendingInChunks(final String s, final Random random) {
+        final StringBuilder result = new StringBuilder();
+        final RedundantSpacesRemover remover = new RedundantSpacesRemover(result);
+        int i = 0;
+        while (i < s.length()) {
+            final int end = Math.min(s.length(), i + random.nextInt(4));
+            if (end == i + 1 && random.nextBoolean()) {
+                remover.append(s.charAt(i));
+            } else {
+                remover.append(s, i, end);
+            }
+            i = end;
+        }
+        return result.toString();
+    }
+
+    @Test
+    public void testSameAsRemoveRedundantSpaces() {
+        final Random random = new Random(42);
+        final char[] chars = {' ', ' ', ' ', '\t', '\n', 'a', 'b', '.'};
+        for (int i = 0; i < 1000; ++i) {
+            final StringBuilder s = new StringBuilder();
+            for (int j = random.nextInt(15); j > 0; --j) {
+                s.append(chars[random.nextInt(chars.length)]);
+            }
+            assertEquals(removeRedundantSpaces(s.toString()),
+                    removeAppendingInChunks(s.toString(), random));
+        }
+    }
+
+    @Test
+    public void testDoesNotTouchPreviousContent() {
+        final StringBuilder result = new StringBuilder("  before  ");
+        new RedundantSpacesRemover(result).append("   eight  hundred b.c.   ");
+        assertEquals("  before  eight hundred b.c.", result.toString());
+    }
+}
@@ -3,11 +3,13 @@ package org.dicio.numbers.util;
 import org.junit.Test;
 
 import static org.dicio.numbers.util.Utils.WHOLE_NUMBER_ACCURACY;
+import static org.dicio.numbers.util.Utils.additionOverflows;
 import static org.dicio.numbers.util.Utils.containsCodePoint;
 import static org.dicio.numbers.util.Utils.decimalPlacesNoFinalZeros;
 import static org.dicio.numbers.util.Utils.firstNotNull;
 import static org.dicio.numbers.util.Utils.isWhole;
 import static org.dicio.numbers.util.Utils.longPow;
+import static org.dicio.numbers.util.Utils.multiplicationOverflows;
 import static org.dicio.numbers.util.Utils.removeRedundantSpaces;
 import static org.dicio.numbers.util.Utils.roundToLong;
 import static org.dicio.numbers.util.Utils.splitByModulus;
@@ -104,6 +106,33 @@ public class UtilsTest {
         assertEquals("eight hundred", removeRedundantSpaces(" eight hundred "));
     }
 
+    @Test
+    public void testOverflows() {
+        final long[] values = {0, 1, -1, 2, -2, 3, 1000, -1000, 3037000499L, 3037000500L,
+                -3037000500L, Integer.MAX_VALUE, Integer.MIN_VALUE, Long.MAX_VALUE,
+                Long.MIN_VALUE, Long.MAX_VALUE / 2, Long.MIN_VALUE / 2, Long.MAX_VALUE / 3 + 1};
+        for (final long a : values) {
+            for (final long b : values) {
+                boolean expected;
+                try {
+                    Math.addExact(a, b);
+                    expected = false;
+                } catch (final ArithmeticException e) {
+                    expected = true;
+                }
+                assertEquals(a + " + " + b, expected, additionOverflows(a, b));
+
+                try {
+                    Math.multiplyExact(a, b);
+                    expected = false;
+                } catch (final ArithmeticException e) {
+                    expected = true;
+                }
+                assertEquals(a + " * " + b, expected, multiplicationOverflows(a, b));
+            }
+        }
+    }
+
     @Test
     public void testContainsCodePointTrue() {
         assertTrue(containsCodePoint("abcde", "a".codePointAt(0)));
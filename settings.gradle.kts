@@ -12,3 +12,4 @@ dependencyResolutionManagement {
 }
 
 include(":numbers")
+include(":numbers-jmh")